@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.adapter.grpc;
 
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.Resource;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
@@ -31,6 +32,8 @@ import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -60,13 +63,18 @@ public class SentinelGrpcClientInterceptor implements ClientInterceptor {
     private static final Status FLOW_CONTROL_BLOCK = Status.UNAVAILABLE.withDescription(
             "Flow control limit exceeded (client side)");
 
+    /**
+     * Resource handles of each method, so that the resource is not resolved again on every call.
+     */
+    private final ConcurrentMap<String, Resource> resources = new ConcurrentHashMap<>();
+
     @Override
     public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> methodDescriptor,
                                                                CallOptions callOptions, Channel channel) {
         String fullMethodName = methodDescriptor.getFullMethodName();
         Entry entry = null;
         try {
-            entry = SphU.asyncEntry(fullMethodName, EntryType.OUT);
+            entry = getResource(fullMethodName).asyncEntry();
             final AtomicReference<Entry> atomicReferenceEntry = new AtomicReference<>(entry);
             // Allow access, forward the call.
             return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(
@@ -139,4 +147,12 @@ public class SentinelGrpcClientInterceptor implements ClientInterceptor {
             throw e;
         }
     }
+
+    private Resource getResource(String fullMethodName) {
+        Resource resource = resources.get(fullMethodName);
+        if (resource == null) {
+            resource = resources.computeIfAbsent(fullMethodName, name -> SphU.resource(name, EntryType.OUT));
+        }
+        return resource;
+    }
 }
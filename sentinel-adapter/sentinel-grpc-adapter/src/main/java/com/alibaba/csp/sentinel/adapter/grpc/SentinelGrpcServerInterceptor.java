@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.adapter.grpc;
 
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.Resource;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
@@ -29,6 +30,8 @@ import io.grpc.ServerInterceptor;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -51,13 +54,18 @@ public class SentinelGrpcServerInterceptor implements ServerInterceptor {
             "Flow control limit exceeded (server side)");
     private static final StatusRuntimeException STATUS_RUNTIME_EXCEPTION = new StatusRuntimeException(Status.CANCELLED);
 
+    /**
+     * Resource handles of each method, so that the resource is not resolved again on every call.
+     */
+    private final ConcurrentMap<String, Resource> resources = new ConcurrentHashMap<>();
+
     @Override
     public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
         String fullMethodName = call.getMethodDescriptor().getFullMethodName();
         // Remote address: serverCall.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
         Entry entry = null;
         try {
-            entry = SphU.asyncEntry(fullMethodName, EntryType.IN);
+            entry = getResource(fullMethodName).asyncEntry();
             final AtomicReference<Entry> atomicReferenceEntry = new AtomicReference<>(entry);
             // Allow access, forward the call.
             return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(
@@ -106,4 +114,12 @@ public class SentinelGrpcServerInterceptor implements ServerInterceptor {
             throw e;
         }
     }
+
+    private Resource getResource(String fullMethodName) {
+        Resource resource = resources.get(fullMethodName);
+        if (resource == null) {
+            resource = resources.computeIfAbsent(fullMethodName, name -> SphU.resource(name, EntryType.IN));
+        }
+        return resource;
+    }
 }
@@ -15,10 +15,12 @@
  */
 package com.alibaba.csp.sentinel.adapter.reactor;
 
+import java.time.Duration;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.context.Context;
@@ -42,9 +44,13 @@ public final class ReactorSphU {
         final AtomicReference<AsyncEntry> entryWrapper = new AtomicReference<>(null);
         return Mono.defer(() -> {
             try {
-                AsyncEntry entry = SphU.asyncEntry(resourceName, entryType);
+                AsyncEntry entry = SphU.asyncEntryWithPacing(resourceName, ResourceTypeConstants.COMMON, entryType,
+                    1, new Object[0]);
                 entryWrapper.set(entry);
-                return actual.subscriberContext(context -> {
+                long delayNanos = entry.getPacingDelayNanos();
+                // Queued requests are delayed on the timer instead of blocking current thread.
+                Mono<R> source = delayNanos > 0 ? Mono.delay(Duration.ofNanos(delayNanos)).then(actual) : actual;
+                return source.subscriberContext(context -> {
                     if (entry == null) {
                         return context;
                     }
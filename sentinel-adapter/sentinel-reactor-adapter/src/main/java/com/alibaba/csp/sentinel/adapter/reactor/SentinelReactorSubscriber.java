@@ -16,7 +16,9 @@
 package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
 import com.alibaba.csp.sentinel.SphU;
@@ -28,6 +30,9 @@ import com.alibaba.csp.sentinel.util.function.Supplier;
 
 import org.reactivestreams.Subscription;
 import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.context.Context;
 
 /**
@@ -44,6 +49,14 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
     private volatile AsyncEntry currentEntry;
     private final AtomicBoolean entryExited = new AtomicBoolean(false);
 
+    /**
+     * Whether the request is queued by rate limiting and waits for its pass time, during which
+     * downstream requests are held back in {@link #pendingRequested}.
+     */
+    private volatile boolean pacing = false;
+    private volatile Disposable pacingTask;
+    private final AtomicLong pendingRequested = new AtomicLong();
+
     public SentinelReactorSubscriber(EntryConfig entryConfig,
                                      CoreSubscriber<? super T> actual,
                                      boolean unary) {
@@ -89,10 +102,24 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
             ContextUtil.enter(sentinelContextConfig.getContextName(), sentinelContextConfig.getOrigin());
         }
         try {
-            AsyncEntry entry = SphU.asyncEntry(entryConfig.getResourceName(), entryConfig.getResourceType(),
-                entryConfig.getEntryType(), entryConfig.getAcquireCount(), entryConfig.getArgs());
+            // Never sleep in current thread (which might be an event-loop thread) for rate limiting.
+            AsyncEntry entry = SphU.asyncEntryWithPacing(entryConfig.getResourceName(),
+                entryConfig.getResourceType(), entryConfig.getEntryType(), entryConfig.getAcquireCount(),
+                entryConfig.getArgs());
             this.currentEntry = entry;
-            actual.onSubscribe(this);
+            long delayNanos = entry.getPacingDelayNanos();
+            if (delayNanos > 0) {
+                // The request is queued, so the downstream can subscribe (and cancel) at once,
+                // but its requests are not passed to the upstream until the expected pass time.
+                pacing = true;
+                actual.onSubscribe(this);
+                if (!isDisposed()) {
+                    pacingTask = Schedulers.parallel().schedule(this::finishPacing, delayNanos,
+                        TimeUnit.NANOSECONDS);
+                }
+            } else {
+                actual.onSubscribe(this);
+            }
         } catch (BlockException ex) {
             // Mark as completed (exited) explicitly.
             entryExited.set(true);
@@ -107,6 +134,33 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
         }
     }
 
+    private void finishPacing() {
+        pacing = false;
+        drainPendingRequested();
+    }
+
+    private void drainPendingRequested() {
+        long n = pendingRequested.getAndSet(0);
+        if (n > 0) {
+            super.request(n);
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        if (!pacing) {
+            super.request(n);
+            return;
+        }
+        if (Operators.validate(n)) {
+            pendingRequested.getAndUpdate(r -> Operators.addCap(r, n));
+            // The pacing may have finished before the requests were recorded.
+            if (!pacing) {
+                drainPendingRequested();
+            }
+        }
+    }
+
     @Override
     protected void hookOnSubscribe(Subscription subscription) {
         doWithContextOrCurrent(() -> currentContext().getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY),
@@ -155,6 +209,10 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
 
     @Override
     protected void hookOnCancel() {
+        Disposable task = pacingTask;
+        if (task != null) {
+            task.dispose();
+        }
         tryCompleteEntry();
     }
 
@@ -3,12 +3,17 @@ package com.alibaba.csp.sentinel.adapter.reactor;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
@@ -184,6 +189,59 @@ public class MonoSentinelOperatorIntegrationTest {
         FlowRuleManager.loadRules(new ArrayList<>());
     }
 
+    @Test
+    public void testRateLimiterQueueingWithoutBlocking() throws InterruptedException {
+        String resourceName = createResourceName("testRateLimiterQueueingWithoutBlocking");
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(resourceName).setCount(10)
+                .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER).setMaxQueueingTimeMs(1000)
+        ));
+        int requests = 3;
+        CountDownLatch latch = new CountDownLatch(requests);
+        AtomicInteger successCount = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < requests; i++) {
+            Mono.just(1)
+                .transform(new SentinelReactorTransformer<>(resourceName))
+                .subscribe(v -> successCount.incrementAndGet(), e -> latch.countDown(), latch::countDown);
+        }
+        // Queued requests should not block the subscribing thread.
+        assertTrue(System.currentTimeMillis() - start < 150);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 150);
+        assertEquals(requests, successCount.get());
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Test
+    public void testTimeoutCancelsQueuedRequest() {
+        String resourceName = createResourceName("testTimeoutCancelsQueuedRequest");
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(resourceName).setCount(1)
+                .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER).setMaxQueueingTimeMs(2000)
+        ));
+        StepVerifier.create(Mono.just(1)
+            .transform(new SentinelReactorTransformer<>(resourceName)))
+            .expectNext(1)
+            .verifyComplete();
+
+        // The next request is queued for about one second, but the downstream can still cancel it.
+        long start = System.currentTimeMillis();
+        StepVerifier.create(Mono.just(2)
+            .transform(new SentinelReactorTransformer<>(resourceName))
+            .timeout(Duration.ofMillis(100)))
+            .expectError(TimeoutException.class)
+            .verify(Duration.ofSeconds(2));
+        assertTrue(System.currentTimeMillis() - start < 500);
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(0, cn.curThreadNum());
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
     private String createResourceName(String resourceName) {
         return "reactor_test_mono_" + resourceName;
     }
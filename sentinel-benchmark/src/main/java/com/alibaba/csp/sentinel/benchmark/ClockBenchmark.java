@@ -0,0 +1,93 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.Clock;
+import com.alibaba.csp.sentinel.util.clock.NanoTimeClock;
+import com.alibaba.csp.sentinel.util.clock.SampledClock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Read cost of the clocks behind {@link TimeUtil#currentTimeMillis()}, compared with reading
+ * {@link System#currentTimeMillis()} directly. The warmup is long enough for the adaptive clocks
+ * to switch to the ticking mode.</p>
+ *
+ * @since 1.8.9
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ClockBenchmark {
+
+    @Param({"system", "adaptive", "sampled", "nano"})
+    private String clockType;
+
+    private Clock clock;
+
+    @Setup
+    public void prepare() {
+        if ("adaptive".equals(clockType)) {
+            final TimeUtil timeUtil = new TimeUtil();
+            clock = new Clock() {
+                @Override
+                public long currentTimeMillis() {
+                    return timeUtil.getTime();
+                }
+            };
+        } else if ("sampled".equals(clockType)) {
+            clock = new SampledClock();
+        } else if ("nano".equals(clockType)) {
+            clock = new NanoTimeClock();
+        } else {
+            clock = new Clock() {
+                @Override
+                public long currentTimeMillis() {
+                    return System.currentTimeMillis();
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long test1ThreadRead() {
+        return clock.currentTimeMillis();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long test8ThreadsRead() {
+        return clock.currentTimeMillis();
+    }
+}
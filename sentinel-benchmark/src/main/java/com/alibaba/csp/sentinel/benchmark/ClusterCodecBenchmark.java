@@ -0,0 +1,153 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.DefaultRequestEntityWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.RequestDataWriterRegistry;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.codec.DefaultResponseEntityWriter;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowResponseDataWriter;
+import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyResponseEncoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.ResponseDataWriterRegistry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for encoding flow token requests and responses into frames, comparing the encoders writing the
+ * length field in place with the former pipelines prepending it through {@link LengthFieldPrepender}.</p>
+ *
+ * <p>Run with {@code -prof gc} to see the allocation per message ({@code gc.alloc.rate.norm}).</p>
+ *
+ * @since 1.8.9
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ClusterCodecBenchmark {
+
+    private static final int XID = 1;
+    private static final long FLOW_ID = 1001L;
+
+    private final ClusterRequest<FlowRequestData> request = new ClusterRequest<>(XID, ClusterConstants.MSG_TYPE_FLOW,
+        new FlowRequestData().setFlowId(FLOW_ID).setCount(1));
+    private final ClusterResponse<FlowTokenResponseData> response = new ClusterResponse<>(XID,
+        ClusterConstants.MSG_TYPE_FLOW, ClusterConstants.RESPONSE_STATUS_OK,
+        new FlowTokenResponseData().setRemainingCount(10).setWaitInMs(0));
+
+    private EmbeddedChannel requestChannel;
+    private EmbeddedChannel prependedRequestChannel;
+    private EmbeddedChannel responseChannel;
+    private EmbeddedChannel prependedResponseChannel;
+
+    @Setup
+    public void prepare() {
+        RequestDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestDataWriter());
+        ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW, new FlowResponseDataWriter());
+
+        requestChannel = new EmbeddedChannel(new NettyRequestEncoder());
+        prependedRequestChannel = new EmbeddedChannel(new LengthFieldPrepender(2), new PlainRequestEncoder());
+        responseChannel = new EmbeddedChannel(new NettyResponseEncoder());
+        prependedResponseChannel = new EmbeddedChannel(new LengthFieldPrepender(2), new PlainResponseEncoder());
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestChannel.finishAndReleaseAll();
+        prependedRequestChannel.finishAndReleaseAll();
+        responseChannel.finishAndReleaseAll();
+        prependedResponseChannel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int testEncodeFlowRequest() {
+        return writeAndRelease(requestChannel, request);
+    }
+
+    @Benchmark
+    public int testEncodeFlowRequestPrepended() {
+        return writeAndRelease(prependedRequestChannel, request);
+    }
+
+    @Benchmark
+    public int testEncodeFlowResponse() {
+        return writeAndRelease(responseChannel, response);
+    }
+
+    @Benchmark
+    public int testEncodeFlowResponsePrepended() {
+        return writeAndRelease(prependedResponseChannel, response);
+    }
+
+    private static int writeAndRelease(EmbeddedChannel channel, Object message) {
+        channel.writeOutbound(message);
+        int length = 0;
+        ByteBuf buf;
+        while ((buf = channel.readOutbound()) != null) {
+            length += buf.readableBytes();
+            buf.release();
+        }
+        return length;
+    }
+
+    /**
+     * The request encoder without the length field, as before the length field was written in place.
+     */
+    private static class PlainRequestEncoder extends MessageToByteEncoder<ClusterRequest> {
+
+        private final DefaultRequestEntityWriter writer = new DefaultRequestEntityWriter();
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ClusterRequest request, ByteBuf out) {
+            writer.writeTo(request, out);
+        }
+    }
+
+    /**
+     * The response encoder without the length field, as before the length field was written in place.
+     */
+    private static class PlainResponseEncoder extends MessageToByteEncoder<ClusterResponse> {
+
+        private final DefaultResponseEntityWriter writer = new DefaultResponseEntityWriter();
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ClusterResponse response, ByteBuf out) {
+            writer.writeTo(response, out);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.metric.BucketLeapArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Contention benchmark for window rotation of a single hot {@link BucketLeapArray}, comparing the
+ * lock-based rotation with the lock-free (CAS) rotation.</p>
+ *
+ * <p>Short windows are used so that many bucket boundaries are crossed during one iteration.
+ * The sample-time mode reports the latency percentiles, where the boundary spikes show up.</p>
+ *
+ * @since 1.8.9
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LeapArrayRotationBenchmark {
+
+    @Param({SentinelConfig.STATISTIC_WINDOW_ROTATION_LOCK, SentinelConfig.STATISTIC_WINDOW_ROTATION_CAS})
+    private String rotation;
+
+    @Param({"10", "500"})
+    private int windowLengthInMs;
+
+    private BucketLeapArray leapArray;
+
+    @Setup
+    public void prepare() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_WINDOW_ROTATION, rotation);
+        leapArray = new BucketLeapArray(2, windowLengthInMs * 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_WINDOW_ROTATION);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void test8ThreadsAddPass() {
+        leapArray.currentWindow().value().addPass(1);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void test64ThreadsAddPass() {
+        leapArray.currentWindow().value().addPass(1);
+    }
+}
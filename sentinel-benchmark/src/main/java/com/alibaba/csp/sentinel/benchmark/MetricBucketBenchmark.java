@@ -0,0 +1,89 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.StripedMetricBucket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for the {@link MetricBucket} implementations on the {@code StatisticSlot} write path.</p>
+ *
+ * <p>Run with {@code -prof gc} to compare the allocation of {@link #newBucket()} between bucket types.</p>
+ *
+ * @since 1.8.9
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MetricBucketBenchmark {
+
+    @Param({SentinelConfig.STATISTIC_BUCKET_TYPE_ADDER, SentinelConfig.STATISTIC_BUCKET_TYPE_STRIPED})
+    private String type;
+
+    @Param({"1", "4"})
+    private int stripes;
+
+    private MetricBucket bucket;
+
+    @Setup
+    public void prepare() {
+        bucket = newBucket();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testSingleThreadAddPass() {
+        bucket.addPass(1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void test8ThreadsAddPass() {
+        bucket.addPass(1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long test8ThreadsAddPassAndRead() {
+        bucket.addPass(1);
+        bucket.addRT(3);
+        return bucket.pass();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MetricBucket newBucket() {
+        if (SentinelConfig.STATISTIC_BUCKET_TYPE_STRIPED.equals(type)) {
+            return new StripedMetricBucket(stripes);
+        }
+        return new MetricBucket();
+    }
+}
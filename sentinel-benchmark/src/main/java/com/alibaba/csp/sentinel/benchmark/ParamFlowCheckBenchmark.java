@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowChecker;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetric;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for extracting parameter values from collection and array arguments in parameter flow control,
+ * including the rule check and the thread count statistics of every value.</p>
+ *
+ * <p>Run with {@code -prof gc} to see the allocation per operation.</p>
+ *
+ * @since 1.8.9
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ParamFlowCheckBenchmark {
+
+    /**
+     * Values start outside of the boxing caches (-128..127), so that reading them from primitive arrays
+     * allocates as it does for real parameters (e.g. user IDs).
+     */
+    private static final long VALUE_BASE = 1_000_000L;
+
+    @Param({"1", "10", "100"})
+    private int size;
+
+    private final ResourceWrapper resource = new StringResourceWrapper("paramFlowBenchmark", EntryType.IN);
+    private ParamFlowRule rule;
+    private ParameterMetric metric;
+    private Object[] listArgs;
+    private Object[] arrayArgs;
+
+    @Setup
+    public void prepare() {
+        // The thread grade never runs out of tokens, so every value of the arguments is checked.
+        rule = new ParamFlowRule(resource.getName())
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setParamIdx(0)
+            .setCount(Integer.MAX_VALUE);
+        ParamFlowRuleManager.loadRules(Collections.singletonList(rule));
+        ParameterMetricStorage.initParamMetricsFor(resource, rule);
+        metric = ParameterMetricStorage.getParamMetric(resource);
+
+        List<Long> list = new ArrayList<>(size);
+        long[] array = new long[size];
+        for (int i = 0; i < size; i++) {
+            list.add(VALUE_BASE + i);
+            array[i] = VALUE_BASE + i;
+        }
+        listArgs = new Object[] {list};
+        arrayArgs = new Object[] {array};
+        // Values are present in the thread count map, as in the steady state.
+        metric.addThreadCount(listArgs);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ParamFlowRuleManager.loadRules(Collections.<ParamFlowRule>emptyList());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testCheckCollection() {
+        return ParamFlowChecker.passCheck(resource, rule, 1, listArgs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testCheckPrimitiveArray() {
+        return ParamFlowChecker.passCheck(resource, rule, 1, arrayArgs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testThreadCountCollection() {
+        metric.addThreadCount(listArgs);
+        metric.decreaseThreadCount(listArgs);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void test4ThreadsThreadCountCollection() {
+        metric.addThreadCount(listArgs);
+        metric.decreaseThreadCount(listArgs);
+    }
+}
@@ -22,6 +22,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.Resource;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 
@@ -37,7 +38,8 @@ import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
 /**
- * Benchmark for Sentinel entries.
+ * Benchmark for Sentinel entries. Run with {@code -prof gc} to compare the allocation rate of
+ * {@link SphU#entry(String)} and of the reusable {@link Resource} handle.
  *
  * @author Eric Zhao
  */
@@ -52,6 +54,8 @@ public class SentinelEntryBenchmark {
 
     private List<Integer> numbers;
 
+    private final Resource resource = SphU.resource("benchmark");
+
     @Setup
     public void prepare() {
         numbers = new ArrayList<>();
@@ -78,6 +82,19 @@ public class SentinelEntryBenchmark {
         }
     }
 
+    private void doSomethingWithResourceEntry() {
+        Entry e0 = null;
+        try {
+            e0 = resource.entry();
+            doSomething();
+        } catch (BlockException e) {
+        } finally {
+            if (e0 != null) {
+                e0.exit();
+            }
+        }
+    }
+
     @Benchmark
     @Threads(1)
     public void testSingleThreadDirectly() {
@@ -137,4 +154,22 @@ public class SentinelEntryBenchmark {
     public void test16ThreadsSingleEntry() {
         doSomethingWithEntry();
     }
+
+    @Benchmark
+    @Threads(1)
+    public void testSingleThreadResourceEntry() {
+        doSomethingWithResourceEntry();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void test4ThreadsResourceEntry() {
+        doSomethingWithResourceEntry();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void test16ThreadsResourceEntry() {
+        doSomethingWithResourceEntry();
+    }
 }
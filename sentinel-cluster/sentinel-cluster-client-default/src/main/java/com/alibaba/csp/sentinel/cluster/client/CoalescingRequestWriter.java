@@ -0,0 +1,102 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+
+import io.netty.channel.Channel;
+
+/**
+ * <p>Writes requests of concurrent callers to the channel in the event loop, so that requests arriving
+ * together are written with one flush. Flow requests (and flow lease requests) written together are
+ * grouped into batch frames of {@link ClientConstants#TYPE_BATCH}.</p>
+ *
+ * @since 1.8.9
+ */
+final class CoalescingRequestWriter implements Runnable {
+
+    /**
+     * Max count of requests in a batch frame. A flow request takes 20 bytes in the batch, so the frame stays
+     * far below the 1024-byte frame limit.
+     */
+    static final int MAX_BATCH_SIZE = 32;
+
+    private final Channel channel;
+    private final boolean batchEnabled;
+    private final Queue<ClusterRequest> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    CoalescingRequestWriter(Channel channel, boolean batchEnabled) {
+        this.channel = channel;
+        this.batchEnabled = batchEnabled;
+    }
+
+    void write(ClusterRequest request) {
+        queue.offer(request);
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                channel.eventLoop().execute(this);
+            } catch (RuntimeException ex) {
+                scheduled.set(false);
+                throw ex;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        // Requests queued from now on are drained by another run.
+        scheduled.set(false);
+        List<ClusterRequest> batch = null;
+        ClusterRequest request;
+        while ((request = queue.poll()) != null) {
+            if (!batchEnabled || !canBatch(request)) {
+                channel.write(request);
+                continue;
+            }
+            if (batch == null) {
+                batch = new ArrayList<>(MAX_BATCH_SIZE);
+            }
+            batch.add(request);
+            if (batch.size() == MAX_BATCH_SIZE) {
+                writeBatch(batch);
+                batch = null;
+            }
+        }
+        if (batch != null) {
+            writeBatch(batch);
+        }
+        channel.flush();
+    }
+
+    private void writeBatch(List<ClusterRequest> batch) {
+        if (batch.size() == 1) {
+            channel.write(batch.get(0));
+        } else {
+            channel.write(new ClusterRequest<>(ClientConstants.TYPE_BATCH, batch));
+        }
+    }
+
+    private static boolean canBatch(ClusterRequest request) {
+        return request.getType() == ClientConstants.TYPE_FLOW || request.getType() == ClientConstants.TYPE_FLOW_LEASE;
+    }
+}
@@ -15,8 +15,20 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
@@ -26,6 +38,7 @@ import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.RingServerConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ServerChangeObserver;
 import com.alibaba.csp.sentinel.cluster.log.ClusterClientStatLogUtil;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
@@ -33,8 +46,10 @@ import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * Default implementation of {@link ClusterTokenClient}.
@@ -44,11 +59,44 @@ import com.alibaba.csp.sentinel.util.StringUtil;
  */
 public class DefaultClusterTokenClient implements ClusterTokenClient {
 
+    private static final int MAX_LEASE_TIMEOUTS = 3;
+    private static final long LEASE_SUSPEND_MS = 60 * 1000;
+
     private ClusterTransportClient transportClient;
     private TokenServerDescriptor serverDescriptor;
+    /**
+     * The hot-standby token server, or null if absent.
+     */
+    private TokenServerDescriptor standbyDescriptor;
+    /**
+     * Token servers owning the flows by consistent hashing, with a pooled connection to each server.
+     * Null if token requests of all flows go to the assigned server.
+     */
+    private volatile TokenServerRing ring;
 
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
+    /**
+     * Token leases of flows, only used when token leasing is enabled (see
+     * {@link ClusterClientConfigManager#getTokenLeaseSize()}).
+     */
+    private final ConcurrentMap<Long, TokenLease> leaseMap = new ConcurrentHashMap<>();
+    /**
+     * Executor of lease renewals, created on the first renewal and shut down when the client stops.
+     */
+    private ExecutorService leaseRenewExecutor;
+    /**
+     * Whether the current token server supports token leases.
+     */
+    private volatile boolean leaseSupported = true;
+    /**
+     * Consecutive timeouts of lease requests. Token servers without lease support drop lease requests silently
+     * and cannot decode the following requests on the same connection, so each timeout suspends leasing and
+     * resets the connection, and leasing is given up after several timeouts in a row.
+     */
+    private final AtomicInteger leaseTimeouts = new AtomicInteger(0);
+    private volatile long leaseSuspendedUntil = 0;
+
     public DefaultClusterTokenClient() {
         ClusterClientConfigManager.addServerChangeObserver(new ServerChangeObserver() {
             @Override
@@ -63,7 +111,28 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         if (descriptor == null || config == null) {
             return false;
         }
-        return descriptor.getHost().equals(config.getServerHost()) && descriptor.getPort() == config.getServerPort();
+        return descriptor.getHost().equals(config.getServerHost()) && descriptor.getPort() == config.getServerPort()
+            && standbyEqual(standbyDescriptor, config);
+    }
+
+    private boolean standbyEqual(TokenServerDescriptor descriptor, ClusterClientAssignConfig config) {
+        if (StringUtil.isBlank(config.getStandbyServerHost())) {
+            return descriptor == null;
+        }
+        return descriptor != null && descriptor.getHost().equals(config.getStandbyServerHost())
+            && config.getStandbyServerPort() != null && descriptor.getPort() == config.getStandbyServerPort();
+    }
+
+    private static TokenServerDescriptor standbyOf(String host, int port) {
+        return StringUtil.isBlank(host) ? null : new TokenServerDescriptor(host, port);
+    }
+
+    private static NettyTransportClient newTransportClient(TokenServerDescriptor server,
+                                                           TokenServerDescriptor standby) {
+        if (standby == null) {
+            return new NettyTransportClient(server.getHost(), server.getPort());
+        }
+        return new NettyTransportClient(server.getHost(), server.getPort(), standby.getHost(), standby.getPort());
     }
 
     private void initNewConnection() {
@@ -77,15 +146,19 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
 
         try {
-            this.transportClient = new NettyTransportClient(host, port);
             this.serverDescriptor = new TokenServerDescriptor(host, port);
+            this.standbyDescriptor = standbyOf(ClusterClientConfigManager.getStandbyServerHost(),
+                ClusterClientConfigManager.getStandbyServerPort());
+            this.transportClient = newTransportClient(serverDescriptor, standbyDescriptor);
             RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to initialize new token client", ex);
         }
+        applyRing(ClusterClientConfigManager.getRingServers());
     }
 
     private void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
+        applyRing(config.getRingServers());
         if (serverEqual(serverDescriptor, config)) {
             return;
         }
@@ -94,8 +167,13 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
                 transportClient.stop();
             }
             // Replace with new, even if the new client is not ready.
-            this.transportClient = new NettyTransportClient(config.getServerHost(), config.getServerPort());
             this.serverDescriptor = new TokenServerDescriptor(config.getServerHost(), config.getServerPort());
+            this.standbyDescriptor = config.getStandbyServerPort() == null ? null
+                : standbyOf(config.getStandbyServerHost(), config.getStandbyServerPort());
+            this.transportClient = newTransportClient(serverDescriptor, standbyDescriptor);
+            // Tokens leased from the former server are no longer valid.
+            leaseMap.clear();
+            resetLeaseSupport();
             startClientIfScheduled();
             RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
         } catch (Exception ex) {
@@ -103,6 +181,87 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    /**
+     * Replace the ring with the given servers. Connections to the servers remaining on the ring are reused.
+     */
+    private synchronized void applyRing(List<RingServerConfig> ringServers) {
+        TokenServerRing oldRing = this.ring;
+        Map<String, ClusterTransportClient> pooled = new HashMap<>();
+        if (oldRing != null) {
+            for (int i = 0; i < oldRing.size(); i++) {
+                pooled.put(TokenServerRing.addressOf(oldRing.server(i)), oldRing.client(i));
+            }
+        }
+        Map<String, TokenServerDescriptor> servers = new LinkedHashMap<>();
+        if (ringServers != null) {
+            for (RingServerConfig config : ringServers) {
+                TokenServerDescriptor server = new TokenServerDescriptor(config.getHost(), config.getPort());
+                servers.put(TokenServerRing.addressOf(server), server);
+            }
+        }
+        if (pooled.keySet().equals(servers.keySet())) {
+            return;
+        }
+        TokenServerRing newRing = null;
+        if (!servers.isEmpty()) {
+            List<ClusterTransportClient> clients = new ArrayList<>(servers.size());
+            for (Map.Entry<String, TokenServerDescriptor> e : servers.entrySet()) {
+                ClusterTransportClient client = pooled.remove(e.getKey());
+                if (client == null) {
+                    client = new NettyTransportClient(e.getValue().getHost(), e.getValue().getPort());
+                    startQuietly(client);
+                }
+                clients.add(client);
+            }
+            newRing = new TokenServerRing(new ArrayList<>(servers.values()), clients);
+        }
+        this.ring = newRing;
+        // Tokens leased from the former owners are no longer valid.
+        leaseMap.clear();
+        resetLeaseSupport();
+        for (ClusterTransportClient client : pooled.values()) {
+            stopQuietly(client);
+        }
+        RecordLog.info("[DefaultClusterTokenClient] Token servers on the ring: {}", servers.keySet());
+    }
+
+    private void startQuietly(ClusterTransportClient client) {
+        if (!shouldStart.get()) {
+            return;
+        }
+        try {
+            client.start();
+        } catch (Exception ex) {
+            RecordLog.warn("[DefaultClusterTokenClient] Failed to start transport client of the ring", ex);
+        }
+    }
+
+    private void stopQuietly(ClusterTransportClient client) {
+        try {
+            client.stop();
+        } catch (Exception ex) {
+            RecordLog.warn("[DefaultClusterTokenClient] Failed to stop transport client of the ring", ex);
+        }
+    }
+
+    private synchronized void startRingClients() {
+        TokenServerRing ring = this.ring;
+        if (ring != null) {
+            for (int i = 0; i < ring.size(); i++) {
+                startQuietly(ring.client(i));
+            }
+        }
+    }
+
+    private synchronized void stopRingClients() {
+        TokenServerRing ring = this.ring;
+        if (ring != null) {
+            for (int i = 0; i < ring.size(); i++) {
+                stopQuietly(ring.client(i));
+            }
+        }
+    }
+
     private void startClientIfScheduled() throws Exception {
         if (shouldStart.get()) {
             if (transportClient != null) {
@@ -118,6 +277,7 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
             if (transportClient != null) {
                 transportClient.stop();
             }
+            stopRingClients();
         }
     }
 
@@ -125,12 +285,14 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
     public void start() throws Exception {
         if (shouldStart.compareAndSet(false, true)) {
             startClientIfScheduled();
+            startRingClients();
         }
     }
 
     @Override
     public void stop() throws Exception {
         stopClientIfStarted();
+        shutdownLeaseRenewExecutor();
     }
 
     @Override
@@ -151,11 +313,18 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         if (notValidRequest(flowId, acquireCount)) {
             return badRequest();
         }
+        int leaseSize = ClusterClientConfigManager.getTokenLeaseSize();
+        if (leaseSize > 0 && !prioritized && isLeaseAvailable()) {
+            TokenResult result = requestTokenFromLease(flowId, acquireCount, leaseSize);
+            if (result != null) {
+                return result;
+            }
+        }
         FlowRequestData data = new FlowRequestData().setCount(acquireCount)
             .setFlowId(flowId).setPriority(prioritized);
         ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(flowId, request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -164,6 +333,168 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    /**
+     * Serve the request from the token lease of the flow, and renew the lease in background when it runs low.
+     *
+     * @return the token result, or null if the token server does not support token leases
+     */
+    private TokenResult requestTokenFromLease(Long flowId, int acquireCount, int leaseSize) {
+        TokenLease lease = getOrCreateLease(flowId);
+        long now = TimeUtil.currentTimeMillis();
+        if (lease.tryAcquire(acquireCount, now)) {
+            if (lease.shouldRenew(leaseSize, now)) {
+                renewLeaseAsync(flowId, lease, leaseSize);
+            }
+            return new TokenResult(TokenResultStatus.OK)
+                .setRemaining((int) Math.min(Integer.MAX_VALUE, lease.remainingTokens()))
+                .setWaitInMs(0);
+        }
+        if (lease.isBlocked(now)) {
+            return blockedResult();
+        }
+        // The lease is used up or expired. Only one thread renews it, while the others request tokens one by one
+        // in the meantime, so that a slow token server never stalls all callers of the flow.
+        if (!lease.tryStartRenewal()) {
+            return null;
+        }
+        TokenResult result;
+        try {
+            result = renewLease(flowId, lease, Math.max(leaseSize, acquireCount));
+        } finally {
+            lease.finishRenewal();
+        }
+        switch (result.getStatus()) {
+            case TokenResultStatus.OK:
+                // The server may grant less than requested.
+                return lease.tryAcquire(acquireCount, TimeUtil.currentTimeMillis())
+                    ? new TokenResult(TokenResultStatus.OK).setRemaining(0).setWaitInMs(0) : blockedResult();
+            case TokenResultStatus.BLOCKED:
+                return blockedResult();
+            case TokenResultStatus.NOT_AVAILABLE:
+                return null;
+            default:
+                return result;
+        }
+    }
+
+    private boolean isLeaseAvailable() {
+        return leaseSupported && TimeUtil.currentTimeMillis() >= leaseSuspendedUntil;
+    }
+
+    private void resetLeaseSupport() {
+        this.leaseSupported = true;
+        this.leaseSuspendedUntil = 0;
+        leaseTimeouts.set(0);
+    }
+
+    private void onLeaseTimeout(long flowId) {
+        if (leaseTimeouts.incrementAndGet() >= MAX_LEASE_TIMEOUTS) {
+            this.leaseSupported = false;
+            RecordLog.warn("[DefaultClusterTokenClient] Token lease requests keep timing out, the token server may "
+                + "not support token leases. Requesting tokens one by one");
+        } else {
+            this.leaseSuspendedUntil = TimeUtil.currentTimeMillis() + LEASE_SUSPEND_MS;
+            RecordLog.warn("[DefaultClusterTokenClient] Token lease request timed out, requesting tokens one by one "
+                + "in the next {} ms", LEASE_SUSPEND_MS);
+        }
+        ClusterTransportClient client = clientOf(flowId);
+        if (client instanceof NettyTransportClient) {
+            ((NettyTransportClient) client).resetConnection();
+        }
+    }
+
+    private TokenLease getOrCreateLease(Long flowId) {
+        TokenLease lease = leaseMap.get(flowId);
+        if (lease == null) {
+            lease = new TokenLease();
+            TokenLease old = leaseMap.putIfAbsent(flowId, lease);
+            if (old != null) {
+                lease = old;
+            }
+        }
+        return lease;
+    }
+
+    private void renewLeaseAsync(final Long flowId, final TokenLease lease, final int leaseSize) {
+        if (!lease.tryStartRenewal()) {
+            return;
+        }
+        try {
+            getLeaseRenewExecutor().submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        renewLease(flowId, lease, leaseSize);
+                    } finally {
+                        lease.finishRenewal();
+                    }
+                }
+            });
+        } catch (Throwable ex) {
+            lease.finishRenewal();
+            RecordLog.warn("[DefaultClusterTokenClient] Failed to submit token lease renewal", ex);
+        }
+    }
+
+    private synchronized ExecutorService getLeaseRenewExecutor() {
+        if (leaseRenewExecutor == null) {
+            leaseRenewExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(1024),
+                new NamedThreadFactory("sentinel-cluster-lease-renew-task", true));
+        }
+        return leaseRenewExecutor;
+    }
+
+    private synchronized void shutdownLeaseRenewExecutor() {
+        if (leaseRenewExecutor != null) {
+            // Renewals already submitted still run (and fail fast once the connection is stopped),
+            // so that their leases are released from the renewing state.
+            leaseRenewExecutor.shutdown();
+            leaseRenewExecutor = null;
+        }
+    }
+
+    private TokenResult renewLease(Long flowId, TokenLease lease, int leaseSize) {
+        FlowRequestData data = new FlowRequestData().setCount(leaseSize).setFlowId(flowId);
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE, data);
+        TokenResult result;
+        try {
+            result = sendTokenRequest(flowId, request);
+        } catch (Exception ex) {
+            ClusterClientStatLogUtil.log(ex.getMessage());
+            if (ClusterErrorMessages.REQUEST_TIME_OUT.equals(ex.getMessage())) {
+                onLeaseTimeout(flowId);
+            }
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+        logForResult(result);
+        long now = TimeUtil.currentTimeMillis();
+        switch (result.getStatus()) {
+            case TokenResultStatus.OK:
+                leaseTimeouts.set(0);
+                // Published under the lock, as the background renewal of the lease may complete at the same time.
+                synchronized (lease) {
+                    lease.grant(result.getRemaining(), result.getWaitInMs(), now);
+                }
+                break;
+            case TokenResultStatus.BLOCKED:
+                leaseTimeouts.set(0);
+                synchronized (lease) {
+                    lease.block(result.getWaitInMs(), now);
+                }
+                break;
+            case TokenResultStatus.NOT_AVAILABLE:
+                if (leaseSupported) {
+                    leaseSupported = false;
+                    RecordLog.warn("[DefaultClusterTokenClient] Token lease not supported by server {}, "
+                        + "requesting tokens one by one", serverDescriptor);
+                }
+                break;
+            default:
+        }
+        return result;
+    }
+
     @Override
     public TokenResult requestParamToken(Long flowId, int acquireCount, Collection<Object> params) {
         if (notValidRequest(flowId, acquireCount) || params == null || params.isEmpty()) {
@@ -173,7 +504,7 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
             .setFlowId(flowId).setParams(params);
         ClusterRequest<ParamFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(flowId, request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -203,13 +534,17 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
-    private TokenResult sendTokenRequest(ClusterRequest request) throws Exception {
-        if (transportClient == null) {
+    /**
+     * Send the token request of the flow to the server owning the flow on the ring, or the assigned server.
+     */
+    private TokenResult sendTokenRequest(long flowId, ClusterRequest request) throws Exception {
+        ClusterTransportClient client = clientOf(flowId);
+        if (client == null) {
             RecordLog.warn(
                 "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
             return clientFail();
         }
-        ClusterResponse response = transportClient.sendRequest(request);
+        ClusterResponse response = client.sendRequest(request);
         TokenResult result = new TokenResult(response.getStatus());
         if (response.getData() != null) {
             FlowTokenResponseData responseData = (FlowTokenResponseData)response.getData();
@@ -219,6 +554,11 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         return result;
     }
 
+    private ClusterTransportClient clientOf(long flowId) {
+        TokenServerRing ring = this.ring;
+        return ring == null ? transportClient : ring.clientOf(flowId);
+    }
+
     private boolean notValidRequest(Long id, int count) {
         return id == null || id <= 0 || count <= 0;
     }
@@ -227,6 +567,10 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         return new TokenResult(TokenResultStatus.BAD_REQUEST);
     }
 
+    private TokenResult blockedResult() {
+        return new TokenResult(TokenResultStatus.BLOCKED).setRemaining(0).setWaitInMs(0);
+    }
+
     private TokenResult clientFail() {
         return new TokenResult(TokenResultStatus.FAIL);
     }
@@ -15,7 +15,6 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
-import java.util.AbstractMap.SimpleEntry;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -27,6 +26,7 @@ import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientHandler;
 import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientPromiseHolder;
 import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
@@ -44,12 +44,10 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.ChannelPromise;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.util.concurrent.GenericFutureListener;
 
 /**
@@ -66,24 +64,58 @@ public class NettyTransportClient implements ClusterTransportClient {
 
     public static final int RECONNECT_DELAY_MS = 2000;
 
-    private final String host;
-    private final int port;
+    /**
+     * The assigned token server first, then the hot-standby token server (if present).
+     */
+    private final String[] hosts;
+    private final int[] ports;
+    private volatile int activeIndex = 0;
 
     private Channel channel;
+    private CoalescingRequestWriter requestWriter;
     private NioEventLoopGroup eventLoopGroup;
     private TokenClientHandler clientHandler;
 
-    private final AtomicInteger idGenerator = new AtomicInteger(0);
+    /**
+     * Shared by all transport clients (e.g. of the servers on the ring), as they share the pending requests
+     * in {@link TokenClientPromiseHolder}, which are looked up by xid.
+     */
+    private static final AtomicInteger ID_GENERATOR = new AtomicInteger(0);
+
     private final AtomicInteger currentState = new AtomicInteger(ClientConstants.CLIENT_STATUS_OFF);
     private final AtomicInteger failConnectedTime = new AtomicInteger(0);
 
     private final AtomicBoolean shouldRetry = new AtomicBoolean(true);
+    /**
+     * Whether the connection is being reset on purpose, so the client connects to the same server again right away.
+     */
+    private final AtomicBoolean resetting = new AtomicBoolean(false);
 
     public NettyTransportClient(String host, int port) {
         AssertUtil.assertNotBlank(host, "remote host cannot be blank");
         AssertUtil.isTrue(port > 0, "port should be positive");
-        this.host = host;
-        this.port = port;
+        this.hosts = new String[] {host};
+        this.ports = new int[] {port};
+    }
+
+    /**
+     * Create a client that fails over to the hot-standby token server when the connection to the current server
+     * is lost or cannot be established, and the other way round. The standby server should replicate the state
+     * from the assigned server, see {@code ClusterStateReplicator} of the token server.
+     *
+     * @param host        host of the assigned token server
+     * @param port        port of the assigned token server
+     * @param standbyHost host of the hot-standby token server
+     * @param standbyPort port of the hot-standby token server
+     * @since 1.8.9
+     */
+    public NettyTransportClient(String host, int port, String standbyHost, int standbyPort) {
+        AssertUtil.assertNotBlank(host, "remote host cannot be blank");
+        AssertUtil.isTrue(port > 0, "port should be positive");
+        AssertUtil.assertNotBlank(standbyHost, "standby host cannot be blank");
+        AssertUtil.isTrue(standbyPort > 0, "standby port should be positive");
+        this.hosts = new String[] {host, standbyHost};
+        this.ports = new int[] {port, standbyPort};
     }
 
     private Bootstrap initClientBootstrap() {
@@ -102,7 +134,6 @@ public class NettyTransportClient implements ClusterTransportClient {
                     ChannelPipeline pipeline = ch.pipeline();
                     pipeline.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
                     pipeline.addLast(new NettyResponseDecoder());
-                    pipeline.addLast(new LengthFieldPrepender(2));
                     pipeline.addLast(new NettyRequestEncoder());
                     pipeline.addLast(clientHandler);
                 }
@@ -113,6 +144,8 @@ public class NettyTransportClient implements ClusterTransportClient {
 
     private void connect(Bootstrap b) {
         if (currentState.compareAndSet(ClientConstants.CLIENT_STATUS_OFF, ClientConstants.CLIENT_STATUS_PENDING)) {
+            final String host = getActiveHost();
+            final int port = getActivePort();
             b.connect(host, port)
                 .addListener(new GenericFutureListener<ChannelFuture>() {
                 @Override
@@ -125,6 +158,8 @@ public class NettyTransportClient implements ClusterTransportClient {
                         channel = null;
                     } else {
                         failConnectedTime.set(0);
+                        requestWriter = new CoalescingRequestWriter(future.channel(),
+                            ClusterClientStartUpConfig.isBatchFrameEnabled());
                         channel = future.channel();
                         RecordLog.info("[NettyTransportClient] Successfully connect to server <{}:{}>", host, port);
                     }
@@ -139,11 +174,24 @@ public class NettyTransportClient implements ClusterTransportClient {
             if (!shouldRetry.get()) {
                 return;
             }
+            long delay = RECONNECT_DELAY_MS * (failConnectedTime.get() + 1);
+            if (resetting.getAndSet(false)) {
+                delay = 0;
+            } else if (hosts.length > 1) {
+                // Fail over right away if the connection was established, otherwise alternate with backoff.
+                delay = RECONNECT_DELAY_MS * failConnectedTime.get();
+                activeIndex = (activeIndex + 1) % hosts.length;
+                RecordLog.info("[NettyTransportClient] Failing over to server <{}:{}>", getActiveHost(),
+                    getActivePort());
+            }
+            // Clean up before reconnecting, as the new connection may be established right away.
+            cleanUp();
             SCHEDULER.schedule(new Runnable() {
                 @Override
                 public void run() {
                     if (shouldRetry.get()) {
-                        RecordLog.info("[NettyTransportClient] Reconnecting to server <{}:{}>", host, port);
+                        RecordLog.info("[NettyTransportClient] Reconnecting to server <{}:{}>", getActiveHost(),
+                            getActivePort());
                         try {
                             startInternal();
                         } catch (Exception e) {
@@ -151,14 +199,45 @@ public class NettyTransportClient implements ClusterTransportClient {
                         }
                     }
                 }
-            }, RECONNECT_DELAY_MS * (failConnectedTime.get() + 1), TimeUnit.MILLISECONDS);
-            cleanUp();
+            }, delay, TimeUnit.MILLISECONDS);
         }
     };
 
+    /**
+     * @return host of the token server currently connected (or being connected)
+     * @since 1.8.9
+     */
+    public String getActiveHost() {
+        return hosts[activeIndex];
+    }
+
+    /**
+     * @return port of the token server currently connected (or being connected)
+     * @since 1.8.9
+     */
+    public int getActivePort() {
+        return ports[activeIndex];
+    }
+
+    /**
+     * Close the current connection and connect to the same server again right away. This discards whatever the
+     * server has buffered for the connection, e.g. the remains of a request it could not decode.
+     *
+     * @since 1.8.9
+     */
+    public void resetConnection() {
+        Channel ch = this.channel;
+        if (ch != null && resetting.compareAndSet(false, true)) {
+            RecordLog.info("[NettyTransportClient] Resetting connection to server <{}:{}>", getActiveHost(),
+                getActivePort());
+            ch.close();
+        }
+    }
+
     @Override
     public void start() throws Exception {
         shouldRetry.set(true);
+        resetting.set(false);
         startInternal();
     }
 
@@ -167,6 +246,7 @@ public class NettyTransportClient implements ClusterTransportClient {
     }
 
     private void cleanUp() {
+        requestWriter = null;
         if (channel != null) {
             channel.close();
             channel = null;
@@ -212,36 +292,36 @@ public class NettyTransportClient implements ClusterTransportClient {
         if (!validRequest(request)) {
             throw new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST);
         }
+        CoalescingRequestWriter writer = requestWriter;
+        if (writer == null) {
+            throw new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY);
+        }
         int xid = getCurrentId();
+        if (!TokenClientPromiseHolder.register(xid)) {
+            throw new SentinelClusterException(ClusterErrorMessages.TOO_MANY_PENDING_REQUESTS);
+        }
         try {
             request.setId(xid);
 
-            channel.writeAndFlush(request);
-
-            ChannelPromise promise = channel.newPromise();
-            TokenClientPromiseHolder.putPromise(xid, promise);
+            writer.write(request);
 
-            if (!promise.await(ClusterClientConfigManager.getRequestTimeout())) {
+            ClusterResponse response = TokenClientPromiseHolder.await(xid,
+                ClusterClientConfigManager.getRequestTimeout());
+            if (response == null) {
                 throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
             }
-
-            SimpleEntry<ChannelPromise, ClusterResponse> entry = TokenClientPromiseHolder.getEntry(xid);
-            if (entry == null || entry.getValue() == null) {
-                // Should not go through here.
-                throw new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS);
-            }
-            return entry.getValue();
+            return response;
         } finally {
             TokenClientPromiseHolder.remove(xid);
         }
     }
 
-    private int getCurrentId() {
+    private static int getCurrentId() {
         int pre, next;
         do {
-            pre = idGenerator.get();
+            pre = ID_GENERATOR.get();
             next = pre >= MAX_ID ? MIN_ID : pre + 1;
-        } while (!idGenerator.compareAndSet(pre, next));
+        } while (!ID_GENERATOR.compareAndSet(pre, next));
         return next;
     }
 
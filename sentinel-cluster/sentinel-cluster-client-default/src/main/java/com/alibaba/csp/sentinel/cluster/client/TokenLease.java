@@ -0,0 +1,96 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Tokens of one flow leased from the token server, which are served locally until used up or expired.</p>
+ *
+ * <p>Renewed tokens are added to the unexpired ones and extend their lifetime, so a client never holds more
+ * than about one and a half leases of usable tokens.</p>
+ *
+ * @since 1.8.9
+ */
+final class TokenLease {
+
+    private final AtomicLong tokens = new AtomicLong(0);
+    private final AtomicBoolean renewing = new AtomicBoolean(false);
+
+    /**
+     * Tokens are usable before the expiry time.
+     */
+    private volatile long expireAt = 0;
+    private volatile int leaseTimeMs = 0;
+    /**
+     * The token server rejected the last lease, requests are blocked locally before the time.
+     */
+    private volatile long blockedUntil = 0;
+
+    boolean tryAcquire(int acquireCount, long now) {
+        if (now >= expireAt) {
+            return false;
+        }
+        while (true) {
+            long current = tokens.get();
+            if (current < acquireCount) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - acquireCount)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return true if less than half of the lease size is left, or more than half of the lease time has passed
+     */
+    boolean shouldRenew(int leaseSize, long now) {
+        return tokens.get() * 2 < leaseSize || (expireAt - now) * 2 < leaseTimeMs;
+    }
+
+    boolean isBlocked(long now) {
+        return now < blockedUntil;
+    }
+
+    long remainingTokens() {
+        return tokens.get();
+    }
+
+    void grant(int count, int leaseTimeMs, long now) {
+        if (now >= expireAt) {
+            tokens.set(count);
+        } else {
+            tokens.addAndGet(count);
+        }
+        this.leaseTimeMs = leaseTimeMs;
+        // Publish the expiry time after the tokens, so that expired tokens are never served as new ones.
+        this.expireAt = now + leaseTimeMs;
+    }
+
+    void block(int waitInMs, long now) {
+        this.blockedUntil = now + waitInMs;
+    }
+
+    boolean tryStartRenewal() {
+        return renewing.compareAndSet(false, true);
+    }
+
+    void finishRenewal() {
+        renewing.set(false);
+    }
+}
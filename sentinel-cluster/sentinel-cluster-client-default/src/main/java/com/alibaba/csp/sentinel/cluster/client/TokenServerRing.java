@@ -0,0 +1,147 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Consistent-hash ring of flow IDs over multiple token servers, each of which owns the flows hashed into
+ * its ranges. Every server is placed on the ring as {@link #VIRTUAL_NODES} virtual nodes hashed from its address,
+ * so the ranges are balanced, every client derives the same owners from the same servers (regardless of
+ * the order), and adding or removing a server only moves the flows of its own ranges.</p>
+ *
+ * <p>The ring is immutable, it is replaced as a whole when the servers change.</p>
+ *
+ * @since 1.8.9
+ */
+final class TokenServerRing {
+
+    static final int VIRTUAL_NODES = 160;
+
+    private final TokenServerDescriptor[] servers;
+    private final ClusterTransportClient[] clients;
+    /**
+     * Sorted hashes of the virtual nodes, and the index of the server of each node.
+     */
+    private final long[] nodeHashes;
+    private final int[] nodeServers;
+
+    TokenServerRing(List<TokenServerDescriptor> servers, List<ClusterTransportClient> clients) {
+        AssertUtil.isTrue(servers != null && !servers.isEmpty(), "servers cannot be empty");
+        AssertUtil.isTrue(clients != null && clients.size() == servers.size(), "each server should have a client");
+        this.servers = servers.toArray(new TokenServerDescriptor[0]);
+        this.clients = clients.toArray(new ClusterTransportClient[0]);
+
+        int nodeCount = this.servers.length * VIRTUAL_NODES;
+        long[][] nodes = new long[nodeCount][];
+        for (int i = 0; i < this.servers.length; i++) {
+            String address = addressOf(this.servers[i]);
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                nodes[i * VIRTUAL_NODES + v] = new long[] {hash(address + "#" + v), i};
+            }
+        }
+        // Ties (almost impossible) are broken by the address, so that the owner is independent of the order.
+        final TokenServerDescriptor[] serverArray = this.servers;
+        Arrays.sort(nodes, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                if (a[0] != b[0]) {
+                    return Long.compare(a[0], b[0]);
+                }
+                return addressOf(serverArray[(int) a[1]]).compareTo(addressOf(serverArray[(int) b[1]]));
+            }
+        });
+        this.nodeHashes = new long[nodeCount];
+        this.nodeServers = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodeHashes[i] = nodes[i][0];
+            nodeServers[i] = (int) nodes[i][1];
+        }
+    }
+
+    /**
+     * @param flowId the flow ID
+     * @return index of the server owning the flow: the first virtual node clockwise from the hash of the flow
+     */
+    int indexOf(long flowId) {
+        long h = mix(flowId);
+        int low = 0;
+        int high = nodeHashes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (nodeHashes[mid] < h) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return nodeServers[low == nodeHashes.length ? 0 : low];
+    }
+
+    ClusterTransportClient clientOf(long flowId) {
+        return clients[indexOf(flowId)];
+    }
+
+    TokenServerDescriptor serverOf(long flowId) {
+        return servers[indexOf(flowId)];
+    }
+
+    int size() {
+        return servers.length;
+    }
+
+    TokenServerDescriptor server(int i) {
+        return servers[i];
+    }
+
+    ClusterTransportClient client(int i) {
+        return clients[i];
+    }
+
+    static String addressOf(TokenServerDescriptor server) {
+        return server.getHost() + ":" + server.getPort();
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the chars, finalized by {@link #mix(long)}.
+     */
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * The finalizer of MurmurHash3, to spread sequential flow IDs over the ring.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
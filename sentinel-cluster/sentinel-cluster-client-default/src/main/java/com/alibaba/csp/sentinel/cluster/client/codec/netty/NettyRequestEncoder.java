@@ -26,11 +26,20 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 /**
+ * <p>Encodes the request with its length field (2 bytes) in one buffer, which is written in place
+ * instead of being prepended with another buffer.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyRequestEncoder extends MessageToByteEncoder<ClusterRequest> {
 
+    /**
+     * Max length of a frame including the length field, same as the frame decoder of the server,
+     * so that oversized frames fail here instead of on the peer.
+     */
+    private static final int MAX_FRAME_LENGTH = 1024;
+
     @Override
     protected void encode(ChannelHandlerContext ctx, ClusterRequest request, ByteBuf out) throws Exception {
         RequestEntityWriter<Request, ByteBuf> requestEntityWriter = ClientEntityCodecProvider.getRequestEntityWriter();
@@ -39,6 +48,19 @@ public class NettyRequestEncoder extends MessageToByteEncoder<ClusterRequest> {
             return;
         }
 
+        int lengthIndex = out.writerIndex();
+        out.writeShort(0);
         requestEntityWriter.writeTo(request, out);
+        int length = out.writerIndex() - lengthIndex - 2;
+        if (length == 0) {
+            // Dropped by the entity writer.
+            out.writerIndex(lengthIndex);
+            return;
+        }
+        if (length + 2 > MAX_FRAME_LENGTH) {
+            out.writerIndex(lengthIndex);
+            throw new IllegalArgumentException("frame length exceeds " + MAX_FRAME_LENGTH + ": " + (length + 2));
+        }
+        out.setShort(lengthIndex, length);
     }
 }
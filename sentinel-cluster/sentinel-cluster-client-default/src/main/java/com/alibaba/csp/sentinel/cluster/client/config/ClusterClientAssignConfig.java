@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import java.util.List;
+
 /**
  * @author Eric Zhao
  * @since 1.4.1
@@ -24,6 +26,22 @@ public class ClusterClientAssignConfig {
     private String serverHost;
     private Integer serverPort;
 
+    /**
+     * The hot-standby token server, which the client fails over to when the assigned server is unavailable.
+     *
+     * @since 1.8.9
+     */
+    private String standbyServerHost;
+    private Integer standbyServerPort;
+
+    /**
+     * Token servers forming a consistent-hash ring of flow IDs. If present, token requests of each flow are sent
+     * to the server owning the flow on the ring, while other requests still go to the assigned server.
+     *
+     * @since 1.8.9
+     */
+    private List<RingServerConfig> ringServers;
+
     public ClusterClientAssignConfig() {}
 
     public ClusterClientAssignConfig(String serverHost, Integer serverPort) {
@@ -49,11 +67,41 @@ public class ClusterClientAssignConfig {
         return this;
     }
 
+    public String getStandbyServerHost() {
+        return standbyServerHost;
+    }
+
+    public ClusterClientAssignConfig setStandbyServerHost(String standbyServerHost) {
+        this.standbyServerHost = standbyServerHost;
+        return this;
+    }
+
+    public Integer getStandbyServerPort() {
+        return standbyServerPort;
+    }
+
+    public ClusterClientAssignConfig setStandbyServerPort(Integer standbyServerPort) {
+        this.standbyServerPort = standbyServerPort;
+        return this;
+    }
+
+    public List<RingServerConfig> getRingServers() {
+        return ringServers;
+    }
+
+    public ClusterClientAssignConfig setRingServers(List<RingServerConfig> ringServers) {
+        this.ringServers = ringServers;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientAssignConfig{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", standbyServerHost='" + standbyServerHost + '\'' +
+            ", standbyServerPort=" + standbyServerPort +
+            ", ringServers=" + ringServers +
             '}';
     }
 }
@@ -22,6 +22,12 @@ package com.alibaba.csp.sentinel.cluster.client.config;
 public class ClusterClientConfig {
 
     private Integer requestTimeout;
+    /**
+     * Count of tokens to lease from the token server in one request. Token leasing is disabled if absent or 0.
+     *
+     * @since 1.8.9
+     */
+    private Integer tokenLeaseSize;
 
     public Integer getRequestTimeout() {
         return requestTimeout;
@@ -32,10 +38,20 @@ public class ClusterClientConfig {
         return this;
     }
 
+    public Integer getTokenLeaseSize() {
+        return tokenLeaseSize;
+    }
+
+    public ClusterClientConfig setTokenLeaseSize(Integer tokenLeaseSize) {
+        this.tokenLeaseSize = tokenLeaseSize;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientConfig{" +
             "requestTimeout=" + requestTimeout +
+            ", tokenLeaseSize=" + tokenLeaseSize +
             '}';
     }
 }
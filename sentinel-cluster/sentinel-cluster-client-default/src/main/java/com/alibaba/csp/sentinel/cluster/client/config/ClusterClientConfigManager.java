@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.cluster.client.config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
@@ -37,9 +38,13 @@ public final class ClusterClientConfigManager {
      */
     private static volatile String serverHost = null;
     private static volatile int serverPort = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
+    private static volatile String standbyServerHost = null;
+    private static volatile int standbyServerPort = 0;
+    private static volatile List<RingServerConfig> ringServers = Collections.emptyList();
 
     private static volatile int requestTimeout = ClusterConstants.DEFAULT_REQUEST_TIMEOUT;
     private static volatile int connectTimeout = ClusterConstants.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+    private static volatile int tokenLeaseSize = 0;
 
     private static final PropertyListener<ClusterClientConfig> CONFIG_PROPERTY_LISTENER
         = new ClientConfigPropertyListener();
@@ -127,7 +132,8 @@ public final class ClusterClientConfigManager {
                     "[ClusterClientConfigManager] Invalid cluster client assign config, ignoring: " + config);
                 return;
             }
-            if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)) {
+            if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)
+                && isSameStandby(config) && ringServersOf(config).equals(ringServers)) {
                 return;
             }
 
@@ -170,6 +176,7 @@ public final class ClusterClientConfigManager {
         if (config.getRequestTimeout() != requestTimeout) {
             requestTimeout = config.getRequestTimeout();
         }
+        tokenLeaseSize = config.getTokenLeaseSize() == null ? 0 : config.getTokenLeaseSize();
     }
 
     private static void updateServerAssignment(/*@Valid*/ ClusterClientAssignConfig config) {
@@ -182,16 +189,62 @@ public final class ClusterClientConfigManager {
 
         serverHost = host;
         serverPort = port;
+        if (hasStandby(config)) {
+            standbyServerHost = config.getStandbyServerHost();
+            standbyServerPort = config.getStandbyServerPort();
+        } else {
+            standbyServerHost = null;
+            standbyServerPort = 0;
+        }
+        ringServers = ringServersOf(config);
+    }
+
+    private static List<RingServerConfig> ringServersOf(ClusterClientAssignConfig config) {
+        if (config.getRingServers() == null || config.getRingServers().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(config.getRingServers()));
+    }
+
+    private static boolean isSameStandby(ClusterClientAssignConfig config) {
+        if (!hasStandby(config)) {
+            return standbyServerHost == null;
+        }
+        return config.getStandbyServerHost().equals(standbyServerHost)
+            && config.getStandbyServerPort() == standbyServerPort;
+    }
+
+    private static boolean hasStandby(ClusterClientAssignConfig config) {
+        return StringUtil.isNotBlank(config.getStandbyServerHost());
     }
 
     public static boolean isValidAssignConfig(ClusterClientAssignConfig config) {
         return config != null && StringUtil.isNotBlank(config.getServerHost())
             && config.getServerPort() > 0
-            && config.getServerPort() <= 65535;
+            && config.getServerPort() <= 65535
+            && (!hasStandby(config) || isValidPort(config.getStandbyServerPort()))
+            && isValidRing(config.getRingServers());
+    }
+
+    private static boolean isValidRing(List<RingServerConfig> servers) {
+        if (servers == null) {
+            return true;
+        }
+        for (RingServerConfig server : servers) {
+            if (server == null || StringUtil.isBlank(server.getHost()) || !isValidPort(server.getPort())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidPort(Integer port) {
+        return port != null && port > 0 && port <= 65535;
     }
 
     public static boolean isValidClientConfig(ClusterClientConfig config) {
-        return config != null && config.getRequestTimeout() > 0;
+        return config != null && config.getRequestTimeout() > 0
+            && (config.getTokenLeaseSize() == null || config.getTokenLeaseSize() >= 0);
     }
 
     public static String getServerHost() {
@@ -202,6 +255,30 @@ public final class ClusterClientConfigManager {
         return serverPort;
     }
 
+    /**
+     * @return host of the hot-standby token server, or null if absent
+     * @since 1.8.9
+     */
+    public static String getStandbyServerHost() {
+        return standbyServerHost;
+    }
+
+    /**
+     * @return port of the hot-standby token server, or 0 if absent
+     * @since 1.8.9
+     */
+    public static int getStandbyServerPort() {
+        return standbyServerPort;
+    }
+
+    /**
+     * @return token servers forming the consistent-hash ring of flow IDs, or empty list if absent
+     * @since 1.8.9
+     */
+    public static List<RingServerConfig> getRingServers() {
+        return ringServers;
+    }
+
     public static int getRequestTimeout() {
         return requestTimeout;
     }
@@ -210,5 +287,13 @@ public final class ClusterClientConfigManager {
         return connectTimeout;
     }
 
+    /**
+     * @return count of tokens to lease in one request, or 0 if token leasing is disabled
+     * @since 1.8.9
+     */
+    public static int getTokenLeaseSize() {
+        return tokenLeaseSize;
+    }
+
     private ClusterClientConfigManager() {}
 }
@@ -29,6 +29,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 public class ClusterClientStartUpConfig {
 
     private static final String MAX_PARAM_BYTE_SIZE = "csp.sentinel.cluster.max.param.byte.size";
+    private static final String BATCH_FRAME_ENABLED = "csp.sentinel.cluster.client.batch.frame.enabled";
 
     /**
      * Get the max bytes params can be serialized
@@ -45,5 +46,15 @@ public class ClusterClientStartUpConfig {
         }
     }
 
-
+    /**
+     * Whether concurrent flow requests can be grouped into batch frames. It is disabled by default, as token
+     * servers before 1.8.9 do not support batch frames, and should only be enabled when all token servers
+     * support them.
+     *
+     * @return true if enabled, false by default
+     * @since 1.8.9
+     */
+    public static boolean isBatchFrameEnabled() {
+        return "true".equalsIgnoreCase(SentinelConfig.getConfig(BATCH_FRAME_ENABLED));
+    }
 }
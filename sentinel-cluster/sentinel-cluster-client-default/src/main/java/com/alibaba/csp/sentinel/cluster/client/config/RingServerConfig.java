@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.config;
+
+/**
+ * A token server on the consistent-hash ring of flow IDs, see {@link ClusterClientAssignConfig#getRingServers()}.
+ *
+ * @since 1.8.9
+ */
+public class RingServerConfig {
+
+    private String host;
+    private Integer port;
+
+    public RingServerConfig() {}
+
+    public RingServerConfig(String host, Integer port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public RingServerConfig setHost(String host) {
+        this.host = host;
+        return this;
+    }
+
+    public Integer getPort() {
+        return port;
+    }
+
+    public RingServerConfig setPort(Integer port) {
+        this.port = port;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RingServerConfig that = (RingServerConfig) o;
+        if (host != null ? !host.equals(that.host) : that.host != null) {
+            return false;
+        }
+        return port != null ? port.equals(that.port) : that.port == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = host != null ? host.hashCode() : 0;
+        result = 31 * result + (port != null ? port.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RingServerConfig{" +
+            "host='" + host + '\'' +
+            ", port=" + port +
+            '}';
+    }
+}
@@ -15,49 +15,115 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.handler;
 
-import java.util.AbstractMap.SimpleEntry;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 
-import io.netty.channel.ChannelPromise;
-
 /**
+ * <p>Holder of pending requests waiting for responses. Pending requests are tracked in a preallocated ring
+ * of slots indexed by the request ID (xid), so no allocation is needed per request. As xids are generated
+ * in sequence, a slot is reused only after {@link #RING_SIZE} requests are sent.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public final class TokenClientPromiseHolder {
 
-    private static final Map<Integer, SimpleEntry<ChannelPromise, ClusterResponse>> PROMISE_MAP = new ConcurrentHashMap<>();
+    /**
+     * Max count of pending requests, far larger than what a client sends within a request timeout.
+     */
+    static final int RING_SIZE = 1 << 13;
+    private static final int MASK = RING_SIZE - 1;
+
+    private static final PendingSlot[] RING = new PendingSlot[RING_SIZE];
+
+    static {
+        for (int i = 0; i < RING_SIZE; i++) {
+            RING[i] = new PendingSlot();
+        }
+    }
 
-    public static void putPromise(int xid, ChannelPromise promise) {
-        PROMISE_MAP.put(xid, new SimpleEntry<ChannelPromise, ClusterResponse>(promise, null));
+    /**
+     * Register a pending request of the current thread.
+     *
+     * @param xid the request ID, should be positive
+     * @return true if registered, or false if the slot is still held by another pending request
+     */
+    public static boolean register(int xid) {
+        PendingSlot slot = RING[xid & MASK];
+        if (!PendingSlot.XID_UPDATER.compareAndSet(slot, 0, xid)) {
+            return false;
+        }
+        slot.response = null;
+        slot.waiter = Thread.currentThread();
+        return true;
     }
 
-    public static SimpleEntry<ChannelPromise, ClusterResponse> getEntry(int xid) {
-        return PROMISE_MAP.get(xid);
+    /**
+     * Wait for the response of a registered request.
+     *
+     * @param xid       the request ID
+     * @param timeoutMs max time to wait in milliseconds
+     * @return the response, or null if timed out
+     */
+    public static ClusterResponse await(int xid, long timeoutMs) throws InterruptedException {
+        PendingSlot slot = RING[xid & MASK];
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (true) {
+            ClusterResponse response = slot.response;
+            // Late responses of former requests in the slot are ignored.
+            if (response != null && response.getId() == xid) {
+                return response;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            LockSupport.parkNanos(slot, remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
     }
 
     public static void remove(int xid) {
-        PROMISE_MAP.remove(xid);
+        PendingSlot slot = RING[xid & MASK];
+        if (slot.xid == xid) {
+            slot.waiter = null;
+            slot.response = null;
+            slot.xid = 0;
+        }
     }
 
     public static <T> boolean completePromise(int xid, ClusterResponse<T> response) {
-        if (!PROMISE_MAP.containsKey(xid)) {
+        if (xid <= 0) {
             return false;
         }
-        SimpleEntry<ChannelPromise, ClusterResponse> entry = PROMISE_MAP.get(xid);
-        if (entry != null) {
-            ChannelPromise promise = entry.getKey();
-            if (promise.isDone() || promise.isCancelled()) {
-                return false;
-            }
-            entry.setValue(response);
-            promise.setSuccess();
-            return true;
+        PendingSlot slot = RING[xid & MASK];
+        if (slot.xid != xid) {
+            return false;
         }
-        return false;
+        slot.response = response;
+        Thread waiter = slot.waiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+        return true;
+    }
+
+    private static final class PendingSlot {
+
+        static final AtomicIntegerFieldUpdater<PendingSlot> XID_UPDATER
+            = AtomicIntegerFieldUpdater.newUpdater(PendingSlot.class, "xid");
+
+        /**
+         * ID of the pending request, or 0 if the slot is free.
+         */
+        volatile int xid = 0;
+        volatile ClusterResponse response;
+        volatile Thread waiter;
     }
 
     private TokenClientPromiseHolder() {}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link CoalescingRequestWriter}.
+ */
+public class CoalescingRequestWriterTest {
+
+    @Test
+    public void testCoalesceFlowRequests() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        CoalescingRequestWriter writer = new CoalescingRequestWriter(channel, true);
+        int count = CoalescingRequestWriter.MAX_BATCH_SIZE + 2;
+        for (int i = 1; i <= count; i++) {
+            writer.write(newFlowRequest(i));
+        }
+        ClusterRequest<ParamFlowRequestData> paramRequest = new ClusterRequest<>(ClientConstants.TYPE_PARAM_FLOW,
+            new ParamFlowRequestData().setFlowId(1L).setCount(1).setParams(Collections.<Object>singletonList(1)));
+        writer.write(paramRequest);
+        channel.runPendingTasks();
+
+        ClusterRequest<?> first = channel.readOutbound();
+        assertSame(paramRequest, channel.readOutbound());
+        ClusterRequest<?> second = channel.readOutbound();
+        assertNull(channel.readOutbound());
+
+        assertEquals(ClientConstants.TYPE_BATCH, first.getType());
+        List<?> batch = (List<?>) first.getData();
+        assertEquals(CoalescingRequestWriter.MAX_BATCH_SIZE, batch.size());
+        assertEquals(1, ((ClusterRequest<?>) batch.get(0)).getId());
+        assertEquals(ClientConstants.TYPE_BATCH, second.getType());
+        assertEquals(2, ((List<?>) second.getData()).size());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testSingleRequestWrittenAsIs() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        CoalescingRequestWriter writer = new CoalescingRequestWriter(channel, true);
+        ClusterRequest<FlowRequestData> request = newFlowRequest(1);
+        writer.write(request);
+        channel.runPendingTasks();
+        assertSame(request, channel.readOutbound());
+
+        // Not grouped when batch frames are disabled.
+        writer = new CoalescingRequestWriter(channel, false);
+        writer.write(newFlowRequest(2));
+        writer.write(newFlowRequest(3));
+        channel.runPendingTasks();
+        assertEquals(2, ((ClusterRequest<?>) channel.readOutbound()).getId());
+        assertEquals(3, ((ClusterRequest<?>) channel.readOutbound()).getId());
+        channel.finishAndReleaseAll();
+    }
+
+    private static ClusterRequest<FlowRequestData> newFlowRequest(int xid) {
+        return new ClusterRequest<>(xid, ClientConstants.TYPE_FLOW,
+            new FlowRequestData().setFlowId(100L).setCount(1));
+    }
+}
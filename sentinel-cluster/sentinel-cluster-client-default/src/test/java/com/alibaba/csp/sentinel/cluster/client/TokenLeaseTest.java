@@ -0,0 +1,72 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link TokenLease}.
+ */
+public class TokenLeaseTest {
+
+    @Test
+    public void testAcquireAndExpire() {
+        TokenLease lease = new TokenLease();
+        assertFalse(lease.tryAcquire(1, 1000));
+
+        lease.grant(10, 100, 1000);
+        assertTrue(lease.tryAcquire(4, 1000));
+        assertTrue(lease.tryAcquire(4, 1050));
+        assertEquals(2, lease.remainingTokens());
+        assertFalse(lease.tryAcquire(3, 1050));
+        assertTrue(lease.tryAcquire(2, 1099));
+        assertFalse(lease.tryAcquire(1, 1099));
+
+        lease.grant(10, 100, 1100);
+        assertFalse(lease.tryAcquire(1, 1200));
+        // Expired tokens are dropped when renewed.
+        lease.grant(5, 100, 1200);
+        assertEquals(5, lease.remainingTokens());
+    }
+
+    @Test
+    public void testRenewalAndBlock() {
+        TokenLease lease = new TokenLease();
+        lease.grant(10, 100, 1000);
+        assertFalse(lease.shouldRenew(10, 1000));
+        // Half of the lease time passed.
+        assertTrue(lease.shouldRenew(10, 1060));
+        assertTrue(lease.tryAcquire(6, 1010));
+        // Less than half of the lease size left.
+        assertTrue(lease.shouldRenew(10, 1010));
+
+        // Unexpired tokens are kept and extended.
+        lease.grant(10, 100, 1080);
+        assertEquals(14, lease.remainingTokens());
+        assertTrue(lease.tryAcquire(14, 1170));
+
+        assertTrue(lease.tryStartRenewal());
+        assertFalse(lease.tryStartRenewal());
+        lease.finishRenewal();
+        assertTrue(lease.tryStartRenewal());
+
+        lease.block(100, 2000);
+        assertTrue(lease.isBlocked(2099));
+        assertFalse(lease.isBlocked(2100));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link TokenServerRing}.
+ */
+public class TokenServerRingTest {
+
+    private static final int FLOW_COUNT = 30000;
+
+    @Test
+    public void testOwnerIndependentOfOrder() {
+        List<TokenServerDescriptor> servers = servers(3);
+        TokenServerRing ring = newRing(servers);
+        List<TokenServerDescriptor> reversed = new ArrayList<>(servers);
+        Collections.reverse(reversed);
+        TokenServerRing reversedRing = newRing(reversed);
+
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            assertEquals(ring.serverOf(flowId), ring.serverOf(flowId));
+            assertEquals(ownerOf(ring, flowId), ownerOf(reversedRing, flowId));
+        }
+    }
+
+    @Test
+    public void testFlowsBalanced() {
+        TokenServerRing ring = newRing(servers(3));
+        int[] owned = new int[3];
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            owned[ring.indexOf(flowId)]++;
+        }
+        for (int count : owned) {
+            // Within 20% of the even share.
+            assertTrue(Math.abs(count - FLOW_COUNT / 3) < FLOW_COUNT / 3 / 5);
+        }
+    }
+
+    @Test
+    public void testOnlyFlowsOfNewServerMoved() {
+        TokenServerRing ring = newRing(servers(3));
+        List<TokenServerDescriptor> grown = servers(4);
+        String added = TokenServerRing.addressOf(grown.get(3));
+        TokenServerRing grownRing = newRing(grown);
+
+        int moved = 0;
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            String owner = ownerOf(grownRing, flowId);
+            if (!owner.equals(ownerOf(ring, flowId))) {
+                assertEquals(added, owner);
+                moved++;
+            }
+        }
+        assertTrue(Math.abs(moved - FLOW_COUNT / 4) < FLOW_COUNT / 4 / 5);
+    }
+
+    private static List<TokenServerDescriptor> servers(int count) {
+        List<TokenServerDescriptor> servers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            servers.add(new TokenServerDescriptor("10.0.0." + (i + 1), 18730));
+        }
+        return servers;
+    }
+
+    private static String ownerOf(TokenServerRing ring, long flowId) {
+        return TokenServerRing.addressOf(ring.serverOf(flowId));
+    }
+
+    private static TokenServerRing newRing(List<TokenServerDescriptor> servers) {
+        return new TokenServerRing(servers, Collections.<ClusterTransportClient>nCopies(servers.size(), null));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.handler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link TokenClientPromiseHolder}.
+ */
+public class TokenClientPromiseHolderTest {
+
+    @Test
+    public void testCompleteFromAnotherThread() throws Exception {
+        final int xid = 101;
+        final AtomicReference<ClusterResponse> result = new AtomicReference<>();
+        final CountDownLatch registered = new CountDownLatch(1);
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                assertTrue(TokenClientPromiseHolder.register(xid));
+                registered.countDown();
+                try {
+                    result.set(TokenClientPromiseHolder.await(xid, 3000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    TokenClientPromiseHolder.remove(xid);
+                }
+            }
+        });
+        waiter.start();
+        assertTrue(registered.await(3, TimeUnit.SECONDS));
+
+        ClusterResponse<Integer> response = newResponse(xid);
+        assertTrue(TokenClientPromiseHolder.completePromise(xid, response));
+        waiter.join(3000);
+        assertSame(response, result.get());
+        // Released after completion.
+        assertFalse(TokenClientPromiseHolder.completePromise(xid, response));
+    }
+
+    @Test
+    public void testTimeoutAndSlotReuse() throws Exception {
+        int xid = 202;
+        assertTrue(TokenClientPromiseHolder.register(xid));
+        // The slot is held until removed.
+        assertFalse(TokenClientPromiseHolder.register(xid + TokenClientPromiseHolder.RING_SIZE));
+        assertNull(TokenClientPromiseHolder.await(xid, 10));
+        TokenClientPromiseHolder.remove(xid);
+
+        int next = xid + TokenClientPromiseHolder.RING_SIZE;
+        assertTrue(TokenClientPromiseHolder.register(next));
+        // Late response of the former request is ignored.
+        assertFalse(TokenClientPromiseHolder.completePromise(xid, newResponse(xid)));
+        assertTrue(TokenClientPromiseHolder.completePromise(next, newResponse(next)));
+        assertEquals(next, TokenClientPromiseHolder.await(next, 10).getId());
+        TokenClientPromiseHolder.remove(next);
+    }
+
+    private static ClusterResponse<Integer> newResponse(int xid) {
+        return new ClusterResponse<>(xid, ClusterConstants.MSG_TYPE_FLOW, ClusterConstants.RESPONSE_STATUS_OK, 1);
+    }
+}
@@ -26,6 +26,15 @@ public final class ClusterConstants {
     public static final int MSG_TYPE_PARAM_FLOW = 2;
     public static final int MSG_TYPE_CONCURRENT_FLOW_ACQUIRE = 3;
     public static final int MSG_TYPE_CONCURRENT_FLOW_RELEASE = 4;
+    public static final int MSG_TYPE_FLOW_LEASE = 5;
+    /**
+     * Frame carrying multiple requests, each of which is answered by its own response.
+     */
+    public static final int MSG_TYPE_BATCH = 6;
+    /**
+     * Frame carrying state deltas from a token server to its standby.
+     */
+    public static final int MSG_TYPE_REPLICATE = 7;
 
 
     public static final int RESPONSE_STATUS_BAD = -1;
@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.cluster.flow;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterLeaseStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.limit.GlobalRequestLimiter;
 import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
@@ -25,7 +26,9 @@ import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * Flow checker for cluster flow rules.
@@ -64,21 +67,18 @@ final class ClusterFlowChecker {
             return new TokenResult(TokenResultStatus.FAIL);
         }
 
-        double latestQps = metric.getAvg(ClusterFlowEvent.PASS);
         double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
-        double nextRemaining = globalThreshold - latestQps - acquireCount;
+        // Check the threshold and add the pass count atomically.
+        double nextQps = metric.tryAddPass(acquireCount, globalThreshold);
 
-        if (nextRemaining >= 0) {
-            // TODO: checking logic and metric operation should be separated.
-            metric.add(ClusterFlowEvent.PASS, acquireCount);
-            metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+        if (nextQps >= 0) {
             if (prioritized) {
                 // Add prioritized pass.
                 metric.add(ClusterFlowEvent.OCCUPIED_PASS, acquireCount);
             }
             // Remaining count is cut down to a smaller integer.
             return new TokenResult(TokenResultStatus.OK)
-                .setRemaining((int) nextRemaining)
+                .setRemaining((int) (globalThreshold - nextQps))
                 .setWaitInMs(0);
         } else {
             if (prioritized) {
@@ -111,6 +111,47 @@ final class ClusterFlowChecker {
         }
     }
 
+    /**
+     * Grant a lease of at most {@code acquireCount} tokens. Leased tokens are counted as passed when granted,
+     * so the tokens that the client does not use before the lease expires are simply wasted. A lease lives
+     * for one bucket of the cluster metric, which bounds how long the client may keep using tokens granted
+     * from a window that has already slid.
+     */
+    static TokenResult acquireClusterLease(/*@Valid*/ FlowRule rule, int acquireCount) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        int leaseTimeMs = calcLeaseTimeMs(rule.getClusterConfig());
+        double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
+        // A single lease takes no more than the fair share of the client, so that one client cannot drain the quota.
+        int connectedCount = Math.max(1, ClusterFlowRuleManager.getConnectedCount(id));
+        double fairShare = Math.max(1, globalThreshold / connectedCount);
+        int granted = metric.tryAddPassUpTo((int) Math.min(acquireCount, fairShare), globalThreshold);
+
+        if (granted > 0) {
+            ClusterLeaseStatistics.addLease(id, granted, TimeUtil.currentTimeMillis() + leaseTimeMs);
+            return new TokenResult(TokenResultStatus.OK)
+                .setRemaining(granted)
+                .setWaitInMs(leaseTimeMs);
+        }
+        metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+        ClusterServerStatLogUtil.log("flow|block_request|" + id, 1);
+        // The quota will not be released until the current bucket slides out, so let the client retry later.
+        return blockedResult().setWaitInMs(leaseTimeMs);
+    }
+
+    private static int calcLeaseTimeMs(ClusterFlowConfig config) {
+        return Math.max(1, config.getWindowIntervalMs() / config.getSampleCount());
+    }
+
     private static TokenResult blockedResult() {
         return new TokenResult(TokenResultStatus.BLOCKED)
             .setRemaining(0)
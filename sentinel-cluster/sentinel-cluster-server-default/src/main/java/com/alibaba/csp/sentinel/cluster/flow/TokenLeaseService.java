@@ -0,0 +1,39 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+
+/**
+ * <p>A {@link TokenService} that can grant a batch of flow tokens to a client at once (a lease),
+ * so that the client can serve its requests locally until the batch is used up or expired.</p>
+ *
+ * @since 1.8.9
+ */
+public interface TokenLeaseService {
+
+    /**
+     * Request a lease of tokens from the token server.
+     *
+     * @param ruleId       the unique rule ID
+     * @param acquireCount count of tokens the client wants to lease
+     * @return result of the lease, where {@link TokenResult#getRemaining()} is the count of granted tokens
+     * and {@link TokenResult#getWaitInMs()} is the time to live of the lease (or the time to wait before
+     * retrying if blocked)
+     */
+    TokenResult requestTokenLease(Long ruleId, int acquireCount);
+}
@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.rule;
 
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterLeaseStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.CurrentConcurrencyManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
@@ -274,6 +275,7 @@ public final class ClusterFlowRuleManager {
             for (Long flowId : flowIdSet) {
                 FLOW_RULES.remove(flowId);
                 FLOW_NAMESPACE_MAP.remove(flowId);
+                ClusterLeaseStatistics.removeLeases(flowId);
                 if (CurrentConcurrencyManager.containsFlowId(flowId)) {
                     CurrentConcurrencyManager.remove(flowId);
                 }
@@ -292,6 +294,7 @@ public final class ClusterFlowRuleManager {
                     FLOW_RULES.remove(flowId);
                     FLOW_NAMESPACE_MAP.remove(flowId);
                     ClusterMetricStatistics.removeMetric(flowId);
+                    ClusterLeaseStatistics.removeLeases(flowId);
                     if (CurrentConcurrencyManager.containsFlowId(flowId)) {
                         CurrentConcurrencyManager.remove(flowId);
                     }
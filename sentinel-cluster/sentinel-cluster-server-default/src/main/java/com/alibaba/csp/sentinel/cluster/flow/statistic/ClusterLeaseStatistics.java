@@ -0,0 +1,133 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Tracks the token leases granted to cluster clients for each flow. A lease is outstanding until it expires,
+ * and its tokens are no longer usable by the client after that.</p>
+ *
+ * @since 1.8.9
+ */
+public final class ClusterLeaseStatistics {
+
+    private static final Map<Long, FlowLeases> LEASE_MAP = new ConcurrentHashMap<>();
+
+    public static void clear() {
+        LEASE_MAP.clear();
+    }
+
+    /**
+     * Record a lease granted for the flow.
+     *
+     * @param id       the flow ID
+     * @param count    count of leased tokens
+     * @param expireAt expiry time of the lease in milliseconds
+     */
+    public static void addLease(long id, int count, long expireAt) {
+        FlowLeases leases = LEASE_MAP.get(id);
+        if (leases == null) {
+            leases = new FlowLeases();
+            FlowLeases old = LEASE_MAP.putIfAbsent(id, leases);
+            if (old != null) {
+                leases = old;
+            }
+        }
+        leases.add(count, expireAt);
+    }
+
+    /**
+     * @param id the flow ID
+     * @return count of leased tokens of the flow that have not expired
+     */
+    public static long getOutstandingTokens(long id) {
+        FlowLeases leases = LEASE_MAP.get(id);
+        return leases == null ? 0 : leases.outstanding(TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * @param id the flow ID
+     * @return expiry time of the latest outstanding lease of the flow, or 0 if none
+     */
+    public static long getLatestExpireTime(long id) {
+        FlowLeases leases = LEASE_MAP.get(id);
+        return leases == null ? 0 : leases.latestExpireAt(TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Merge the outstanding leases replicated from the primary token server: if less tokens are outstanding
+     * here, the difference is recorded as a lease expiring at the given time.
+     *
+     * @param id       the flow ID
+     * @param count    count of outstanding leased tokens on the primary
+     * @param expireAt expiry time of the latest lease on the primary
+     */
+    public static void mergeLeases(long id, long count, long expireAt) {
+        long now = TimeUtil.currentTimeMillis();
+        if (count <= 0 || expireAt <= now) {
+            return;
+        }
+        long outstanding = getOutstandingTokens(id);
+        if (count > outstanding) {
+            addLease(id, (int) Math.min(count - outstanding, Integer.MAX_VALUE), expireAt);
+        }
+    }
+
+    public static void removeLeases(long id) {
+        LEASE_MAP.remove(id);
+    }
+
+    private static final class FlowLeases {
+
+        /**
+         * Leases of one flow share the same time to live, so they expire in the order of granting.
+         */
+        private final ArrayDeque<long[]> leases = new ArrayDeque<>();
+        private long outstanding = 0;
+
+        synchronized void add(int count, long expireAt) {
+            expire(TimeUtil.currentTimeMillis());
+            leases.addLast(new long[] {expireAt, count});
+            outstanding += count;
+        }
+
+        synchronized long outstanding(long now) {
+            expire(now);
+            return outstanding;
+        }
+
+        synchronized long latestExpireAt(long now) {
+            expire(now);
+            long[] lease = leases.peekLast();
+            return lease == null ? 0 : lease[0];
+        }
+
+        private void expire(long now) {
+            long[] lease;
+            while ((lease = leases.peekFirst()) != null && lease[0] <= now) {
+                leases.pollFirst();
+                outstanding -= lease[1];
+            }
+        }
+    }
+
+    private ClusterLeaseStatistics() {}
+}
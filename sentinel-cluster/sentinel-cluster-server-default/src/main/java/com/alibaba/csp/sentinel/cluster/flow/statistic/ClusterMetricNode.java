@@ -31,6 +31,10 @@ public class ClusterMetricNode {
     private double passQps;
     private double blockQps;
     private long rt;
+    /**
+     * Count of leased tokens that have not expired.
+     */
+    private long leasedTokens;
 
     private Map<Object, Double> topParams;
 
@@ -88,6 +92,15 @@ public class ClusterMetricNode {
         return this;
     }
 
+    public long getLeasedTokens() {
+        return leasedTokens;
+    }
+
+    public ClusterMetricNode setLeasedTokens(long leasedTokens) {
+        this.leasedTokens = leasedTokens;
+        return this;
+    }
+
     public Map<Object, Double> getTopParams() {
         return topParams;
     }
@@ -106,6 +119,7 @@ public class ClusterMetricNode {
             ", passQps=" + passQps +
             ", blockQps=" + blockQps +
             ", rt=" + rt +
+            ", leasedTokens=" + leasedTokens +
             ", topParams=" + topParams +
             '}';
     }
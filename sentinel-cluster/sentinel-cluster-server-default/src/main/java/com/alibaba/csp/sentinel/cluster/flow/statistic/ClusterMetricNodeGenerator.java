@@ -82,6 +82,7 @@ public class ClusterMetricNodeGenerator {
             .setResourceName(rule.getResource())
             .setBlockQps(metric.getAvg(ClusterFlowEvent.BLOCK))
             .setPassQps(metric.getAvg(ClusterFlowEvent.PASS))
+            .setLeasedTokens(ClusterLeaseStatistics.getOutstandingTokens(flowId))
             .setTimestamp(TimeUtil.currentTimeMillis());
     }
 
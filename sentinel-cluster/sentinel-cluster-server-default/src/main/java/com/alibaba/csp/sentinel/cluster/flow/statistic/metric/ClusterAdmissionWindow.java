@@ -0,0 +1,180 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Admission counter of passed tokens in a sliding window. It keeps a running total of the window, so that
+ * checking the threshold and adding the passed tokens are done by one CAS on the total, instead of summing
+ * all buckets and adding in separate steps.</p>
+ *
+ * <p>Buckets are expired (and subtracted from the total) once per bucket length rather than per request.
+ * The total never exceeds the limit when tokens are admitted, and tokens added to a bucket while it is being
+ * expired are kept in the next window of the bucket, so the total only errs towards fewer admissions.</p>
+ *
+ * @since 1.8.9
+ */
+final class ClusterAdmissionWindow {
+
+    private final int sampleCount;
+    private final int intervalInMs;
+    private final int bucketLengthInMs;
+
+    private final AtomicLong total = new AtomicLong(0);
+    private final AtomicLongArray counts;
+    private final AtomicLongArray startTimes;
+
+    ClusterAdmissionWindow(int sampleCount, int intervalInMs) {
+        this.sampleCount = sampleCount;
+        this.intervalInMs = intervalInMs;
+        this.bucketLengthInMs = intervalInMs / sampleCount;
+        this.counts = new AtomicLongArray(sampleCount);
+        this.startTimes = new AtomicLongArray(sampleCount);
+    }
+
+    /**
+     * Add tokens if the total of the window does not exceed the limit after adding.
+     *
+     * @param count tokens to add
+     * @param limit max total of the window
+     * @param now   current time in milliseconds
+     * @return the total after adding, or -1 if the limit would be exceeded
+     */
+    long tryAdd(int count, double limit, long now) {
+        int idx = rotate(now);
+        while (true) {
+            long current = total.get();
+            long next = current + count;
+            if (next > limit) {
+                return -1;
+            }
+            if (total.compareAndSet(current, next)) {
+                counts.addAndGet(idx, count);
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Add as many tokens as possible (at most {@code maxCount}) without exceeding the limit.
+     *
+     * @param maxCount max tokens to add
+     * @param limit    max total of the window
+     * @param now      current time in milliseconds
+     * @return count of added tokens
+     */
+    int tryAddUpTo(int maxCount, double limit, long now) {
+        int idx = rotate(now);
+        while (true) {
+            long current = total.get();
+            int count = (int) Math.min(maxCount, Math.floor(limit - current));
+            if (count <= 0) {
+                return 0;
+            }
+            if (total.compareAndSet(current, current + count)) {
+                counts.addAndGet(idx, count);
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Add tokens regardless of the limit.
+     */
+    void add(long count, long now) {
+        int idx = rotate(now);
+        total.addAndGet(count);
+        counts.addAndGet(idx, count);
+    }
+
+    long getTotal(long now) {
+        rotate(now);
+        return total.get();
+    }
+
+    int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Copy the buckets of the current window. Buckets out of the window are copied with zero count.
+     *
+     * @param now          current time in milliseconds
+     * @param bucketStarts start time of the buckets, of at least {@code sampleCount} elements
+     * @param bucketCounts count of the buckets, of at least {@code sampleCount} elements
+     */
+    void snapshot(long now, long[] bucketStarts, long[] bucketCounts) {
+        rotate(now);
+        for (int i = 0; i < sampleCount; i++) {
+            long start = startTimes.get(i);
+            bucketStarts[i] = start;
+            bucketCounts[i] = now - start < intervalInMs ? counts.get(i) : 0;
+        }
+    }
+
+    /**
+     * Merge the count of a bucket replicated from another window: the bucket is raised to the given count
+     * if it is lower. Buckets out of the current window are ignored.
+     *
+     * @param bucketStart start time of the bucket
+     * @param count       count of the bucket
+     * @param now         current time in milliseconds
+     */
+    void merge(long bucketStart, long count, long now) {
+        if (bucketStart % bucketLengthInMs != 0 || now - bucketStart >= intervalInMs
+            || bucketStart - now >= bucketLengthInMs) {
+            return;
+        }
+        rotate(now);
+        int idx = (int) ((bucketStart / bucketLengthInMs) % sampleCount);
+        synchronized (this) {
+            if (startTimes.get(idx) < bucketStart) {
+                total.addAndGet(-counts.getAndSet(idx, 0));
+                startTimes.set(idx, bucketStart);
+            } else if (startTimes.get(idx) > bucketStart) {
+                return;
+            }
+            long delta = count - counts.get(idx);
+            if (delta > 0) {
+                counts.addAndGet(idx, delta);
+                total.addAndGet(delta);
+            }
+        }
+    }
+
+    private int rotate(long now) {
+        int idx = (int) ((now / bucketLengthInMs) % sampleCount);
+        long windowStart = now - now % bucketLengthInMs;
+        // Also true if the clock goes backwards.
+        if (startTimes.get(idx) >= windowStart) {
+            return idx;
+        }
+        synchronized (this) {
+            if (startTimes.get(idx) < windowStart) {
+                for (int i = 0; i < sampleCount; i++) {
+                    if (i == idx || now - startTimes.get(i) >= intervalInMs) {
+                        total.addAndGet(-counts.getAndSet(i, 0));
+                    }
+                }
+                // Published after the bucket is cleared.
+                startTimes.set(idx, windowStart);
+            }
+        }
+        return idx;
+    }
+}
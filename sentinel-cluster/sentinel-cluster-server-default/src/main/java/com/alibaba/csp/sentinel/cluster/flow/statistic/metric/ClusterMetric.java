@@ -20,6 +20,7 @@ import java.util.List;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * @author Eric Zhao
@@ -28,16 +29,93 @@ import com.alibaba.csp.sentinel.util.AssertUtil;
 public class ClusterMetric {
 
     private final ClusterMetricLeapArray metric;
+    /**
+     * Passed tokens of the window, for the atomic check of the threshold.
+     */
+    private final ClusterAdmissionWindow admission;
 
     public ClusterMetric(int sampleCount, int intervalInMs) {
         AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
         AssertUtil.isTrue(intervalInMs > 0, "interval should be positive");
         AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
         this.metric = new ClusterMetricLeapArray(sampleCount, intervalInMs);
+        this.admission = new ClusterAdmissionWindow(sampleCount, intervalInMs);
+    }
+
+    /**
+     * Check and add passed tokens atomically: tokens are added only if the average pass QPS of the window
+     * does not exceed the threshold after adding.
+     *
+     * @param acquireCount tokens to acquire
+     * @param threshold    the threshold of pass QPS
+     * @return the average pass QPS after adding, or -1 if the threshold would be exceeded
+     * @since 1.8.9
+     */
+    public double tryAddPass(int acquireCount, double threshold) {
+        double intervalInSecond = metric.getIntervalInSecond();
+        long total = admission.tryAdd(acquireCount, threshold * intervalInSecond, TimeUtil.currentTimeMillis());
+        if (total < 0) {
+            return -1;
+        }
+        addPassStatistics(acquireCount);
+        return total / intervalInSecond;
+    }
+
+    /**
+     * Add as many passed tokens as possible (at most {@code maxCount}) without exceeding the threshold.
+     *
+     * @param maxCount  max tokens to acquire
+     * @param threshold the threshold of pass QPS
+     * @return count of added tokens
+     * @since 1.8.9
+     */
+    public int tryAddPassUpTo(int maxCount, double threshold) {
+        int count = admission.tryAddUpTo(maxCount, threshold * metric.getIntervalInSecond(),
+            TimeUtil.currentTimeMillis());
+        if (count > 0) {
+            addPassStatistics(count);
+        }
+        return count;
+    }
+
+    /**
+     * Copy the admission buckets of the current window, for replication to a standby token server.
+     *
+     * @param bucketStarts start time of the buckets, of at least {@link #getSampleCount()} elements
+     * @param bucketCounts count of passed tokens of the buckets, of at least {@link #getSampleCount()} elements
+     * @since 1.8.9
+     */
+    public void snapshotAdmission(long[] bucketStarts, long[] bucketCounts) {
+        admission.snapshot(TimeUtil.currentTimeMillis(), bucketStarts, bucketCounts);
+    }
+
+    /**
+     * Merge an admission bucket replicated from the primary token server. The bucket is raised to the given
+     * count if it is lower, so merging the same bucket again has no effect.
+     *
+     * @param bucketStart start time of the bucket
+     * @param count       count of passed tokens of the bucket
+     * @since 1.8.9
+     */
+    public void mergeAdmission(long bucketStart, long count) {
+        admission.merge(bucketStart, count, TimeUtil.currentTimeMillis());
+    }
+
+    public int getSampleCount() {
+        return admission.getSampleCount();
+    }
+
+    private void addPassStatistics(int count) {
+        ClusterMetricBucket bucket = metric.currentWindow().value();
+        bucket.add(ClusterFlowEvent.PASS, count);
+        bucket.add(ClusterFlowEvent.PASS_REQUEST, 1);
     }
 
     public void add(ClusterFlowEvent event, long count) {
         metric.currentWindow().value().add(event, count);
+        if (event == ClusterFlowEvent.PASS) {
+            admission.add(count, TimeUtil.currentTimeMillis());
+        }
     }
 
     public long getCurrentCount(ClusterFlowEvent event) {
@@ -82,6 +160,8 @@ public class ClusterMetric {
             return 0;
         }
         metric.addOccupyPass(acquireCount);
+        // Occupied tokens pass in the next bucket, but are admitted from now on.
+        admission.add(acquireCount, TimeUtil.currentTimeMillis());
         add(ClusterFlowEvent.WAITING, acquireCount);
         return 1000 / metric.getSampleCount();
     }
@@ -36,7 +36,6 @@ import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.util.concurrent.GenericFutureListener;
@@ -88,7 +87,6 @@ public class NettyTransportServer implements ClusterTokenServer {
                     ChannelPipeline p = ch.pipeline();
                     p.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
                     p.addLast(new NettyRequestDecoder());
-                    p.addLast(new LengthFieldPrepender(2));
                     p.addLast(new NettyResponseEncoder());
                     p.addLast(new TokenServerHandler(connectionPool));
                 }
@@ -22,9 +22,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
 import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
 import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfigObserver;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.cluster.server.replication.ClusterStateReplicator;
 import com.alibaba.csp.sentinel.init.InitExecutor;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.HostNameUtil;
@@ -40,6 +42,7 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
 
     private ClusterTokenServer server;
     private int port;
+    private ClusterStateReplicator replicator;
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
     static {
@@ -97,6 +100,7 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
             if (server != null) {
                 server.start();
                 ClusterStateManager.markToServer();
+                startReplicationIfConfigured();
                 if (embedded) {
                     RecordLog.info("[SentinelDefaultTokenServer] Running in embedded mode");
                     handleEmbeddedStart();
@@ -105,7 +109,32 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
         }
     }
 
+    private void startReplicationIfConfigured() {
+        String standbyAddress = ClusterServerStartUpConfig.getStandbyAddress();
+        if (standbyAddress == null || replicator != null) {
+            return;
+        }
+        int idx = standbyAddress.lastIndexOf(':');
+        try {
+            String host = standbyAddress.substring(0, idx);
+            int port = Integer.parseInt(standbyAddress.substring(idx + 1));
+            this.replicator = new ClusterStateReplicator(host, port,
+                ClusterServerStartUpConfig.getReplicationIntervalMs());
+            replicator.start();
+        } catch (Exception ex) {
+            RecordLog.warn("[SentinelDefaultTokenServer] Invalid standby token server address: " + standbyAddress, ex);
+        }
+    }
+
+    private void stopReplication() {
+        if (replicator != null) {
+            replicator.stop();
+            this.replicator = null;
+        }
+    }
+
     private void stopServer() throws Exception {
+        stopReplication();
         if (server != null) {
             server.stop();
             if (embedded) {
@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.Request;
+import com.alibaba.csp.sentinel.cluster.server.codec.ServerEntityCodecProvider;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Decoder for the requests in one batch frame. The layout:</p>
+ * <pre>
+ * | count (1) | length (2) | request (head and data) | length (2) | request (head and data) | ...
+ * </pre>
+ * <p>Requests that cannot be decoded (and nested batches) are skipped.</p>
+ *
+ * @since 1.8.9
+ */
+public class BatchRequestDataDecoder implements EntityDecoder<ByteBuf, List<ClusterRequest>> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ClusterRequest> decode(ByteBuf source) {
+        RequestEntityDecoder<ByteBuf, Request> requestDecoder = ServerEntityCodecProvider.getRequestEntityDecoder();
+        if (requestDecoder == null || source.readableBytes() < 1) {
+            return null;
+        }
+        int count = source.readUnsignedByte();
+        List<ClusterRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count && source.readableBytes() >= 2; i++) {
+            int length = source.readUnsignedShort();
+            if (length > source.readableBytes()) {
+                break;
+            }
+            ByteBuf slice = source.readSlice(length);
+            if (length > 4 && slice.getByte(slice.readerIndex() + 4) == ClusterConstants.MSG_TYPE_BATCH) {
+                continue;
+            }
+            Request request = requestDecoder.decode(slice);
+            if (request instanceof ClusterRequest) {
+                requests.add((ClusterRequest) request);
+            }
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.server.replication.FlowStateDelta;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Decoder for the state deltas replicated from the primary token server. See
+ * {@link ReplicationRequestDataWriter} for the layout. Incomplete deltas at the end are dropped.
+ *
+ * @since 1.8.9
+ */
+public class ReplicationRequestDataDecoder implements EntityDecoder<ByteBuf, List<FlowStateDelta>> {
+
+    @Override
+    public List<FlowStateDelta> decode(ByteBuf source) {
+        if (source.readableBytes() < ReplicationRequestDataWriter.HEAD_SIZE) {
+            return null;
+        }
+        int count = source.readUnsignedShort();
+        List<FlowStateDelta> deltas = new ArrayList<>(count);
+        for (int i = 0; i < count && source.readableBytes() >= ReplicationRequestDataWriter.DELTA_HEAD_SIZE; i++) {
+            FlowStateDelta delta = new FlowStateDelta()
+                .setFlowId(source.readLong())
+                .setLeasedTokens(source.readLong())
+                .setLeaseExpireAt(source.readLong());
+            int bucketSize = source.readUnsignedByte();
+            if (source.readableBytes() < bucketSize * ReplicationRequestDataWriter.BUCKET_SIZE) {
+                break;
+            }
+            for (int j = 0; j < bucketSize; j++) {
+                delta.addBucket(source.readLong(), source.readLong());
+            }
+            deltas.add(delta);
+        }
+        return deltas;
+    }
+}
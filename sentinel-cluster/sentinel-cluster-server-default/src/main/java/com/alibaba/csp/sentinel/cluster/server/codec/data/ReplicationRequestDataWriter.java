@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.server.replication.FlowStateDelta;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Writer for the state deltas replicated to the standby token server. The layout:</p>
+ * <pre>
+ * | count (2) | delta | delta | ...
+ * </pre>
+ * <p>and each delta:</p>
+ * <pre>
+ * | flow ID (8) | leased tokens (8) | lease expiry (8) | bucket count (1) | bucket start (8) | bucket count (8) | ...
+ * </pre>
+ *
+ * @since 1.8.9
+ */
+public class ReplicationRequestDataWriter implements EntityWriter<List<FlowStateDelta>, ByteBuf> {
+
+    public static final int HEAD_SIZE = 2;
+    public static final int DELTA_HEAD_SIZE = 8 + 8 + 8 + 1;
+    public static final int BUCKET_SIZE = 8 + 8;
+    public static final int MAX_BUCKETS_PER_DELTA = 0xFF;
+
+    @Override
+    public void writeTo(List<FlowStateDelta> deltas, ByteBuf target) {
+        if (deltas == null || target == null) {
+            return;
+        }
+        target.writeShort(deltas.size());
+        for (FlowStateDelta delta : deltas) {
+            int bucketSize = Math.min(delta.getBucketSize(), MAX_BUCKETS_PER_DELTA);
+            target.writeLong(delta.getFlowId());
+            target.writeLong(delta.getLeasedTokens());
+            target.writeLong(delta.getLeaseExpireAt());
+            target.writeByte(bucketSize);
+            for (int i = 0; i < bucketSize; i++) {
+                target.writeLong(delta.getBucketStart(i));
+                target.writeLong(delta.getBucketCount(i));
+            }
+        }
+    }
+
+    public static int sizeOf(FlowStateDelta delta) {
+        return DELTA_HEAD_SIZE + BUCKET_SIZE * Math.min(delta.getBucketSize(), MAX_BUCKETS_PER_DELTA);
+    }
+}
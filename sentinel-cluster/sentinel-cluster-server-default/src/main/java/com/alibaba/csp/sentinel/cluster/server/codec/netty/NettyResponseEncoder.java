@@ -16,12 +16,10 @@
 package com.alibaba.csp.sentinel.cluster.server.codec.netty;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
-import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
 import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityWriter;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.Response;
 import com.alibaba.csp.sentinel.cluster.server.codec.ServerEntityCodecProvider;
-import com.alibaba.csp.sentinel.cluster.server.codec.registry.ResponseDataWriterRegistry;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.buffer.ByteBuf;
@@ -29,13 +27,34 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 /**
+ * <p>Encodes the response with its length field (2 bytes) in one buffer, which is written in place
+ * instead of being prepended with another buffer.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyResponseEncoder extends MessageToByteEncoder<ClusterResponse> {
 
+    /**
+     * Max length of a frame including the length field, same as the frame decoder of the client,
+     * so that oversized frames fail here instead of on the peer.
+     */
+    private static final int MAX_FRAME_LENGTH = 1024;
+
     @Override
     protected void encode(ChannelHandlerContext ctx, ClusterResponse response, ByteBuf out) throws Exception {
+        int lengthIndex = out.writerIndex();
+        out.writeShort(0);
+        encodeResponse(response, out);
+        int length = out.writerIndex() - lengthIndex - 2;
+        if (length + 2 > MAX_FRAME_LENGTH) {
+            out.writerIndex(lengthIndex);
+            throw new IllegalArgumentException("frame length exceeds " + MAX_FRAME_LENGTH + ": " + (length + 2));
+        }
+        out.setShort(lengthIndex, length);
+    }
+
+    private void encodeResponse(ClusterResponse response, ByteBuf out) {
         ResponseEntityWriter<ClusterResponse, ByteBuf> responseEntityWriter = ServerEntityCodecProvider.getResponseEntityWriter();
         if (responseEntityWriter == null) {
             RecordLog.warn("[NettyResponseEncoder] Cannot resolve the global response entity writer, reply bad status");
@@ -46,7 +65,6 @@ public class NettyResponseEncoder extends MessageToByteEncoder<ClusterResponse>
         responseEntityWriter.writeTo(response, out);
     }
 
-
     private void writeBadStatusHead(Response response, ByteBuf out) {
         out.writeInt(response.getId());
         out.writeByte(ClusterConstants.RESPONSE_STATUS_BAD);
@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.config;
+
+import com.alibaba.csp.sentinel.cluster.server.replication.ClusterStateReplicator;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>
+ * this class dedicated to reading startup configurations of cluster server
+ * </p>
+ *
+ * @since 1.8.9
+ */
+public final class ClusterServerStartUpConfig {
+
+    private static final String STANDBY_ADDRESS = "csp.sentinel.cluster.server.standby.address";
+    private static final String REPLICATION_INTERVAL_MS = "csp.sentinel.cluster.server.replication.interval.ms";
+
+    /**
+     * Get the address ({@code host:port}) of the hot-standby token server, to which the state of flows
+     * is replicated.
+     *
+     * @return the address of the standby server, or null if absent
+     */
+    public static String getStandbyAddress() {
+        String address = SentinelConfig.getConfig(STANDBY_ADDRESS);
+        return StringUtil.isBlank(address) ? null : address.trim();
+    }
+
+    /**
+     * Get the interval of replicating the state of flows to the standby token server.
+     *
+     * @return the interval in milliseconds
+     */
+    public static int getReplicationIntervalMs() {
+        String intervalMs = SentinelConfig.getConfig(REPLICATION_INTERVAL_MS);
+        if (intervalMs == null) {
+            return ClusterStateReplicator.DEFAULT_INTERVAL_MS;
+        }
+        try {
+            int value = Integer.parseInt(intervalMs.trim());
+            return value > 0 ? value : ClusterStateReplicator.DEFAULT_INTERVAL_MS;
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterServerStartUpConfig] Failed to parse replicationIntervalMs: " + intervalMs);
+            return ClusterStateReplicator.DEFAULT_INTERVAL_MS;
+        }
+    }
+
+    private ClusterServerStartUpConfig() {}
+}
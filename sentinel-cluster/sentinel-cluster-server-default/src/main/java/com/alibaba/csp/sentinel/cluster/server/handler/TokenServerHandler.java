@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.cluster.server.handler;
 
 import java.net.InetSocketAddress;
+import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
@@ -69,22 +70,46 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
                 return;
             }
 
-            // Pick request processor for request type.
-            RequestProcessor<?, ?> processor = RequestProcessorProvider.getProcessor(request.getType());
-            if (processor == null) {
-                RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
-                writeBadResponse(ctx, request);
-            } else {
-                ClusterResponse<?> response = processor.processRequest(request);
-                writeResponse(ctx, response);
+            if (request.getType() == ClusterConstants.MSG_TYPE_BATCH) {
+                handleBatchRequest(ctx, request);
+                return;
             }
+
+            writeResponse(ctx, processRequest(request));
         }
     }
 
-    private void writeBadResponse(ChannelHandlerContext ctx, ClusterRequest request) {
-        ClusterResponse<?> response = new ClusterResponse<>(request.getId(), request.getType(),
+    /**
+     * Requests in a batch are answered by their own responses, which are flushed together.
+     */
+    private void handleBatchRequest(ChannelHandlerContext ctx, ClusterRequest batch) {
+        if (!(batch.getData() instanceof List)) {
+            return;
+        }
+        for (Object request : (List<?>) batch.getData()) {
+            ctx.write(processRequest((ClusterRequest) request));
+        }
+        ctx.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClusterResponse<?> processRequest(ClusterRequest request) {
+        // Pick request processor for request type.
+        RequestProcessor<?, ?> processor = RequestProcessorProvider.getProcessor(request.getType());
+        if (processor == null) {
+            RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
+            return badResponse(request);
+        }
+        return processor.processRequest(request);
+    }
+
+    private ClusterResponse<?> badResponse(ClusterRequest request) {
+        return new ClusterResponse<>(request.getId(), request.getType(),
             ClusterConstants.RESPONSE_STATUS_BAD, null);
-        writeResponse(ctx, response);
+    }
+
+    private void writeBadResponse(ChannelHandlerContext ctx, ClusterRequest request) {
+        writeResponse(ctx, badResponse(request));
     }
 
     private void writeResponse(ChannelHandlerContext ctx, ClusterResponse response) {
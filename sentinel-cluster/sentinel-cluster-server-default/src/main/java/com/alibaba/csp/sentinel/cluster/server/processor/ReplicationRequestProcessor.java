@@ -0,0 +1,65 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterLeaseStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.replication.FlowStateDelta;
+
+/**
+ * Processor for the state deltas replicated from the primary token server. Deltas are merged into the local
+ * statistics (see {@link ClusterMetric#mergeAdmission(long, long)}), so that clients failing over to this server
+ * are still limited by the tokens passed on the primary. Deltas of flows without rules here are ignored.
+ * The data of the response is the count of merged deltas.
+ *
+ * @since 1.8.9
+ */
+@RequestType(ClusterConstants.MSG_TYPE_REPLICATE)
+public class ReplicationRequestProcessor implements RequestProcessor<List<FlowStateDelta>, Integer> {
+
+    @Override
+    public ClusterResponse<Integer> processRequest(ClusterRequest<List<FlowStateDelta>> request) {
+        int merged = 0;
+        List<FlowStateDelta> deltas = request.getData();
+        if (deltas != null) {
+            for (FlowStateDelta delta : deltas) {
+                if (merge(delta)) {
+                    merged++;
+                }
+            }
+        }
+        return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK, merged);
+    }
+
+    private boolean merge(FlowStateDelta delta) {
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(delta.getFlowId());
+        if (metric == null) {
+            return false;
+        }
+        for (int i = 0; i < delta.getBucketSize(); i++) {
+            metric.mergeAdmission(delta.getBucketStart(i), delta.getBucketCount(i));
+        }
+        ClusterLeaseStatistics.mergeLeases(delta.getFlowId(), delta.getLeasedTokens(), delta.getLeaseExpireAt());
+        return true;
+    }
+}
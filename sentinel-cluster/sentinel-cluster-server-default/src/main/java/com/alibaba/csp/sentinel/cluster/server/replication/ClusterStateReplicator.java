@@ -0,0 +1,324 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterLeaseStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.ReplicationRequestDataWriter;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.GenericFutureListener;
+
+/**
+ * <p>Replicates the flow state of this token server to a hot-standby token server, so that clients failing over
+ * to the standby are still limited by the tokens passed here. Periodically, the admission buckets changed since
+ * the last replication (see {@link ClusterMetric#snapshotAdmission(long[], long[])}) and the outstanding token
+ * leases of each flow are sent as {@link ClusterConstants#MSG_TYPE_REPLICATE} frames over the cluster transport.</p>
+ *
+ * <p>The standby merges each bucket by raising it to the replicated count, so frames can be lost or repeated.
+ * The whole state is sent again after reconnecting. The standby should load the same flow rules.</p>
+ *
+ * @since 1.8.9
+ */
+public final class ClusterStateReplicator {
+
+    public static final int DEFAULT_INTERVAL_MS = 100;
+
+    /**
+     * Max size of the deltas in one frame, within the max frame length (1024) of the token server.
+     */
+    static final int MAX_FRAME_DATA_SIZE = 1000;
+    /**
+     * Buckets of one flow are split into multiple deltas if there are more.
+     */
+    static final int MAX_BUCKETS_PER_DELTA = 32;
+
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+
+    private final String host;
+    private final int port;
+    private final int intervalMs;
+
+    /**
+     * Replicated state of the flows, only accessed in the replication thread.
+     */
+    private final Map<Long, ReplicatedState> replicatedStates = new HashMap<>();
+    private long[] bucketStarts = new long[0];
+    private long[] bucketCounts = new long[0];
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicInteger idGenerator = new AtomicInteger(0);
+    private NioEventLoopGroup eventLoopGroup;
+    private Bootstrap bootstrap;
+    private volatile Channel channel;
+    private boolean connecting = false;
+    private boolean connectFailed = false;
+
+    public ClusterStateReplicator(String host, int port) {
+        this(host, port, DEFAULT_INTERVAL_MS);
+    }
+
+    public ClusterStateReplicator(String host, int port, int intervalMs) {
+        AssertUtil.assertNotBlank(host, "standby host cannot be blank");
+        AssertUtil.isTrue(port > 0, "port should be positive");
+        AssertUtil.isTrue(intervalMs > 0, "intervalMs should be positive");
+        this.host = host;
+        this.port = port;
+        this.intervalMs = intervalMs;
+    }
+
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        this.eventLoopGroup = new NioEventLoopGroup(1,
+            new NamedThreadFactory("sentinel-cluster-state-replicator", true));
+        this.bootstrap = new Bootstrap().group(eventLoopGroup)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MS)
+            .handler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                public void initChannel(SocketChannel ch) {
+                    ch.pipeline().addLast(new LengthFieldPrepender(2))
+                        .addLast(new ReplicationRequestEncoder())
+                        .addLast(new ReplicationResponseHandler());
+                }
+            });
+        eventLoopGroup.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    replicate();
+                } catch (Throwable e) {
+                    RecordLog.warn("[ClusterStateReplicator] Failed to replicate state to standby", e);
+                }
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        RecordLog.info("[ClusterStateReplicator] Replicating state to standby token server <{}:{}>", host, port);
+    }
+
+    public void stop() {
+        if (!started.compareAndSet(true, false)) {
+            return;
+        }
+        Channel ch = channel;
+        if (ch != null) {
+            ch.close();
+            channel = null;
+        }
+        eventLoopGroup.shutdownGracefully();
+        RecordLog.info("[ClusterStateReplicator] Stopped replicating state to <{}:{}>", host, port);
+    }
+
+    public boolean isConnected() {
+        Channel ch = channel;
+        return ch != null && ch.isActive();
+    }
+
+    private void replicate() {
+        Channel ch = channel;
+        if (ch == null || !ch.isActive()) {
+            connect();
+            return;
+        }
+        if (!ch.isWritable()) {
+            // The standby falls behind. Changes are accumulated and sent later.
+            return;
+        }
+        List<FlowStateDelta> deltas = collectDeltas();
+        List<FlowStateDelta> frame = new ArrayList<>();
+        int frameSize = ReplicationRequestDataWriter.HEAD_SIZE;
+        for (FlowStateDelta delta : deltas) {
+            int size = ReplicationRequestDataWriter.sizeOf(delta);
+            if (frameSize + size > MAX_FRAME_DATA_SIZE) {
+                ch.write(newRequest(frame));
+                frame = new ArrayList<>();
+                frameSize = ReplicationRequestDataWriter.HEAD_SIZE;
+            }
+            frame.add(delta);
+            frameSize += size;
+        }
+        if (!frame.isEmpty()) {
+            ch.write(newRequest(frame));
+        }
+        ch.flush();
+    }
+
+    private ClusterRequest<List<FlowStateDelta>> newRequest(List<FlowStateDelta> deltas) {
+        return new ClusterRequest<>(idGenerator.incrementAndGet(), ClusterConstants.MSG_TYPE_REPLICATE, deltas);
+    }
+
+    private void connect() {
+        if (connecting) {
+            return;
+        }
+        connecting = true;
+        bootstrap.connect(host, port).addListener(new GenericFutureListener<ChannelFuture>() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                connecting = false;
+                if (future.isSuccess()) {
+                    // The standby may have lost the state, send all again.
+                    replicatedStates.clear();
+                    connectFailed = false;
+                    channel = future.channel();
+                    RecordLog.info("[ClusterStateReplicator] Connected to standby token server <{}:{}>", host, port);
+                } else if (!connectFailed) {
+                    connectFailed = true;
+                    RecordLog.warn("[ClusterStateReplicator] Failed to connect to standby token server <"
+                        + host + ":" + port + ">, retrying", future.cause());
+                }
+            }
+        });
+    }
+
+    /**
+     * Collect the state changed since the last collection. Only invoked in the replication thread.
+     *
+     * @return deltas of the changed flows
+     */
+    List<FlowStateDelta> collectDeltas() {
+        Set<Long> flowIds = ClusterMetricStatistics.getFlowIds();
+        replicatedStates.keySet().retainAll(flowIds);
+        List<FlowStateDelta> deltas = new ArrayList<>();
+        for (Long flowId : flowIds) {
+            ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+            if (metric != null) {
+                collectDeltas(flowId, metric, deltas);
+            }
+        }
+        return deltas;
+    }
+
+    private void collectDeltas(long flowId, ClusterMetric metric, List<FlowStateDelta> deltas) {
+        int sampleCount = metric.getSampleCount();
+        ReplicatedState state = replicatedStates.get(flowId);
+        if (state == null || state.bucketStarts.length != sampleCount) {
+            state = new ReplicatedState(sampleCount);
+            replicatedStates.put(flowId, state);
+        }
+        if (bucketStarts.length < sampleCount) {
+            bucketStarts = new long[sampleCount];
+            bucketCounts = new long[sampleCount];
+        }
+        metric.snapshotAdmission(bucketStarts, bucketCounts);
+        long leasedTokens = ClusterLeaseStatistics.getOutstandingTokens(flowId);
+        long leaseExpireAt = leasedTokens > 0 ? ClusterLeaseStatistics.getLatestExpireTime(flowId) : 0;
+
+        FlowStateDelta delta = null;
+        for (int i = 0; i < sampleCount; i++) {
+            long count = bucketCounts[i];
+            if (count <= 0 || (bucketStarts[i] == state.bucketStarts[i] && count == state.bucketCounts[i])) {
+                continue;
+            }
+            if (delta == null || delta.getBucketSize() >= MAX_BUCKETS_PER_DELTA) {
+                delta = newDelta(flowId, leasedTokens, leaseExpireAt);
+                deltas.add(delta);
+            }
+            delta.addBucket(bucketStarts[i], count);
+            state.bucketStarts[i] = bucketStarts[i];
+            state.bucketCounts[i] = count;
+        }
+        if (delta == null && leasedTokens > 0
+            && (leasedTokens != state.leasedTokens || leaseExpireAt != state.leaseExpireAt)) {
+            deltas.add(newDelta(flowId, leasedTokens, leaseExpireAt));
+        }
+        state.leasedTokens = leasedTokens;
+        state.leaseExpireAt = leaseExpireAt;
+    }
+
+    private static FlowStateDelta newDelta(long flowId, long leasedTokens, long leaseExpireAt) {
+        return new FlowStateDelta().setFlowId(flowId)
+            .setLeasedTokens(leasedTokens)
+            .setLeaseExpireAt(leaseExpireAt);
+    }
+
+    private static final class ReplicatedState {
+        final long[] bucketStarts;
+        final long[] bucketCounts;
+        long leasedTokens;
+        long leaseExpireAt;
+
+        ReplicatedState(int sampleCount) {
+            this.bucketStarts = new long[sampleCount];
+            this.bucketCounts = new long[sampleCount];
+        }
+    }
+
+    /**
+     * Encodes replication requests in the format of {@code DefaultRequestEntityDecoder}.
+     */
+    private static final class ReplicationRequestEncoder
+        extends MessageToByteEncoder<ClusterRequest<List<FlowStateDelta>>> {
+
+        private final ReplicationRequestDataWriter dataWriter = new ReplicationRequestDataWriter();
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ClusterRequest<List<FlowStateDelta>> request, ByteBuf out) {
+            out.writeInt(request.getId());
+            out.writeByte(request.getType());
+            dataWriter.writeTo(request.getData(), out);
+        }
+    }
+
+    /**
+     * Responses only carry the count of merged deltas, they are dropped.
+     */
+    private static final class ReplicationResponseHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            RecordLog.warn("[ClusterStateReplicator] Replication channel error, closing", cause);
+            ctx.close();
+        }
+    }
+}
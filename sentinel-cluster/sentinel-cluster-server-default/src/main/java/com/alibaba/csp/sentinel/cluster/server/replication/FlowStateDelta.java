@@ -0,0 +1,96 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.util.Arrays;
+
+/**
+ * State of one flow replicated from the primary token server to its standby: the admission buckets changed
+ * since the last replication, and the outstanding token leases.
+ *
+ * @since 1.8.9
+ */
+public class FlowStateDelta {
+
+    private long flowId;
+    private long leasedTokens;
+    private long leaseExpireAt;
+
+    private long[] bucketStarts = new long[0];
+    private long[] bucketCounts = new long[0];
+    private int bucketSize = 0;
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public FlowStateDelta setFlowId(long flowId) {
+        this.flowId = flowId;
+        return this;
+    }
+
+    public long getLeasedTokens() {
+        return leasedTokens;
+    }
+
+    public FlowStateDelta setLeasedTokens(long leasedTokens) {
+        this.leasedTokens = leasedTokens;
+        return this;
+    }
+
+    public long getLeaseExpireAt() {
+        return leaseExpireAt;
+    }
+
+    public FlowStateDelta setLeaseExpireAt(long leaseExpireAt) {
+        this.leaseExpireAt = leaseExpireAt;
+        return this;
+    }
+
+    public FlowStateDelta addBucket(long bucketStart, long count) {
+        if (bucketSize == bucketStarts.length) {
+            int capacity = Math.max(4, bucketSize * 2);
+            bucketStarts = Arrays.copyOf(bucketStarts, capacity);
+            bucketCounts = Arrays.copyOf(bucketCounts, capacity);
+        }
+        bucketStarts[bucketSize] = bucketStart;
+        bucketCounts[bucketSize] = count;
+        bucketSize++;
+        return this;
+    }
+
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    public long getBucketStart(int i) {
+        return bucketStarts[i];
+    }
+
+    public long getBucketCount(int i) {
+        return bucketCounts[i];
+    }
+
+    @Override
+    public String toString() {
+        return "FlowStateDelta{" +
+            "flowId=" + flowId +
+            ", leasedTokens=" + leasedTokens +
+            ", leaseExpireAt=" + leaseExpireAt +
+            ", bucketSize=" + bucketSize +
+            '}';
+    }
+}
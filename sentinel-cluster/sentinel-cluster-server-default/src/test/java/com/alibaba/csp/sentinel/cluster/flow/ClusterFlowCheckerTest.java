@@ -15,12 +15,19 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow;
 
+import java.util.Collections;
+
 import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterLeaseStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.ManualClock;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -72,6 +79,55 @@ public class ClusterFlowCheckerTest {
         ClusterMetricStatistics.removeMetric(flowId);
     }
 
+    @Test
+    public void testAcquireClusterLease() {
+        long flowId = 78901L;
+        String namespace = "lease-test";
+        FlowRule clusterRule = new FlowRule("leaseResource")
+            .setCount(100)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setSampleCount(10)
+                .setWindowIntervalMs(1000)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ManualClock clock = new ManualClock(System.currentTimeMillis() / 1000 * 1000);
+        TimeUtil.setClock(clock);
+        try {
+            ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+            ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(clusterRule));
+            FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(flowId);
+
+            TokenResult result = ClusterFlowChecker.acquireClusterLease(rule, 30);
+            assertResultPass(result);
+            assertEquals(30, result.getRemaining());
+            // A lease lives for one bucket.
+            assertEquals(100, result.getWaitInMs());
+
+            // Only the remaining quota can be leased.
+            result = ClusterFlowChecker.acquireClusterLease(rule, 200);
+            assertResultPass(result);
+            assertEquals(70, result.getRemaining());
+            assertEquals(100, ClusterLeaseStatistics.getOutstandingTokens(flowId));
+
+            result = ClusterFlowChecker.acquireClusterLease(rule, 10);
+            assertEquals(TokenResultStatus.BLOCKED, result.getStatus().intValue());
+            assertEquals(100, result.getWaitInMs());
+
+            clock.advance(100);
+            assertEquals(0, ClusterLeaseStatistics.getOutstandingTokens(flowId));
+            assertResultBlock(ClusterFlowChecker.acquireClusterLease(rule, 10));
+
+            // The quota is released after the window slides.
+            clock.advance(1000);
+            assertResultPass(ClusterFlowChecker.acquireClusterLease(rule, 10));
+        } finally {
+            ClusterFlowRuleManager.loadRules(namespace, Collections.<FlowRule>emptyList());
+            TimeUtil.resetClock();
+        }
+        assertEquals(0, ClusterLeaseStatistics.getOutstandingTokens(flowId));
+    }
+
     private TokenResult tryAcquire(FlowRule clusterRule, boolean occupy) {
         return ClusterFlowChecker.acquireClusterToken(clusterRule, 1, occupy);
     }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.ManualClock;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ClusterAdmissionWindow}.
+ */
+public class ClusterAdmissionWindowTest {
+
+    @Test
+    public void testSlidingTotal() {
+        // 10 buckets of 100 ms.
+        ClusterAdmissionWindow window = new ClusterAdmissionWindow(10, 1000);
+        long start = 100_000;
+        assertEquals(6, window.tryAdd(6, 10, start));
+        assertEquals(-1, window.tryAdd(5, 10, start + 50));
+        assertEquals(10, window.tryAdd(4, 10, start + 150));
+        assertEquals(0, window.tryAddUpTo(3, 10, start + 999));
+
+        // The first bucket slides out.
+        assertEquals(6, window.tryAddUpTo(8, 10, start + 1000));
+        assertEquals(10, window.getTotal(start + 1099));
+        // Both buckets slide out.
+        assertEquals(6, window.getTotal(start + 1100));
+        assertEquals(0, window.getTotal(start + 5000));
+
+        window.add(20, start + 5000);
+        assertEquals(20, window.getTotal(start + 5000));
+        assertEquals(-1, window.tryAdd(1, 10, start + 5500));
+    }
+
+    @Test
+    public void testMergeReplicatedBuckets() {
+        ClusterAdmissionWindow primary = new ClusterAdmissionWindow(10, 1000);
+        ClusterAdmissionWindow standby = new ClusterAdmissionWindow(10, 1000);
+        long start = 100_000;
+        primary.tryAdd(3, 100, start);
+        primary.tryAdd(4, 100, start + 250);
+
+        long[] bucketStarts = new long[10];
+        long[] bucketCounts = new long[10];
+        primary.snapshot(start + 300, bucketStarts, bucketCounts);
+        for (int i = 0; i < 10; i++) {
+            standby.merge(bucketStarts[i], bucketCounts[i], start + 300);
+        }
+        assertEquals(7, standby.getTotal(start + 300));
+        // Merging the same or lower counts again has no effect.
+        for (int i = 0; i < 10; i++) {
+            standby.merge(bucketStarts[i], bucketCounts[i], start + 300);
+        }
+        standby.merge(start, 1, start + 300);
+        assertEquals(7, standby.getTotal(start + 300));
+
+        // Local tokens are kept if more.
+        assertEquals(12, standby.tryAdd(5, 100, start + 300));
+        standby.merge(start + 300, 2, start + 310);
+        assertEquals(12, standby.getTotal(start + 310));
+        // Buckets out of the window are ignored.
+        standby.merge(start - 1000, 50, start + 310);
+        assertEquals(12, standby.getTotal(start + 310));
+
+        // Replicated buckets slide out as local ones.
+        assertEquals(5, standby.getTotal(start + 1250));
+    }
+
+    @Test
+    public void testNoOverAdmissionUnderContention() throws Exception {
+        ManualClock clock = new ManualClock(System.currentTimeMillis());
+        TimeUtil.setClock(clock);
+        try {
+            final ClusterMetric metric = new ClusterMetric(10, 1000);
+            final double threshold = 5000;
+            final int threadCount = 32;
+            final AtomicInteger passed = new AtomicInteger();
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+            for (int i = 0; i < threadCount; i++) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            startLatch.await();
+                            for (int j = 0; j < 500; j++) {
+                                if (metric.tryAddPass(1, threshold) >= 0) {
+                                    passed.incrementAndGet();
+                                }
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            doneLatch.countDown();
+                        }
+                    }
+                }).start();
+            }
+            startLatch.countDown();
+            assertTrue(doneLatch.await(10, TimeUnit.SECONDS));
+
+            // 32 * 500 attempts within one window, exactly the threshold is admitted.
+            assertEquals((int) threshold, passed.get());
+            assertEquals((long) threshold, metric.getSum(ClusterFlowEvent.PASS));
+            assertEquals(-1, metric.tryAddPass(1, threshold), 0.01);
+        } finally {
+            TimeUtil.resetClock();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.NettyTransportClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.init.DefaultClusterClientInitFunc;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.init.DefaultClusterServerInitFunc;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for transport clients of multiple token servers (e.g. the servers on the ring) sending requests
+ * at the same time, which share the pending requests.
+ */
+public class MultiServerTransportClientTest {
+
+    private static final String NAMESPACE = "multi-server-test";
+    private static final long FLOW_ID = 56789L;
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 100;
+
+    private NettyTransportServer serverA;
+    private NettyTransportServer serverB;
+
+    @Before
+    public void setUp() throws Exception {
+        new DefaultClusterServerInitFunc().init();
+        new DefaultClusterClientInitFunc().init();
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(3000));
+
+        FlowRule rule = new FlowRule("multiServerResource")
+            .setCount(Integer.MAX_VALUE)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(FLOW_ID)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(rule));
+    }
+
+    @After
+    public void tearDown() {
+        if (serverA != null) {
+            serverA.stop();
+        }
+        if (serverB != null) {
+            serverB.stop();
+        }
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.<FlowRule>emptyList());
+        ClusterMetricStatistics.removeMetric(FLOW_ID);
+    }
+
+    @Test
+    public void testConcurrentRequestsToTwoServers() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        serverA = startServer(portA);
+        serverB = startServer(portB);
+        final NettyTransportClient clientA = startClient(new NettyTransportClient("127.0.0.1", portA));
+        final NettyTransportClient clientB = startClient(new NettyTransportClient("127.0.0.1", portB));
+
+        final Set<Integer> xids = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t;
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                                NettyTransportClient client = (i + offset) % 2 == 0 ? clientA : clientB;
+                                ClusterRequest<FlowRequestData> request = new ClusterRequest<>(
+                                    ClusterConstants.MSG_TYPE_FLOW, new FlowRequestData().setFlowId(FLOW_ID).setCount(1));
+                                ClusterResponse response = client.sendRequest(request);
+                                assertEquals(TokenResultStatus.OK, response.getStatus());
+                                assertEquals(request.getId(), response.getId());
+                                assertTrue("Duplicate xid: " + request.getId(), xids.add(request.getId()));
+                            }
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }).start();
+            }
+            done.await();
+        } finally {
+            clientA.stop();
+            clientB.stop();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(THREADS * REQUESTS_PER_THREAD, xids.size());
+    }
+
+    private static NettyTransportServer startServer(int port) throws Exception {
+        final NettyTransportServer server = new NettyTransportServer(port);
+        server.start();
+        await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return server.getCurrentState() == ServerConstants.SERVER_STATUS_STARTED;
+            }
+        });
+        return server;
+    }
+
+    private static NettyTransportClient startClient(final NettyTransportClient client) throws Exception {
+        client.start();
+        await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return client.isReady();
+            }
+        });
+        return client;
+    }
+
+    private static int freePort() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static void await(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.call()) {
+            assertTrue("Timed out waiting for the condition", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.DefaultClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.init.DefaultClusterClientInitFunc;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.RequestDataDecodeRegistry;
+import com.alibaba.csp.sentinel.cluster.server.init.DefaultClusterServerInitFunc;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the token client falling back to per-request tokens, when the token server does not
+ * support token leases and drops the lease requests silently.
+ */
+public class TokenLeaseFallbackTest {
+
+    private static final String NAMESPACE = "lease-fallback-test";
+    private static final long FLOW_ID = 67890L;
+
+    private NettyTransportServer server;
+    private DefaultClusterTokenClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        new DefaultClusterServerInitFunc().init();
+        new DefaultClusterClientInitFunc().init();
+        // Acts as a token server without lease support.
+        RequestDataDecodeRegistry.removeDecoder(ClusterConstants.MSG_TYPE_FLOW_LEASE);
+
+        FlowRule rule = new FlowRule("leaseFallbackResource")
+            .setCount(Integer.MAX_VALUE)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(FLOW_ID)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(rule));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.stop();
+        }
+        if (server != null) {
+            server.stop();
+        }
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(3000).setTokenLeaseSize(0));
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW_LEASE, new FlowRequestDataDecoder());
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.<FlowRule>emptyList());
+        ClusterMetricStatistics.removeMetric(FLOW_ID);
+    }
+
+    @Test
+    public void testFallbackAfterLeaseTimeout() throws Exception {
+        int port = freePort();
+        server = new NettyTransportServer(port);
+        server.start();
+        await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return server.getCurrentState() == ServerConstants.SERVER_STATUS_STARTED;
+            }
+        });
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig()
+            .setRequestTimeout(200)
+            .setTokenLeaseSize(10));
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig("127.0.0.1", port));
+        client = new DefaultClusterTokenClient();
+        client.start();
+        await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return client.getState() == ClientConstants.CLIENT_STATUS_STARTED;
+            }
+        });
+
+        // The lease request times out, which suspends leasing and resets the connection.
+        assertEquals(TokenResultStatus.FAIL, (int) client.requestToken(FLOW_ID, 1, false).getStatus());
+        // Tokens are requested one by one on the new connection.
+        await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return client.requestToken(FLOW_ID, 1, false).getStatus() == TokenResultStatus.OK;
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            assertEquals(TokenResultStatus.OK, (int) client.requestToken(FLOW_ID, 1, false).getStatus());
+        }
+    }
+
+    private static int freePort() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static void await(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.call()) {
+            assertTrue("Timed out waiting for the condition", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.RequestDataDecodeRegistry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link BatchRequestDataDecoder}.
+ */
+public class BatchRequestDataDecoderTest {
+
+    @Test
+    public void testDecodeBatch() {
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestDataDecoder());
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW_LEASE, new FlowRequestDataDecoder());
+
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(4);
+        writeFlowRequest(buf, 1, ClusterConstants.MSG_TYPE_FLOW, 10L);
+        // Nested batch is skipped.
+        buf.writeShort(6).writeInt(2).writeByte(ClusterConstants.MSG_TYPE_BATCH).writeByte(0);
+        writeFlowRequest(buf, 3, ClusterConstants.MSG_TYPE_FLOW_LEASE, 30L);
+        // Incomplete request is dropped.
+        buf.writeShort(100).writeInt(4);
+
+        List<ClusterRequest> requests = new BatchRequestDataDecoder().decode(buf);
+        assertEquals(2, requests.size());
+        assertEquals(1, requests.get(0).getId());
+        assertEquals(ClusterConstants.MSG_TYPE_FLOW, requests.get(0).getType());
+        assertEquals(10L, ((FlowRequestData) requests.get(0).getData()).getFlowId());
+        assertEquals(3, requests.get(1).getId());
+        assertEquals(ClusterConstants.MSG_TYPE_FLOW_LEASE, requests.get(1).getType());
+        assertEquals(30L, ((FlowRequestData) requests.get(1).getData()).getFlowId());
+        buf.release();
+    }
+
+    private static void writeFlowRequest(ByteBuf buf, int xid, int type, long flowId) {
+        buf.writeShort(4 + 1 + 8 + 4 + 1);
+        buf.writeInt(xid).writeByte(type);
+        buf.writeLong(flowId).writeInt(1).writeBoolean(false);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.netty;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowResponseDataDecoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.RequestDataWriterRegistry;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.ResponseDataDecodeRegistry;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowResponseDataWriter;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.RequestDataDecodeRegistry;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.ResponseDataWriterRegistry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.EncoderException;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link NettyRequestDecoder} and {@link NettyResponseEncoder} working with the client codec,
+ * with the length field written in place.
+ */
+public class NettyCodecTest {
+
+    @BeforeClass
+    public static void registerCodecs() {
+        RequestDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestDataWriter());
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestDataDecoder());
+        ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW, new FlowResponseDataWriter());
+        ResponseDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW, new FlowResponseDataDecoder());
+        RequestDataWriterRegistry.addWriter(OVERSIZED_TYPE, new OversizedDataWriter());
+        ResponseDataWriterRegistry.addWriter(OVERSIZED_TYPE, new OversizedDataWriter());
+    }
+
+    @Test
+    public void testFlowRequestRoundTrip() {
+        EmbeddedChannel client = new EmbeddedChannel(new NettyRequestEncoder());
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(7, ClusterConstants.MSG_TYPE_FLOW,
+            new FlowRequestData().setFlowId(1001L).setCount(3).setPriority(true));
+        assertTrue(client.writeOutbound(request));
+        ByteBuf frame = client.readOutbound();
+        // | length (2) | xid (4) | type (1) | flow ID (8) | count (4) | priority flag (1) |
+        assertEquals(2 + 18, frame.readableBytes());
+        assertEquals(18, frame.getUnsignedShort(frame.readerIndex()));
+
+        EmbeddedChannel server = new EmbeddedChannel(
+            new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2), new NettyRequestDecoder());
+        assertTrue(server.writeInbound(frame));
+        Object decoded = server.readInbound();
+        assertTrue(decoded instanceof ClusterRequest);
+        ClusterRequest<?> flowRequest = (ClusterRequest<?>) decoded;
+        assertEquals(7, flowRequest.getId());
+        FlowRequestData data = (FlowRequestData) flowRequest.getData();
+        assertEquals(1001L, data.getFlowId());
+        assertEquals(3, data.getCount());
+        assertTrue(data.isPriority());
+        client.finishAndReleaseAll();
+        server.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFlowResponseRoundTrip() {
+        EmbeddedChannel server = new EmbeddedChannel(new NettyResponseEncoder());
+        ClusterResponse<FlowTokenResponseData> response = new ClusterResponse<>(9, ClusterConstants.MSG_TYPE_FLOW,
+            ClusterConstants.RESPONSE_STATUS_OK, new FlowTokenResponseData().setRemainingCount(5).setWaitInMs(20));
+        assertTrue(server.writeOutbound(response));
+        ByteBuf frame = server.readOutbound();
+        // | length (2) | xid (4) | type (1) | status (1) | remaining (4) | wait (4) |
+        assertEquals(2 + 14, frame.readableBytes());
+        assertEquals(14, frame.getUnsignedShort(frame.readerIndex()));
+
+        EmbeddedChannel client = new EmbeddedChannel(
+            new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2), new NettyResponseDecoder());
+        assertTrue(client.writeInbound(frame));
+        Object decoded = client.readInbound();
+        assertTrue(decoded instanceof ClusterResponse);
+        ClusterResponse<?> flowResponse = (ClusterResponse<?>) decoded;
+        assertEquals(9, flowResponse.getId());
+        assertEquals(ClusterConstants.RESPONSE_STATUS_OK, flowResponse.getStatus());
+        FlowTokenResponseData data = (FlowTokenResponseData) flowResponse.getData();
+        assertEquals(5, data.getRemainingCount());
+        assertEquals(20, data.getWaitInMs());
+
+        server.finishAndReleaseAll();
+        client.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDroppedRequestWritesNothing() {
+        EmbeddedChannel client = new EmbeddedChannel(new NettyRequestEncoder());
+        // No writer for the type.
+        client.writeOutbound(new ClusterRequest<>(1, 99, null));
+        ByteBuf out = client.readOutbound();
+        assertTrue(out == null || !out.isReadable());
+        if (out != null) {
+            out.release();
+        }
+        client.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testOversizedRequestFailsOnEncoding() {
+        EmbeddedChannel client = new EmbeddedChannel(new NettyRequestEncoder());
+        // | length (2) | xid (4) | type (1) | data (1017) |, one byte more than the frame decoder of the server takes.
+        try {
+            client.writeOutbound(new ClusterRequest<>(1, OVERSIZED_TYPE, 1017));
+            fail("oversized request should not be encoded");
+        } catch (EncoderException ex) {
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        }
+        assertTrue(client.writeOutbound(new ClusterRequest<>(2, OVERSIZED_TYPE, 1016)));
+        ByteBuf frame = client.readOutbound();
+        assertEquals(1024, frame.readableBytes());
+
+        EmbeddedChannel server = new EmbeddedChannel(
+            new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2), new NettyRequestDecoder());
+        // The largest frame is still taken by the frame decoder of the server.
+        server.writeInbound(frame);
+        client.finishAndReleaseAll();
+        server.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testOversizedResponseFailsOnEncoding() {
+        EmbeddedChannel server = new EmbeddedChannel(new NettyResponseEncoder());
+        // | length (2) | xid (4) | type (1) | status (1) | data (1017) |
+        try {
+            server.writeOutbound(new ClusterResponse<>(1, OVERSIZED_TYPE, ClusterConstants.RESPONSE_STATUS_OK, 1017));
+            fail("oversized response should not be encoded");
+        } catch (EncoderException ex) {
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        }
+        server.finishAndReleaseAll();
+    }
+
+    private static final int OVERSIZED_TYPE = 98;
+
+    /**
+     * Writes as many bytes as the given data.
+     */
+    private static class OversizedDataWriter implements EntityWriter<Integer, ByteBuf> {
+        @Override
+        public void writeTo(Integer entity, ByteBuf target) {
+            target.writeZero(entity);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.NettyTransportClient;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.PingResponseDataDecoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.RequestDataWriterRegistry;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.ResponseDataDecodeRegistry;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.init.DefaultClusterClientInitFunc;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.ReplicationRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.server.init.DefaultClusterServerInitFunc;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the state replication from a primary token server to a hot-standby token server,
+ * and the failover of clients, with two token servers on localhost.
+ */
+public class ClusterStateReplicationTest {
+
+    private static final String NAMESPACE = "replication-test";
+    private static final long FLOW_ID = 45678L;
+
+    private int primaryPort;
+    private int standbyPort;
+    private NettyTransportServer primary;
+    private NettyTransportServer standby;
+
+    @Before
+    public void setUp() throws Exception {
+        new DefaultClusterServerInitFunc().init();
+        new DefaultClusterClientInitFunc().init();
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(3000));
+
+        FlowRule rule = new FlowRule("replicationResource")
+            .setCount(100)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(FLOW_ID)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(rule));
+
+        primaryPort = freePort();
+        standbyPort = freePort();
+        primary = startServer(primaryPort);
+        standby = startServer(standbyPort);
+    }
+
+    @After
+    public void tearDown() {
+        primary.stop();
+        standby.stop();
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.<FlowRule>emptyList());
+        ClusterMetricStatistics.removeMetric(FLOW_ID);
+    }
+
+    @Test
+    public void testReplicateStateToStandby() throws Exception {
+        ClusterMetric primaryMetric = ClusterMetricStatistics.getMetric(FLOW_ID);
+        assertNotNull(primaryMetric);
+        assertTrue(primaryMetric.tryAddPass(60, 100) > 0);
+
+        ClusterStateReplicator replicator = new ClusterStateReplicator("127.0.0.1", standbyPort);
+        // Flows of other test cases may be collected as well.
+        FlowStateDelta delta = null;
+        for (FlowStateDelta d : replicator.collectDeltas()) {
+            if (d.getFlowId() == FLOW_ID) {
+                delta = d;
+            }
+        }
+        assertNotNull(delta);
+        assertEquals(1, delta.getBucketSize());
+        assertEquals(60, delta.getBucketCount(0));
+        // Nothing changed since the last collection.
+        assertTrue(replicator.collectDeltas().isEmpty());
+        List<FlowStateDelta> deltas = Collections.singletonList(delta);
+
+        // Both servers share the statistics in one JVM, so the metric is replaced as the one of the standby.
+        ClusterMetric standbyMetric = new ClusterMetric(primaryMetric.getSampleCount(), 1000);
+        ClusterMetricStatistics.putMetric(FLOW_ID, standbyMetric);
+
+        RequestDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_REPLICATE, new ReplicationRequestDataWriter());
+        ResponseDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_REPLICATE, new PingResponseDataDecoder());
+        NettyTransportClient client = startClient(new NettyTransportClient("127.0.0.1", standbyPort));
+        try {
+            ClusterResponse response = client.sendRequest(
+                new ClusterRequest<>(ClusterConstants.MSG_TYPE_REPLICATE, deltas));
+            assertEquals(ClusterConstants.RESPONSE_STATUS_OK, response.getStatus());
+            assertEquals(1, response.getData());
+        } finally {
+            client.stop();
+        }
+        // Tokens passed on the primary are counted by the standby.
+        assertEquals(-1, standbyMetric.tryAddPass(41, 100), 0.01);
+        assertTrue(standbyMetric.tryAddPass(40, 100) > 0);
+
+        final ClusterStateReplicator started = new ClusterStateReplicator("127.0.0.1", standbyPort, 20);
+        started.start();
+        try {
+            await(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return started.isConnected();
+                }
+            });
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Test
+    public void testClientFailoverToStandby() throws Exception {
+        final NettyTransportClient client = startClient(
+            new NettyTransportClient("127.0.0.1", primaryPort, "127.0.0.1", standbyPort));
+        try {
+            assertEquals(primaryPort, client.getActivePort());
+            assertFlowRequestPass(client);
+
+            primary.stop();
+            await(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return client.getActivePort() == standbyPort && client.isReady();
+                }
+            });
+            assertFlowRequestPass(client);
+        } finally {
+            client.stop();
+        }
+    }
+
+    private void assertFlowRequestPass(NettyTransportClient client) throws Exception {
+        ClusterResponse response = client.sendRequest(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW,
+            new FlowRequestData().setFlowId(FLOW_ID).setCount(1)));
+        assertEquals(TokenResultStatus.OK, response.getStatus());
+    }
+
+    private static NettyTransportServer startServer(int port) throws Exception {
+        final NettyTransportServer server = new NettyTransportServer(port);
+        server.start();
+        await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return server.getCurrentState() == ServerConstants.SERVER_STATUS_STARTED;
+            }
+        });
+        return server;
+    }
+
+    private static NettyTransportClient startClient(final NettyTransportClient client) throws Exception {
+        client.start();
+        await(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return client.isReady();
+            }
+        });
+        return client;
+    }
+
+    private static int freePort() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static void await(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.call()) {
+            assertTrue("Timed out waiting for the condition", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+}
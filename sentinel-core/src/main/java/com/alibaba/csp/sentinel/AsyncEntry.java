@@ -15,6 +15,10 @@
  */
 package com.alibaba.csp.sentinel;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.HashedTimingWheel;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.NullContext;
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -31,6 +35,11 @@ public class AsyncEntry extends CtEntry {
 
     private Context asyncContext;
 
+    /**
+     * Time (in nanoseconds) the invocation should be delayed by the caller, see {@link SphU#asyncEntryWithPacing}.
+     */
+    private long pacingDelayNanos;
+
     AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
         super(resourceWrapper, chain, context);
     }
@@ -57,7 +66,7 @@ public class AsyncEntry extends CtEntry {
                 }
             } else {
                 String curEntryName = curEntry == null ? "none"
-                    : curEntry.resourceWrapper.getName() + "@" + curEntry.hashCode();
+                    : curEntry.getResourceWrapper().getName() + "@" + curEntry.hashCode();
                 String msg = String.format("Bad async context state, expected entry: %s, but actual: %s",
                     getResourceWrapper().getName() + "@" + hashCode(), curEntryName);
                 throw new IllegalStateException(msg);
@@ -69,6 +78,45 @@ public class AsyncEntry extends CtEntry {
         return asyncContext;
     }
 
+    /**
+     * Get the time the invocation should be delayed before it is actually performed. This is always 0
+     * unless the entry is created via {@link SphU#asyncEntryWithPacing}, and the request is queued by
+     * rate limiting rules.
+     *
+     * @return the time to delay in nanoseconds
+     * @since 1.8.9
+     */
+    public long getPacingDelayNanos() {
+        return pacingDelayNanos;
+    }
+
+    /**
+     * Get a future that is completed with this entry when the invocation can be performed, i.e. after
+     * {@link #getPacingDelayNanos()}. The waiting is driven by the shared {@link HashedTimingWheel},
+     * so no thread is blocked. Dependent stages should use the async variants (e.g. {@code thenRunAsync})
+     * for heavy work, as the future is completed in the timer thread.
+     *
+     * @return the future completed when the invocation can be performed
+     * @since 1.8.9
+     */
+    public CompletableFuture<AsyncEntry> whenPassed() {
+        if (pacingDelayNanos <= 0) {
+            return CompletableFuture.completedFuture(this);
+        }
+        final CompletableFuture<AsyncEntry> future = new CompletableFuture<>();
+        HashedTimingWheel.getDefault().schedule(new Runnable() {
+            @Override
+            public void run() {
+                future.complete(AsyncEntry.this);
+            }
+        }, pacingDelayNanos, TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+    void setPacingDelayNanos(long pacingDelayNanos) {
+        this.pacingDelayNanos = pacingDelayNanos;
+    }
+
     /**
      * The async context should not be initialized until the node for current resource has been set to current entry.
      */
@@ -53,7 +53,7 @@ class CtEntry extends Entry {
         setUpEntryFor(context);
     }
 
-    private void setUpEntryFor(Context context) {
+    void setUpEntryFor(Context context) {
         // The entry should not be associated to NullContext.
         if (context instanceof NullContext) {
             return;
@@ -80,7 +80,7 @@ class CtEntry extends Entry {
                     handler.accept(ctx, this);
                 } catch (Exception e) {
                     RecordLog.warn("Error occurred when invoking entry exit handler, current entry: "
-                        + resourceWrapper.getName(), e);
+                        + getResourceWrapper().getName(), e);
                 }
             }
             exitHandlers = null;
@@ -105,12 +105,12 @@ class CtEntry extends Entry {
                 }
                 String errorMessage = String.format("The order of entry exit can't be paired with the order of entry"
                         + ", current entry in context: <%s>, but expected: <%s>", curEntryNameInContext,
-                    resourceWrapper.getName());
+                    getResourceWrapper().getName());
                 throw new ErrorEntryFreeException(errorMessage);
             } else {
                 // Go through the onExit hook of all slots.
                 if (chain != null) {
-                    chain.exit(context, resourceWrapper, count, args);
+                    chain.exit(context, getResourceWrapper(), count, args);
                 }
                 // Go through the existing terminate handlers (associated to this invocation).
                 callExitHandlersAndCleanUp(context);
@@ -16,8 +16,10 @@
 package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.context.Context;
@@ -48,10 +50,20 @@ public class CtSph implements Sph {
      * Same resource({@link ResourceWrapper#equals(Object)}) will share the same
      * {@link ProcessorSlotChain}, no matter in which {@link Context}.
      */
-    private static volatile Map<ResourceWrapper, ProcessorSlotChain> chainMap
-        = new HashMap<ResourceWrapper, ProcessorSlotChain>();
+    private static final ConcurrentMap<ResourceWrapper, ProcessorSlotChain> chainMap
+        = new ConcurrentHashMap<ResourceWrapper, ProcessorSlotChain>();
 
-    private static final Object LOCK = new Object();
+    /**
+     * Amount of created slot chains. A slot is reserved here before a chain is created, so that
+     * {@link Constants#MAX_SLOT_CHAIN_SIZE} is never exceeded without holding a global lock.
+     */
+    private static final AtomicInteger chainCount = new AtomicInteger(0);
+
+    /**
+     * Increased whenever slot chains are removed, so that chains cached by {@link Resource} handles
+     * could be invalidated.
+     */
+    private static final AtomicInteger chainGeneration = new AtomicInteger(0);
 
     private AsyncEntry asyncEntryWithNoChain(ResourceWrapper resourceWrapper, Context context) {
         AsyncEntry entry = new AsyncEntry(resourceWrapper, null, context);
@@ -63,6 +75,11 @@ public class CtSph implements Sph {
 
     private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, int count, boolean prioritized,
                                                       Object... args) throws BlockException {
+        return asyncEntryWithPriorityInternal(resourceWrapper, null, count, prioritized, args);
+    }
+
+    private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, Resource resource, int count,
+                                                      boolean prioritized, Object... args) throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
@@ -79,7 +96,7 @@ public class CtSph implements Sph {
             return asyncEntryWithNoChain(resourceWrapper, context);
         }
 
-        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+        ProcessorSlot<Object> chain = resource == null ? lookProcessChain(resourceWrapper) : resolveChain(resource);
 
         // Means processor cache size exceeds {@link Constants.MAX_SLOT_CHAIN_SIZE}, so no rule checking will be done.
         if (chain == null) {
@@ -156,6 +173,50 @@ public class CtSph implements Sph {
         return e;
     }
 
+    @Override
+    public Entry entry(Resource resource, int count, boolean prioritized) throws BlockException {
+        ResourceWrapper resourceWrapper = resource.getResourceWrapper();
+        Context context = ContextUtil.getContext();
+        if (context instanceof NullContext) {
+            // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
+            // so here init the entry only. No rule checking will be done.
+            return new CtEntry(resourceWrapper, null, context);
+        }
+
+        if (context == null) {
+            // Using default context, the context instance of current thread is reused.
+            context = InternalContextUtil.internalEnterDefault();
+        }
+
+        // Global switch is close, no rule checking will do.
+        if (!Constants.ON) {
+            return new CtEntry(resourceWrapper, null, context);
+        }
+
+        ProcessorSlot<Object> chain = resolveChain(resource);
+        if (chain == null) {
+            return new CtEntry(resourceWrapper, null, context);
+        }
+
+        // The entry will be recycled by current thread once it has been exited.
+        Entry e = RecyclableCtEntry.obtain(resourceWrapper, chain, context, count);
+        try {
+            chain.entry(context, resourceWrapper, null, count, prioritized, OBJECTS0);
+        } catch (BlockException e1) {
+            e.exit(count, OBJECTS0);
+            throw e1;
+        } catch (Throwable e1) {
+            // This should not happen, unless there are errors existing in Sentinel internal.
+            RecordLog.info("Sentinel unexpected exception", e1);
+        }
+        return e;
+    }
+
+    @Override
+    public AsyncEntry asyncEntry(Resource resource, int count) throws BlockException {
+        return asyncEntryWithPriorityInternal(resource.getResourceWrapper(), resource, count, false, OBJECTS0);
+    }
+
     /**
      * Do all {@link Rule}s checking about the resource.
      *
@@ -194,22 +255,77 @@ public class CtSph implements Sph {
     ProcessorSlot<Object> lookProcessChain(ResourceWrapper resourceWrapper) {
         ProcessorSlotChain chain = chainMap.get(resourceWrapper);
         if (chain == null) {
-            synchronized (LOCK) {
-                chain = chainMap.get(resourceWrapper);
-                if (chain == null) {
-                    // Entry size limit.
-                    if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
-                        return null;
-                    }
-
-                    chain = SlotChainProvider.newSlotChain();
-                    Map<ResourceWrapper, ProcessorSlotChain> newMap = new HashMap<ResourceWrapper, ProcessorSlotChain>(
-                        chainMap.size() + 1);
-                    newMap.putAll(chainMap);
-                    newMap.put(resourceWrapper, chain);
-                    chainMap = newMap;
-                }
-            }
+            // Only the bin of the resource is locked while the new chain is created.
+            chain = chainMap.computeIfAbsent(resourceWrapper, k -> newChainWithinLimit());
+        }
+        return chain;
+    }
+
+    /**
+     * Get the slot chain of the resource handle. The chain is cached in the handle until any slot chain
+     * is removed, so that the chain map is not looked up on every entry.
+     *
+     * @param resource the resource handle
+     * @return the slot chain of the resource, or null if the amount of slot chains exceeds the threshold
+     */
+    ProcessorSlot<Object> resolveChain(Resource resource) {
+        // The generation is read before the lookup, so a chain removed meanwhile will never look up-to-date.
+        int generation = chainGeneration.get();
+        Resource.ResolvedChain resolved = resource.getResolvedChain();
+        if (resolved != null && resolved.generation == generation) {
+            return resolved.chain;
+        }
+        ProcessorSlot<Object> chain = lookProcessChain(resource.getResourceWrapper());
+        if (chain != null) {
+            resource.setResolvedChain(new Resource.ResolvedChain(chain, generation));
+        }
+        return chain;
+    }
+
+    private static ProcessorSlotChain newChainWithinLimit() {
+        // Entry size limit.
+        if (chainCount.incrementAndGet() > Constants.MAX_SLOT_CHAIN_SIZE) {
+            chainCount.decrementAndGet();
+            return null;
+        }
+        try {
+            return SlotChainProvider.newSlotChain();
+        } catch (RuntimeException ex) {
+            chainCount.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    /**
+     * Get the existing {@link ProcessorSlotChain} of the resource. No chain will be created.
+     *
+     * @param resourceWrapper target resource
+     * @return the slot chain of the resource, or null if it has not been created
+     * @since 1.8.9
+     */
+    public static ProcessorSlotChain getProcessChain(ResourceWrapper resourceWrapper) {
+        if (resourceWrapper == null) {
+            return null;
+        }
+        return chainMap.get(resourceWrapper);
+    }
+
+    /**
+     * Remove the {@link ProcessorSlotChain} of the resource, so that its slot is released for other resources.
+     * A new chain will be created if the resource is visited again.
+     *
+     * @param resourceWrapper target resource
+     * @return the removed slot chain, or null if the resource has no slot chain
+     * @since 1.8.9
+     */
+    public static ProcessorSlotChain removeProcessChain(ResourceWrapper resourceWrapper) {
+        if (resourceWrapper == null) {
+            return null;
+        }
+        ProcessorSlotChain chain = chainMap.remove(resourceWrapper);
+        if (chain != null) {
+            chainCount.decrementAndGet();
+            chainGeneration.incrementAndGet();
         }
         return chain;
     }
@@ -231,6 +347,8 @@ public class CtSph implements Sph {
      */
     static void resetChainMap() {
         chainMap.clear();
+        chainCount.set(0);
+        chainGeneration.incrementAndGet();
     }
 
     /**
@@ -253,6 +371,10 @@ public class CtSph implements Sph {
         static Context internalEnter(String name, String origin) {
             return trueEnter(name, origin);
         }
+
+        static Context internalEnterDefault() {
+            return trueEnterDefault();
+        }
     }
 
     @Override
@@ -0,0 +1,161 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>A {@link CtEntry} that is returned to a per-thread pool once it has been exited,
+ * so that the entries of {@link Resource} handles do not allocate on the steady path.</p>
+ *
+ * <p>The final fields of {@link Entry} only describe the first invocation of the entry. The state of
+ * the current invocation is kept here instead, and is reset whenever the entry is handed out again.</p>
+ *
+ * <p>The entry MUST NOT be used in any way after {@link #exit()}, as it may already serve
+ * another invocation of the same thread. Exiting an entry again before it is handed out again
+ * does nothing.</p>
+ *
+ * @since 1.8.9
+ */
+final class RecyclableCtEntry extends CtEntry {
+
+    private static final int MAX_POOLED_ENTRIES_PER_THREAD = 16;
+
+    private static final ThreadLocal<Pool> POOL = new ThreadLocal<Pool>() {
+        @Override
+        protected Pool initialValue() {
+            return new Pool();
+        }
+    };
+
+    /**
+     * The thread that obtained the entry, which is the only one allowed to recycle it into its pool.
+     */
+    private final Thread owner;
+
+    private ResourceWrapper resource;
+    private int acquireCount;
+    private long createTime;
+
+    /**
+     * Incremented every time the entry is handed out.
+     */
+    private int generation = 0;
+    /**
+     * The last generation that has been exited, so that a stale exit of the generation does nothing.
+     */
+    private int exitedGeneration = -1;
+
+    private RecyclableCtEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context,
+                              int count) {
+        super(resourceWrapper, chain, context, count, OBJECTS0);
+        this.owner = Thread.currentThread();
+        this.resource = resourceWrapper;
+        this.acquireCount = count;
+        this.createTime = super.getCreateTimestamp();
+    }
+
+    /**
+     * Get an entry from the pool of current thread (or create a new one), then link it into the context.
+     *
+     * @return an entry ready for the invocation
+     */
+    static RecyclableCtEntry obtain(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context,
+                                    int count) {
+        RecyclableCtEntry entry = POOL.get().poll();
+        if (entry == null) {
+            return new RecyclableCtEntry(resourceWrapper, chain, context, count);
+        }
+        entry.generation++;
+        entry.resource = resourceWrapper;
+        entry.acquireCount = count;
+        entry.createTime = TimeUtil.currentTimeMillis();
+        entry.setCompleteTimestamp(0);
+        entry.setCurNode(null);
+        entry.setOriginNode(null);
+        entry.setError(null);
+        entry.setBlockError(null);
+        entry.chain = chain;
+        entry.context = context;
+        entry.parent = null;
+        entry.child = null;
+        entry.exitHandlers = null;
+        entry.setUpEntryFor(context);
+        return entry;
+    }
+
+    @Override
+    public ResourceWrapper getResourceWrapper() {
+        return resource;
+    }
+
+    @Override
+    public long getCreateTimestamp() {
+        return createTime;
+    }
+
+    @Override
+    public void exit() throws ErrorEntryFreeException {
+        exit(acquireCount, OBJECTS0);
+    }
+
+    @Override
+    public void exit(int count) throws ErrorEntryFreeException {
+        exit(count, OBJECTS0);
+    }
+
+    @Override
+    protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+        if (exitedGeneration == generation) {
+            // Stale exit of an entry that has been exited already.
+            return null;
+        }
+        Entry parent = super.trueExit(count, args);
+        // The context is cleared only when the entry has been exited normally.
+        if (context == null) {
+            this.exitedGeneration = generation;
+            this.parent = null;
+            this.chain = null;
+            if (owner == Thread.currentThread()) {
+                POOL.get().offer(this);
+            }
+        }
+        return parent;
+    }
+
+    private static final class Pool {
+        private final RecyclableCtEntry[] entries = new RecyclableCtEntry[MAX_POOLED_ENTRIES_PER_THREAD];
+        private int size = 0;
+
+        RecyclableCtEntry poll() {
+            if (size == 0) {
+                return null;
+            }
+            RecyclableCtEntry entry = entries[--size];
+            entries[size] = null;
+            return entry;
+        }
+
+        void offer(RecyclableCtEntry entry) {
+            if (size < entries.length) {
+                entries[size++] = entry;
+            }
+        }
+    }
+}
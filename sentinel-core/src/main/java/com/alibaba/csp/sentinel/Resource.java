@@ -0,0 +1,160 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResolvedResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A reusable handle of a resource, which is designed for hot paths. The handle is usually created once
+ * (e.g. kept in a static field) via {@link SphU#resource(String)}, then used for every invocation:</p>
+ *
+ * <pre>
+ * private static final Resource HELLO = SphU.resource("hello");
+ *
+ * public void hello() {
+ *     Entry entry = null;
+ *     try {
+ *         entry = HELLO.entry();
+ *         // do something.
+ *     } catch (BlockException e) {
+ *         // handle the blocked request.
+ *     } finally {
+ *         if (entry != null) {
+ *             entry.exit();
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>Compared with {@link SphU#entry(String)}, entries of the handle do not allocate on the steady path:
+ * the resource wrapper is created only once, and the exited entries (and the default context) are recycled
+ * by current thread. The handle also keeps the resolved slot chain and the flow rules of the resource,
+ * so that they are not looked up by resource name on every entry. Both are resolved again after the chain
+ * has been removed (e.g. by the idle resource sweeper) or the flow rules have been changed.</p>
+ *
+ * <p>As entries are recycled, an {@link Entry} returned by the handle <b>MUST NOT</b> be used in any way
+ * after it has been exited, and it must be exited in the thread where it was created.
+ * Arguments for parameter flow control are not supported by the handle.</p>
+ *
+ * @since 1.8.9
+ */
+public final class Resource {
+
+    private final ResolvedResourceWrapper resourceWrapper;
+
+    /**
+     * The resolved slot chain, see {@link CtSph#resolveChain(Resource)}.
+     */
+    private volatile ResolvedChain resolvedChain;
+
+    Resource(String name, int resourceType, EntryType entryType) {
+        AssertUtil.notEmpty(name, "resource name cannot be empty");
+        AssertUtil.notNull(entryType, "entryType cannot be null");
+        this.resourceWrapper = new ResolvedResourceWrapper(name, entryType, resourceType);
+    }
+
+    public String getName() {
+        return resourceWrapper.getName();
+    }
+
+    public EntryType getEntryType() {
+        return resourceWrapper.getEntryType();
+    }
+
+    public int getResourceType() {
+        return resourceWrapper.getResourceType();
+    }
+
+    ResourceWrapper getResourceWrapper() {
+        return resourceWrapper;
+    }
+
+    ResolvedChain getResolvedChain() {
+        return resolvedChain;
+    }
+
+    void setResolvedChain(ResolvedChain resolvedChain) {
+        this.resolvedChain = resolvedChain;
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource.
+     *
+     * @return the {@link Entry} of this invocation, which must not be used after exit
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     */
+    public Entry entry() throws BlockException {
+        return Env.sph.entry(this, 1, false);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource.
+     *
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @return the {@link Entry} of this invocation, which must not be used after exit
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     */
+    public Entry entry(int batchCount) throws BlockException {
+        return Env.sph.entry(this, batchCount, false);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource. The entry is prioritized.
+     *
+     * @return the {@link Entry} of this invocation, which must not be used after exit
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     */
+    public Entry entryWithPriority() throws BlockException {
+        return Env.sph.entry(this, 1, true);
+    }
+
+    /**
+     * Record statistics and check all rules of the resource that indicates an async invocation.
+     * Unlike synchronous entries, async entries are never recycled.
+     *
+     * @return the {@link AsyncEntry} of this invocation
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     */
+    public AsyncEntry asyncEntry() throws BlockException {
+        return Env.sph.asyncEntry(this, 1);
+    }
+
+    @Override
+    public String toString() {
+        return "Resource{" +
+            "name='" + getName() + '\'' +
+            ", entryType=" + getEntryType() +
+            ", resourceType=" + getResourceType() +
+            '}';
+    }
+
+    /**
+     * A slot chain together with the chain generation when it was resolved.
+     */
+    static final class ResolvedChain {
+        final ProcessorSlot<Object> chain;
+        final int generation;
+
+        ResolvedChain(ProcessorSlot<Object> chain, int generation) {
+            this.chain = chain;
+            this.generation = generation;
+        }
+    }
+}
@@ -193,4 +193,35 @@ public interface Sph extends SphResourceTypeSupport {
      */
     Entry entryWithPriority(String name, EntryType trafficType, int batchCount, boolean prioritized, Object... args)
         throws BlockException;
+
+    /**
+     * Record statistics and perform rule checking for the resource of the given handle. By default it delegates to
+     * {@link #entryWithType(String, int, EntryType, int, boolean, Object[])}.
+     *
+     * @param resource    the reusable handle of the protected resource
+     * @param batchCount  the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param prioritized whether the entry is prioritized
+     * @return the {@link Entry} of this invocation, which must not be used after exit
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.9
+     */
+    default Entry entry(Resource resource, int batchCount, boolean prioritized) throws BlockException {
+        return entryWithType(resource.getName(), resource.getResourceType(), resource.getEntryType(), batchCount,
+            prioritized, new Object[0]);
+    }
+
+    /**
+     * Record statistics and check all rules of the resource of the given handle that indicates an async invocation.
+     * By default it delegates to {@link #asyncEntryWithType(String, int, EntryType, int, boolean, Object[])}.
+     *
+     * @param resource   the reusable handle of the protected resource
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @return the {@link AsyncEntry} of this invocation
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.9
+     */
+    default AsyncEntry asyncEntry(Resource resource, int batchCount) throws BlockException {
+        return asyncEntryWithType(resource.getName(), resource.getResourceType(), resource.getEntryType(),
+            batchCount, false, new Object[0]);
+    }
 }
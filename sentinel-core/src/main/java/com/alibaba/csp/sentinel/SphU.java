@@ -19,6 +19,7 @@ import java.lang.reflect.Method;
 
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
+import com.alibaba.csp.sentinel.slots.block.flow.DeferredPacing;
 import com.alibaba.csp.sentinel.slots.system.SystemRule;
 
 /**
@@ -365,4 +366,100 @@ public class SphU {
                                         Object[] args) throws BlockException {
         return Env.sph.asyncEntryWithType(name, resourceType, trafficType, batchCount, false, args);
     }
+
+    /**
+     * Record statistics and perform rule checking for the given resource that indicates an async invocation,
+     * without blocking current thread for rate limiting. When the request is queued by rate limiting rules
+     * (e.g. {@link com.alibaba.csp.sentinel.slots.block.RuleConstant#CONTROL_BEHAVIOR_RATE_LIMITER}), the pass
+     * time is reserved but current thread does not sleep: the time to wait is provided by
+     * {@link AsyncEntry#getPacingDelayNanos()} instead, and the caller should delay the actual invocation
+     * (e.g. on a timer) accordingly. This is designed for event-loop threads (e.g. Netty or Reactor).
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @param batchCount   the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args         args for parameter flow control or customized slots
+     * @return the {@link AsyncEntry} of this invocation
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.9
+     */
+    public static AsyncEntry asyncEntryWithPacing(String name, int resourceType, EntryType trafficType,
+                                                  int batchCount, Object[] args) throws BlockException {
+        return asyncEntryWithPacing(name, resourceType, trafficType, batchCount, false, args);
+    }
+
+    /**
+     * Same as {@link #asyncEntryWithPacing(String, int, EntryType, int, Object[])}, while the entry could be
+     * prioritized. A prioritized request that occupies tokens of the future window does not sleep either,
+     * but is delayed by the caller until the window comes.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal)
+     * @param batchCount   the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param prioritized  whether the entry is prioritized
+     * @param args         args for parameter flow control or customized slots
+     * @return the {@link AsyncEntry} of this invocation
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.9
+     */
+    public static AsyncEntry asyncEntryWithPacing(String name, int resourceType, EntryType trafficType,
+                                                  int batchCount, boolean prioritized, Object[] args)
+        throws BlockException {
+        AsyncEntry entry;
+        long delayNanos;
+        DeferredPacing.begin();
+        try {
+            entry = Env.sph.asyncEntryWithType(name, resourceType, trafficType, batchCount, prioritized, args);
+        } finally {
+            delayNanos = DeferredPacing.end();
+        }
+        entry.setPacingDelayNanos(delayNanos);
+        return entry;
+    }
+
+    /**
+     * Get a reusable handle of the given resource, with {@link EntryType#OUT} as the traffic type.
+     * The handle is designed to be created once and used for every invocation of the resource,
+     * see {@link Resource} for details.
+     *
+     * @param name the unique name of the protected resource
+     * @return the handle of the resource
+     * @since 1.8.9
+     */
+    public static Resource resource(String name) {
+        return new Resource(name, ResourceTypeConstants.COMMON, EntryType.OUT);
+    }
+
+    /**
+     * Get a reusable handle of the given resource, see {@link Resource} for details.
+     *
+     * @param name        the unique name of the protected resource
+     * @param trafficType the traffic type (inbound, outbound or internal). This is used
+     *                    to mark whether it can be blocked when the system is unstable,
+     *                    only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     * @since 1.8.9
+     */
+    public static Resource resource(String name, EntryType trafficType) {
+        return new Resource(name, ResourceTypeConstants.COMMON, trafficType);
+    }
+
+    /**
+     * Get a reusable handle of the given resource, see {@link Resource} for details.
+     *
+     * @param name         the unique name of the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     * @since 1.8.9
+     */
+    public static Resource resource(String name, int resourceType, EntryType trafficType) {
+        return new Resource(name, resourceType, trafficType);
+    }
 }
@@ -0,0 +1,285 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>A hashed timing wheel for fine-grained delayed tasks, e.g. resuming requests queued by rate limiting
+ * rules, occupying future tokens or waiting for cluster tokens. Scheduling a task only enqueues it, and all
+ * tasks are expired by a single worker thread that ticks with {@link TimeUtil#currentTimeMillis()},
+ * so thousands of waiting requests cost no extra threads.</p>
+ *
+ * <p>Tasks are executed in the worker thread, so they should be short and never block
+ * (e.g. hand over to another executor for heavy work). The precision of the delay is one tick.</p>
+ *
+ * @since 1.8.9
+ */
+public class HashedTimingWheel {
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private static volatile HashedTimingWheel defaultWheel;
+
+    private final long tickMs;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final NamedThreadFactory threadFactory;
+
+    private volatile long startTime;
+    /**
+     * Set after {@link #startTime}, so that threads seeing the wheel started also see its start time.
+     */
+    private volatile boolean started = false;
+    private volatile boolean stopped = false;
+
+    /**
+     * Current tick, only accessed by the worker thread.
+     */
+    private long tick;
+
+    /**
+     * @param name      name prefix of the worker thread
+     * @param tickMs    duration of a tick in milliseconds
+     * @param wheelSize number of buckets of the wheel, which will be rounded up to a power of 2
+     */
+    public HashedTimingWheel(String name, long tickMs, int wheelSize) {
+        AssertUtil.assertNotBlank(name, "name cannot be blank");
+        AssertUtil.isTrue(tickMs > 0, "tickMs should be positive");
+        AssertUtil.isTrue(wheelSize > 0 && wheelSize <= (1 << 30), "wheelSize should be in (0, 2^30]");
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickMs = tickMs;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.threadFactory = new NamedThreadFactory(name, true);
+    }
+
+    /**
+     * Get the shared timing wheel (1ms per tick), which is started on first use.
+     *
+     * @return the shared timing wheel
+     */
+    public static HashedTimingWheel getDefault() {
+        if (defaultWheel == null) {
+            synchronized (HashedTimingWheel.class) {
+                if (defaultWheel == null) {
+                    defaultWheel = new HashedTimingWheel("sentinel-timing-wheel", 1, 512);
+                }
+            }
+        }
+        return defaultWheel;
+    }
+
+    /**
+     * Schedule the task to be executed once after the given delay.
+     *
+     * @param task  the task to execute
+     * @param delay the delay
+     * @param unit  time unit of the delay
+     * @return the handle of the scheduled task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        AssertUtil.notNull(task, "task cannot be null");
+        AssertUtil.notNull(unit, "unit cannot be null");
+        AssertUtil.isTrue(!stopped, "timing wheel has been stopped");
+        start();
+        // Round up, so that the task is never executed earlier than expected.
+        long delayMs = (unit.toNanos(Math.max(delay, 0)) + 999999L) / 1000000L;
+        Timeout timeout = new Timeout(task, TimeUtil.currentTimeMillis() - startTime + delayMs);
+        pendingCount.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return number of scheduled tasks that have not been expired or cancelled yet
+     */
+    public int pendingTimeouts() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Stop the worker thread. Tasks not executed yet are discarded.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private void start() {
+        if (started) {
+            return;
+        }
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            startTime = TimeUtil.currentTimeMillis();
+            started = true;
+            Thread worker = threadFactory.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    workLoop();
+                }
+            });
+            worker.start();
+        }
+    }
+
+    private void workLoop() {
+        while (!stopped) {
+            long deadline = (tick + 1) * tickMs;
+            long now = TimeUtil.currentTimeMillis() - startTime;
+            if (now < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(deadline - now, tickMs)));
+                continue;
+            }
+            transferPendingTimeouts();
+            wheel[(int)(tick & mask)].expire(now);
+            tick++;
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long expectedTicks = timeout.deadline / tickMs;
+            long ticks = Math.max(expectedTicks, tick);
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int)(ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public final class Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+        /**
+         * Deadline relative to the start time of the wheel.
+         */
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        private long remainingRounds;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task if it has not been executed yet.
+         *
+         * @return true if cancelled successfully
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                pendingCount.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            pendingCount.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                RecordLog.warn("[HashedTimingWheel] Error when executing the scheduled task", t);
+            }
+        }
+    }
+
+    /**
+     * A bucket of the wheel, which is a singly linked list only accessed by the worker thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.next = head;
+            head = timeout;
+        }
+
+        void expire(long now) {
+            Timeout prev = null;
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                boolean remove = false;
+                if (timeout.isCancelled()) {
+                    remove = true;
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                    remove = true;
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                if (remove) {
+                    if (prev == null) {
+                        head = next;
+                    } else {
+                        prev.next = next;
+                    }
+                    timeout.next = null;
+                } else {
+                    prev = timeout;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
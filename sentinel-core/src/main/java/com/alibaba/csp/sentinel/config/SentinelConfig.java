@@ -57,10 +57,75 @@ public final class SentinelConfig {
     public static final String CHARSET = "csp.sentinel.charset";
     public static final String SINGLE_METRIC_FILE_SIZE = "csp.sentinel.metric.file.single.size";
     public static final String TOTAL_METRIC_FILE_COUNT = "csp.sentinel.metric.file.total.count";
+    public static final String METRIC_FILE_FORMAT = "csp.sentinel.metric.file.format";
+    public static final String METRIC_FILE_RESOURCE_INDEX = "csp.sentinel.metric.file.resource.index";
+    public static final String METRIC_WRITE_QUEUE_CAPACITY = "csp.sentinel.metric.write.queue.capacity";
     public static final String COLD_FACTOR = "csp.sentinel.flow.cold.factor";
     public static final String STATISTIC_MAX_RT = "csp.sentinel.statistic.max.rt";
     public static final String SPI_CLASSLOADER = "csp.sentinel.spi.classloader";
     public static final String METRIC_FLUSH_INTERVAL = "csp.sentinel.metric.flush.interval";
+    public static final String STATISTIC_BUCKET_TYPE = "csp.sentinel.statistic.bucket.type";
+    public static final String STATISTIC_BUCKET_STRIPES = "csp.sentinel.statistic.bucket.stripes";
+    public static final String STATISTIC_WINDOW_ROTATION = "csp.sentinel.statistic.window.rotation";
+    public static final String RESOURCE_IDLE_TTL = "csp.sentinel.resource.idle.ttl";
+    public static final String TIME_CLOCK = "csp.sentinel.time.clock";
+
+    /**
+     * Statistic bucket backed by one {@code LongAdder} per metric event (the default).
+     *
+     * @since 1.8.9
+     */
+    public static final String STATISTIC_BUCKET_TYPE_ADDER = "adder";
+    /**
+     * Statistic bucket backed by a single striped and padded counter array.
+     *
+     * @since 1.8.9
+     */
+    public static final String STATISTIC_BUCKET_TYPE_STRIPED = "striped";
+    /**
+     * Deprecated sliding-window buckets are reset in place under a lock (the default).
+     *
+     * @since 1.8.9
+     */
+    public static final String STATISTIC_WINDOW_ROTATION_LOCK = "lock";
+    /**
+     * Deprecated sliding-window buckets are replaced by a CAS, so callers never block or yield.
+     *
+     * @since 1.8.9
+     */
+    public static final String STATISTIC_WINDOW_ROTATION_CAS = "cas";
+    /**
+     * The adaptive clock of {@code TimeUtil}, which caches the time in a tick thread under heavy reads.
+     *
+     * @since 1.8.9
+     */
+    public static final String TIME_CLOCK_ADAPTIVE = "adaptive";
+    /**
+     * The adaptive clock that samples a plain read counter instead of recording reads in a sliding window.
+     *
+     * @since 1.8.9
+     */
+    public static final String TIME_CLOCK_SAMPLED = "sampled";
+    /**
+     * The monotonic clock derived from {@code System.nanoTime()}.
+     *
+     * @since 1.8.9
+     */
+    public static final String TIME_CLOCK_NANO = "nano";
+
+    /**
+     * Metric log files in text, one line per resource per second (the default).
+     *
+     * @since 1.8.9
+     */
+    public static final String METRIC_FILE_FORMAT_TEXT = "text";
+    /**
+     * Metric log files in the compact binary format, with dictionary-encoded resource names
+     * and fixed-width counters.
+     *
+     * @since 1.8.9
+     */
+    public static final String METRIC_FILE_FORMAT_BINARY = "binary";
 
     public static final String DEFAULT_CHARSET = "UTF-8";
     public static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
@@ -68,6 +133,10 @@ public final class SentinelConfig {
     public static final int DEFAULT_COLD_FACTOR = 3;
     public static final int DEFAULT_STATISTIC_MAX_RT = 5000;
     public static final long DEFAULT_METRIC_FLUSH_INTERVAL = 1L;
+    public static final int DEFAULT_STATISTIC_BUCKET_STRIPES = 1;
+    public static final int MAX_STATISTIC_BUCKET_STRIPES = 64;
+    public static final long DEFAULT_RESOURCE_IDLE_TTL = 0L;
+    public static final int DEFAULT_METRIC_WRITE_QUEUE_CAPACITY = 128;
 
     static {
         try {
@@ -221,6 +290,56 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * Get the format of newly created metric log files. Files in both formats can be searched.
+     *
+     * @return {@link #METRIC_FILE_FORMAT_BINARY} if configured; otherwise {@link #METRIC_FILE_FORMAT_TEXT}
+     * @since 1.8.9
+     */
+    public static String metricFileFormat() {
+        String v = props.get(METRIC_FILE_FORMAT);
+        if (METRIC_FILE_FORMAT_BINARY.equalsIgnoreCase(v)) {
+            return METRIC_FILE_FORMAT_BINARY;
+        }
+        return METRIC_FILE_FORMAT_TEXT;
+    }
+
+    /**
+     * Whether to write a per-resource index file alongside each metric file, which lets
+     * searches of a single resource read only the matching records.
+     *
+     * @return true if enabled, false by default
+     * @since 1.8.9
+     */
+    public static boolean metricFileResourceIndexEnabled() {
+        return Boolean.parseBoolean(props.get(METRIC_FILE_RESOURCE_INDEX));
+    }
+
+    /**
+     * Get the capacity (in batches, one batch per second of metrics) of the queue between the metric
+     * aggregation and the metric writer. Metrics are shed when the queue is full.
+     *
+     * @return the capacity of the metric write queue
+     * @since 1.8.9
+     */
+    public static int metricWriteQueueCapacity() {
+        String v = props.get(METRIC_WRITE_QUEUE_CAPACITY);
+        if (StringUtil.isEmpty(v)) {
+            return DEFAULT_METRIC_WRITE_QUEUE_CAPACITY;
+        }
+        try {
+            int capacity = Integer.parseInt(v);
+            if (capacity > 0) {
+                return capacity;
+            }
+        } catch (Throwable throwable) {
+            // Use the default value below.
+        }
+        RecordLog.warn("[SentinelConfig] Invalid metricWriteQueueCapacity value: {}, using the default value instead: "
+            + DEFAULT_METRIC_WRITE_QUEUE_CAPACITY, v);
+        return DEFAULT_METRIC_WRITE_QUEUE_CAPACITY;
+    }
+
     public static int coldFactor() {
         try {
             int coldFactor = Integer.parseInt(props.get(COLD_FACTOR));
@@ -259,6 +378,107 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * Get the type of the bucket that holds sliding-window statistics.
+     *
+     * @return {@link #STATISTIC_BUCKET_TYPE_STRIPED} if configured; otherwise {@link #STATISTIC_BUCKET_TYPE_ADDER}
+     * @since 1.8.9
+     */
+    public static String statisticBucketType() {
+        String v = props.get(STATISTIC_BUCKET_TYPE);
+        if (STATISTIC_BUCKET_TYPE_STRIPED.equalsIgnoreCase(v)) {
+            return STATISTIC_BUCKET_TYPE_STRIPED;
+        }
+        return STATISTIC_BUCKET_TYPE_ADDER;
+    }
+
+    /**
+     * <p>Get the stripe count of striped statistic buckets. A single stripe is the most compact, while more
+     * stripes (each padded to two cache lines) reduce write contention on hot resources at the cost of more
+     * memory per bucket.</p>
+     *
+     * @return the stripe count, which is 1 by default
+     * @since 1.8.9
+     */
+    public static int statisticBucketStripes() {
+        String v = props.get(STATISTIC_BUCKET_STRIPES);
+        int defaultStripes = DEFAULT_STATISTIC_BUCKET_STRIPES;
+        if (StringUtil.isEmpty(v)) {
+            return defaultStripes;
+        }
+        try {
+            int stripes = Integer.parseInt(v);
+            if (stripes <= 0 || stripes > MAX_STATISTIC_BUCKET_STRIPES) {
+                RecordLog.warn("[SentinelConfig] Invalid statisticBucketStripes value: {}, using the default value "
+                    + "instead: {}", v, defaultStripes);
+                return defaultStripes;
+            }
+            return stripes;
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid statisticBucketStripes value: {}, using the default value "
+                + "instead: {}", v, defaultStripes, throwable);
+            return defaultStripes;
+        }
+    }
+
+    /**
+     * Get the rotation mode of sliding-window buckets.
+     *
+     * @return {@link #STATISTIC_WINDOW_ROTATION_CAS} if configured;
+     * otherwise {@link #STATISTIC_WINDOW_ROTATION_LOCK}
+     * @since 1.8.9
+     */
+    public static String statisticWindowRotation() {
+        String v = props.get(STATISTIC_WINDOW_ROTATION);
+        if (STATISTIC_WINDOW_ROTATION_CAS.equalsIgnoreCase(v)) {
+            return STATISTIC_WINDOW_ROTATION_CAS;
+        }
+        return STATISTIC_WINDOW_ROTATION_LOCK;
+    }
+
+    /**
+     * <p>Get the time (in seconds) after which a resource without traffic and without rules is evicted,
+     * together with its slot chain and nodes. The time is counted from the moment the one-minute statistics
+     * of the resource became empty.</p>
+     *
+     * @return the idle TTL in seconds; a non-positive value means idle resources are never evicted (by default)
+     * @since 1.8.9
+     */
+    public static long resourceIdleTtlSec() {
+        String v = props.get(RESOURCE_IDLE_TTL);
+        if (StringUtil.isEmpty(v)) {
+            return DEFAULT_RESOURCE_IDLE_TTL;
+        }
+        try {
+            return Long.parseLong(v);
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid resourceIdleTtl value: {}, using the default value instead: "
+                + DEFAULT_RESOURCE_IDLE_TTL, v, throwable);
+            return DEFAULT_RESOURCE_IDLE_TTL;
+        }
+    }
+
+    /**
+     * Get the built-in clock of {@code TimeUtil}.
+     *
+     * @return {@link #TIME_CLOCK_ADAPTIVE}, {@link #TIME_CLOCK_SAMPLED} or {@link #TIME_CLOCK_NANO} if configured;
+     * otherwise null, which means the clock provided via SPI (or the adaptive clock if absent) is used
+     * @since 1.8.9
+     */
+    public static String timeClock() {
+        String v = props.get(TIME_CLOCK);
+        if (StringUtil.isEmpty(v)) {
+            return null;
+        }
+        for (String clock : new String[] {TIME_CLOCK_ADAPTIVE, TIME_CLOCK_SAMPLED, TIME_CLOCK_NANO}) {
+            if (clock.equalsIgnoreCase(v.trim())) {
+                return clock;
+            }
+        }
+        RecordLog.warn("[SentinelConfig] Invalid timeClock value: {}, ignored", v);
+        return null;
+    }
+
     /**
      * Function for resolving project name. The order is elaborated below:
      *
@@ -49,6 +49,11 @@ public class ContextUtil {
      */
     private static ThreadLocal<Context> contextHolder = new ThreadLocal<>();
 
+    /**
+     * The default context of each thread, kept for reuse after it has been exited.
+     */
+    private static final ThreadLocal<Context> defaultContextHolder = new ThreadLocal<>();
+
     /**
      * Holds all {@link EntranceNode}. Each {@link EntranceNode} is associated with a distinct context name.
      */
@@ -158,6 +163,31 @@ public class ContextUtil {
         return context;
     }
 
+    /**
+     * Enter the default context, reusing the default context instance previously created by current thread
+     * when it is no longer in use.
+     *
+     * @return The invocation context of the current thread
+     * @since 1.8.9
+     */
+    protected static Context trueEnterDefault() {
+        Context context = contextHolder.get();
+        if (context != null) {
+            return context;
+        }
+        DefaultNode node = contextNameNodeMap.get(Constants.CONTEXT_DEFAULT_NAME);
+        context = defaultContextHolder.get();
+        // The cached context could not be reused if the context map has been reset,
+        // or some entries of it have never been exited.
+        if (context == null || context.getEntranceNode() != node || context.getCurEntry() != null) {
+            context = new Context(node, Constants.CONTEXT_DEFAULT_NAME);
+            defaultContextHolder.set(context);
+        }
+        context.setOrigin("");
+        contextHolder.set(context);
+        return context;
+    }
+
     private static boolean shouldWarn = true;
 
     private static void setNullContext() {
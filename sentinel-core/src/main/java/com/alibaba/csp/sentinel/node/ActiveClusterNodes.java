@@ -0,0 +1,102 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Consumer;
+
+/**
+ * <p>Tracks the {@link ClusterNode}s that recorded any statistics recently (including the
+ * {@link com.alibaba.csp.sentinel.Constants#ENTRY_NODE}), so that metric collectors only visit active
+ * resources instead of all registered ones.</p>
+ *
+ * <p>A node joins when it records statistics in a new second (see {@link ClusterNode#getLastActiveTime()}),
+ * and leaves once it has been idle longer than the retention, which outlasts the one-minute statistics.</p>
+ *
+ * @since 1.8.9
+ */
+public final class ActiveClusterNodes {
+
+    /**
+     * Idle nodes are dropped after the retention, longer than the one-minute statistics
+     * so that collectors can still fetch the last seconds.
+     */
+    private static final long RETENTION_MS = 2 * 60 * 1000;
+
+    private static final Set<ClusterNode> NODES = Collections.newSetFromMap(
+        new ConcurrentHashMap<ClusterNode, Boolean>());
+
+    private static final AtomicIntegerFieldUpdater<ClusterNode> TRACKED_UPDATER
+        = AtomicIntegerFieldUpdater.newUpdater(ClusterNode.class, "tracked");
+
+    static void track(ClusterNode node) {
+        if (node.tracked == 0 && TRACKED_UPDATER.compareAndSet(node, 0, 1)) {
+            NODES.add(node);
+        }
+    }
+
+    /**
+     * Visit all tracked nodes.
+     *
+     * @param visitor the visitor
+     */
+    public static void forEach(Consumer<ClusterNode> visitor) {
+        forEach(Long.MIN_VALUE, visitor);
+    }
+
+    /**
+     * Visit tracked nodes that recorded any statistics at or after the given time.
+     *
+     * @param sinceTime the time in milliseconds
+     * @param visitor   the visitor
+     */
+    public static void forEach(long sinceTime, Consumer<ClusterNode> visitor) {
+        AssertUtil.notNull(visitor, "visitor cannot be null");
+        long expireBefore = TimeUtil.currentTimeMillis() - RETENTION_MS;
+        for (Iterator<ClusterNode> it = NODES.iterator(); it.hasNext(); ) {
+            ClusterNode node = it.next();
+            long lastActiveTime = node.getLastActiveTime();
+            if (lastActiveTime < expireBefore) {
+                it.remove();
+                node.tracked = 0;
+                // The node may become active right before the flag is cleared.
+                if (node.getLastActiveTime() >= expireBefore) {
+                    track(node);
+                }
+                continue;
+            }
+            if (lastActiveTime >= sinceTime) {
+                visitor.accept(node);
+            }
+        }
+    }
+
+    /**
+     * @return amount of tracked nodes
+     */
+    public static int size() {
+        return NODES.size();
+    }
+
+    private ActiveClusterNodes() {}
+}
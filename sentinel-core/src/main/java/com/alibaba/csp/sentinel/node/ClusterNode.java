@@ -15,14 +15,17 @@
  */
 package com.alibaba.csp.sentinel.node;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.alibaba.csp.sentinel.ResourceTypeConstants;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * <p>
@@ -69,6 +72,16 @@ public class ClusterNode extends StatisticNode {
 
     private final ReentrantLock lock = new ReentrantLock();
 
+    /**
+     * Start time of the latest second in which any statistics was recorded, or -1 if never active.
+     */
+    private volatile long lastActiveTime = -1;
+
+    /**
+     * Whether the node is tracked by {@link ActiveClusterNodes} (1 for tracked).
+     */
+    volatile int tracked = 0;
+
     /**
      * Get resource name of the resource node.
      *
@@ -123,4 +136,66 @@ public class ClusterNode extends StatisticNode {
         return originCountMap;
     }
 
+    /**
+     * Get start time of the latest second in which any statistics was recorded.
+     *
+     * @return the second-aligned timestamp, or -1 if never active
+     * @since 1.8.9
+     */
+    public long getLastActiveTime() {
+        return lastActiveTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Returns an empty map at once if nothing has been recorded since the last fetch.</p>
+     */
+    @Override
+    public Map<Long, MetricNode> metrics() {
+        if (lastActiveTime <= lastFetchTime()) {
+            return Collections.emptyMap();
+        }
+        return super.metrics();
+    }
+
+    @Override
+    public void addPassRequest(int count) {
+        super.addPassRequest(count);
+        markActive();
+    }
+
+    @Override
+    public void addRtAndSuccess(long rt, int successCount) {
+        super.addRtAndSuccess(rt, successCount);
+        markActive();
+    }
+
+    @Override
+    public void increaseBlockQps(int count) {
+        super.increaseBlockQps(count);
+        markActive();
+    }
+
+    @Override
+    public void increaseExceptionQps(int count) {
+        super.increaseExceptionQps(count);
+        markActive();
+    }
+
+    @Override
+    public void addOccupiedPass(int acquireCount) {
+        super.addOccupiedPass(acquireCount);
+        markActive();
+    }
+
+    private void markActive() {
+        long time = TimeUtil.currentTimeMillis();
+        time = time - time % 1000;
+        // Only the first event of every second writes.
+        if (time != lastActiveTime) {
+            lastActiveTime = time;
+            ActiveClusterNodes.track(this);
+        }
+    }
 }
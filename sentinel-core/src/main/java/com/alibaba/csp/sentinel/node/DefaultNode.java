@@ -95,6 +95,29 @@ public class DefaultNode extends StatisticNode {
         }
     }
 
+    /**
+     * Remove the child node from current node.
+     *
+     * @param node the child node to remove
+     * @return true if the node was a child of current node; otherwise false
+     * @since 1.8.9
+     */
+    public boolean removeChild(Node node) {
+        if (node == null || !childList.contains(node)) {
+            return false;
+        }
+        synchronized (this) {
+            if (!childList.contains(node)) {
+                return false;
+            }
+            Set<Node> newSet = new HashSet<>(childList);
+            newSet.remove(node);
+            childList = newSet;
+        }
+        RecordLog.info("Remove child <{}> from node <{}>", ((DefaultNode)node).id.getName(), id.getName());
+        return true;
+    }
+
     /**
      * Reset the child node list.
      */
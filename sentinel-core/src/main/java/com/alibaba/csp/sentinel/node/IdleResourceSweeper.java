@@ -0,0 +1,203 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.CtSph;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Reclaims resources that have neither traffic nor rules for a configurable time
+ * (see {@link SentinelConfig#RESOURCE_IDLE_TTL}). An evicted resource loses its {@link ProcessorSlotChain},
+ * its {@link ClusterNode} and its {@link DefaultNode}s, which are also detached from the invocation tree.
+ * All of them are created again as soon as the resource is visited again.</p>
+ *
+ * <p>A resource is idle when it has no running thread and no request in the one-minute statistics of
+ * its {@link ClusterNode}. Resources with flow, degrade or authority rules are never evicted, so no
+ * protection is lost. A resource whose {@link DefaultNode}s still have child nodes is kept until the children
+ * have been evicted, so that the invocation tree stays consistent.</p>
+ *
+ * @since 1.8.9
+ */
+public final class IdleResourceSweeper {
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("sentinel-idle-resource-sweeper", true));
+
+    private static final long MAX_SWEEP_INTERVAL_SEC = 60;
+
+    private static volatile boolean started = false;
+
+    private final long ttlMs;
+
+    /**
+     * Time when each resource was first seen idle. Only accessed by the sweeping thread.
+     */
+    private final Map<ResourceWrapper, Long> idleSince = new HashMap<>();
+
+    IdleResourceSweeper(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Start the sweeper if {@link SentinelConfig#resourceIdleTtlSec()} is positive.
+     * Calling this method more than once has no effect.
+     */
+    public static synchronized void startIfEnabled() {
+        if (started) {
+            return;
+        }
+        long ttlSec = SentinelConfig.resourceIdleTtlSec();
+        if (ttlSec <= 0) {
+            RecordLog.info("[IdleResourceSweeper] Idle resource eviction is disabled, set {} to enable it",
+                SentinelConfig.RESOURCE_IDLE_TTL);
+            return;
+        }
+        final IdleResourceSweeper sweeper = new IdleResourceSweeper(TimeUnit.SECONDS.toMillis(ttlSec));
+        long interval = Math.min(ttlSec, MAX_SWEEP_INTERVAL_SEC);
+        SCHEDULER.scheduleWithFixedDelay(() -> {
+            try {
+                sweeper.sweep(TimeUtil.currentTimeMillis());
+            } catch (Throwable ex) {
+                RecordLog.warn("[IdleResourceSweeper] Failed to evict idle resources", ex);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+        started = true;
+        RecordLog.info("[IdleResourceSweeper] Idle resource eviction started, ttl={}s", ttlSec);
+    }
+
+    /**
+     * Evict resources that have been idle for at least the TTL at the given time.
+     *
+     * @param now current time in milliseconds
+     * @return amount of evicted resources
+     */
+    int sweep(long now) {
+        Map<ResourceWrapper, ClusterNode> clusterNodes = ClusterBuilderSlot.getClusterNodeMap();
+        idleSince.keySet().retainAll(clusterNodes.keySet());
+
+        Map<ResourceWrapper, ClusterNode> evicted = new HashMap<>();
+        Set<Node> evictedNodes = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        for (Map.Entry<ResourceWrapper, ClusterNode> e : clusterNodes.entrySet()) {
+            ResourceWrapper resource = e.getKey();
+            if (!isIdle(e.getValue()) || hasRules(resource.getName())) {
+                idleSince.remove(resource);
+                continue;
+            }
+            Long since = idleSince.get(resource);
+            if (since == null) {
+                idleSince.put(resource, now);
+                continue;
+            }
+            if (now - since < ttlMs) {
+                continue;
+            }
+            List<DefaultNode> nodes = nodesOf(CtSph.getProcessChain(resource));
+            if (hasChildren(nodes)) {
+                continue;
+            }
+            CtSph.removeProcessChain(resource);
+            evicted.put(resource, e.getValue());
+            evictedNodes.addAll(nodes);
+            idleSince.remove(resource);
+        }
+        if (evicted.isEmpty()) {
+            return 0;
+        }
+        ClusterBuilderSlot.removeClusterNodes(evicted);
+        detachFromTree(evictedNodes);
+        RecordLog.info("[IdleResourceSweeper] Evicted {} idle resources", evicted.size());
+        return evicted.size();
+    }
+
+    private static boolean isIdle(ClusterNode node) {
+        return node.curThreadNum() <= 0 && node.totalRequest() <= 0;
+    }
+
+    private static boolean hasRules(String resource) {
+        return FlowRuleManager.hasConfig(resource) || DegradeRuleManager.hasConfig(resource)
+            || AuthorityRuleManager.hasConfig(resource);
+    }
+
+    private static List<DefaultNode> nodesOf(ProcessorSlotChain chain) {
+        if (chain == null) {
+            return Collections.emptyList();
+        }
+        for (AbstractLinkedProcessorSlot<?> slot = chain.getNext(); slot != null; slot = slot.getNext()) {
+            if (slot instanceof NodeSelectorSlot) {
+                return new ArrayList<>(((NodeSelectorSlot)slot).getNodeMap().values());
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private static boolean hasChildren(List<DefaultNode> nodes) {
+        for (DefaultNode node : nodes) {
+            if (!node.getChildList().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void detachFromTree(Set<Node> evictedNodes) {
+        if (evictedNodes.isEmpty()) {
+            return;
+        }
+        Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        Deque<DefaultNode> stack = new ArrayDeque<>();
+        stack.push(Constants.ROOT);
+        while (!stack.isEmpty()) {
+            DefaultNode node = stack.pop();
+            if (!visited.add(node)) {
+                continue;
+            }
+            // The child list is copy-on-write, so removing a child does not affect this iteration.
+            for (Node child : node.getChildList()) {
+                if (evictedNodes.contains(child)) {
+                    node.removeChild(child);
+                } else if (child instanceof DefaultNode) {
+                    stack.push((DefaultNode)child);
+                }
+            }
+        }
+    }
+}
@@ -132,6 +132,13 @@ public class StatisticNode implements Node {
         return metrics;
     }
 
+    /**
+     * @return start time of the latest second returned by {@link #metrics()}, or -1 if never fetched
+     */
+    long lastFetchTime() {
+        return lastFetchTime;
+    }
+
     @Override
     public List<MetricNode> rawMetricsInMin(Predicate<Long> timePredicate) {
         return rollingCounterInMinute.detailsOnCondition(timePredicate);
@@ -0,0 +1,179 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * <p>Hands metric batches over to a dedicated writer thread, which does the serialization and IO
+ * via the underlying {@link MetricWriter}, so that slow disks never delay the aggregation.</p>
+ *
+ * <p>Batches are copied into the reusable slots of a bounded ring buffer. When the ring is full
+ * (the writer falls behind), new batches are shed and counted instead of blocking the caller.</p>
+ *
+ * @since 1.8.9
+ */
+public class AsyncMetricWriter {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MetricWriter writer;
+    private final Batch[] slots;
+
+    /**
+     * Sequence of the next batch to write, only updated by the writer thread.
+     */
+    private volatile long head = 0;
+    /**
+     * Sequence of the next batch to publish, only updated by producers (with the lock held).
+     */
+    private volatile long tail = 0;
+
+    private final AtomicLong shedBatches = new AtomicLong();
+    private final AtomicLong shedNodes = new AtomicLong();
+    private boolean shedding = false;
+
+    private volatile Thread writerThread;
+    private volatile boolean stopped = false;
+
+    public AsyncMetricWriter(MetricWriter writer, int capacity) {
+        if (writer == null || capacity <= 0) {
+            throw new IllegalArgumentException("writer should not be null and capacity should be positive");
+        }
+        this.writer = writer;
+        this.slots = new Batch[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Batch();
+        }
+    }
+
+    /**
+     * Submit metric nodes of the same second for writing. The nodes are copied (by reference), so the
+     * given list can be reused after the call.
+     *
+     * @param time  the timestamp of the nodes
+     * @param nodes the metric nodes
+     * @return true if accepted, or false if shed as the writer falls behind
+     */
+    public synchronized boolean write(long time, List<MetricNode> nodes) {
+        if (nodes == null || stopped) {
+            return false;
+        }
+        long t = tail;
+        if (t - head >= slots.length) {
+            shedBatches.incrementAndGet();
+            shedNodes.addAndGet(nodes.size());
+            if (!shedding) {
+                shedding = true;
+                RecordLog.warn("[AsyncMetricWriter] Metric writer falls behind, shedding metrics (shed batches: {})",
+                    shedBatches.get());
+            }
+            return false;
+        }
+        shedding = false;
+        Batch batch = slots[(int)(t % slots.length)];
+        batch.time = time;
+        batch.nodes.addAll(nodes);
+        tail = t + 1;
+
+        Thread thread = writerThread;
+        if (thread == null) {
+            thread = startWriterThread();
+        }
+        LockSupport.unpark(thread);
+        return true;
+    }
+
+    private Thread startWriterThread() {
+        Thread thread = new NamedThreadFactory("sentinel-metric-writer", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                drainLoop();
+            }
+        });
+        writerThread = thread;
+        thread.start();
+        return thread;
+    }
+
+    private void drainLoop() {
+        while (!stopped || head != tail) {
+            long h = head;
+            if (h == tail) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            Batch batch = slots[(int)(h % slots.length)];
+            try {
+                writer.write(batch.time, batch.nodes);
+            } catch (Throwable e) {
+                RecordLog.warn("[AsyncMetricWriter] Write metric error", e);
+            }
+            batch.nodes.clear();
+            // Release the slot to producers.
+            head = h + 1;
+        }
+    }
+
+    /**
+     * @return count of batches waiting to be written
+     */
+    public int pendingBatches() {
+        return (int)(tail - head);
+    }
+
+    /**
+     * @return total count of batches shed due to backpressure
+     */
+    public long getShedBatches() {
+        return shedBatches.get();
+    }
+
+    /**
+     * @return total count of metric nodes shed due to backpressure
+     */
+    public long getShedNodes() {
+        return shedNodes.get();
+    }
+
+    /**
+     * Stop accepting new batches, write the pending ones and close the underlying writer.
+     *
+     * @param timeout max time to wait for the pending batches
+     * @param unit    unit of the timeout
+     */
+    public void close(long timeout, TimeUnit unit) throws Exception {
+        stopped = true;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(Math.max(1, unit.toMillis(timeout)));
+        }
+        writer.close();
+    }
+
+    private static final class Batch {
+        long time;
+        final List<MetricNode> nodes = new ArrayList<>();
+    }
+}
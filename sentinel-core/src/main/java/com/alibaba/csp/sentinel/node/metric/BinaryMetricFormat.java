@@ -0,0 +1,302 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The compact binary format of metric log files. A file starts with a header (magic and version),
+ * followed by records of two kinds:</p>
+ * <ul>
+ * <li>dictionary record: {@code tag(1) | resourceId(4) | nameLength(2) | name(UTF-8)}, written before the first
+ * metric record of the resource in the file;</li>
+ * <li>metric record: {@code tag(1) | resourceId(4) | timestamp(8) | passQps(8) | blockQps(8) | successQps(8) |
+ * exceptionQps(8) | rt(8) | occupiedPassQps(8) | concurrency(4) | classification(4)}.</li>
+ * </ul>
+ * <p>Every file is self-contained, so the offsets in the {@code .idx} file work the same as for text files.
+ * Text files never start with the magic (they start with a digit), so both formats can be told apart.</p>
+ *
+ * @since 1.8.9
+ */
+final class BinaryMetricFormat {
+
+    /**
+     * "SMLB" (Sentinel Metric Log Binary).
+     */
+    static final int MAGIC = 0x534d4c42;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    static final byte TAG_DICTIONARY = 1;
+    static final byte TAG_METRIC = 2;
+
+    static final int DICTIONARY_RECORD_MIN_SIZE = 1 + 4 + 2;
+    static final int METRIC_RECORD_SIZE = 1 + 4 + 8 * 7 + 4 + 4;
+
+    private static final int MAX_NAME_LENGTH = 0xFFFF;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static ByteBuffer header() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        buffer.flip();
+        return buffer;
+    }
+
+    static boolean hasHeader(ByteBuffer buffer) {
+        return buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC;
+    }
+
+    /**
+     * @param name the UTF-8 encoded resource name
+     * @return the length of the name cut to at most {@code 0xFFFF} bytes, without splitting a character
+     */
+    static int nameLength(byte[] name) {
+        if (name.length <= MAX_NAME_LENGTH) {
+            return name.length;
+        }
+        int length = MAX_NAME_LENGTH;
+        // Back off while the first byte left out is a continuation byte (10xxxxxx) of a character.
+        while (length > 0 && (name[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return length;
+    }
+
+    /**
+     * Encodes metric nodes of one file. The dictionary is kept until the next file.
+     * Not thread-safe, it is used by the writer only.
+     *
+     * <p>Resources first seen by {@link #encode(List)} are only known to the dictionary after {@link #commit()},
+     * i.e. after the encoded buffer has been written completely. Otherwise the next call discards them and
+     * writes their dictionary records again, so a failed write never leaves metric records of resources
+     * whose names are missing in the file. Ids are never reused, as a discarded dictionary record might still
+     * have reached the file.</p>
+     */
+    static final class Encoder {
+
+        private final Map<String, Integer> resourceIds = new HashMap<>();
+        /**
+         * Resources added to the dictionary by the last {@link #encode(List)} call, but not committed yet.
+         */
+        private final List<String> pendingResources = new ArrayList<>();
+        private int nextId = 0;
+        private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private int[] recordPositions = new int[64];
+
+        /**
+         * @param nodes metric nodes to encode
+         * @return the encoded buffer (ready for read), which is reused by the next call
+         */
+        ByteBuffer encode(List<MetricNode> nodes) {
+            discardPending();
+            buffer.clear();
+            if (recordPositions.length < nodes.size()) {
+                recordPositions = Arrays.copyOf(recordPositions, Math.max(nodes.size(), recordPositions.length * 2));
+            }
+            for (int i = 0; i < nodes.size(); i++) {
+                MetricNode node = nodes.get(i);
+                Integer id = resourceIds.get(node.getResource());
+                if (id == null) {
+                    id = nextId++;
+                    resourceIds.put(node.getResource(), id);
+                    pendingResources.add(node.getResource());
+                    byte[] name = node.getResource().getBytes(UTF_8);
+                    int length = nameLength(name);
+                    ensureRemaining(DICTIONARY_RECORD_MIN_SIZE + length);
+                    buffer.put(TAG_DICTIONARY).putInt(id).putShort((short)length).put(name, 0, length);
+                }
+                ensureRemaining(METRIC_RECORD_SIZE);
+                recordPositions[i] = buffer.position();
+                buffer.put(TAG_METRIC)
+                    .putInt(id)
+                    .putLong(node.getTimestamp())
+                    .putLong(node.getPassQps())
+                    .putLong(node.getBlockQps())
+                    .putLong(node.getSuccessQps())
+                    .putLong(node.getExceptionQps())
+                    .putLong(node.getRt())
+                    .putLong(node.getOccupiedPassQps())
+                    .putInt(node.getConcurrency())
+                    .putInt(node.getClassification());
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        /**
+         * Keep the resources of the last {@link #encode(List)} call in the dictionary. Must be called
+         * once the encoded buffer has been written completely.
+         */
+        void commit() {
+            pendingResources.clear();
+        }
+
+        private void discardPending() {
+            for (int i = 0; i < pendingResources.size(); i++) {
+                resourceIds.remove(pendingResources.get(i));
+            }
+            pendingResources.clear();
+        }
+
+        /**
+         * @param i index of the node in the last {@link #encode(List)} call
+         * @return position of the metric record of the node in the encoded buffer
+         */
+        int recordPosition(int i) {
+            return recordPositions[i];
+        }
+
+        private void ensureRemaining(int size) {
+            if (buffer.remaining() < size) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+
+    /**
+     * Resource names of one file, which are collected incrementally while the file is read.
+     */
+    static final class Dictionary {
+
+        private final Map<Integer, String> names = new HashMap<>();
+        /**
+         * Records before the position have been scanned for dictionary records.
+         */
+        private int scannedTo = HEADER_SIZE;
+
+        int scannedTo() {
+            return scannedTo;
+        }
+
+        /**
+         * Make sure all dictionary records before the given position are collected.
+         * Metric records are skipped without decoding.
+         *
+         * @param buffer   the whole file
+         * @param position the position to scan to
+         */
+        void scanTo(ByteBuffer buffer, int position) {
+            int pos = scannedTo;
+            while (pos < position) {
+                int next = nextRecord(buffer, pos);
+                if (next < 0) {
+                    break;
+                }
+                pos = next;
+            }
+        }
+
+        /**
+         * Find the next record, and collect the resource name if the record at the given position
+         * is a dictionary record.
+         *
+         * @param buffer   the whole file
+         * @param position position of current record
+         * @return position of the next record, or -1 if current record is incomplete (e.g. being written)
+         */
+        int nextRecord(ByteBuffer buffer, int position) {
+            if (position + 1 > buffer.limit()) {
+                return -1;
+            }
+            byte tag = buffer.get(position);
+            int next;
+            if (tag == TAG_METRIC) {
+                next = position + METRIC_RECORD_SIZE;
+                if (next > buffer.limit()) {
+                    return -1;
+                }
+            } else if (tag == TAG_DICTIONARY && position + DICTIONARY_RECORD_MIN_SIZE <= buffer.limit()) {
+                int length = buffer.getShort(position + 5) & MAX_NAME_LENGTH;
+                next = position + DICTIONARY_RECORD_MIN_SIZE + length;
+                if (next > buffer.limit()) {
+                    return -1;
+                }
+                int id = buffer.getInt(position + 1);
+                if (!names.containsKey(id)) {
+                    byte[] name = new byte[length];
+                    for (int i = 0; i < length; i++) {
+                        name[i] = buffer.get(position + DICTIONARY_RECORD_MIN_SIZE + i);
+                    }
+                    names.put(id, new String(name, UTF_8));
+                }
+            } else {
+                return -1;
+            }
+            scannedTo = Math.max(scannedTo, next);
+            return next;
+        }
+
+        /**
+         * Decode the metric record at the given position, which must be a complete record
+         * (see {@link #nextRecord(ByteBuffer, int)}).
+         *
+         * @param buffer   the whole file
+         * @param position position of the record
+         * @return the decoded metric node, or null if the record is a dictionary record
+         */
+        MetricNode readMetric(ByteBuffer buffer, int position) {
+            if (buffer.get(position) != TAG_METRIC) {
+                return null;
+            }
+            return decodeMetric(buffer, position, names.get(buffer.getInt(position + 1)));
+        }
+    }
+
+    /**
+     * Decode the metric record at the given position, whose resource is already known
+     * (e.g. from the resource index), so the dictionary is not needed.
+     *
+     * @param buffer   the whole file
+     * @param position position of the record
+     * @param resource resource of the record
+     * @return the decoded metric node, or null if there is no complete metric record at the position
+     */
+    static MetricNode readMetric(ByteBuffer buffer, int position, String resource) {
+        if (position < HEADER_SIZE || position + METRIC_RECORD_SIZE > buffer.limit()
+            || buffer.get(position) != TAG_METRIC) {
+            return null;
+        }
+        return decodeMetric(buffer, position, resource);
+    }
+
+    private static MetricNode decodeMetric(ByteBuffer buffer, int position, String resource) {
+        int p = position + 1;
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        node.setTimestamp(buffer.getLong(p + 4));
+        node.setPassQps(buffer.getLong(p + 12));
+        node.setBlockQps(buffer.getLong(p + 20));
+        node.setSuccessQps(buffer.getLong(p + 28));
+        node.setExceptionQps(buffer.getLong(p + 36));
+        node.setRt(buffer.getLong(p + 44));
+        node.setOccupiedPassQps(buffer.getLong(p + 52));
+        node.setConcurrency(buffer.getInt(p + 60));
+        node.setClassification(buffer.getInt(p + 64));
+        return node;
+    }
+
+    private BinaryMetricFormat() {}
+}
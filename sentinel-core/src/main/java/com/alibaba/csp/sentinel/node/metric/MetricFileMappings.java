@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Read-only views of metric files (and their resource index files), one per file.</p>
+ *
+ * <p>Rolled files never change, so each of them is mapped once. The file being written (the last one of the
+ * files, see {@link #retainAll(List)}) grows every second, and mapping it on every read would leave a new
+ * mapping behind each time, which is only released by GC. Instead, it is read into a grow-only heap buffer,
+ * and only the bytes appended since the last read are read.</p>
+ *
+ * <p>Not thread-safe, it is used by the reader only.</p>
+ *
+ * @since 1.8.9
+ */
+final class MetricFileMappings {
+
+    private static final int INITIAL_GROWING_CAPACITY = 64 * 1024;
+
+    private final Map<String, Mapping> mappings = new HashMap<>();
+    private final Map<String, GrowingFile> growingFiles = new HashMap<>();
+    private String activeFileName;
+
+    /**
+     * @param fileName name of the file
+     * @return the content of the whole file (up to 2 GB), whose position and limit are independent from other
+     * reads
+     */
+    ByteBuffer map(String fileName) throws IOException {
+        if (fileName.equals(activeFileName)) {
+            GrowingFile growing = growingFiles.get(fileName);
+            if (growing == null) {
+                growing = new GrowingFile();
+                growingFiles.put(fileName, growing);
+            }
+            return growing.read(fileName);
+        }
+        File file = new File(fileName);
+        long lastModified = file.lastModified();
+        long size = Math.min(file.length(), Integer.MAX_VALUE);
+        Mapping mapping = mappings.get(fileName);
+        if (mapping == null || mapping.buffer.capacity() != size || mapping.lastModified != lastModified) {
+            // Rolled files are not expected to change, but a re-created file is mapped again.
+            mapping = new Mapping(mapFile(fileName), lastModified);
+            mappings.put(fileName, mapping);
+        }
+        return mapping.buffer.duplicate();
+    }
+
+    /**
+     * Drop the views of files other than the given ones (e.g. deleted files). The last file is the one
+     * being written, which is read incrementally from then on.
+     *
+     * @param fileNames names of the files to keep, in the order of {@link MetricWriter#METRIC_FILE_NAME_CMP}
+     */
+    void retainAll(List<String> fileNames) {
+        activeFileName = fileNames.isEmpty() ? null : fileNames.get(fileNames.size() - 1);
+        mappings.keySet().retainAll(fileNames);
+        mappings.remove(activeFileName);
+        // Once rolled, the file is mapped as the others.
+        growingFiles.keySet().retainAll(Collections.singleton(activeFileName));
+    }
+
+    private static ByteBuffer mapFile(String fileName) throws IOException {
+        FileInputStream in = new FileInputStream(fileName);
+        try {
+            FileChannel channel = in.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+        } finally {
+            in.close();
+        }
+    }
+
+    private static final class Mapping {
+        private final ByteBuffer buffer;
+        private final long lastModified;
+
+        Mapping(ByteBuffer buffer, long lastModified) {
+            this.buffer = buffer;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Content of a growing file read so far, in a heap buffer whose capacity doubles as the file grows.
+     */
+    private static final class GrowingFile {
+        private ByteBuffer data = ByteBuffer.allocate(0);
+        private int length = 0;
+
+        ByteBuffer read(String fileName) throws IOException {
+            FileInputStream in = new FileInputStream(fileName);
+            try {
+                FileChannel channel = in.getChannel();
+                int size = (int)Math.min(channel.size(), Integer.MAX_VALUE);
+                if (size < length) {
+                    // The file has been re-created, read it again.
+                    length = 0;
+                }
+                if (size > data.capacity()) {
+                    long capacity = Math.max(size, Math.max(INITIAL_GROWING_CAPACITY, data.capacity() * 2L));
+                    ByteBuffer larger = ByteBuffer.allocate((int)Math.min(capacity, Integer.MAX_VALUE));
+                    data.clear();
+                    data.limit(length);
+                    larger.put(data);
+                    data = larger;
+                }
+                // Only read the bytes appended since the last read.
+                data.limit(size);
+                data.position(length);
+                while (data.hasRemaining()) {
+                    // Offsets of the buffer are the offsets of the file.
+                    if (channel.read(data, data.position()) < 0) {
+                        break;
+                    }
+                }
+                length = data.position();
+            } finally {
+                in.close();
+            }
+            ByteBuffer view = data.duplicate();
+            view.clear();
+            view.limit(length);
+            return view.slice();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The per-resource index of a metric file ({@code ${metricFileName}.ridx}), which maps every resource
+ * to the (second, offset) pairs of its records in the metric file. The index is a sequence of entries:</p>
+ * <ul>
+ * <li>resource entry: {@code tag(1) | resourceId(4) | nameLength(2) | name(UTF-8)}, written before the first
+ * posting of the resource;</li>
+ * <li>posting entry: {@code tag(1) | resourceId(4) | second(8) | offset(8)}.</li>
+ * </ul>
+ * <p>Postings are appended after the metric records are flushed, so an offset always points to a complete
+ * record. The index is loaded incrementally: only the entries appended since the last refresh are parsed.</p>
+ *
+ * @since 1.8.9
+ */
+final class MetricResourceIndex {
+
+    static final byte TAG_RESOURCE = 1;
+    static final byte TAG_POSTING = 2;
+
+    private static final int RESOURCE_ENTRY_MIN_SIZE = 1 + 4 + 2;
+    private static final int POSTING_ENTRY_SIZE = 1 + 4 + 8 + 8;
+    private static final int MAX_NAME_LENGTH = 0xFFFF;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<Integer, String> names = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    /**
+     * Entries before the position have been loaded.
+     */
+    private long loadedTo = 0;
+
+    /**
+     * Load the entries appended since the last refresh.
+     *
+     * @param buffer the whole index file (e.g. mapped via {@link MetricFileMappings})
+     */
+    void refresh(ByteBuffer buffer) {
+        int size = buffer.limit();
+        if (size < loadedTo) {
+            // The file has been re-created.
+            names.clear();
+            postings.clear();
+            loadedTo = 0;
+        }
+        int position = (int)loadedTo;
+        int next;
+        while ((next = loadEntry(buffer, position)) >= 0) {
+            position = next;
+        }
+        loadedTo = position;
+    }
+
+    /**
+     * @return position of the next entry, or -1 if the entry at the given position is incomplete or invalid
+     */
+    private int loadEntry(ByteBuffer buffer, int position) {
+        int limit = buffer.limit();
+        if (position + 1 > limit) {
+            return -1;
+        }
+        byte tag = buffer.get(position);
+        if (tag == TAG_POSTING) {
+            if (position + POSTING_ENTRY_SIZE > limit) {
+                return -1;
+            }
+            String name = names.get(buffer.getInt(position + 1));
+            if (name != null) {
+                Postings list = postings.get(name);
+                if (list == null) {
+                    list = new Postings();
+                    postings.put(name, list);
+                }
+                list.add(buffer.getLong(position + 5), buffer.getLong(position + 13));
+            }
+            return position + POSTING_ENTRY_SIZE;
+        }
+        if (tag == TAG_RESOURCE && position + RESOURCE_ENTRY_MIN_SIZE <= limit) {
+            int length = buffer.getShort(position + 5) & MAX_NAME_LENGTH;
+            int next = position + RESOURCE_ENTRY_MIN_SIZE + length;
+            if (next > limit) {
+                return -1;
+            }
+            byte[] name = new byte[length];
+            for (int i = 0; i < length; i++) {
+                name[i] = buffer.get(position + RESOURCE_ENTRY_MIN_SIZE + i);
+            }
+            names.put(buffer.getInt(position + 1), new String(name, UTF_8));
+            return next;
+        }
+        return -1;
+    }
+
+    /**
+     * @param resource the resource name
+     * @return postings of the resource in ascending order of seconds, or null if the resource is absent
+     */
+    Postings postings(String resource) {
+        return postings.get(resource);
+    }
+
+    /**
+     * The (second, offset) pairs of one resource.
+     */
+    static final class Postings {
+
+        private long[] seconds = new long[16];
+        private long[] offsets = new long[16];
+        private int size = 0;
+
+        void add(long second, long offset) {
+            if (size == seconds.length) {
+                seconds = Arrays.copyOf(seconds, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            seconds[size] = second;
+            offsets[size] = offset;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long second(int i) {
+            return seconds[i];
+        }
+
+        long offset(int i) {
+            return offsets[i];
+        }
+
+        /**
+         * @param second the second to search
+         * @return index of the first posting whose second is not less than the given second
+         */
+        int lowerBound(long second) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (seconds[mid] < second) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Appends entries to the index of one metric file. Not thread-safe, it is used by the metric writer only.
+     */
+    static final class Writer implements Closeable {
+
+        private final FileOutputStream out;
+        private final Map<String, Integer> resourceIds = new HashMap<>();
+        private ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+
+        Writer(String indexFileName) throws IOException {
+            this.out = new FileOutputStream(indexFileName, false);
+        }
+
+        /**
+         * @param second  the second of the nodes
+         * @param nodes   metric nodes just written to the metric file
+         * @param offsets offsets of the nodes in the metric file
+         */
+        void append(long second, List<MetricNode> nodes, long[] offsets) throws IOException {
+            buffer.clear();
+            for (int i = 0; i < nodes.size(); i++) {
+                String resource = nodes.get(i).getResource();
+                Integer id = resourceIds.get(resource);
+                if (id == null) {
+                    id = resourceIds.size();
+                    resourceIds.put(resource, id);
+                    byte[] name = resource.getBytes(UTF_8);
+                    int length = BinaryMetricFormat.nameLength(name);
+                    ensureRemaining(RESOURCE_ENTRY_MIN_SIZE + length);
+                    buffer.put(TAG_RESOURCE).putInt(id).putShort((short)length).put(name, 0, length);
+                }
+                ensureRemaining(POSTING_ENTRY_SIZE);
+                buffer.put(TAG_POSTING).putInt(id).putLong(second).putLong(offsets[i]);
+            }
+            buffer.flip();
+            FileChannel channel = out.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void ensureRemaining(int size) {
+            if (buffer.remaining() < size) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -108,13 +108,23 @@ public class MetricSearcher {
     /**
      * Find metric between [beginTimeMs, endTimeMs], both side inclusive.
      * When identity is null, all metric between the time intervalMs will be read, otherwise, only the specific
-     * identity will be read.
+     * identity will be read. If all metric files have resource index files (see
+     * {@link com.alibaba.csp.sentinel.config.SentinelConfig#METRIC_FILE_RESOURCE_INDEX}), only the records of
+     * the identity are read.
      */
     public synchronized List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
         throws Exception {
         List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
         //RecordLog.info("pid=" + pid + ", findByTimeAndResource([" + beginTimeMs + ", " + endTimeMs
         //    + "], " + identity + ")");
+        if (identity != null) {
+            // Only read the records of the resource if the resource index is available.
+            List<MetricNode> nodes = metricsReader.readMetricsByResourceIndex(fileNames, beginTimeMs, endTimeMs,
+                identity);
+            if (nodes != null) {
+                return nodes;
+            }
+        }
         int i = 0;
         long offsetInIndex = 0;
         if (validPosition(beginTimeMs)) {
@@ -15,44 +15,55 @@
  */
 package com.alibaba.csp.sentinel.node.metric;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 
-import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
-import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.ActiveClusterNodes;
 import com.alibaba.csp.sentinel.node.ClusterNode;
-import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
-import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.function.Consumer;
 
 /**
  * @author jialiang.linjl
  */
 public class MetricTimerListener implements Runnable {
 
-    private static final MetricWriter metricWriter = new MetricWriter(SentinelConfig.singleMetricFileSize(),
-        SentinelConfig.totalMetricFileCount());
+    private static final AsyncMetricWriter metricWriter = new AsyncMetricWriter(
+        new MetricWriter(SentinelConfig.singleMetricFileSize(), SentinelConfig.totalMetricFileCount()),
+        SentinelConfig.metricWriteQueueCapacity());
+
+    /**
+     * Reusable buffers of the snapshot, as the nodes are copied into the write queue.
+     */
+    private final Map<Long, List<MetricNode>> maps = new TreeMap<>();
+    private final Deque<List<MetricNode>> freeLists = new ArrayDeque<>();
+
+    /**
+     * Only visits active nodes (including the entry node), as idle nodes have no new metrics.
+     */
+    private final Consumer<ClusterNode> aggregator = new Consumer<ClusterNode>() {
+        @Override
+        public void accept(ClusterNode node) {
+            aggregate(maps, node.metrics(), node);
+        }
+    };
 
     @Override
     public void run() {
-        Map<Long, List<MetricNode>> maps = new TreeMap<>();
-        for (Entry<ResourceWrapper, ClusterNode> e : ClusterBuilderSlot.getClusterNodeMap().entrySet()) {
-            ClusterNode node = e.getValue();
-            Map<Long, MetricNode> metrics = node.metrics();
-            aggregate(maps, metrics, node);
-        }
-        aggregate(maps, Constants.ENTRY_NODE.metrics(), Constants.ENTRY_NODE);
+        ActiveClusterNodes.forEach(aggregator);
         if (!maps.isEmpty()) {
             for (Entry<Long, List<MetricNode>> entry : maps.entrySet()) {
-                try {
-                    metricWriter.write(entry.getKey(), entry.getValue());
-                } catch (Exception e) {
-                    RecordLog.warn("[MetricTimerListener] Write metric error", e);
-                }
+                // Shed (and counted) by the writer when it falls behind.
+                metricWriter.write(entry.getKey(), entry.getValue());
+                entry.getValue().clear();
+                freeLists.push(entry.getValue());
             }
+            maps.clear();
         }
     }
 
@@ -62,10 +73,20 @@ public class MetricTimerListener implements Runnable {
             MetricNode metricNode = entry.getValue();
             metricNode.setResource(node.getName());
             metricNode.setClassification(node.getResourceType());
-            maps.computeIfAbsent(time, k -> new ArrayList<MetricNode>());
             List<MetricNode> nodes = maps.get(time);
+            if (nodes == null) {
+                nodes = freeLists.isEmpty() ? new ArrayList<MetricNode>() : freeLists.pop();
+                maps.put(time, nodes);
+            }
             nodes.add(entry.getValue());
         }
     }
 
+    /**
+     * @return the writer of metric logs
+     * @since 1.8.9
+     */
+    public static AsyncMetricWriter getMetricWriter() {
+        return metricWriter;
+    }
 }
@@ -19,6 +19,8 @@ import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -40,6 +42,11 @@ import com.alibaba.csp.sentinel.log.RecordLog;
  * <li>file name is like: {@code ${appName}-metrics.log.pid${pid}.yyyy-MM-dd.[number]}</li>
  * <li>metric of different day should in different file;</li>
  * <li>every metric file is accompanied with an index file, which file name is {@code ${metricFileName}.idx}</li>
+ * <li>metric files are written in text, or in {@link BinaryMetricFormat} if configured
+ * (see {@link SentinelConfig#metricFileFormat()}).</li>
+ * <li>if enabled (see {@link SentinelConfig#metricFileResourceIndexEnabled()}), every metric file is also
+ * accompanied with a resource index file ({@link MetricResourceIndex}), which file name is
+ * {@code ${metricFileName}.ridx}</li>
  * </ol>
  *
  * @author Carpenter Lee
@@ -56,6 +63,7 @@ public class MetricWriter {
      */
     public static final String METRIC_FILE = "metrics.log";
     public static final String METRIC_FILE_INDEX_SUFFIX = ".idx";
+    public static final String METRIC_FILE_RESOURCE_INDEX_SUFFIX = ".ridx";
     public static final Comparator<String> METRIC_FILE_NAME_CMP = new MetricFileNameComparator();
 
     private final DateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
@@ -77,6 +85,13 @@ public class MetricWriter {
     private long singleFileSize;
     private int totalFileCount;
     private boolean append = false;
+    private final boolean binary;
+    /**
+     * Encoder of current file, only used for binary format.
+     */
+    private BinaryMetricFormat.Encoder encoder;
+    private final boolean resourceIndex;
+    private MetricResourceIndex.Writer outResourceIndex;
     private final int pid = PidUtil.getPid();
 
     /**
@@ -89,12 +104,26 @@ public class MetricWriter {
     }
 
     public MetricWriter(long singleFileSize, int totalFileCount) {
+        this(METRIC_BASE_DIR, singleFileSize, totalFileCount, SentinelConfig.metricFileFormat(),
+            SentinelConfig.metricFileResourceIndexEnabled());
+    }
+
+    /**
+     * @param baseDir        directory of metric files, which should end with the file separator
+     * @param singleFileSize max size of a single metric file
+     * @param totalFileCount max count of metric files
+     * @param format         format of metric files, see {@link SentinelConfig#METRIC_FILE_FORMAT}
+     * @param resourceIndex  whether to write resource index files
+     */
+    MetricWriter(String baseDir, long singleFileSize, int totalFileCount, String format, boolean resourceIndex) {
         if (singleFileSize <= 0 || totalFileCount <= 0) {
             throw new IllegalArgumentException();
         }
-        RecordLog.info("[MetricWriter] Creating new MetricWriter, singleFileSize={}, totalFileCount={}",
-            singleFileSize, totalFileCount);
-        this.baseDir = METRIC_BASE_DIR;
+        RecordLog.info("[MetricWriter] Creating new MetricWriter, singleFileSize={}, totalFileCount={}, format={}"
+            + ", resourceIndex={}", singleFileSize, totalFileCount, format, resourceIndex);
+        this.baseDir = baseDir;
+        this.binary = SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(format);
+        this.resourceIndex = resourceIndex;
         File dir = new File(baseDir);
         if (!dir.exists()) {
             dir.mkdirs();
@@ -142,10 +171,7 @@ public class MetricWriter {
         if (second < lastSecond) {
             // 时间靠前的直接忽略，不应该发生。
         } else if (second == lastSecond) {
-            for (MetricNode node : nodes) {
-                outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-            }
-            outMetricBuf.flush();
+            writeNodes(second, nodes);
             if (!validSize()) {
                 closeAndNewFile(nextFileNameOfDay(time));
             }
@@ -153,18 +179,12 @@ public class MetricWriter {
             writeIndex(second, outMetric.getChannel().position());
             if (isNewDay(lastSecond, second)) {
                 closeAndNewFile(nextFileNameOfDay(time));
-                for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-                }
-                outMetricBuf.flush();
+                writeNodes(second, nodes);
                 if (!validSize()) {
                     closeAndNewFile(nextFileNameOfDay(time));
                 }
             } else {
-                for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-                }
-                outMetricBuf.flush();
+                writeNodes(second, nodes);
                 if (!validSize()) {
                     closeAndNewFile(nextFileNameOfDay(time));
                 }
@@ -180,6 +200,42 @@ public class MetricWriter {
         if (outIndex != null) {
             outIndex.close();
         }
+        if (outResourceIndex != null) {
+            outResourceIndex.close();
+        }
+    }
+
+    private void writeNodes(long second, List<MetricNode> nodes) throws Exception {
+        FileChannel channel = outMetric.getChannel();
+        long base = channel.position();
+        long[] offsets = outResourceIndex == null ? null : new long[nodes.size()];
+        if (binary) {
+            ByteBuffer buffer = encoder.encode(nodes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            encoder.commit();
+            if (offsets != null) {
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = base + encoder.recordPosition(i);
+                }
+            }
+        } else {
+            long offset = base;
+            for (int i = 0; i < nodes.size(); i++) {
+                byte[] line = nodes.get(i).toFatString().getBytes(CHARSET);
+                outMetricBuf.write(line);
+                if (offsets != null) {
+                    offsets[i] = offset;
+                    offset += line.length;
+                }
+            }
+            outMetricBuf.flush();
+        }
+        if (offsets != null) {
+            // Written after the records are flushed, so that readers never see a posting of a partial record.
+            outResourceIndex.append(second, nodes, offsets);
+        }
     }
 
     private void writeIndex(long time, long offset) throws Exception {
@@ -198,6 +254,7 @@ public class MetricWriter {
             String fileName = file.getName();
             if (fileName.contains(fileNameModel)
                 && !fileName.endsWith(METRIC_FILE_INDEX_SUFFIX)
+                && !fileName.endsWith(METRIC_FILE_RESOURCE_INDEX_SUFFIX)
                 && !fileName.endsWith(".lck")) {
                 list.add(file.getAbsolutePath());
             }
@@ -330,6 +387,11 @@ public class MetricWriter {
             RecordLog.info("[MetricWriter] Removing metric file: {}", fileName);
             new File(indexFile).delete();
             RecordLog.info("[MetricWriter] Removing metric index file: {}", indexFile);
+            File resourceIndexFile = new File(formResourceIndexFileName(fileName));
+            if (resourceIndexFile.exists()) {
+                resourceIndexFile.delete();
+                RecordLog.info("[MetricWriter] Removing metric resource index file: {}", resourceIndexFile);
+            }
         }
     }
 
@@ -341,12 +403,29 @@ public class MetricWriter {
         if (outIndex != null) {
             outIndex.close();
         }
+        if (outResourceIndex != null) {
+            outResourceIndex.close();
+            outResourceIndex = null;
+        }
         outMetric = new FileOutputStream(fileName, append);
         outMetricBuf = new BufferedOutputStream(outMetric);
         curMetricFile = new File(fileName);
         String idxFile = formIndexFileName(fileName);
         curMetricIndexFile = new File(idxFile);
         outIndex = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(idxFile, append)));
+        if (binary) {
+            // Resource names are encoded per file, so every file can be read on its own.
+            encoder = new BinaryMetricFormat.Encoder();
+            ByteBuffer header = BinaryMetricFormat.header();
+            while (header.hasRemaining()) {
+                outMetric.getChannel().write(header);
+            }
+        }
+        if (resourceIndex) {
+            String resourceIndexFile = formResourceIndexFileName(fileName);
+            outResourceIndex = new MetricResourceIndex.Writer(resourceIndexFile);
+            RecordLog.info("[MetricWriter] New metric resource index file created: {}", resourceIndexFile);
+        }
         RecordLog.info("[MetricWriter] New metric file created: {}", fileName);
         RecordLog.info("[MetricWriter] New metric index file created: {}", idxFile);
     }
@@ -399,4 +478,15 @@ public class MetricWriter {
     public static String formIndexFileName(String metricFileName) {
         return metricFileName + METRIC_FILE_INDEX_SUFFIX;
     }
+
+    /**
+     * Form resource index file name of the {@code metricFileName}
+     *
+     * @param metricFileName
+     * @return the resource index file name of the metricFileName
+     * @since 1.8.9
+     */
+    public static String formResourceIndexFileName(String metricFileName) {
+        return metricFileName + METRIC_FILE_RESOURCE_INDEX_SUFFIX;
+    }
 }
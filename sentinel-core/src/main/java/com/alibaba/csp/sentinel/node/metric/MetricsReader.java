@@ -16,14 +16,22 @@
 package com.alibaba.csp.sentinel.node.metric;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Reads metrics data from log file.
+ * Reads metrics data from log file. Both text files and binary files (see {@link BinaryMetricFormat})
+ * are supported, and binary files are read via memory mapping, which is kept per file across reads.
  */
 class MetricsReader {
 
@@ -34,6 +42,17 @@ class MetricsReader {
 
     private final Charset charset;
 
+    /**
+     * Resource dictionaries of binary metric files, so that each file is only scanned once for its dictionary.
+     */
+    private final Map<String, BinaryMetricFormat.Dictionary> dictionaries = new HashMap<>();
+    /**
+     * Resource indexes of metric files, which are loaded incrementally.
+     */
+    private final Map<String, MetricResourceIndex> resourceIndexes = new HashMap<>();
+    private final MetricFileMappings mappings = new MetricFileMappings();
+    private final MetricFileMappings indexMappings = new MetricFileMappings();
+
     public MetricsReader(Charset charset) {
         this.charset = charset;
     }
@@ -43,16 +62,13 @@ class MetricsReader {
      */
     boolean readMetricsInOneFileByEndTime(List<MetricNode> list, String fileName, long offset,
                                           long beginTimeMs, long endTimeMs, String identity) throws Exception {
-        FileInputStream in = null;
+        MetricCursor cursor = null;
         long beginSecond = beginTimeMs / 1000;
         long endSecond = endTimeMs / 1000;
         try {
-            in = new FileInputStream(fileName);
-            in.getChannel().position(offset);
-            BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                MetricNode node = MetricNode.fromFatString(line);
+            cursor = openCursor(fileName, offset);
+            MetricNode node;
+            while ((node = cursor.next()) != null) {
                 long currentSecond = node.getTimestamp() / 1000;
                 // currentSecond should >= beginSecond, otherwise a wrong metric file must occur
                 if (currentSecond < beginSecond) {
@@ -73,8 +89,8 @@ class MetricsReader {
                 }
             }
         } finally {
-            if (in != null) {
-                in.close();
+            if (cursor != null) {
+                cursor.close();
             }
         }
         return true;
@@ -89,14 +105,11 @@ class MetricsReader {
         if (list.size() > 0) {
             lastSecond = list.get(list.size() - 1).getTimestamp() / 1000;
         }
-        FileInputStream in = null;
+        MetricCursor cursor = null;
         try {
-            in = new FileInputStream(fileName);
-            in.getChannel().position(offset);
-            BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                MetricNode node = MetricNode.fromFatString(line);
+            cursor = openCursor(fileName, offset);
+            MetricNode node;
+            while ((node = cursor.next()) != null) {
                 long currentSecond = node.getTimestamp() / 1000;
 
                 if (list.size() < recommendLines) {
@@ -109,8 +122,8 @@ class MetricsReader {
                 lastSecond = currentSecond;
             }
         } finally {
-            if (in != null) {
-                in.close();
+            if (cursor != null) {
+                cursor.close();
             }
         }
     }
@@ -121,6 +134,8 @@ class MetricsReader {
      */
     List<MetricNode> readMetricsByEndTime(List<String> fileNames, int pos, long offset,
                                           long beginTimeMs, long endTimeMs, String identity) throws Exception {
+        dictionaries.keySet().retainAll(fileNames);
+        mappings.retainAll(fileNames);
         List<MetricNode> list = new ArrayList<MetricNode>(1024);
         if (readMetricsInOneFileByEndTime(list, fileNames.get(pos++), offset, beginTimeMs, endTimeMs, identity)) {
             while (pos < fileNames.size()
@@ -132,6 +147,8 @@ class MetricsReader {
 
     List<MetricNode> readMetrics(List<String> fileNames, int pos,
                                  long offset, int recommendLines) throws Exception {
+        dictionaries.keySet().retainAll(fileNames);
+        mappings.retainAll(fileNames);
         List<MetricNode> list = new ArrayList<MetricNode>(recommendLines);
         readMetricsInOneFile(list, fileNames.get(pos++), offset, recommendLines);
         while (list.size() < recommendLines && pos < fileNames.size()) {
@@ -139,4 +156,185 @@ class MetricsReader {
         }
         return list;
     }
-}
\ No newline at end of file
+
+    /**
+     * Read metrics of the given resource between [beginTimeMs, endTimeMs] via the resource index files,
+     * so that only the records of the resource are read.
+     *
+     * @return the metrics, or null if any metric file has no resource index file
+     */
+    List<MetricNode> readMetricsByResourceIndex(List<String> fileNames, long beginTimeMs, long endTimeMs,
+                                                String identity) throws Exception {
+        resourceIndexes.keySet().retainAll(fileNames);
+        mappings.retainAll(fileNames);
+        if (fileNames.isEmpty()) {
+            return null;
+        }
+        List<String> indexFileNames = new ArrayList<String>(fileNames.size());
+        for (String fileName : fileNames) {
+            String indexFileName = MetricWriter.formResourceIndexFileName(fileName);
+            if (!new File(indexFileName).exists()) {
+                return null;
+            }
+            indexFileNames.add(indexFileName);
+        }
+        indexMappings.retainAll(indexFileNames);
+        long beginSecond = beginTimeMs / 1000;
+        long endSecond = endTimeMs / 1000;
+        List<MetricNode> list = new ArrayList<MetricNode>();
+        for (int f = 0; f < fileNames.size(); f++) {
+            String fileName = fileNames.get(f);
+            MetricResourceIndex index = resourceIndexes.get(fileName);
+            if (index == null) {
+                index = new MetricResourceIndex();
+                resourceIndexes.put(fileName, index);
+            }
+            index.refresh(indexMappings.map(indexFileNames.get(f)));
+            MetricResourceIndex.Postings postings = index.postings(identity);
+            if (postings == null) {
+                continue;
+            }
+            int i = postings.lowerBound(beginSecond);
+            if (i >= postings.size() || postings.second(i) > endSecond) {
+                continue;
+            }
+            ByteBuffer buffer = mappings.map(fileName);
+            boolean binary = BinaryMetricFormat.hasHeader(buffer);
+            for (; i < postings.size() && postings.second(i) <= endSecond; i++) {
+                if (postings.offset(i) >= buffer.limit()) {
+                    break;
+                }
+                int position = (int)postings.offset(i);
+                MetricNode node = binary ? BinaryMetricFormat.readMetric(buffer, position, identity)
+                    : readLine(buffer, position);
+                if (node == null) {
+                    break;
+                }
+                list.add(node);
+                if (list.size() >= MAX_LINES_RETURN) {
+                    return list;
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return the text metric line starting at the given position, or null if the line is incomplete
+     */
+    private MetricNode readLine(ByteBuffer buffer, int position) {
+        int end = position;
+        while (end < buffer.limit() && buffer.get(end) != '\n') {
+            end++;
+        }
+        if (end >= buffer.limit()) {
+            return null;
+        }
+        byte[] line = new byte[end - position];
+        for (int i = 0; i < line.length; i++) {
+            line[i] = buffer.get(position + i);
+        }
+        return MetricNode.fromFatString(new String(line, charset));
+    }
+
+    private MetricCursor openCursor(String fileName, long offset) throws IOException {
+        FileInputStream in = new FileInputStream(fileName);
+        try {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if (isBinary(channel, size)) {
+                in.close();
+                ByteBuffer buffer = mappings.map(fileName);
+                BinaryMetricFormat.Dictionary dictionary = dictionaries.get(fileName);
+                if (dictionary == null || dictionary.scannedTo() > buffer.limit()) {
+                    // A new file, or the file has been re-created.
+                    dictionary = new BinaryMetricFormat.Dictionary();
+                    dictionaries.put(fileName, dictionary);
+                }
+                int position = (int)Math.max(offset, BinaryMetricFormat.HEADER_SIZE);
+                dictionary.scanTo(buffer, position);
+                return new BinaryCursor(buffer, dictionary, position);
+            }
+            channel.position(offset);
+            return new TextCursor(new BufferedReader(new InputStreamReader(in, charset)));
+        } catch (IOException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    private static boolean isBinary(FileChannel channel, long size) throws IOException {
+        if (size < BinaryMetricFormat.HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(BinaryMetricFormat.HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                return false;
+            }
+        }
+        header.flip();
+        return BinaryMetricFormat.hasHeader(header);
+    }
+
+    /**
+     * Iterates metric nodes of a file from the given offset.
+     */
+    private interface MetricCursor extends Closeable {
+        /**
+         * @return the next metric node, or null if no more nodes
+         */
+        MetricNode next() throws IOException;
+    }
+
+    private static final class TextCursor implements MetricCursor {
+        private final BufferedReader reader;
+
+        TextCursor(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public MetricNode next() throws IOException {
+            String line = reader.readLine();
+            return line == null ? null : MetricNode.fromFatString(line);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class BinaryCursor implements MetricCursor {
+        private final ByteBuffer buffer;
+        private final BinaryMetricFormat.Dictionary dictionary;
+        private int position;
+
+        BinaryCursor(ByteBuffer buffer, BinaryMetricFormat.Dictionary dictionary, int position) {
+            this.buffer = buffer;
+            this.dictionary = dictionary;
+            this.position = position;
+        }
+
+        @Override
+        public MetricNode next() {
+            while (true) {
+                int next = dictionary.nextRecord(buffer, position);
+                if (next < 0) {
+                    return null;
+                }
+                MetricNode node = dictionary.readMetric(buffer, position);
+                position = next;
+                if (node != null) {
+                    return node;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            // The mapped buffer is kept for later reads.
+        }
+    }
+}
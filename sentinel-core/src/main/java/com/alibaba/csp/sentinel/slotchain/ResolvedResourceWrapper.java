@@ -0,0 +1,45 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import com.alibaba.csp.sentinel.EntryType;
+
+/**
+ * <p>A string resource wrapper that lives as long as its {@link com.alibaba.csp.sentinel.Resource} handle,
+ * so that slots can keep resolved data (e.g. the rules of the resource) in it instead of looking it up
+ * by resource name on every entry.</p>
+ *
+ * <p>The snapshot is owned by the rule managers. It must be immutable and carry its own version,
+ * so that a stale snapshot can be detected and replaced after rules have been changed.</p>
+ *
+ * @since 1.8.9
+ */
+public class ResolvedResourceWrapper extends StringResourceWrapper {
+
+    private volatile Object ruleSnapshot;
+
+    public ResolvedResourceWrapper(String name, EntryType e, int resType) {
+        super(name, e, resType);
+    }
+
+    public Object getRuleSnapshot() {
+        return ruleSnapshot;
+    }
+
+    public void setRuleSnapshot(Object ruleSnapshot) {
+        this.ruleSnapshot = ruleSnapshot;
+    }
+}
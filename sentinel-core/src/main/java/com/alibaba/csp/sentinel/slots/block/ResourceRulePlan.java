@@ -0,0 +1,259 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>The immutable evaluation plan of one resource, compiled from the flow, circuit breaking and authority rules
+ * of the resource when rules are loaded (see {@link ResourceRulePlanManager}). The rule slots read everything
+ * they need from the plan, so no rule list is looked up or copied on the entry path.</p>
+ *
+ * <p>Resources without any rule share the {@link #EMPTY} plan.</p>
+ *
+ * @since 1.8.9
+ */
+public final class ResourceRulePlan {
+
+    public static final ResourceRulePlan EMPTY = new ResourceRulePlan(Collections.<FlowRule>emptyList(),
+        Collections.<CircuitBreaker>emptyList(), Collections.<AuthorityRule>emptyList());
+
+    private final List<FlowRule> flowRules;
+    /**
+     * Specific origins that flow rules of the resource are configured for, which are not regarded as
+     * {@link RuleConstant#LIMIT_APP_OTHER}.
+     */
+    private final Set<String> flowLimitApps;
+    /**
+     * Flow checks for the origins in {@link #flowLimitApps}.
+     */
+    private final Map<String, List<FlowCheck>> originFlowChecks;
+    /**
+     * Flow checks for invocations without origin.
+     */
+    private final List<FlowCheck> noOriginFlowChecks;
+    /**
+     * Flow checks for all origins regarded as {@link RuleConstant#LIMIT_APP_OTHER}.
+     */
+    private final List<FlowCheck> otherOriginFlowChecks;
+    private final List<CircuitBreaker> circuitBreakers;
+    private final List<AuthorityCheck> authorityChecks;
+
+    ResourceRulePlan(List<FlowRule> flowRules, List<CircuitBreaker> circuitBreakers,
+                     List<AuthorityRule> authorityRules) {
+        this.flowRules = immutableCopy(flowRules);
+        this.circuitBreakers = immutableCopy(circuitBreakers);
+
+        Set<String> limitApps = new HashSet<>();
+        for (FlowRule rule : this.flowRules) {
+            if (rule.getLimitApp() != null) {
+                limitApps.add(rule.getLimitApp());
+            }
+        }
+        this.flowLimitApps = limitApps.isEmpty() ? Collections.<String>emptySet() : limitApps;
+
+        Map<String, List<FlowCheck>> originChecks = new HashMap<>(limitApps.size());
+        for (String limitApp : limitApps) {
+            originChecks.put(limitApp, compileFlowChecks(this.flowRules, limitApp, false));
+        }
+        this.originFlowChecks = originChecks;
+        this.noOriginFlowChecks = compileFlowChecks(this.flowRules, null, false);
+        this.otherOriginFlowChecks = compileFlowChecks(this.flowRules, null, true);
+
+        if (authorityRules == null || authorityRules.isEmpty()) {
+            this.authorityChecks = Collections.emptyList();
+        } else {
+            List<AuthorityCheck> checks = new ArrayList<>(authorityRules.size());
+            for (AuthorityRule rule : authorityRules) {
+                checks.add(new AuthorityCheck(rule));
+            }
+            this.authorityChecks = Collections.unmodifiableList(checks);
+        }
+    }
+
+    private static <T> List<T> immutableCopy(List<T> list) {
+        if (list == null || list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    private static List<FlowCheck> compileFlowChecks(List<FlowRule> rules, String origin, boolean otherOrigin) {
+        List<FlowCheck> checks = new ArrayList<>(rules.size());
+        for (FlowRule rule : rules) {
+            if (rule.getLimitApp() == null) {
+                continue;
+            }
+            int nodeSelection = selectNode(rule, origin, otherOrigin);
+            // Cluster rules request the token anyway, the node is only used when falling back to local mode.
+            if (nodeSelection != FlowCheck.NODE_NONE || rule.isClusterMode()) {
+                checks.add(new FlowCheck(rule, nodeSelection));
+            }
+        }
+        return checks.isEmpty() ? Collections.<FlowCheck>emptyList() : Collections.unmodifiableList(checks);
+    }
+
+    /**
+     * Same as {@code FlowRuleChecker.selectNodeByRequesterAndStrategy}, for the origin (null for no origin
+     * or an "other" origin) known when the plan is compiled.
+     */
+    private static int selectNode(FlowRule rule, String origin, boolean otherOrigin) {
+        String limitApp = rule.getLimitApp();
+        boolean direct = rule.getStrategy() == RuleConstant.STRATEGY_DIRECT;
+        if (limitApp.equals(origin) && !RuleConstant.LIMIT_APP_DEFAULT.equals(origin)
+            && !RuleConstant.LIMIT_APP_OTHER.equals(origin)) {
+            return direct ? FlowCheck.NODE_ORIGIN : FlowCheck.NODE_REFERENCE;
+        } else if (RuleConstant.LIMIT_APP_DEFAULT.equals(limitApp)) {
+            return direct ? FlowCheck.NODE_CLUSTER : FlowCheck.NODE_REFERENCE;
+        } else if (RuleConstant.LIMIT_APP_OTHER.equals(limitApp) && otherOrigin) {
+            return direct ? FlowCheck.NODE_ORIGIN : FlowCheck.NODE_REFERENCE;
+        }
+        return FlowCheck.NODE_NONE;
+    }
+
+    boolean isEmpty() {
+        return flowRules.isEmpty() && circuitBreakers.isEmpty() && authorityChecks.isEmpty();
+    }
+
+    public List<FlowRule> getFlowRules() {
+        return flowRules;
+    }
+
+    /**
+     * Get the flow checks that apply to invocations from the origin, with the statistic node of each rule
+     * already selected by the origin and the strategy of the rule.
+     *
+     * @param origin the origin of the invocation
+     * @return the flow checks for the origin, never null
+     */
+    public List<FlowCheck> getFlowChecks(String origin) {
+        if (StringUtil.isEmpty(origin)) {
+            return noOriginFlowChecks;
+        }
+        List<FlowCheck> checks = originFlowChecks.get(origin);
+        return checks != null ? checks : otherOriginFlowChecks;
+    }
+
+    public List<CircuitBreaker> getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    public List<AuthorityCheck> getAuthorityChecks() {
+        return authorityChecks;
+    }
+
+    /**
+     * Check whether the origin is regarded as {@link RuleConstant#LIMIT_APP_OTHER} by flow rules of the resource,
+     * i.e. no flow rule of the resource is configured for the origin specifically.
+     *
+     * @param origin the origin of the invocation
+     * @return true if the origin is "other" for the resource
+     */
+    public boolean isOtherOrigin(String origin) {
+        if (StringUtil.isEmpty(origin)) {
+            return false;
+        }
+        return !flowLimitApps.contains(origin);
+    }
+
+    /**
+     * A flow rule together with the statistic node it checks for a given origin.
+     */
+    public static final class FlowCheck {
+
+        /**
+         * The rule does not apply to the origin.
+         */
+        public static final int NODE_NONE = 0;
+        /**
+         * The origin node of the context.
+         */
+        public static final int NODE_ORIGIN = 1;
+        /**
+         * The cluster node of the resource.
+         */
+        public static final int NODE_CLUSTER = 2;
+        /**
+         * The node of the reference resource, which depends on the context and is selected on invocation.
+         */
+        public static final int NODE_REFERENCE = 3;
+
+        private final FlowRule rule;
+        private final int nodeSelection;
+
+        FlowCheck(FlowRule rule, int nodeSelection) {
+            this.rule = rule;
+            this.nodeSelection = nodeSelection;
+        }
+
+        public FlowRule getRule() {
+            return rule;
+        }
+
+        public int getNodeSelection() {
+            return nodeSelection;
+        }
+    }
+
+    /**
+     * An authority rule together with its pre-split {@code limitApp} list.
+     */
+    public static final class AuthorityCheck {
+
+        private final AuthorityRule rule;
+        private final Set<String> limitApps;
+
+        AuthorityCheck(AuthorityRule rule) {
+            this.rule = rule;
+            Set<String> apps = new HashSet<>();
+            if (!StringUtil.isEmpty(rule.getLimitApp())) {
+                Collections.addAll(apps, rule.getLimitApp().split(","));
+            }
+            this.limitApps = apps;
+        }
+
+        public AuthorityRule getRule() {
+            return rule;
+        }
+
+        /**
+         * @return origins in the {@code limitApp} of the rule, empty if the rule limits no origin
+         */
+        public Set<String> getLimitApps() {
+            return limitApps;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceRulePlan{" +
+            "flowRules=" + flowRules +
+            ", circuitBreakers=" + circuitBreakers.size() +
+            ", authorityRules=" + authorityChecks.size() +
+            '}';
+    }
+}
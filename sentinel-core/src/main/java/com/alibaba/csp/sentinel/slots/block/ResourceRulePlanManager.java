@@ -0,0 +1,197 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.alibaba.csp.sentinel.slotchain.ResolvedResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * <p>Compiles the flow, circuit breaking and authority rules into one {@link ResourceRulePlan} per resource.
+ * The plans are rebuilt whenever any kind of these rules is loaded, and published with a single volatile write,
+ * so the rule slots only need one volatile read to find the plan of a resource (or to find out that the
+ * resource has no rules at all).</p>
+ *
+ * <p>Plans of resources that only match regex rules are compiled lazily on first access, as resource names
+ * matched by a regex are not known in advance.</p>
+ *
+ * @since 1.8.9
+ */
+public final class ResourceRulePlanManager {
+
+    private static volatile RuleManager<FlowRule> flowRules;
+    private static volatile RuleManager<CircuitBreaker> circuitBreakers;
+    private static volatile RuleManager<AuthorityRule> authorityRules;
+
+    private static volatile Plans plans = new Plans(Collections.<String, ResourceRulePlan>emptyMap(), false);
+
+    /**
+     * Called by {@link com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager} after flow rules are updated.
+     *
+     * @param rules current flow rules
+     */
+    public static synchronized void updateFlowRules(RuleManager<FlowRule> rules) {
+        flowRules = rules;
+        rebuild();
+    }
+
+    /**
+     * Called by {@link com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager} after degrade rules
+     * are updated.
+     *
+     * @param rules current circuit breakers
+     */
+    public static synchronized void updateCircuitBreakers(RuleManager<CircuitBreaker> rules) {
+        circuitBreakers = rules;
+        rebuild();
+    }
+
+    /**
+     * Called by {@link com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager} after authority rules
+     * are updated.
+     *
+     * @param rules current authority rules
+     */
+    public static synchronized void updateAuthorityRules(RuleManager<AuthorityRule> rules) {
+        authorityRules = rules;
+        rebuild();
+    }
+
+    private static void rebuild() {
+        Set<String> resources = new HashSet<>();
+        boolean hasRegexRules = false;
+        for (RuleManager<?> manager : managers()) {
+            resources.addAll(manager.getSimpleResourceNames());
+            hasRegexRules |= manager.hasRegexRules();
+        }
+        Map<String, ResourceRulePlan> compiled = new HashMap<>(resources.size());
+        for (String resource : resources) {
+            ResourceRulePlan plan = compile(resource);
+            if (!plan.isEmpty()) {
+                compiled.put(resource, plan);
+            }
+        }
+        plans = new Plans(compiled, hasRegexRules);
+    }
+
+    private static List<RuleManager<?>> managers() {
+        RuleManager<?>[] candidates = {flowRules, circuitBreakers, authorityRules};
+        List<RuleManager<?>> managers = new ArrayList<>(candidates.length);
+        for (RuleManager<?> manager : candidates) {
+            if (manager != null) {
+                managers.add(manager);
+            }
+        }
+        return managers;
+    }
+
+    private static ResourceRulePlan compile(String resource) {
+        RuleManager<FlowRule> flow = flowRules;
+        RuleManager<CircuitBreaker> degrade = circuitBreakers;
+        RuleManager<AuthorityRule> authority = authorityRules;
+        ResourceRulePlan plan = new ResourceRulePlan(
+            flow == null ? null : flow.getRules(resource),
+            degrade == null ? null : degrade.getRules(resource),
+            authority == null ? null : authority.getRules(resource));
+        return plan.isEmpty() ? ResourceRulePlan.EMPTY : plan;
+    }
+
+    /**
+     * Get the compiled rule plan of the resource.
+     *
+     * @param resource the resource name
+     * @return the rule plan of the resource, never null
+     */
+    public static ResourceRulePlan getPlan(String resource) {
+        return plans.get(resource);
+    }
+
+    /**
+     * Get the compiled rule plan of the resource. The plan is cached in a {@link ResolvedResourceWrapper}
+     * until rules are changed, so that the resource name is not even hashed.
+     *
+     * @param resource the resource
+     * @return the rule plan of the resource, never null
+     */
+    public static ResourceRulePlan getPlan(ResourceWrapper resource) {
+        Plans current = plans;
+        if (!(resource instanceof ResolvedResourceWrapper)) {
+            return current.get(resource.getName());
+        }
+        ResolvedResourceWrapper resolved = (ResolvedResourceWrapper)resource;
+        Object snapshot = resolved.getRuleSnapshot();
+        if (snapshot instanceof CachedPlan && ((CachedPlan)snapshot).owner == current) {
+            return ((CachedPlan)snapshot).plan;
+        }
+        ResourceRulePlan plan = current.get(resource.getName());
+        resolved.setRuleSnapshot(new CachedPlan(current, plan));
+        return plan;
+    }
+
+    /**
+     * Plans of all resources compiled from one version of rules.
+     */
+    private static final class Plans {
+        private final Map<String, ResourceRulePlan> compiled;
+        private final boolean hasRegexRules;
+        private final ConcurrentMap<String, ResourceRulePlan> regexCompiled;
+
+        Plans(Map<String, ResourceRulePlan> compiled, boolean hasRegexRules) {
+            this.compiled = compiled;
+            this.hasRegexRules = hasRegexRules;
+            this.regexCompiled = hasRegexRules ? new ConcurrentHashMap<String, ResourceRulePlan>() : null;
+        }
+
+        ResourceRulePlan get(String resource) {
+            ResourceRulePlan plan = compiled.get(resource);
+            if (plan != null) {
+                return plan;
+            }
+            if (!hasRegexRules) {
+                return ResourceRulePlan.EMPTY;
+            }
+            plan = regexCompiled.get(resource);
+            if (plan == null) {
+                plan = regexCompiled.computeIfAbsent(resource, ResourceRulePlanManager::compile);
+            }
+            return plan;
+        }
+    }
+
+    private static final class CachedPlan {
+        private final Plans owner;
+        private final ResourceRulePlan plan;
+
+        CachedPlan(Plans owner, ResourceRulePlan plan) {
+            this.owner = owner;
+            this.plan = plan;
+        }
+    }
+
+    private ResourceRulePlanManager() {}
+}
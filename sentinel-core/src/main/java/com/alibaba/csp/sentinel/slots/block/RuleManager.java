@@ -128,12 +128,31 @@ public class RuleManager<R> {
         return originalRules;
     }
 
+    /**
+     * Get names of the resources that have non-regex rules.
+     *
+     * @return an unmodifiable set of resource names
+     * @since 1.8.9
+     */
+    public Set<String> getSimpleResourceNames() {
+        return Collections.unmodifiableSet(simpleRules.keySet());
+    }
+
+    /**
+     * Check whether there are any regex rules.
+     *
+     * @return true if any regex rule exists
+     * @since 1.8.9
+     */
+    public boolean hasRegexRules() {
+        return !regexRules.isEmpty();
+    }
+
     /**
      * Determine whether has rule based on the resource name
      * @param resource resource name
      * @return whether
      */
-
     public boolean hasConfig(String resource) {
         if (resource == null) {
             return false;
@@ -15,7 +15,10 @@
  */
 package com.alibaba.csp.sentinel.slots.block.authority;
 
+import java.util.Set;
+
 import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlan.AuthorityCheck;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -64,5 +67,29 @@ final class AuthorityRuleChecker {
         return true;
     }
 
+    /**
+     * Same as {@link #passCheck(AuthorityRule, Context)}, but the {@code limitApp} of the rule has been split
+     * in advance.
+     *
+     * @since 1.8.9
+     */
+    static boolean passCheck(AuthorityCheck check, Context context) {
+        String requester = context.getOrigin();
+        Set<String> limitApps = check.getLimitApps();
+
+        // Empty origin or empty limitApp will pass.
+        if (StringUtil.isEmpty(requester) || limitApps.isEmpty()) {
+            return true;
+        }
+
+        boolean contain = limitApps.contains(requester);
+        int strategy = check.getRule().getStrategy();
+        if (strategy == RuleConstant.AUTHORITY_BLACK && contain) {
+            return false;
+        }
+
+        return strategy != RuleConstant.AUTHORITY_WHITE || contain;
+    }
+
     private AuthorityRuleChecker() {}
 }
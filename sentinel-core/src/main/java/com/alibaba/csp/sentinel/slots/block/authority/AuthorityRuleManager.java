@@ -23,6 +23,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlanManager;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.RuleManager;
 import com.alibaba.csp.sentinel.util.AssertUtil;
@@ -88,6 +89,7 @@ public final class AuthorityRuleManager {
         @Override
         public synchronized void configLoad(List<AuthorityRule> value) {
             authorityRules.updateRules(loadAuthorityConf(value));
+            ResourceRulePlanManager.updateAuthorityRules(authorityRules);
 
             RecordLog.info("[AuthorityRuleManager] Authority rules loaded: {}", authorityRules);
         }
@@ -95,6 +97,7 @@ public final class AuthorityRuleManager {
         @Override
         public synchronized void configUpdate(List<AuthorityRule> conf) {
             authorityRules.updateRules(loadAuthorityConf(conf));
+            ResourceRulePlanManager.updateAuthorityRules(authorityRules);
 
             RecordLog.info("[AuthorityRuleManager] Authority rules received: {}", authorityRules);
         }
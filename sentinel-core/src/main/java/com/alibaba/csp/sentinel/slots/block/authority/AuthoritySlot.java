@@ -23,6 +23,8 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlan.AuthorityCheck;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlanManager;
 import com.alibaba.csp.sentinel.spi.Spi;
 
 /**
@@ -48,14 +50,11 @@ public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
     void checkBlackWhiteAuthority(ResourceWrapper resource, Context context) throws AuthorityException {
 
-        List<AuthorityRule> rules = AuthorityRuleManager.getRules(resource.getName());
-        if (rules == null) {
-            return;
-        }
-
-        for (AuthorityRule rule : rules) {
-            if (!AuthorityRuleChecker.passCheck(rule, context)) {
-                throw new AuthorityException(context.getOrigin(), rule);
+        List<AuthorityCheck> checks = ResourceRulePlanManager.getPlan(resource).getAuthorityChecks();
+        for (int i = 0; i < checks.size(); i++) {
+            AuthorityCheck check = checks.get(i);
+            if (!AuthorityRuleChecker.passCheck(check, context)) {
+                throw new AuthorityException(context.getOrigin(), check.getRule());
             }
         }
     }
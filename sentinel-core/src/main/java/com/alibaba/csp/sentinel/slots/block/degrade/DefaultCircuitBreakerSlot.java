@@ -23,6 +23,7 @@ import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlanManager;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
 import com.alibaba.csp.sentinel.spi.Spi;
 
@@ -47,7 +48,7 @@ public class DefaultCircuitBreakerSlot extends AbstractLinkedProcessorSlot<Defau
 
     private void performChecking(Context context, ResourceWrapper r) throws BlockException {
         // If user has set a degrade rule for the resource, the default rule will not be activated
-        if (DegradeRuleManager.hasConfig(r.getName())) {
+        if (!ResourceRulePlanManager.getPlan(r).getCircuitBreakers().isEmpty()) {
             return;
         }
 
@@ -72,7 +73,7 @@ public class DefaultCircuitBreakerSlot extends AbstractLinkedProcessorSlot<Defau
             return;
         }
 
-        if (DegradeRuleManager.hasConfig(r.getName())) {
+        if (!ResourceRulePlanManager.getPlan(r).getCircuitBreakers().isEmpty()) {
             fireExit(context, r, count, args);
             return;
         }
@@ -27,6 +27,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlanManager;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.RuleManager;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
@@ -209,6 +210,7 @@ public final class DegradeRuleManager {
             Map<String, List<DegradeRule>> rules = buildCircuitBreakerRules(cbs);
             circuitBreakers.updateRules(cbs);
             ruleMap.updateRules(rules);
+            ResourceRulePlanManager.updateCircuitBreakers(circuitBreakers);
         }
 
         @Override
@@ -0,0 +1,110 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.Arrays;
+
+/**
+ * <p>Non-blocking pacing support for flow control, including requests queued by rate limiting controllers,
+ * prioritized requests that occupy future tokens and requests that should wait for cluster tokens.</p>
+ *
+ * <p>By default, such a request is paced by sleeping in the caller thread until its expected pass time.
+ * When rules are checked in deferred mode (see {@link com.alibaba.csp.sentinel.SphU#asyncEntryWithPacing}),
+ * the pass time is reserved as usual but the time to wait is recorded here instead of sleeping,
+ * and the caller is responsible for delaying the actual invocation (e.g. via
+ * {@link com.alibaba.csp.sentinel.AsyncEntry#whenPassed()}) by the recorded time.
+ * This is necessary for event-loop based frameworks, where the caller thread must never be blocked.</p>
+ *
+ * @since 1.8.9
+ */
+public final class DeferredPacing {
+
+    private static final ThreadLocal<WaitHolder> HOLDER = new ThreadLocal<WaitHolder>() {
+        @Override
+        protected WaitHolder initialValue() {
+            return new WaitHolder();
+        }
+    };
+
+    /**
+     * Start deferred mode in current thread. Must be paired with {@link #end()} in a finally block.
+     * Deferred mode may be nested (e.g. a deferred entry inside the rule checking of another one),
+     * in which case the time to wait of the outer invocation is kept aside until the nested one ends.
+     */
+    public static void begin() {
+        HOLDER.get().push();
+    }
+
+    /**
+     * End deferred mode in current thread, or the innermost one if nested.
+     *
+     * @return the total time (in nanoseconds) the invocation should be delayed
+     */
+    public static long end() {
+        return HOLDER.get().pop();
+    }
+
+    /**
+     * @return whether rules are being checked in deferred mode in current thread
+     */
+    public static boolean isDeferring() {
+        return HOLDER.get().depth > 0;
+    }
+
+    /**
+     * Record the time to wait of a queued request if in deferred mode. The time to wait of multiple rules
+     * is accumulated, just like sleeping in sequence.
+     *
+     * @param waitNanos time to wait in nanoseconds
+     * @return true if the wait is deferred to the caller, false if the controller should sleep by itself
+     */
+    public static boolean defer(long waitNanos) {
+        WaitHolder holder = HOLDER.get();
+        if (holder.depth == 0) {
+            return false;
+        }
+        holder.waitNanos += waitNanos;
+        return true;
+    }
+
+    private static final class WaitHolder {
+        private int depth;
+        private long waitNanos;
+        /**
+         * Time to wait of the outer invocations, indexed by depth - 1.
+         */
+        private long[] outerWaitNanos = new long[2];
+
+        void push() {
+            if (depth == outerWaitNanos.length) {
+                outerWaitNanos = Arrays.copyOf(outerWaitNanos, depth * 2);
+            }
+            outerWaitNanos[depth++] = waitNanos;
+            waitNanos = 0;
+        }
+
+        long pop() {
+            if (depth == 0) {
+                return 0;
+            }
+            long result = waitNanos;
+            waitNanos = outerWaitNanos[--depth];
+            return result;
+        }
+    }
+
+    private DeferredPacing() {}
+}
@@ -16,6 +16,8 @@
 package com.alibaba.csp.sentinel.slots.block.flow;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServerProvider;
@@ -29,6 +31,7 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlan.FlowCheck;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -46,7 +49,27 @@ public class FlowRuleChecker {
         if (ruleProvider == null || resource == null) {
             return;
         }
-        Collection<FlowRule> rules = ruleProvider.apply(resource.getName());
+        checkRules(ruleProvider.apply(resource.getName()), context, node, count, prioritized);
+    }
+
+    /**
+     * Check the flow checks of the resource for the origin of the context, whose nodes are selected
+     * when the rule plan is compiled (see {@link com.alibaba.csp.sentinel.slots.block.ResourceRulePlan#getFlowChecks}).
+     *
+     * @since 1.8.9
+     */
+    public void checkFlow(List<FlowCheck> checks, Context context, DefaultNode node, int count, boolean prioritized)
+        throws BlockException {
+        for (FlowCheck check : checks) {
+            if (!canPassCheck(check, context, node, count, prioritized)) {
+                FlowRule rule = check.getRule();
+                throw new FlowException(rule.getLimitApp(), rule);
+            }
+        }
+    }
+
+    private void checkRules(Collection<FlowRule> rules, Context context, DefaultNode node, int count,
+                            boolean prioritized) throws BlockException {
         if (rules != null) {
             for (FlowRule rule : rules) {
                 if (!canPassCheck(rule, context, node, count, prioritized)) {
@@ -75,6 +98,34 @@ public class FlowRuleChecker {
         return passLocalCheck(rule, context, node, acquireCount, prioritized);
     }
 
+    public boolean canPassCheck(/*@NonNull*/ FlowCheck check, Context context, DefaultNode node, int acquireCount,
+                                boolean prioritized) {
+        FlowRule rule = check.getRule();
+        if (rule.isClusterMode()) {
+            return passClusterCheck(rule, context, node, acquireCount, prioritized);
+        }
+
+        Node selectedNode = selectNode(check, context, node);
+        if (selectedNode == null) {
+            return true;
+        }
+
+        return rule.getRater().canPass(selectedNode, acquireCount, prioritized);
+    }
+
+    static Node selectNode(/*@NonNull*/ FlowCheck check, Context context, DefaultNode node) {
+        switch (check.getNodeSelection()) {
+            case FlowCheck.NODE_ORIGIN:
+                return context.getOriginNode();
+            case FlowCheck.NODE_CLUSTER:
+                return node.getClusterNode();
+            case FlowCheck.NODE_REFERENCE:
+                return selectReferenceNode(check.getRule(), context, node);
+            default:
+                return null;
+        }
+    }
+
     private static boolean passLocalCheck(FlowRule rule, Context context, DefaultNode node, int acquireCount,
                                           boolean prioritized) {
         Node selectedNode = selectNodeByRequesterAndStrategy(rule, context, node);
@@ -191,10 +242,12 @@ public class FlowRuleChecker {
                 return true;
             case TokenResultStatus.SHOULD_WAIT:
                 // Wait for next tick.
-                try {
-                    Thread.sleep(result.getWaitInMs());
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+                if (!DeferredPacing.defer(TimeUnit.MILLISECONDS.toNanos(result.getWaitInMs()))) {
+                    try {
+                        Thread.sleep(result.getWaitInMs());
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
                 }
                 return true;
             case TokenResultStatus.NO_RULE_EXISTS:
@@ -22,9 +22,9 @@ import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlanManager;
 import com.alibaba.csp.sentinel.slots.block.RuleManager;
 import com.alibaba.csp.sentinel.util.AssertUtil;
-import com.alibaba.csp.sentinel.util.StringUtil;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -59,9 +59,11 @@ public class FlowRuleManager {
     private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(1,
         new NamedThreadFactory("sentinel-metrics-record-task", true));
 
+    private static volatile boolean metricTimerStarted = false;
+    private static boolean metricTimerChecked = false;
+
     static {
         currentProperty.addListener(LISTENER);
-        startMetricTimerListener();
     }
 
     /**
@@ -72,8 +74,15 @@ public class FlowRuleManager {
      *      <li>If the flushInterval less than 0(include) or value is not valid,
      * then means the timer will not be started </li>
      * <ol></p>
+     *
+     * <p>The timer is started once by the flow slot (i.e. with the first slot chain), as there are no metrics
+     * to record before that, whether flow rules are loaded or not.</p>
      */
-    private static void startMetricTimerListener() {
+    static synchronized void startMetricTimerListener() {
+        if (metricTimerChecked) {
+            return;
+        }
+        metricTimerChecked = true;
         long flushInterval = SentinelConfig.metricLogFlushIntervalSec();
         if (flushInterval <= 0) {
             RecordLog.info("[FlowRuleManager] The MetricTimerListener isn't started. If you want to start it, "
@@ -82,6 +91,16 @@ public class FlowRuleManager {
             return;
         }
         SCHEDULER.scheduleAtFixedRate(new MetricTimerListener(), 0, flushInterval, TimeUnit.SECONDS);
+        metricTimerStarted = true;
+    }
+
+    /**
+     * Package-private for test.
+     *
+     * @return true if the metric timer is running
+     */
+    static boolean isMetricTimerStarted() {
+        return metricTimerStarted && !SCHEDULER.isShutdown();
     }
 
     /**
@@ -127,21 +146,7 @@ public class FlowRuleManager {
     }
 
     public static boolean isOtherOrigin(String origin, String resourceName) {
-        if (StringUtil.isEmpty(origin)) {
-            return false;
-        }
-
-        List<FlowRule> rules = flowRules.getRules(resourceName);
-
-        if (rules != null) {
-            for (FlowRule rule : rules) {
-                if (origin.equals(rule.getLimitApp())) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
+        return ResourceRulePlanManager.getPlan(resourceName).isOtherOrigin(origin);
     }
 
     private static final class FlowPropertyListener implements PropertyListener<List<FlowRule>> {
@@ -150,6 +155,7 @@ public class FlowRuleManager {
         public synchronized void configUpdate(List<FlowRule> value) {
             Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(value);
             flowRules.updateRules(rules);
+            ResourceRulePlanManager.updateFlowRules(flowRules);
             RecordLog.info("[FlowRuleManager] Flow rules received: {}", rules);
         }
 
@@ -157,6 +163,7 @@ public class FlowRuleManager {
         public synchronized void configLoad(List<FlowRule> conf) {
             Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(conf);
             flowRules.updateRules(rules);
+            ResourceRulePlanManager.updateFlowRules(flowRules);
             RecordLog.info("[FlowRuleManager] Flow rules loaded: {}", rules);
         }
     }
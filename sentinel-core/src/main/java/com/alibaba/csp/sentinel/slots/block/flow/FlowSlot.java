@@ -21,11 +21,10 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlan;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlanManager;
 import com.alibaba.csp.sentinel.spi.Spi;
 import com.alibaba.csp.sentinel.util.AssertUtil;
-import com.alibaba.csp.sentinel.util.function.Function;
-
-import java.util.Collection;
 
 /**
  * <p>
@@ -139,6 +138,11 @@ import java.util.Collection;
 @Spi(order = Constants.ORDER_FLOW_SLOT)
 public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
+    static {
+        // Start the metric timer with the first slot chain, as flow rules may be never loaded.
+        FlowRuleManager.startMetricTimerListener();
+    }
+
     private final FlowRuleChecker checker;
 
     public FlowSlot() {
@@ -166,7 +170,10 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
     void checkFlow(ResourceWrapper resource, Context context, DefaultNode node, int count, boolean prioritized)
         throws BlockException {
-        checker.checkFlow(ruleProvider, resource, context, node, count, prioritized);
+        // The rule plan of a resource handle is cached in the handle until rules are changed,
+        // and the statistic node of each flow rule is selected by origin when the plan is compiled.
+        ResourceRulePlan plan = ResourceRulePlanManager.getPlan(resource);
+        checker.checkFlow(plan.getFlowChecks(context.getOrigin()), context, node, count, prioritized);
     }
 
     @Override
@@ -174,10 +181,4 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         fireExit(context, resourceWrapper, count, args);
     }
 
-    private final Function<String, Collection<FlowRule>> ruleProvider = new Function<String, Collection<FlowRule>>() {
-        @Override
-        public Collection<FlowRule> apply(String resource) {
-            return FlowRuleManager.getFlowRules(resource);
-        }
-    };
 }
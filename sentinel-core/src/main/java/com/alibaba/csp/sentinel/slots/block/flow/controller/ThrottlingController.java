@@ -20,6 +20,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.DeferredPacing;
 import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
@@ -95,7 +96,7 @@ public class ThrottlingController implements TrafficShapingController {
                 return false;
             }
             // in race condition waitTime may <= 0
-            if (waitTime > 0) {
+            if (waitTime > 0 && !DeferredPacing.defer(waitTime)) {
                 sleepNanos(waitTime);
             }
             return true;
@@ -128,7 +129,7 @@ public class ThrottlingController implements TrafficShapingController {
                 return false;
             }
             // in race condition waitTime may <= 0
-            if (waitTime > 0) {
+            if (waitTime > 0 && !DeferredPacing.defer(TimeUnit.MILLISECONDS.toNanos(waitTime))) {
                 sleepMs(waitTime);
             }
             return true;
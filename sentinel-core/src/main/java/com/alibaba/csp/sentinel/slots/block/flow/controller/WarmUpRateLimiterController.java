@@ -15,9 +15,11 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.DeferredPacing;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
@@ -75,7 +77,7 @@ public class WarmUpRateLimiterController extends WarmUpController {
                         latestPassedTime.addAndGet(-costTime);
                         return false;
                     }
-                    if (waitTime > 0) {
+                    if (waitTime > 0 && !DeferredPacing.defer(TimeUnit.MILLISECONDS.toNanos(waitTime))) {
                         Thread.sleep(waitTime);
                     }
                     return true;
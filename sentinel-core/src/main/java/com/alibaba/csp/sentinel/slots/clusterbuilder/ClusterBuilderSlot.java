@@ -153,6 +153,34 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
         return clusterNodeMap;
     }
 
+    /**
+     * Remove the given {@link ClusterNode}s, e.g. when their resources have been idle for a long time.
+     * A node is removed only if it is still the node registered for the resource, so a node created
+     * for the same resource in the meantime is kept.
+     *
+     * @param nodes resources and the cluster nodes expected to be registered for them
+     * @return amount of removed nodes
+     * @since 1.8.9
+     */
+    public static int removeClusterNodes(Map<ResourceWrapper, ClusterNode> nodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            return 0;
+        }
+        synchronized (lock) {
+            HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<>(clusterNodeMap);
+            int removed = 0;
+            for (Map.Entry<ResourceWrapper, ClusterNode> e : nodes.entrySet()) {
+                if (newMap.remove(e.getKey(), e.getValue())) {
+                    removed++;
+                }
+            }
+            if (removed > 0) {
+                clusterNodeMap = newMap;
+            }
+            return removed;
+        }
+    }
+
     /**
      * Reset all {@link ClusterNode}s. Reset is needed when {@link IntervalProperty#INTERVAL} or
      * {@link SampleCountProperty#SAMPLE_COUNT} is changed.
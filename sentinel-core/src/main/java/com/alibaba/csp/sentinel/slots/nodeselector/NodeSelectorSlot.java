@@ -25,6 +25,7 @@ import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.spi.Spi;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -178,4 +179,14 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         fireExit(context, resourceWrapper, count, args);
     }
+
+    /**
+     * Get the {@link DefaultNode}s of the resource, keyed by context name.
+     *
+     * @return an unmodifiable view of current nodes
+     * @since 1.8.9
+     */
+    public Map<String, DefaultNode> getNodeMap() {
+        return Collections.unmodifiableMap(map);
+    }
 }
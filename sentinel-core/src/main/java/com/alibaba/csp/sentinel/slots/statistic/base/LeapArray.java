@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
@@ -52,6 +53,12 @@ public abstract class LeapArray<T> {
      */
     private final ReentrantLock updateLock = new ReentrantLock();
 
+    /**
+     * Whether deprecated buckets are replaced by a CAS on the array slot instead of being reset under
+     * {@link #updateLock}. In this mode no caller ever blocks or yields while rotating the window.
+     */
+    private final boolean lockFreeRotation;
+
     /**
      * The total bucket count is: {@code sampleCount = intervalInMs / windowLengthInMs}.
      *
@@ -59,6 +66,21 @@ public abstract class LeapArray<T> {
      * @param intervalInMs the total time interval of this {@link LeapArray} in milliseconds
      */
     public LeapArray(int sampleCount, int intervalInMs) {
+        this(sampleCount, intervalInMs, true);
+    }
+
+    /**
+     * <p>Lock-free rotation (see {@link SentinelConfig#STATISTIC_WINDOW_ROTATION}) replaces a deprecated bucket
+     * with a brand-new one built by {@link #newEmptyBucket(long)}, and {@link #resetWindowTo(WindowWrap, long)}
+     * is never called. Subclasses whose {@code resetWindowTo} has side effects beyond clearing the bucket
+     * should pass {@code false} for {@code allowLockFreeRotation}.</p>
+     *
+     * @param sampleCount           bucket count of the sliding window
+     * @param intervalInMs          the total time interval of this {@link LeapArray} in milliseconds
+     * @param allowLockFreeRotation whether this array may use lock-free rotation if configured
+     * @since 1.8.9
+     */
+    protected LeapArray(int sampleCount, int intervalInMs, boolean allowLockFreeRotation) {
         AssertUtil.isTrue(sampleCount > 0, "bucket count is invalid: " + sampleCount);
         AssertUtil.isTrue(intervalInMs > 0, "total time interval of the sliding window should be positive");
         AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
@@ -69,6 +91,18 @@ public abstract class LeapArray<T> {
         this.sampleCount = sampleCount;
 
         this.array = new AtomicReferenceArray<>(sampleCount);
+        this.lockFreeRotation = allowLockFreeRotation && SentinelConfig.STATISTIC_WINDOW_ROTATION_CAS.equals(
+            SentinelConfig.statisticWindowRotation());
+    }
+
+    /**
+     * Check whether deprecated buckets of this leap array are rotated without lock.
+     *
+     * @return true if lock-free rotation is enabled; otherwise false
+     * @since 1.8.9
+     */
+    public boolean isLockFreeRotation() {
+        return lockFreeRotation;
     }
 
     /**
@@ -148,7 +182,7 @@ public abstract class LeapArray<T> {
                 if (array.compareAndSet(idx, null, window)) {
                     // Successfully updated, return the created bucket.
                     return window;
-                } else {
+                } else if (!lockFreeRotation) {
                     // Contention failed, the thread will yield its time slice to wait for bucket available.
                     Thread.yield();
                 }
@@ -182,8 +216,16 @@ public abstract class LeapArray<T> {
                  *
                  * The update lock is conditional (tiny scope) and will take effect only when
                  * bucket is deprecated, so in most cases it won't lead to performance loss.
+                 *
+                 * In lock-free rotation mode, a new bucket is CAS-ed into the slot instead. The losers
+                 * simply re-read the slot, which already holds the up-to-date bucket of the winner.
                  */
-                if (updateLock.tryLock()) {
+                if (lockFreeRotation) {
+                    WindowWrap<T> window = new WindowWrap<T>(windowLengthInMs, windowStart, newEmptyBucket(timeMillis));
+                    if (array.compareAndSet(idx, old, window)) {
+                        return window;
+                    }
+                } else if (updateLock.tryLock()) {
                     try {
                         // Successfully get the update lock, now we reset the bucket.
                         return resetWindowTo(old, windowStart);
@@ -32,10 +32,24 @@ public class MetricBucket {
     private volatile long minRt;
 
     public MetricBucket() {
-        MetricEvent[] events = MetricEvent.values();
-        this.counters = new LongAdder[events.length];
-        for (MetricEvent event : events) {
-            counters[event.ordinal()] = new LongAdder();
+        this(true);
+    }
+
+    /**
+     * Constructor for subclasses that keep the event counters in their own storage.
+     *
+     * @param useAdders whether to allocate the default {@link LongAdder} counters
+     * @since 1.8.9
+     */
+    protected MetricBucket(boolean useAdders) {
+        if (useAdders) {
+            MetricEvent[] events = MetricEvent.values();
+            this.counters = new LongAdder[events.length];
+            for (MetricEvent event : events) {
+                counters[event.ordinal()] = new LongAdder();
+            }
+        } else {
+            this.counters = null;
         }
         initMinRt();
     }
@@ -49,7 +63,7 @@ public class MetricBucket {
         return this;
     }
 
-    private void initMinRt() {
+    protected void initMinRt() {
         this.minRt = SentinelConfig.statisticMaxRt();
     }
 
@@ -0,0 +1,42 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+
+/**
+ * Creates {@link MetricBucket} instances of the type selected by
+ * {@link SentinelConfig#STATISTIC_BUCKET_TYPE}.
+ *
+ * @since 1.8.9
+ */
+public final class MetricBucketFactory {
+
+    /**
+     * Create a new empty metric bucket.
+     *
+     * @return a {@link StripedMetricBucket} if the striped bucket type is configured;
+     * otherwise a default {@link MetricBucket}
+     */
+    public static MetricBucket newBucket() {
+        if (SentinelConfig.STATISTIC_BUCKET_TYPE_STRIPED.equals(SentinelConfig.statisticBucketType())) {
+            return new StripedMetricBucket(SentinelConfig.statisticBucketStripes());
+        }
+        return new MetricBucket();
+    }
+
+    private MetricBucketFactory() {}
+}
@@ -19,9 +19,14 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.spi.SpiLoader;
+import com.alibaba.csp.sentinel.util.clock.Clock;
+import com.alibaba.csp.sentinel.util.clock.NanoTimeClock;
+import com.alibaba.csp.sentinel.util.clock.SampledClock;
 import com.alibaba.csp.sentinel.util.function.Tuple2;
 
 /**
@@ -35,6 +40,11 @@ import com.alibaba.csp.sentinel.util.function.Tuple2;
  * </pre>
  * For detail design and proposals please goto
  * <a href="https://github.com/alibaba/Sentinel/issues/1702#issuecomment-692151160">https://github.com/alibaba/Sentinel/issues/1702</a>
+ * </p>
+ * <p>
+ * Since 1.8.9, the adaptive clock above is the default {@link Clock}, which could be replaced
+ * via the {@code csp.sentinel.time.clock} property or SPI (see {@link Clock}).
+ * </p>
  *
  * @author qinan.qn
  * @author jason
@@ -63,7 +73,9 @@ public final class TimeUtil implements Runnable {
         }
     }
 
-    private static TimeUtil INSTANCE;
+    private static volatile TimeUtil INSTANCE;
+
+    private static volatile Clock clock;
 
     private volatile long currentTimeMillis;
     private volatile STATE state = STATE.IDLE;
@@ -76,7 +88,7 @@ public final class TimeUtil implements Runnable {
     private long lastCheck = 0;
 
     static {
-        INSTANCE = new TimeUtil();
+        clock = resolveClock();
     }
 
     public TimeUtil() {
@@ -215,11 +227,96 @@ public final class TimeUtil implements Runnable {
         return this.currentTime(false);
     }
 
+    /**
+     * Get the adaptive clock, which is created (and its tick thread is started) on first call.
+     *
+     * @return the adaptive clock
+     */
     public static TimeUtil instance() {
+        if (INSTANCE == null) {
+            synchronized (TimeUtil.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new TimeUtil();
+                }
+            }
+        }
         return INSTANCE;
     }
 
     public static long currentTimeMillis() {
-        return INSTANCE.getTime();
+        return clock.currentTimeMillis();
+    }
+
+    /**
+     * @return the clock in use
+     * @since 1.8.9
+     */
+    public static Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Replace the clock in use, e.g. with a {@link com.alibaba.csp.sentinel.util.clock.ManualClock} in tests.
+     *
+     * @param newClock the new clock
+     * @since 1.8.9
+     */
+    public static void setClock(Clock newClock) {
+        AssertUtil.notNull(newClock, "clock cannot be null");
+        replaceClock(newClock);
+    }
+
+    /**
+     * Reset the clock to the one resolved from configuration.
+     *
+     * @since 1.8.9
+     */
+    public static void resetClock() {
+        replaceClock(resolveClock());
+    }
+
+    private static synchronized void replaceClock(Clock newClock) {
+        Clock oldClock = clock;
+        clock = newClock;
+        if (oldClock != newClock && oldClock instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) oldClock).close();
+            } catch (Exception ex) {
+                RecordLog.warn("[TimeUtil] Failed to close the replaced clock", ex);
+            }
+        }
+    }
+
+    private static Clock resolveClock() {
+        try {
+            String configured = SentinelConfig.timeClock();
+            if (SentinelConfig.TIME_CLOCK_NANO.equals(configured)) {
+                return new NanoTimeClock();
+            }
+            if (SentinelConfig.TIME_CLOCK_SAMPLED.equals(configured)) {
+                return new SampledClock();
+            }
+            if (configured == null) {
+                Clock provided = SpiLoader.of(Clock.class).loadFirstInstance();
+                if (provided != null) {
+                    RecordLog.info("[TimeUtil] Using clock provided via SPI: {}", provided.getClass().getName());
+                    return provided;
+                }
+            }
+        } catch (Throwable t) {
+            RecordLog.warn("[TimeUtil] Failed to resolve the clock, using the adaptive clock instead", t);
+        }
+        return new AdaptiveClock();
+    }
+
+    /**
+     * Reads the adaptive clock, which is created (and its tick thread is started) on first read.
+     */
+    private static final class AdaptiveClock implements Clock {
+
+        @Override
+        public long currentTimeMillis() {
+            return instance().getTime();
+        }
     }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+/**
+ * <p>The millisecond clock behind {@link com.alibaba.csp.sentinel.util.TimeUtil#currentTimeMillis()}, which is
+ * read on every entry, so implementations should be as cheap as possible and thread-safe.</p>
+ *
+ * <p>The clock is chosen via the {@code csp.sentinel.time.clock} property
+ * (see {@link com.alibaba.csp.sentinel.config.SentinelConfig#timeClock()}). If the property is absent,
+ * the first implementation provided via SPI is used, otherwise the default adaptive clock.</p>
+ *
+ * <p>Clocks owning resources (e.g. a tick thread) may implement {@link AutoCloseable}, and are closed
+ * once replaced in {@link com.alibaba.csp.sentinel.util.TimeUtil}.</p>
+ *
+ * @since 1.8.9
+ */
+public interface Clock {
+
+    /**
+     * @return current time in milliseconds
+     */
+    long currentTimeMillis();
+}
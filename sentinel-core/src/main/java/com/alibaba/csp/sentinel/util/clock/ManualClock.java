@@ -0,0 +1,56 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+/**
+ * A deterministic clock that only moves when told to, designed for unit tests
+ * (see {@link com.alibaba.csp.sentinel.util.TimeUtil#setClock(Clock)}).
+ *
+ * @since 1.8.9
+ */
+public class ManualClock implements Clock {
+
+    private volatile long currentTimeMillis;
+
+    public ManualClock() {
+        this(0);
+    }
+
+    public ManualClock(long currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    public ManualClock setCurrentTimeMillis(long currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+        return this;
+    }
+
+    /**
+     * Move the clock forward.
+     *
+     * @param millis time to move in milliseconds
+     * @return the clock
+     */
+    public synchronized ManualClock advance(long millis) {
+        this.currentTimeMillis += millis;
+        return this;
+    }
+}
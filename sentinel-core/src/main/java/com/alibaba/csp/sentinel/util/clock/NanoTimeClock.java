@@ -0,0 +1,43 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+/**
+ * <p>A monotonic clock derived from {@link System#nanoTime()}, anchored to the wall clock when created.</p>
+ *
+ * <p>The time never goes backwards even if the wall clock is adjusted (e.g. by NTP), which keeps the
+ * sliding-window statistics consistent. The cost is that the time drifts from the wall clock after
+ * such adjustments until the process restarts. No background thread is needed.</p>
+ *
+ * @since 1.8.9
+ */
+public class NanoTimeClock implements Clock {
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final long baseMillis;
+    private final long baseNanos;
+
+    public NanoTimeClock() {
+        this.baseMillis = System.currentTimeMillis();
+        this.baseNanos = System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return baseMillis + (System.nanoTime() - baseNanos) / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * <p>A clock that switches between reading {@link System#currentTimeMillis()} directly (when idle) and
+ * returning the time cached by a tick thread every millisecond (when busy), like the default adaptive clock
+ * of {@link com.alibaba.csp.sentinel.util.TimeUtil}.</p>
+ *
+ * <p>Unlike the adaptive clock, reads do not record into a sliding window of {@code LongAdder}s. In direct mode,
+ * reads are counted by one {@link LongAdder}, which the tick thread samples periodically. In ticking mode, reads
+ * are not counted at all: a read only marks the current tick as read, which writes the shared (padded) marker at
+ * most once per tick instead of once per read. The tick thread then switches back to direct mode when less than
+ * {@code READS_LOWER_BOUNDARY} out of every 1000 ticks see a read, i.e. when the clock is read less than about
+ * once per millisecond.</p>
+ *
+ * <p>The tick thread is started on creation, and stopped by {@link #close()}, e.g. when the clock is replaced
+ * via {@link com.alibaba.csp.sentinel.util.TimeUtil#setClock(Clock)}.</p>
+ *
+ * @since 1.8.9
+ */
+public class SampledClock implements Clock, Runnable, AutoCloseable {
+
+    private static final long DEFAULT_CHECK_INTERVAL_MS = 3000;
+    private static final long READS_LOWER_BOUNDARY = 800;
+    private static final long READS_UPPER_BOUNDARY = 1200;
+
+    private final long checkIntervalMs;
+
+    private volatile long currentTimeMillis;
+    private volatile boolean ticking = false;
+    private volatile boolean closed = false;
+
+    /**
+     * Reads in direct mode.
+     */
+    private final LongAdder reads = new LongAdder();
+    private final TickMarker tickMarker = new TickMarker();
+
+    /**
+     * Only accessed by the tick thread.
+     */
+    private long lastCheck;
+    private long ticks;
+    private long readTicks;
+
+    private final Thread tickThread;
+
+    public SampledClock() {
+        this(DEFAULT_CHECK_INTERVAL_MS);
+    }
+
+    SampledClock(long checkIntervalMs) {
+        this.checkIntervalMs = checkIntervalMs;
+        this.currentTimeMillis = System.currentTimeMillis();
+        this.lastCheck = currentTimeMillis;
+        this.tickThread = new Thread(this);
+        tickThread.setDaemon(true);
+        tickThread.setName("sentinel-sampled-time-tick-thread");
+        tickThread.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        if (ticking) {
+            TickMarker marker = tickMarker;
+            if (!marker.read) {
+                marker.read = true;
+            }
+            return currentTimeMillis;
+        }
+        reads.increment();
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * @return whether the time is cached by the tick thread currently
+     */
+    public boolean isTicking() {
+        return ticking;
+    }
+
+    /**
+     * Stop the tick thread. The clock reads {@link System#currentTimeMillis()} directly afterwards.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.ticking = false;
+        tickThread.interrupt();
+    }
+
+    Thread getTickThread() {
+        return tickThread;
+    }
+
+    @Override
+    public void run() {
+        while (!closed) {
+            long now = System.currentTimeMillis();
+            if (ticking) {
+                this.currentTimeMillis = now;
+                ticks++;
+                if (tickMarker.read) {
+                    readTicks++;
+                    tickMarker.read = false;
+                }
+            }
+            if (!closed && now - lastCheck >= checkIntervalMs) {
+                check(now);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(ticking ? 1 : Math.min(checkIntervalMs, 300));
+            } catch (Throwable e) {
+            }
+        }
+    }
+
+    private void check(long now) {
+        long interval = now - lastCheck;
+        lastCheck = now;
+        if (!ticking) {
+            long readsPerSec = reads.sumThenReset() * 1000 / interval;
+            if (readsPerSec > READS_UPPER_BOUNDARY) {
+                RecordLog.info("[SampledClock] Switches to ticking mode, reads={}/s", readsPerSec);
+                this.ticks = 0;
+                this.readTicks = 0;
+                this.currentTimeMillis = System.currentTimeMillis();
+                this.ticking = true;
+            }
+        } else if (ticks > 0) {
+            long readTicksPerMille = readTicks * 1000 / ticks;
+            this.ticks = 0;
+            this.readTicks = 0;
+            if (readTicksPerMille < READS_LOWER_BOUNDARY) {
+                RecordLog.info("[SampledClock] Switches to direct mode, read ticks={}/1000", readTicksPerMille);
+                this.ticking = false;
+            }
+        }
+    }
+
+    /**
+     * Whether the clock has been read since the last tick, padded so that the writes do not invalidate
+     * the cache line of the cached time.
+     */
+    @SuppressWarnings("unused")
+    private static final class TickMarker {
+        long p1, p2, p3, p4, p5, p6, p7;
+        volatile boolean read;
+        long q1, q2, q3, q4, q5, q6, q7;
+    }
+}
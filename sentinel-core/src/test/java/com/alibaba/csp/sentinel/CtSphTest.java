@@ -1,5 +1,7 @@
 package com.alibaba.csp.sentinel;
 
+import java.util.concurrent.CountDownLatch;
+
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextTestUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
@@ -9,7 +11,6 @@ import com.alibaba.csp.sentinel.slotchain.DefaultProcessorSlotChain;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
-import com.alibaba.csp.sentinel.slotchain.SlotChainProvider;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 
@@ -267,6 +268,29 @@ public class CtSphTest {
         assertFalse(CtSph.getChainMap().containsKey(r2));
         assertNull("The slot chain for r2 should not be created because amount exceeded", ctSph.lookProcessChain(r2));
         assertNull(ctSph.lookProcessChain(r2));
+
+        assertNotNull(CtSph.removeProcessChain(r1));
+        assertFalse(CtSph.getChainMap().containsKey(r1));
+        assertNotNull("The slot chain for r2 should be created after a slot is released", ctSph.lookProcessChain(r2));
+        assertNull(CtSph.removeProcessChain(r1));
+    }
+
+    @Test
+    public void testLookUpSlotChainConcurrently() throws Exception {
+        final int threadCount = 8;
+        final int resourceCount = Constants.MAX_SLOT_CHAIN_SIZE;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            new Thread(() -> {
+                // All threads race on the same resources, so each chain should be created only once.
+                for (int i = 0; i < resourceCount + 100; i++) {
+                    ctSph.lookProcessChain(new StringResourceWrapper("concurrent-res-" + i, EntryType.IN));
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        assertEquals(resourceCount, CtSph.entrySize());
     }
 
     private void fillFullContext() {
@@ -279,8 +303,9 @@ public class CtSphTest {
     private void fillFullResources() {
         for (int i = 0; i < Constants.MAX_SLOT_CHAIN_SIZE; i++) {
             ResourceWrapper resourceWrapper = new StringResourceWrapper("test-resource-" + i, EntryType.IN);
-            CtSph.getChainMap().put(resourceWrapper, SlotChainProvider.newSlotChain());
+            ctSph.lookProcessChain(resourceWrapper);
         }
+        assertEquals(Constants.MAX_SLOT_CHAIN_SIZE, CtSph.entrySize());
     }
 
     private void addShouldNotPassSlotFor(ResourceWrapper resourceWrapper) {
@@ -0,0 +1,235 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextTestUtil;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link Resource}.
+ */
+public class ResourceTest {
+
+    @Before
+    public void setUp() {
+        ContextTestUtil.cleanUpContext();
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+    }
+
+    @After
+    public void tearDown() {
+        ContextTestUtil.cleanUpContext();
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+    }
+
+    @Test
+    public void testResourceHandle() {
+        Resource resource = SphU.resource("resourceHandle", ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+        assertEquals("resourceHandle", resource.getName());
+        assertEquals(EntryType.IN, resource.getEntryType());
+        assertEquals(ResourceTypeConstants.COMMON_RPC, resource.getResourceType());
+        assertEquals(EntryType.OUT, SphU.resource("resourceHandle").getEntryType());
+    }
+
+    @Test
+    public void testReuseEntryAndContext() throws BlockException {
+        Resource resource = SphU.resource("resourceHandleReuse");
+
+        Entry e1 = resource.entry();
+        Context c1 = ContextUtil.getContext();
+        assertEquals(Constants.CONTEXT_DEFAULT_NAME, c1.getName());
+        assertSame(e1, c1.getCurEntry());
+        e1.exit();
+        assertNull(ContextUtil.getContext());
+
+        Entry e2 = resource.entry(2);
+        assertSame(e1, e2);
+        assertSame(c1, ContextUtil.getContext());
+        assertSame(e2, ContextUtil.getContext().getCurEntry());
+        e2.exit();
+        assertNull(ContextUtil.getContext());
+
+        ClusterNode node = ClusterBuilderSlot.getClusterNode("resourceHandleReuse");
+        assertNotNull(node);
+        assertEquals(3, node.totalPass());
+        assertEquals(0, node.curThreadNum());
+    }
+
+    @Test
+    public void testRecycledEntryState() throws BlockException {
+        Resource first = SphU.resource("resourceHandleFirst");
+        Resource second = SphU.resource("resourceHandleSecond");
+
+        Entry e1 = first.entry();
+        e1.setError(new IllegalStateException());
+        e1.exit();
+
+        Entry e2 = second.entry();
+        assertSame(e1, e2);
+        assertSame(second.getResourceWrapper(), e2.getResourceWrapper());
+        assertNull(e2.getError());
+        assertEquals(0, e2.getCompleteTimestamp());
+        e2.exit();
+        assertEquals(1, ClusterBuilderSlot.getClusterNode(second.getName()).totalPass());
+        assertEquals(0, ClusterBuilderSlot.getClusterNode(second.getName()).curThreadNum());
+    }
+
+    @Test
+    public void testStaleExitDoesNothing() throws BlockException {
+        Resource resource = SphU.resource("resourceHandleStaleExit");
+
+        ContextUtil.enter("resourceHandleStaleContext");
+        Entry outer = SphU.entry("resourceHandleStaleOuter");
+        Entry e = resource.entry();
+        e.exit();
+        e.exit();
+        e.close();
+        assertSame(outer, ContextUtil.getContext().getCurEntry());
+
+        // The entry has been recycled only once.
+        Entry e1 = resource.entry();
+        Entry e2 = resource.entry();
+        assertNotSame(e1, e2);
+        e2.exit();
+        e1.exit();
+        outer.exit();
+        ContextUtil.exit();
+        assertEquals(0, ClusterBuilderSlot.getClusterNode(resource.getName()).curThreadNum());
+    }
+
+    @Test
+    public void testEntryExitedByOtherThreadNotRecycled() throws Exception {
+        final Resource resource = SphU.resource("resourceHandleOtherThread");
+        final Entry e = resource.entry();
+        final Entry[] next = new Entry[1];
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                e.exit();
+                try {
+                    next[0] = resource.entry();
+                    next[0].exit();
+                } catch (BlockException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        });
+        t.start();
+        t.join();
+        assertNotNull(next[0]);
+        assertNotSame(e, next[0]);
+        ContextTestUtil.cleanUpContext();
+    }
+
+    @Test
+    public void testNestedEntries() throws BlockException {
+        Resource outer = SphU.resource("resourceHandleOuter");
+        Resource inner = SphU.resource("resourceHandleInner");
+
+        ContextUtil.enter("resourceHandleContext");
+        Entry e1 = outer.entry();
+        Entry e2 = inner.entry();
+        assertNotSame(e1, e2);
+        assertSame(e1, ((CtEntry)e2).parent);
+        assertSame(e2, ((CtEntry)e1).child);
+        e2.exit();
+        assertSame(e1, ContextUtil.getContext().getCurEntry());
+        assertNull(((CtEntry)e1).child);
+        e1.exit();
+        assertNull(ContextUtil.getContext().getCurEntry());
+        ContextUtil.exit();
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testBlocked() throws BlockException {
+        Resource resource = SphU.resource("resourceHandleBlocked");
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource.getName()).setCount(0)));
+
+        try {
+            resource.entry();
+            fail("should be blocked");
+        } catch (BlockException ex) {
+            assertNull(ContextUtil.getContext());
+        }
+        ClusterNode node = ClusterBuilderSlot.getClusterNode(resource.getName());
+        assertEquals(1, node.blockRequest());
+
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        Entry e = resource.entry();
+        assertSame(e, ContextUtil.getContext().getCurEntry());
+        e.exit();
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testResolveChainAgainAfterRemoval() throws BlockException {
+        Resource resource = SphU.resource("resourceHandleChain");
+        CtSph sph = new CtSph();
+
+        ProcessorSlot<Object> chain = sph.resolveChain(resource);
+        assertNotNull(chain);
+        assertSame(chain, sph.resolveChain(resource));
+        assertSame(chain, CtSph.getProcessChain(resource.getResourceWrapper()));
+
+        CtSph.removeProcessChain(resource.getResourceWrapper());
+        ProcessorSlot<Object> newChain = sph.resolveChain(resource);
+        assertNotSame(chain, newChain);
+        assertSame(newChain, CtSph.getProcessChain(resource.getResourceWrapper()));
+    }
+
+    @Test
+    public void testRuleChangeTakesEffect() throws BlockException {
+        Resource resource = SphU.resource("resourceHandleRuleChange");
+        resource.entry().exit();
+
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource.getName()).setCount(0)));
+        try {
+            resource.entry().exit();
+            fail("should be blocked");
+        } catch (BlockException ex) {
+            assertNull(ContextUtil.getContext());
+        }
+
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        resource.entry().exit();
+    }
+
+    @Test
+    public void testAsyncEntry() throws BlockException {
+        Resource resource = SphU.resource("resourceHandleAsync");
+        AsyncEntry entry = resource.asyncEntry();
+        assertNull(ContextUtil.getContext().getCurEntry());
+        assertNotNull(entry.getAsyncContext());
+        entry.exit();
+        assertEquals(1, ClusterBuilderSlot.getClusterNode(resource.getName()).totalPass());
+    }
+}
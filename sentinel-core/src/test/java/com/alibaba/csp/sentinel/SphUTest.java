@@ -18,12 +18,19 @@ package com.alibaba.csp.sentinel;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.DeferredPacing;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * Test cases for {@link SphU}.
@@ -167,4 +174,35 @@ public class SphUTest {
         // The number of success is automatically updated based on batchCount when exit
         assertEquals(batchCount, e.getCurNode().totalSuccess());
     }
+
+    @Test
+    public void testAsyncEntryWithPacing() throws Exception {
+        String resourceName = "testAsyncEntryWithPacing";
+        FlowRule rule = new FlowRule(resourceName).setCount(10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER).setMaxQueueingTimeMs(1000);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        try {
+            long start = TimeUtil.currentTimeMillis();
+            long lastDelayNanos = -1;
+            for (int i = 0; i < 5; i++) {
+                AsyncEntry entry = SphU.asyncEntryWithPacing(resourceName, ResourceTypeConstants.COMMON,
+                    EntryType.OUT, 1, new Object[0]);
+                assertTrue(entry.getPacingDelayNanos() > lastDelayNanos);
+                lastDelayNanos = entry.getPacingDelayNanos();
+                entry.exit();
+            }
+            assertTrue(TimeUtil.currentTimeMillis() - start < 300);
+            assertFalse(DeferredPacing.isDeferring());
+
+            AsyncEntry entry = SphU.asyncEntryWithPacing(resourceName, ResourceTypeConstants.COMMON,
+                EntryType.OUT, 1, new Object[0]);
+            assertTrue(entry.getPacingDelayNanos() > 0);
+            long waitStart = System.nanoTime();
+            assertSame(entry, entry.whenPassed().get(2, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - waitStart >= entry.getPacingDelayNanos() - TimeUnit.MILLISECONDS.toNanos(5));
+            entry.exit();
+        } finally {
+            FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        }
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link HashedTimingWheel}.
+ */
+public class HashedTimingWheelTest {
+
+    private HashedTimingWheel wheel;
+
+    @Before
+    public void setUp() {
+        // A small wheel, so that tasks with long delay need several rounds.
+        wheel = new HashedTimingWheel("sentinel-test-timing-wheel", 1, 16);
+    }
+
+    @After
+    public void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    public void testExecuteAfterDelay() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicLong executedAt = new AtomicLong();
+        long start = System.currentTimeMillis();
+        HashedTimingWheel.Timeout timeout = wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executedAt.set(System.currentTimeMillis());
+                latch.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(executedAt.get() - start >= 45);
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+        assertEquals(0, wheel.pendingTimeouts());
+    }
+
+    @Test
+    public void testConcurrentFirstUse() throws InterruptedException {
+        final int threads = 8;
+        // The threads race to start a fresh wheel in each round.
+        for (int round = 0; round < 200; round++) {
+            final HashedTimingWheel wheel = new HashedTimingWheel("sentinel-test-timing-wheel", 1, 16);
+            final CountDownLatch start = new CountDownLatch(1);
+            final CountDownLatch executed = new CountDownLatch(threads);
+            for (int i = 0; i < threads; i++) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        wheel.schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                executed.countDown();
+                            }
+                        }, 1, TimeUnit.MILLISECONDS);
+                    }
+                }).start();
+            }
+            start.countDown();
+
+            assertTrue("round " + round, executed.await(1, TimeUnit.SECONDS));
+            wheel.stop();
+        }
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        final AtomicBoolean executed = new AtomicBoolean(false);
+        HashedTimingWheel.Timeout timeout = wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executed.set(true);
+            }
+        }, 30, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, wheel.pendingTimeouts());
+
+        TimeUnit.MILLISECONDS.sleep(80);
+        assertFalse(executed.get());
+    }
+
+    @Test
+    public void testManyTasksInSeveralRounds() throws InterruptedException {
+        int tasks = 2000;
+        final CountDownLatch latch = new CountDownLatch(tasks);
+        final AtomicInteger early = new AtomicInteger();
+        for (int i = 0; i < tasks; i++) {
+            final long delay = i % 100;
+            final long expected = System.currentTimeMillis() + delay;
+            wheel.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    // Allow some skew between the cached clock and the system clock.
+                    if (System.currentTimeMillis() < expected - 5) {
+                        early.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+        assertEquals(0, wheel.pendingTimeouts());
+    }
+
+    @Test
+    public void testTaskErrorDoesNotStopWheel() throws InterruptedException {
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("expected");
+            }
+        }, 0, TimeUnit.MILLISECONDS);
+        final CountDownLatch latch = new CountDownLatch(1);
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.ManualClock;
+import com.alibaba.csp.sentinel.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ActiveClusterNodes} and the activity tracking of {@link ClusterNode}.
+ */
+public class ActiveClusterNodesTest {
+
+    private final ManualClock clock = new ManualClock();
+
+    @Before
+    public void setUp() {
+        // Far from the time of other tests, so that nodes of other tests get expired.
+        clock.setCurrentTimeMillis(System.currentTimeMillis() + 3600 * 1000 * 24);
+        TimeUtil.setClock(clock);
+    }
+
+    @After
+    public void tearDown() {
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testOnlyActiveNodesVisited() {
+        ClusterNode idle = new ClusterNode("idleResource");
+        ClusterNode active = new ClusterNode("activeResource");
+        assertEquals(-1, active.getLastActiveTime());
+
+        active.addPassRequest(1);
+        long second = clock.currentTimeMillis() / 1000 * 1000;
+        assertEquals(second, active.getLastActiveTime());
+
+        List<ClusterNode> visited = collect(Long.MIN_VALUE);
+        assertTrue(visited.contains(active));
+        assertFalse(visited.contains(idle));
+
+        clock.advance(2000);
+        assertFalse(collect(second + 1000).contains(active));
+        idle.increaseBlockQps(1);
+        visited = collect(second + 1000);
+        assertTrue(visited.contains(idle));
+        assertFalse(visited.contains(active));
+    }
+
+    @Test
+    public void testIdleNodesExpired() {
+        ClusterNode node = new ClusterNode("expiringResource");
+        node.addPassRequest(1);
+        assertTrue(collect(Long.MIN_VALUE).contains(node));
+
+        clock.advance(3 * 60 * 1000);
+        assertFalse(collect(Long.MIN_VALUE).contains(node));
+        assertEquals(0, node.tracked);
+
+        // Tracked again once active.
+        node.addPassRequest(1);
+        assertTrue(collect(Long.MIN_VALUE).contains(node));
+    }
+
+    @Test
+    public void testMetricsSkippedWhenNothingNew() {
+        ClusterNode node = new ClusterNode("metricResource");
+        assertTrue(node.metrics().isEmpty());
+
+        node.addPassRequest(2);
+        clock.advance(1000);
+        Map<Long, MetricNode> metrics = node.metrics();
+        assertEquals(1, metrics.size());
+        assertEquals(2, metrics.values().iterator().next().getPassQps());
+
+        clock.advance(1000);
+        assertTrue(node.metrics().isEmpty());
+    }
+
+    private static List<ClusterNode> collect(long sinceTime) {
+        final List<ClusterNode> nodes = new ArrayList<>();
+        ActiveClusterNodes.forEach(sinceTime, new Consumer<ClusterNode>() {
+            @Override
+            public void accept(ClusterNode node) {
+                nodes.add(node);
+            }
+        });
+        return nodes;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.CtSph;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextTestUtil;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link IdleResourceSweeper}.
+ */
+public class IdleResourceSweeperTest extends AbstractTimeBasedTest {
+
+    private static final String CONTEXT = "idle-sweeper-context";
+    private static final long TTL_MS = 120 * 1000;
+
+    @Before
+    public void setUp() {
+        ContextTestUtil.cleanUpContext();
+        ContextTestUtil.resetContextMap();
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+    }
+
+    @After
+    public void tearDown() {
+        ContextTestUtil.cleanUpContext();
+        ContextTestUtil.resetContextMap();
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+    }
+
+    @Test
+    public void testEvictIdleResource() throws Exception {
+        String resource = "idleSweeperRes";
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 1000);
+            entry(resource);
+            DefaultNode entranceNode = ContextUtil.enter(CONTEXT).getEntranceNode();
+            ContextUtil.exit();
+            assertEquals(1, entranceNode.getChildList().size());
+            assertNotNull(ClusterBuilderSlot.getClusterNode(resource));
+
+            IdleResourceSweeper sweeper = new IdleResourceSweeper(TTL_MS);
+            // The resource still has traffic in the one-minute statistics.
+            assertEquals(0, sweeper.sweep(TimeUtil.currentTimeMillis()));
+
+            sleepSecond(mocked, 61);
+            // First seen idle.
+            assertEquals(0, sweeper.sweep(TimeUtil.currentTimeMillis()));
+            sleep(mocked, TTL_MS);
+            assertEquals(1, sweeper.sweep(TimeUtil.currentTimeMillis()));
+
+            assertNull(ClusterBuilderSlot.getClusterNode(resource));
+            assertNull(CtSph.getProcessChain(new StringResourceWrapper(resource, EntryType.OUT)));
+            assertTrue(entranceNode.getChildList().isEmpty());
+
+            // The resource is created again when it is visited.
+            entry(resource);
+            assertNotNull(ClusterBuilderSlot.getClusterNode(resource));
+            assertEquals(1, entranceNode.getChildList().size());
+        }
+    }
+
+    @Test
+    public void testKeepResourceWithRules() throws Exception {
+        String resource = "idleSweeperResWithRule";
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource).setCount(100)));
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 1000);
+            entry(resource);
+
+            IdleResourceSweeper sweeper = new IdleResourceSweeper(TTL_MS);
+            sleepSecond(mocked, 61);
+            sweeper.sweep(TimeUtil.currentTimeMillis());
+            sleep(mocked, TTL_MS);
+            sweeper.sweep(TimeUtil.currentTimeMillis());
+            assertNotNull(ClusterBuilderSlot.getClusterNode(resource));
+        }
+    }
+
+    @Test
+    public void testKeepParentUntilChildrenEvicted() throws Exception {
+        String parent = "idleSweeperParent";
+        String child = "idleSweeperChild";
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 1000);
+            ContextUtil.enter(CONTEXT);
+            Entry parentEntry = SphU.entry(parent);
+            SphU.entry(child).exit();
+            parentEntry.exit();
+            ContextUtil.exit();
+
+            IdleResourceSweeper sweeper = new IdleResourceSweeper(TTL_MS);
+            sleepSecond(mocked, 61);
+            sweeper.sweep(TimeUtil.currentTimeMillis());
+            sleep(mocked, TTL_MS);
+            sweeper.sweep(TimeUtil.currentTimeMillis());
+            assertNull(ClusterBuilderSlot.getClusterNode(child));
+            assertNotNull(ClusterBuilderSlot.getClusterNode(parent));
+
+            sweeper.sweep(TimeUtil.currentTimeMillis());
+            assertNull(ClusterBuilderSlot.getClusterNode(parent));
+        }
+    }
+
+    private void entry(String resource) throws Exception {
+        ContextUtil.enter(CONTEXT);
+        SphU.entry(resource).exit();
+        ContextUtil.exit();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link AsyncMetricWriter}.
+ */
+public class AsyncMetricWriterTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("sentinel-metric").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testWriteInOrder() throws Exception {
+        RecordingMetricWriter recorder = new RecordingMetricWriter(dir, new CountDownLatch(0));
+        AsyncMetricWriter writer = new AsyncMetricWriter(recorder, 4);
+        List<MetricNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            nodes.add(newNode("res" + i));
+            assertTrue(writer.write(1000L * i, nodes));
+            // The list can be reused once submitted.
+            nodes.clear();
+            while (writer.pendingBatches() >= 4) {
+                Thread.sleep(1);
+            }
+        }
+        writer.close(3, TimeUnit.SECONDS);
+
+        assertEquals(10, recorder.times.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1000L * i, (long)recorder.times.get(i));
+            assertEquals("res" + i, recorder.resources.get(i));
+        }
+        assertEquals(0, writer.getShedBatches());
+        assertEquals(0, writer.pendingBatches());
+    }
+
+    @Test
+    public void testShedWhenWriterFallsBehind() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        RecordingMetricWriter recorder = new RecordingMetricWriter(dir, blocker);
+        AsyncMetricWriter writer = new AsyncMetricWriter(recorder, 2);
+
+        assertTrue(writer.write(1000, Collections.singletonList(newNode("a"))));
+        // Wait until the writer thread takes the first batch and gets blocked.
+        assertTrue(recorder.entered.await(3, TimeUnit.SECONDS));
+        assertTrue(writer.write(2000, Collections.singletonList(newNode("b"))));
+        assertFalse(writer.write(3000, Collections.singletonList(newNode("c"))));
+        assertFalse(writer.write(4000, Collections.singletonList(newNode("d"))));
+        assertEquals(2, writer.getShedBatches());
+        assertEquals(2, writer.getShedNodes());
+
+        blocker.countDown();
+        writer.close(3, TimeUnit.SECONDS);
+        assertEquals(2, recorder.times.size());
+        assertEquals(2000L, (long)recorder.times.get(1));
+    }
+
+    private static MetricNode newNode(String resource) {
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        return node;
+    }
+
+    private static class RecordingMetricWriter extends MetricWriter {
+
+        final List<Long> times = Collections.synchronizedList(new ArrayList<Long>());
+        final List<String> resources = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch blocker;
+
+        RecordingMetricWriter(File dir, CountDownLatch blocker) {
+            super(dir.getAbsolutePath() + File.separator, 1024, 1, SentinelConfig.METRIC_FILE_FORMAT_TEXT, false);
+            this.blocker = blocker;
+        }
+
+        @Override
+        public synchronized void write(long time, List<MetricNode> nodes) throws Exception {
+            entered.countDown();
+            blocker.await();
+            times.add(time);
+            for (MetricNode node : nodes) {
+                resources.add(node.getResource());
+            }
+        }
+    }
+}
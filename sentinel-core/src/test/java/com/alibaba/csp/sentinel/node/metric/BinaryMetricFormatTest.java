@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link BinaryMetricFormat}.
+ */
+public class BinaryMetricFormatTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void testNameLengthWithinLimit() {
+        byte[] name = "com.alibaba.csp.demo.UserService:getUser".getBytes(UTF_8);
+        assertEquals(name.length, BinaryMetricFormat.nameLength(name));
+    }
+
+    @Test
+    public void testNameLengthNotSplittingCharacter() {
+        // 0xFFFE ASCII bytes followed by a 3-byte character, which would be split at 0xFFFF bytes.
+        char[] chars = new char[0xFFFE + 1];
+        Arrays.fill(chars, 'a');
+        chars[0xFFFE] = '\u7684';
+        byte[] name = new String(chars).getBytes(UTF_8);
+        assertEquals(0xFFFE + 3, name.length);
+
+        int length = BinaryMetricFormat.nameLength(name);
+        assertEquals(0xFFFE, length);
+        assertEquals(new String(chars, 0, 0xFFFE), new String(name, 0, length, UTF_8));
+    }
+
+    @Test
+    public void testCommittedResourceNotWrittenAgain() {
+        BinaryMetricFormat.Encoder encoder = new BinaryMetricFormat.Encoder();
+        List<MetricNode> nodes = Collections.singletonList(node("abc"));
+
+        ByteBuffer buffer = encoder.encode(nodes);
+        assertEquals(BinaryMetricFormat.TAG_DICTIONARY, buffer.get(0));
+        encoder.commit();
+
+        buffer = encoder.encode(nodes);
+        assertEquals(BinaryMetricFormat.METRIC_RECORD_SIZE, buffer.limit());
+        assertEquals(BinaryMetricFormat.TAG_METRIC, buffer.get(0));
+        assertEquals(0, buffer.getInt(1));
+    }
+
+    @Test
+    public void testUncommittedResourceWrittenAgain() {
+        BinaryMetricFormat.Encoder encoder = new BinaryMetricFormat.Encoder();
+        List<MetricNode> nodes = Arrays.asList(node("abc"), node("abc"));
+
+        ByteBuffer buffer = encoder.encode(nodes);
+        int dictionarySize = BinaryMetricFormat.DICTIONARY_RECORD_MIN_SIZE + 3;
+        assertEquals(dictionarySize + 2 * BinaryMetricFormat.METRIC_RECORD_SIZE, buffer.limit());
+        assertEquals(0, buffer.getInt(1));
+        // The buffer was not written (e.g. the write failed), so the dictionary record is written again,
+        // with a new id in case the first one has partially reached the file.
+        buffer = encoder.encode(nodes);
+        assertEquals(dictionarySize + 2 * BinaryMetricFormat.METRIC_RECORD_SIZE, buffer.limit());
+        assertEquals(BinaryMetricFormat.TAG_DICTIONARY, buffer.get(0));
+        assertEquals(1, buffer.getInt(1));
+        assertEquals(1, buffer.getInt(dictionarySize + 1));
+        assertEquals(1, buffer.getInt(dictionarySize + BinaryMetricFormat.METRIC_RECORD_SIZE + 1));
+    }
+
+    private static MetricNode node(String resource) {
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        node.setTimestamp(1000);
+        return node;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link MetricFileMappings}.
+ */
+public class MetricFileMappingsTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("sentinel-metric", ".log");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testRemapOnlyWhenFileGrows() throws Exception {
+        append(new byte[] {1, 2, 3});
+        MetricFileMappings mappings = new MetricFileMappings();
+        ByteBuffer first = mappings.map(file.getPath());
+        assertEquals(3, first.limit());
+
+        ByteBuffer second = mappings.map(file.getPath());
+        assertNotSame(first, second);
+        // Duplicates of the same mapping share the content.
+        assertEquals(first, second);
+        second.position(2);
+        assertEquals(0, first.position());
+
+        append(new byte[] {4, 5});
+        ByteBuffer grown = mappings.map(file.getPath());
+        assertEquals(5, grown.limit());
+        assertEquals(5, grown.get(4));
+    }
+
+    @Test
+    public void testReadActiveFileIncrementally() throws Exception {
+        append(new byte[] {1, 2, 3});
+        MetricFileMappings mappings = new MetricFileMappings();
+        mappings.retainAll(Collections.singletonList(file.getPath()));
+        ByteBuffer first = mappings.map(file.getPath());
+        // The file being written is not mapped.
+        assertFalse(first.isDirect());
+        assertEquals(3, first.limit());
+
+        for (int i = 0; i < 100; i++) {
+            append(new byte[] {(byte)i});
+        }
+        ByteBuffer grown = mappings.map(file.getPath());
+        assertEquals(103, grown.limit());
+        assertEquals(3, grown.get(2));
+        assertEquals(99, grown.get(102));
+        // Views are independent from each other.
+        assertEquals(3, first.limit());
+
+        // Re-created with less content.
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[] {7});
+        } finally {
+            out.close();
+        }
+        ByteBuffer recreated = mappings.map(file.getPath());
+        assertEquals(1, recreated.limit());
+        assertEquals(7, recreated.get(0));
+    }
+
+    @Test
+    public void testMapRolledFile() throws Exception {
+        append(new byte[] {1, 2, 3});
+        File active = File.createTempFile("sentinel-metric", ".log");
+        try {
+            MetricFileMappings mappings = new MetricFileMappings();
+            mappings.retainAll(Arrays.asList(file.getPath(), active.getPath()));
+            ByteBuffer rolled = mappings.map(file.getPath());
+            assertTrue(rolled.isDirect());
+            assertEquals(3, rolled.limit());
+        } finally {
+            active.delete();
+        }
+    }
+
+    @Test
+    public void testRetainAll() throws Exception {
+        append(new byte[] {1});
+        MetricFileMappings mappings = new MetricFileMappings();
+        mappings.map(file.getPath());
+        mappings.retainAll(Collections.<String>emptyList());
+        assertEquals(1, mappings.map(file.getPath()).limit());
+    }
+
+    private void append(byte[] bytes) throws Exception {
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link MetricSearcher}, over metric files written by {@link MetricWriter}.
+ */
+public class MetricSearcherTest {
+
+    private static final String RESOURCE_A = "com.alibaba.csp.demo.UserService:getUser(java.lang.Long)";
+    private static final String RESOURCE_B = "com.alibaba.csp.demo.UserService:listUsers(java.lang.String,int)";
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("sentinel-metric").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testSearchTextFiles() throws Exception {
+        verifySearch(SentinelConfig.METRIC_FILE_FORMAT_TEXT, 1024 * 1024);
+    }
+
+    @Test
+    public void testSearchBinaryFiles() throws Exception {
+        verifySearch(SentinelConfig.METRIC_FILE_FORMAT_BINARY, 1024 * 1024);
+    }
+
+    @Test
+    public void testSearchRollingBinaryFiles() throws Exception {
+        // Every second goes to a new file.
+        verifySearch(SentinelConfig.METRIC_FILE_FORMAT_BINARY, 100);
+    }
+
+    @Test
+    public void testSearchTextFilesWithResourceIndex() throws Exception {
+        verifySearch(SentinelConfig.METRIC_FILE_FORMAT_TEXT, 1024 * 1024, true);
+    }
+
+    @Test
+    public void testSearchRollingBinaryFilesWithResourceIndex() throws Exception {
+        verifySearch(SentinelConfig.METRIC_FILE_FORMAT_BINARY, 100, true);
+    }
+
+    @Test
+    public void testSearchByResourceIndexOnly() throws Exception {
+        long begin = writeMetrics(SentinelConfig.METRIC_FILE_FORMAT_BINARY, 1024 * 1024, 5, true);
+        // Without the second index, only the resource index can be used.
+        for (File file : dir.listFiles()) {
+            if (file.getName().endsWith(MetricWriter.METRIC_FILE_INDEX_SUFFIX)) {
+                assertTrue(file.delete());
+            }
+        }
+        MetricSearcher searcher = new MetricSearcher(dir.getAbsolutePath(), baseFileName());
+        List<MetricNode> nodes = searcher.findByTimeAndResource(begin + 1000, begin + 3999, RESOURCE_A);
+        assertNotNull(nodes);
+        assertEquals(3, nodes.size());
+        assertEquals(RESOURCE_A, nodes.get(2).getResource());
+        assertEquals(begin + 3000, nodes.get(2).getTimestamp());
+        assertEquals(31, nodes.get(2).getPassQps());
+
+        assertTrue(searcher.findByTimeAndResource(begin, begin + 4999, "absentResource").isEmpty());
+        assertNull(searcher.findByTimeAndResource(begin, begin + 4999, null));
+    }
+
+    @Test
+    public void testBinaryFileIsSmaller() throws Exception {
+        writeMetrics(SentinelConfig.METRIC_FILE_FORMAT_TEXT, 1024 * 1024, 20, false);
+        long textSize = totalMetricFileSize();
+        tearDown();
+        setUp();
+        writeMetrics(SentinelConfig.METRIC_FILE_FORMAT_BINARY, 1024 * 1024, 20, false);
+        long binarySize = totalMetricFileSize();
+
+        assertTrue(binarySize < textSize);
+    }
+
+    private void verifySearch(String format, long singleFileSize) throws Exception {
+        verifySearch(format, singleFileSize, false);
+    }
+
+    private void verifySearch(String format, long singleFileSize, boolean resourceIndex) throws Exception {
+        long begin = writeMetrics(format, singleFileSize, 5, resourceIndex);
+        String baseFileName = baseFileName();
+
+        MetricSearcher searcher = new MetricSearcher(dir.getAbsolutePath(), baseFileName);
+        List<MetricNode> nodes = searcher.findByTimeAndResource(begin + 1000, begin + 2999, null);
+        assertNotNull(nodes);
+        assertEquals(4, nodes.size());
+        assertEquals(begin + 1000, nodes.get(0).getTimestamp());
+        assertEquals(begin + 2000, nodes.get(3).getTimestamp());
+
+        nodes = new MetricSearcher(dir.getAbsolutePath(), baseFileName)
+            .findByTimeAndResource(begin, begin + 4999, RESOURCE_B);
+        assertNotNull(nodes);
+        assertEquals(5, nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            MetricNode node = nodes.get(i);
+            assertEquals(RESOURCE_B, node.getResource());
+            assertEquals(begin + i * 1000, node.getTimestamp());
+            assertEquals(i * 10 + 2, node.getPassQps());
+            assertEquals(i, node.getBlockQps());
+            assertEquals(7, node.getRt());
+            assertEquals(3, node.getConcurrency());
+        }
+
+        nodes = searcher.find(begin + 3000, 1);
+        assertNotNull(nodes);
+        // Metrics of the same second are never split.
+        assertEquals(2, nodes.size());
+        assertEquals(RESOURCE_A, nodes.get(0).getResource());
+        assertEquals(begin + 3000, nodes.get(1).getTimestamp());
+    }
+
+    /**
+     * Write metrics of two resources for the given seconds.
+     *
+     * @return the timestamp of the first second
+     */
+    private long writeMetrics(String format, long singleFileSize, int seconds, boolean resourceIndex)
+        throws Exception {
+        MetricWriter writer = new MetricWriter(dir.getAbsolutePath() + File.separator, singleFileSize, 100,
+            format, resourceIndex);
+        long begin = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        try {
+            for (int i = 0; i < seconds; i++) {
+                List<MetricNode> nodes = new ArrayList<MetricNode>();
+                nodes.add(newNode(RESOURCE_A, i * 10 + 1, i));
+                nodes.add(newNode(RESOURCE_B, i * 10 + 2, i));
+                writer.write(begin + i * 1000, nodes);
+            }
+        } finally {
+            writer.close();
+        }
+        return begin;
+    }
+
+    private static String baseFileName() {
+        return MetricWriter.formMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid());
+    }
+
+    private long totalMetricFileSize() {
+        long size = 0;
+        for (File file : dir.listFiles()) {
+            if (MetricWriter.fileNameMatches(file.getName(), baseFileName())) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private static MetricNode newNode(String resource, long passQps, long blockQps) {
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        node.setPassQps(passQps);
+        node.setBlockQps(blockQps);
+        node.setSuccessQps(passQps);
+        node.setRt(7);
+        node.setConcurrency(3);
+        return node;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.slotchain.ResolvedResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlan.FlowCheck;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ResourceRulePlanManager}.
+ */
+public class ResourceRulePlanManagerTest {
+
+    @Before
+    public void setUp() {
+        clearRules();
+    }
+
+    @After
+    public void tearDown() {
+        clearRules();
+    }
+
+    private void clearRules() {
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        DegradeRuleManager.loadRules(Collections.<DegradeRule>emptyList());
+        AuthorityRuleManager.loadRules(Collections.<AuthorityRule>emptyList());
+    }
+
+    @Test
+    public void testEmptyPlan() {
+        assertSame(ResourceRulePlan.EMPTY, ResourceRulePlanManager.getPlan("planNoRules"));
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule("planOtherResource").setCount(1)));
+        assertSame(ResourceRulePlan.EMPTY, ResourceRulePlanManager.getPlan("planNoRules"));
+    }
+
+    @Test
+    public void testCompilePlan() {
+        String resource = "planAllRules";
+        FlowRule flowRule = new FlowRule(resource).setCount(10);
+        flowRule.setLimitApp("appA");
+        FlowRuleManager.loadRules(Collections.singletonList(flowRule));
+        DegradeRuleManager.loadRules(Collections.singletonList(new DegradeRule(resource)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT).setCount(10).setTimeWindow(10)));
+        AuthorityRule authorityRule = new AuthorityRule();
+        authorityRule.setResource(resource);
+        authorityRule.setLimitApp("appA,appB");
+        AuthorityRuleManager.loadRules(Collections.singletonList(authorityRule));
+
+        ResourceRulePlan plan = ResourceRulePlanManager.getPlan(resource);
+        assertEquals(Collections.singletonList(flowRule), plan.getFlowRules());
+        assertEquals(1, plan.getCircuitBreakers().size());
+        assertEquals(1, plan.getAuthorityChecks().size());
+        assertEquals(2, plan.getAuthorityChecks().get(0).getLimitApps().size());
+        assertTrue(plan.getAuthorityChecks().get(0).getLimitApps().contains("appB"));
+
+        assertFalse(plan.isOtherOrigin("appA"));
+        assertTrue(plan.isOtherOrigin("appC"));
+        assertFalse(plan.isOtherOrigin(""));
+
+        // Plans of other kinds of rules are kept when one kind of rules is changed.
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        plan = ResourceRulePlanManager.getPlan(resource);
+        assertTrue(plan.getFlowRules().isEmpty());
+        assertEquals(1, plan.getCircuitBreakers().size());
+        assertEquals(1, plan.getAuthorityChecks().size());
+    }
+
+    @Test
+    public void testFlowChecksByOrigin() {
+        String resource = "planFlowChecks";
+        FlowRule appRule = new FlowRule(resource).setCount(10);
+        appRule.setLimitApp("appA");
+        FlowRule defaultRule = new FlowRule(resource).setCount(10);
+        FlowRule otherRule = new FlowRule(resource).setCount(10);
+        otherRule.setLimitApp(RuleConstant.LIMIT_APP_OTHER);
+        FlowRule relateRule = new FlowRule(resource).setCount(10);
+        relateRule.setStrategy(RuleConstant.STRATEGY_RELATE);
+        relateRule.setRefResource("planFlowChecksRef");
+        FlowRuleManager.loadRules(Arrays.asList(appRule, defaultRule, otherRule, relateRule));
+
+        ResourceRulePlan plan = ResourceRulePlanManager.getPlan(resource);
+        List<FlowCheck> checks = plan.getFlowChecks("appA");
+        assertEquals(3, checks.size());
+        assertEquals(FlowCheck.NODE_ORIGIN, findCheck(checks, appRule).getNodeSelection());
+        assertEquals(FlowCheck.NODE_CLUSTER, findCheck(checks, defaultRule).getNodeSelection());
+        assertEquals(FlowCheck.NODE_REFERENCE, findCheck(checks, relateRule).getNodeSelection());
+        assertNull(findCheck(checks, otherRule));
+
+        checks = plan.getFlowChecks("appC");
+        assertEquals(3, checks.size());
+        assertEquals(FlowCheck.NODE_ORIGIN, findCheck(checks, otherRule).getNodeSelection());
+        assertNull(findCheck(checks, appRule));
+        assertSame(checks, plan.getFlowChecks("appD"));
+
+        checks = plan.getFlowChecks("");
+        assertEquals(2, checks.size());
+        assertEquals(FlowCheck.NODE_CLUSTER, findCheck(checks, defaultRule).getNodeSelection());
+        assertSame(checks, plan.getFlowChecks(null));
+
+        assertTrue(ResourceRulePlan.EMPTY.getFlowChecks("appA").isEmpty());
+    }
+
+    private static FlowCheck findCheck(List<FlowCheck> checks, FlowRule rule) {
+        for (FlowCheck check : checks) {
+            if (check.getRule() == rule) {
+                return check;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testRegexRules() {
+        FlowRule rule = new FlowRule("planRegex.*").setCount(10);
+        rule.setRegex(true);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+        ResourceRulePlan plan = ResourceRulePlanManager.getPlan("planRegexA");
+        assertEquals(1, plan.getFlowRules().size());
+        assertSame(plan, ResourceRulePlanManager.getPlan("planRegexA"));
+        assertSame(ResourceRulePlan.EMPTY, ResourceRulePlanManager.getPlan("otherRegexA"));
+    }
+
+    @Test
+    public void testCachedPlanInvalidatedOnRuleChange() {
+        String resource = "planCached";
+        ResolvedResourceWrapper wrapper = new ResolvedResourceWrapper(resource, EntryType.OUT,
+            ResourceTypeConstants.COMMON);
+        assertSame(ResourceRulePlan.EMPTY, ResourceRulePlanManager.getPlan(wrapper));
+
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource).setCount(10)));
+        ResourceRulePlan plan = ResourceRulePlanManager.getPlan(wrapper);
+        assertEquals(1, plan.getFlowRules().size());
+        assertSame(plan, ResourceRulePlanManager.getPlan(wrapper));
+
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        assertSame(ResourceRulePlan.EMPTY, ResourceRulePlanManager.getPlan(wrapper));
+    }
+}
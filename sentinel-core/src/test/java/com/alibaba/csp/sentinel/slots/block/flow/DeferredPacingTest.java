@@ -0,0 +1,70 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link DeferredPacing}.
+ */
+public class DeferredPacingTest {
+
+    @Test
+    public void testDeferOnlyInDeferredMode() {
+        assertFalse(DeferredPacing.isDeferring());
+        assertFalse(DeferredPacing.defer(100));
+
+        DeferredPacing.begin();
+        try {
+            assertTrue(DeferredPacing.isDeferring());
+            assertTrue(DeferredPacing.defer(100));
+            assertTrue(DeferredPacing.defer(20));
+        } finally {
+            assertEquals(120, DeferredPacing.end());
+        }
+        assertFalse(DeferredPacing.isDeferring());
+        assertEquals(0, DeferredPacing.end());
+    }
+
+    @Test
+    public void testNestedDeferredMode() {
+        DeferredPacing.begin();
+        try {
+            DeferredPacing.defer(100);
+            for (int i = 0; i < 3; i++) {
+                DeferredPacing.begin();
+                try {
+                    DeferredPacing.begin();
+                    try {
+                        DeferredPacing.defer(3);
+                    } finally {
+                        assertEquals(3, DeferredPacing.end());
+                    }
+                    DeferredPacing.defer(5);
+                } finally {
+                    assertEquals(5, DeferredPacing.end());
+                }
+                assertTrue(DeferredPacing.isDeferring());
+            }
+            DeferredPacing.defer(10);
+        } finally {
+            assertEquals(110, DeferredPacing.end());
+        }
+        assertFalse(DeferredPacing.isDeferring());
+    }
+}
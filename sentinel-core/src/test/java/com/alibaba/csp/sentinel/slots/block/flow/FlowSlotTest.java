@@ -15,20 +15,24 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow;
 
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Collections;
+import java.util.List;
 
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextTestUtil;
 import com.alibaba.csp.sentinel.node.DefaultNode;
-import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
-import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.slots.block.ResourceRulePlan.FlowCheck;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -48,6 +52,24 @@ public class FlowSlotTest {
         FlowRuleManager.loadRules(null);
     }
 
+    @Test
+    public void testMetricTimerStartedByFlowSlot() throws Exception {
+        // Use a fresh class loader, so that neither the rule manager nor the slot is initialized yet.
+        URL classes = FlowSlot.class.getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader loader = new URLClassLoader(new URL[] {classes}, FlowSlotTest.class.getClassLoader().getParent());
+        try {
+            Class<?> manager = Class.forName(FlowRuleManager.class.getName(), true, loader);
+            Method started = manager.getDeclaredMethod("isMetricTimerStarted");
+            started.setAccessible(true);
+            assertFalse((Boolean)started.invoke(null));
+
+            Class.forName(FlowSlot.class.getName(), true, loader);
+            assertTrue((Boolean)started.invoke(null));
+        } finally {
+            loader.close();
+        }
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testCheckFlowPass() throws Exception {
@@ -55,8 +77,8 @@ public class FlowSlotTest {
         FlowSlot flowSlot = new FlowSlot(checker);
         Context context = mock(Context.class);
         DefaultNode node = mock(DefaultNode.class);
-        doCallRealMethod().when(checker).checkFlow(any(Function.class), any(ResourceWrapper.class), any(Context.class),
-            any(DefaultNode.class), anyInt(), anyBoolean());
+        doCallRealMethod().when(checker).checkFlow(any(List.class), any(Context.class), any(DefaultNode.class),
+            anyInt(), anyBoolean());
 
         String resA = "resAK";
         String resB = "resBK";
@@ -65,13 +87,14 @@ public class FlowSlotTest {
         // Here we only load rules for resA.
         FlowRuleManager.loadRules(Collections.singletonList(rule1));
 
-        when(checker.canPassCheck(eq(rule1), any(Context.class), any(DefaultNode.class), anyInt(), anyBoolean()))
-            .thenReturn(true);
-        when(checker.canPassCheck(eq(rule2), any(Context.class), any(DefaultNode.class), anyInt(), anyBoolean()))
-            .thenReturn(false);
+        when(checker.canPassCheck(any(FlowCheck.class), any(Context.class), any(DefaultNode.class), anyInt(),
+            anyBoolean())).thenReturn(true);
 
         flowSlot.checkFlow(new StringResourceWrapper(resA, EntryType.IN), context, node, 1, false);
         flowSlot.checkFlow(new StringResourceWrapper(resB, EntryType.IN), context, node, 1, false);
+        // No flow check for resB.
+        verify(checker, times(1)).canPassCheck(any(FlowCheck.class), any(Context.class), any(DefaultNode.class),
+            anyInt(), anyBoolean());
     }
 
     @Test(expected = FlowException.class)
@@ -81,15 +104,15 @@ public class FlowSlotTest {
         FlowSlot flowSlot = new FlowSlot(checker);
         Context context = mock(Context.class);
         DefaultNode node = mock(DefaultNode.class);
-        doCallRealMethod().when(checker).checkFlow(any(Function.class), any(ResourceWrapper.class), any(Context.class),
-            any(DefaultNode.class), anyInt(), anyBoolean());
+        doCallRealMethod().when(checker).checkFlow(any(List.class), any(Context.class), any(DefaultNode.class),
+            anyInt(), anyBoolean());
 
         String resA = "resAK";
         FlowRule rule = new FlowRule(resA).setCount(10);
         FlowRuleManager.loadRules(Collections.singletonList(rule));
 
-        when(checker.canPassCheck(any(FlowRule.class), any(Context.class), any(DefaultNode.class), anyInt(), anyBoolean()))
-            .thenReturn(false);
+        when(checker.canPassCheck(any(FlowCheck.class), any(Context.class), any(DefaultNode.class), anyInt(),
+            anyBoolean())).thenReturn(false);
 
         flowSlot.checkFlow(new StringResourceWrapper(resA, EntryType.IN), context, node, 1, false);
     }
@@ -1,7 +1,11 @@
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
+import java.util.concurrent.TimeUnit;
+
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.DeferredPacing;
+import com.alibaba.csp.sentinel.slots.block.flow.PriorityWaitException;
 import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
 
 import org.junit.Test;
@@ -38,6 +42,30 @@ public class DefaultControllerTest {
         assertFalse(controller.canPass(node, 1));
     }
 
+    @Test
+    public void testPrioritizedWaitDeferred() {
+        double threshold = 10;
+        TrafficShapingController controller = new DefaultController(threshold, RuleConstant.FLOW_GRADE_QPS);
+        Node node = mock(Node.class);
+        when(node.passQps()).thenReturn(threshold);
+        when(node.tryOccupyNext(anyLong(), anyInt(), anyDouble())).thenReturn(400L);
+
+        long start = System.currentTimeMillis();
+        long waitNanos;
+        DeferredPacing.begin();
+        try {
+            controller.canPass(node, 1, true);
+            fail("PriorityWaitException expected");
+        } catch (PriorityWaitException ex) {
+            assertEquals(400, ex.getWaitInMs());
+        } finally {
+            waitNanos = DeferredPacing.end();
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(400), waitNanos);
+        assertTrue(System.currentTimeMillis() - start < 300);
+        verify(node).addWaitingRequest(anyLong(), eq(1));
+    }
+
     @Test
     public void testCanPassForQpsMultiThread() {
     }
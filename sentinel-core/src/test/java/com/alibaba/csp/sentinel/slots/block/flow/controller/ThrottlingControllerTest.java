@@ -16,9 +16,11 @@
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.DeferredPacing;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import org.junit.Test;
@@ -84,6 +86,35 @@ public class ThrottlingControllerTest {
         assertTrue(blockCount.get() > 0);
     }
 
+    @Test
+    public void testThrottlingControllerDeferredPacing() {
+        ThrottlingController paceController = new ThrottlingController(500, 10d);
+        Node node = mock(Node.class);
+
+        long start = TimeUtil.currentTimeMillis();
+        long totalWaitNanos = 0;
+        for (int i = 0; i < 6; i++) {
+            DeferredPacing.begin();
+            try {
+                assertTrue(paceController.canPass(node, 1));
+            } finally {
+                long waitNanos = DeferredPacing.end();
+                assertTrue(waitNanos >= totalWaitNanos);
+                totalWaitNanos = waitNanos;
+            }
+        }
+        // Current thread is not blocked, but the queued requests should be delayed by the caller.
+        assertTrue(TimeUtil.currentTimeMillis() - start < 300);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(totalWaitNanos) > 400);
+        // The queue is full.
+        DeferredPacing.begin();
+        try {
+            assertFalse(paceController.canPass(node, 1));
+        } finally {
+            DeferredPacing.end();
+        }
+    }
+
     @Test
     public void testThrottlingControllerZeroThreshold() throws InterruptedException {
         ThrottlingController paceController = new ThrottlingController(500, 0d);
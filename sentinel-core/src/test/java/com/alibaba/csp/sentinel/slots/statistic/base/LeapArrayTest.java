@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.slots.statistic.base;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import org.junit.Test;
 
@@ -66,4 +67,45 @@ public class LeapArrayTest extends AbstractTimeBasedTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLockFreeRotation() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_WINDOW_ROTATION, SentinelConfig.STATISTIC_WINDOW_ROTATION_CAS);
+        try {
+            int windowLengthInMs = 100;
+            int intervalInMs = 1000;
+            int sampleCount = intervalInMs / windowLengthInMs;
+            final AtomicInteger resetCount = new AtomicInteger();
+            LeapArray<AtomicInteger> leapArray = new LeapArray<AtomicInteger>(sampleCount, intervalInMs) {
+                @Override
+                public AtomicInteger newEmptyBucket(long time) {
+                    return new AtomicInteger(0);
+                }
+
+                @Override
+                protected WindowWrap<AtomicInteger> resetWindowTo(WindowWrap<AtomicInteger> windowWrap, long startTime) {
+                    resetCount.incrementAndGet();
+                    windowWrap.resetTo(startTime);
+                    windowWrap.value().set(0);
+                    return windowWrap;
+                }
+            };
+            assertTrue(leapArray.isLockFreeRotation());
+
+            long time = 1000;
+            WindowWrap<AtomicInteger> first = leapArray.currentWindow(time);
+            first.value().addAndGet(5);
+            assertSame(first, leapArray.currentWindow(time + 10));
+
+            WindowWrap<AtomicInteger> rotated = leapArray.currentWindow(time + intervalInMs);
+            assertNotSame(first, rotated);
+            assertEquals(time + intervalInMs, rotated.windowStart());
+            assertEquals(0, rotated.value().get());
+            // The replaced bucket is left untouched for readers that still hold it.
+            assertEquals(time, first.windowStart());
+            assertEquals(5, first.value().get());
+            assertEquals(0, resetCount.get());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.STATISTIC_WINDOW_ROTATION);
+        }
+    }
+}
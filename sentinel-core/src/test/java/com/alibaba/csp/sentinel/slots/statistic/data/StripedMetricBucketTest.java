@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.CountDownLatch;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link StripedMetricBucket}.
+ */
+public class StripedMetricBucketTest {
+
+    @After
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_BUCKET_TYPE);
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES);
+    }
+
+    @Test
+    public void testStripeCountRoundedToPowerOfTwo() {
+        assertEquals(1, new StripedMetricBucket(1).stripeCount());
+        assertEquals(4, new StripedMetricBucket(3).stripeCount());
+        assertEquals(8, new StripedMetricBucket(8).stripeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStripeCount() {
+        new StripedMetricBucket(0);
+    }
+
+    @Test
+    public void testAddAndReset() {
+        MetricBucket bucket = new StripedMetricBucket(4);
+        bucket.addPass(3);
+        bucket.addBlock(2);
+        bucket.addRT(20);
+        bucket.addRT(10);
+        assertEquals(3, bucket.pass());
+        assertEquals(2, bucket.block());
+        assertEquals(30, bucket.rt());
+        assertEquals(10, bucket.minRt());
+
+        bucket.reset();
+        for (MetricEvent event : MetricEvent.values()) {
+            assertEquals(0, bucket.get(event));
+        }
+        assertEquals(SentinelConfig.statisticMaxRt(), bucket.minRt());
+    }
+
+    @Test
+    public void testResetFromOtherBucket() {
+        MetricBucket source = new MetricBucket();
+        source.addPass(5);
+        source.addOccupiedPass(2);
+
+        MetricBucket bucket = new StripedMetricBucket(2);
+        bucket.addException(7);
+        bucket.reset(source);
+        assertEquals(5, bucket.pass());
+        assertEquals(2, bucket.occupiedPass());
+        assertEquals(0, bucket.exception());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        final MetricBucket bucket = new StripedMetricBucket(4);
+        final int threads = 8;
+        final int perThread = 10000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < perThread; j++) {
+                        bucket.addPass(1);
+                        bucket.addSuccess(2);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        assertEquals(threads * perThread, bucket.pass());
+        assertEquals(2L * threads * perThread, bucket.success());
+    }
+
+    @Test
+    public void testFactorySelectsConfiguredType() {
+        assertSame(MetricBucket.class, MetricBucketFactory.newBucket().getClass());
+
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_TYPE, SentinelConfig.STATISTIC_BUCKET_TYPE_STRIPED);
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES, "2");
+        MetricBucket bucket = MetricBucketFactory.newBucket();
+        assertTrue(bucket instanceof StripedMetricBucket);
+        assertEquals(2, ((StripedMetricBucket) bucket).stripeCount());
+
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES, "-1");
+        assertEquals(SentinelConfig.DEFAULT_STATISTIC_BUCKET_STRIPES, SentinelConfig.statisticBucketStripes());
+    }
+}
@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -25,6 +26,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.clock.ManualClock;
 import com.alibaba.csp.sentinel.util.function.Tuple2;
 
 /**
@@ -104,4 +106,19 @@ public class TimeUtilTest {
         shouldShutdown.set(true);
     }
     
+    @Test
+    public void testReplaceClock() {
+        ManualClock clock = new ManualClock(1000);
+        TimeUtil.setClock(clock);
+        try {
+            assertSame(clock, TimeUtil.getClock());
+            assertEquals(1000, TimeUtil.currentTimeMillis());
+            clock.advance(500);
+            assertEquals(1500, TimeUtil.currentTimeMillis());
+        } finally {
+            TimeUtil.resetClock();
+        }
+        assertTrue(Math.abs(TimeUtil.currentTimeMillis() - System.currentTimeMillis()) < 1000);
+    }
+
 }
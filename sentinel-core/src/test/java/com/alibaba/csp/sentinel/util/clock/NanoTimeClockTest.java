@@ -0,0 +1,43 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link NanoTimeClock}.
+ */
+public class NanoTimeClockTest {
+
+    @Test
+    public void testMonotonicAndCloseToWallClock() throws InterruptedException {
+        NanoTimeClock clock = new NanoTimeClock();
+        long last = clock.currentTimeMillis();
+        assertTrue(Math.abs(last - System.currentTimeMillis()) < 50);
+        for (int i = 0; i < 100000; i++) {
+            long now = clock.currentTimeMillis();
+            assertTrue(now >= last);
+            last = now;
+        }
+        long before = clock.currentTimeMillis();
+        TimeUnit.MILLISECONDS.sleep(20);
+        assertTrue(clock.currentTimeMillis() - before >= 20);
+    }
+}
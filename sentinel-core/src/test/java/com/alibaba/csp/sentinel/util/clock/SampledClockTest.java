@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link SampledClock}.
+ */
+public class SampledClockTest {
+
+    @Test
+    public void testSwitchModeByReadRate() throws InterruptedException {
+        SampledClock clock = new SampledClock(200);
+        assertFalse(clock.isTicking());
+
+        // Busy reads.
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!clock.isTicking() && System.currentTimeMillis() < deadline) {
+            long now = clock.currentTimeMillis();
+            assertTrue(Math.abs(now - System.currentTimeMillis()) < 50);
+        }
+        assertTrue(clock.isTicking());
+        assertTrue(Math.abs(clock.currentTimeMillis() - System.currentTimeMillis()) < 50);
+
+        // No reads any more.
+        deadline = System.currentTimeMillis() + 2000;
+        while (clock.isTicking() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        assertFalse(clock.isTicking());
+        clock.close();
+    }
+
+    @Test
+    public void testKeepTickingWhileReadByThreads() throws InterruptedException {
+        final SampledClock clock = new SampledClock(200);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!clock.isTicking() && System.currentTimeMillis() < deadline) {
+            clock.currentTimeMillis();
+        }
+        assertTrue(clock.isTicking());
+
+        // Keep reading from several threads over several check intervals.
+        final AtomicBoolean switched = new AtomicBoolean(false);
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long end = System.currentTimeMillis() + 1000;
+                    while (System.currentTimeMillis() < end) {
+                        clock.currentTimeMillis();
+                        if (!clock.isTicking()) {
+                            switched.set(true);
+                        }
+                    }
+                }
+            });
+            readers[i].start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertFalse(switched.get());
+        clock.close();
+    }
+
+    @Test
+    public void testClose() throws InterruptedException {
+        SampledClock clock = new SampledClock(200);
+        clock.close();
+        clock.getTickThread().join(2000);
+        assertFalse(clock.getTickThread().isAlive());
+        assertFalse(clock.isTicking());
+        assertTrue(Math.abs(clock.currentTimeMillis() - System.currentTimeMillis()) < 50);
+    }
+
+    @Test
+    public void testClosedOnceReplaced() throws InterruptedException {
+        SampledClock clock = new SampledClock();
+        TimeUtil.setClock(clock);
+        TimeUtil.resetClock();
+        assertNotSame(clock, TimeUtil.getClock());
+        clock.getTickThread().join(2000);
+        assertFalse(clock.getTickThread().isAlive());
+    }
+}
@@ -17,11 +17,9 @@
 
 package com.alibaba.csp.sentinel.metric.collector;
 
-import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.node.ActiveClusterNodes;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
-import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
-import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import java.util.HashMap;
@@ -47,12 +45,9 @@ public class MetricCollector {
         final long maxTime = currentTime - currentTime % 1000;
         final long minTime = maxTime - 1000;
         Map<String, MetricNode> metricNodeMap = new HashMap<>();
-        for (Map.Entry<ResourceWrapper, ClusterNode> e : ClusterBuilderSlot.getClusterNodeMap().entrySet()) {
-            ClusterNode node = e.getValue();
-            List<MetricNode> metrics = getLastMetrics(node, minTime, maxTime);
-            aggregate(metricNodeMap, metrics, node);
-        }
-        aggregate(metricNodeMap, getLastMetrics(Constants.ENTRY_NODE, minTime, maxTime), Constants.ENTRY_NODE);
+        // Only nodes (including the entry node) active since the last second can have metrics of the last second.
+        ActiveClusterNodes.forEach(minTime,
+            node -> aggregate(metricNodeMap, getLastMetrics(node, minTime, maxTime), node));
         return metricNodeMap;
     }
     
@@ -25,9 +25,10 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
+import com.alibaba.csp.sentinel.slots.statistic.cache.StripedLongStateTable;
+import com.alibaba.csp.sentinel.slots.statistic.data.HeavyHitterCounter;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
-import java.lang.reflect.Array;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +43,14 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public final class ParamFlowChecker {
 
+    /**
+     * Token states in {@link StripedLongStateTable} are packed as
+     * {@code (lastAddTokenTime + 1) << TOKEN_BITS | restTokens}, so that they are never
+     * {@link StripedLongStateTable#ABSENT}. Larger thresholds go to the general token counters.
+     */
+    private static final int TOKEN_BITS = 21;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
     public static boolean passCheck(ResourceWrapper resourceWrapper, /*@Valid*/ ParamFlowRule rule, /*@Valid*/ int count,
                                     Object... args) {
         if (args == null) {
@@ -57,9 +66,7 @@ public final class ParamFlowChecker {
         Object value = args[paramIdx];
 
         // Assign value with the result of paramFlowKey method
-        if (value instanceof ParamFlowArgument) {
-            value = ((ParamFlowArgument) value).paramFlowKey();
-        }
+        value = ParamShape.unwrap(value);
         // If value is null, then pass
         if (value == null) {
             return true;
@@ -75,23 +82,12 @@ public final class ParamFlowChecker {
     private static boolean passLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int count,
                                           Object value) {
         try {
-            if (Collection.class.isAssignableFrom(value.getClass())) {
-                for (Object param : ((Collection) value)) {
-                    if (!passSingleValueCheck(resourceWrapper, rule, count, param)) {
-                        return false;
-                    }
-                }
-            } else if (value.getClass().isArray()) {
-                int length = Array.getLength(value);
-                for (int i = 0; i < length; i++) {
-                    Object param = Array.get(value, i);
-                    if (!passSingleValueCheck(resourceWrapper, rule, count, param)) {
-                        return false;
-                    }
-                }
-            } else {
+            ParamShape shape = ParamShape.of(value);
+            if (shape == ParamShape.SINGLE) {
+                // Check single values directly, without allocating the context of the visit.
                 return passSingleValueCheck(resourceWrapper, rule, count, value);
             }
+            return shape.forEach(value, LOCAL_VALUE_CHECK, new LocalValueCheck(resourceWrapper, rule, count));
         } catch (Throwable e) {
             RecordLog.warn("[ParamFlowChecker] Unexpected error", e);
         }
@@ -99,10 +95,32 @@ public final class ParamFlowChecker {
         return true;
     }
 
+    private static final class LocalValueCheck {
+        private final ResourceWrapper resourceWrapper;
+        private final ParamFlowRule rule;
+        private final int count;
+
+        LocalValueCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int count) {
+            this.resourceWrapper = resourceWrapper;
+            this.rule = rule;
+            this.count = count;
+        }
+    }
+
+    private static final ParamShape.Visitor<LocalValueCheck> LOCAL_VALUE_CHECK
+        = new ParamShape.Visitor<LocalValueCheck>() {
+        @Override
+        public boolean visit(LocalValueCheck check, Object value) {
+            return passSingleValueCheck(check.resourceWrapper, check.rule, check.count, value);
+        }
+    };
+
     static boolean passSingleValueCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                         Object value) {
         if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS) {
-            if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER) {
+            if (ParamFlowRuleUtil.isApproximateRule(rule)) {
+                return passApproximateLocalCheck(resourceWrapper, rule, acquireCount, value);
+            } else if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER) {
                 return passThrottleLocalCheck(resourceWrapper, rule, acquireCount, value);
             } else {
                 return passDefaultLocalCheck(resourceWrapper, rule, acquireCount, value);
@@ -147,6 +165,12 @@ public final class ParamFlowChecker {
             return false;
         }
 
+        StripedLongStateTable stateTable = metric.getRuleStateTable(rule);
+        if (stateTable != null && maxCount <= TOKEN_MASK && ParamStateKeys.isSupported(value)) {
+            return passDefaultStateCheck(stateTable, ParamStateKeys.toKey(value), rule, acquireCount, tokenCount,
+                maxCount);
+        }
+
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
 
@@ -193,6 +217,28 @@ public final class ParamFlowChecker {
         }
     }
 
+    static boolean passApproximateLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
+                                             Object value) {
+        ParameterMetric metric = getParameterMetric(resourceWrapper);
+        HeavyHitterCounter counter = metric == null ? null : metric.getRuleHeavyHitterCounter(rule);
+        if (counter == null) {
+            return passDefaultLocalCheck(resourceWrapper, rule, acquireCount, value);
+        }
+
+        // Calculate max token count (threshold)
+        Set<Object> exclusionItems = rule.getParsedHotItems().keySet();
+        long tokenCount = (long) rule.getCount();
+        if (exclusionItems.contains(value)) {
+            tokenCount = rule.getParsedHotItems().get(value);
+        }
+
+        if (tokenCount == 0) {
+            return false;
+        }
+        return counter.tryAcquire(ParamStateKeys.toApproximateKey(value), acquireCount,
+            tokenCount + rule.getBurstCount(), TimeUtil.currentTimeMillis());
+    }
+
     static boolean passThrottleLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                           Object value) {
         ParameterMetric metric = getParameterMetric(resourceWrapper);
@@ -213,6 +259,10 @@ public final class ParamFlowChecker {
         }
 
         long costTime = Math.round(1.0 * 1000 * acquireCount * rule.getDurationInSec() / tokenCount);
+        StripedLongStateTable stateTable = metric.getRuleStateTable(rule);
+        if (stateTable != null && ParamStateKeys.isSupported(value)) {
+            return passThrottleStateCheck(stateTable, ParamStateKeys.toKey(value), rule, costTime);
+        }
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
             AtomicLong timeRecorder = timeRecorderMap.putIfAbsent(value, new AtomicLong(currentTime));
@@ -245,26 +295,111 @@ public final class ParamFlowChecker {
         }
     }
 
+    /**
+     * Same as the token counter path of {@link #passDefaultLocalCheck}, but with the packed state in the table.
+     */
+    private static boolean passDefaultStateCheck(StripedLongStateTable stateTable, long key, ParamFlowRule rule,
+                                                 int acquireCount, long tokenCount, long maxCount) {
+        while (true) {
+            long currentTime = TimeUtil.currentTimeMillis();
+            long lastState = stateTable.get(key);
+            if (lastState == StripedLongStateTable.ABSENT) {
+                // Token never added, just replenish the tokens and consume {@code acquireCount} immediately.
+                if (stateTable.compareAndSet(key, lastState, packTokenState(currentTime, maxCount - acquireCount))) {
+                    return true;
+                }
+                continue;
+            }
+
+            long lastAddTokenTime = (lastState >>> TOKEN_BITS) - 1;
+            long restQps = lastState & TOKEN_MASK;
+            long passTime = currentTime - lastAddTokenTime;
+            long newState;
+            if (passTime > rule.getDurationInSec() * 1000) {
+                long toAddCount = (passTime * tokenCount) / (rule.getDurationInSec() * 1000);
+                long newQps = toAddCount + restQps > maxCount ? (maxCount - acquireCount)
+                    : (restQps + toAddCount - acquireCount);
+                if (newQps < 0) {
+                    return false;
+                }
+                newState = packTokenState(currentTime, newQps);
+            } else {
+                long newQps = restQps - acquireCount;
+                if (newQps < 0) {
+                    return false;
+                }
+                newState = packTokenState(lastAddTokenTime, newQps);
+            }
+            if (stateTable.compareAndSet(key, lastState, newState)) {
+                return true;
+            }
+            Thread.yield();
+        }
+    }
+
+    private static long packTokenState(long lastAddTokenTime, long restTokens) {
+        return ((lastAddTokenTime + 1) << TOKEN_BITS) | restTokens;
+    }
+
+    /**
+     * Same as the time recorder path of {@link #passThrottleLocalCheck}, the state is {@code lastPassTime + 1}.
+     */
+    private static boolean passThrottleStateCheck(StripedLongStateTable stateTable, long key, ParamFlowRule rule,
+                                                  long costTime) {
+        while (true) {
+            long currentTime = TimeUtil.currentTimeMillis();
+            long lastState = stateTable.get(key);
+            if (lastState == StripedLongStateTable.ABSENT) {
+                if (stateTable.compareAndSet(key, lastState, currentTime + 1)) {
+                    return true;
+                }
+                continue;
+            }
+
+            long expectedTime = lastState - 1 + costTime;
+            if (expectedTime <= currentTime || expectedTime - currentTime < rule.getMaxQueueingTimeMs()) {
+                long waitTime = expectedTime - currentTime;
+                if (stateTable.compareAndSet(key, lastState, Math.max(expectedTime, currentTime) + 1)) {
+                    if (waitTime > 0) {
+                        try {
+                            TimeUnit.MILLISECONDS.sleep(waitTime);
+                        } catch (InterruptedException e) {
+                            RecordLog.warn("passThrottleLocalCheck: wait interrupted", e);
+                        }
+                    }
+                    return true;
+                }
+                Thread.yield();
+            } else {
+                return false;
+            }
+        }
+    }
+
     private static ParameterMetric getParameterMetric(ResourceWrapper resourceWrapper) {
         // Should not be null.
         return ParameterMetricStorage.getParamMetric(resourceWrapper);
     }
 
+    private static final ParamShape.Visitor<List<Object>> COLLECT = new ParamShape.Visitor<List<Object>>() {
+        @Override
+        public boolean visit(List<Object> params, Object value) {
+            return params.add(value);
+        }
+    };
+
     @SuppressWarnings("unchecked")
     private static Collection<Object> toCollection(Object value) {
         if (value instanceof Collection) {
             return (Collection<Object>) value;
-        } else if (value.getClass().isArray()) {
-            List<Object> params = new ArrayList<Object>();
-            int length = Array.getLength(value);
-            for (int i = 0; i < length; i++) {
-                Object param = Array.get(value, i);
-                params.add(param);
-            }
-            return params;
-        } else {
+        }
+        ParamShape shape = ParamShape.of(value);
+        if (shape == ParamShape.SINGLE) {
             return Collections.singletonList(value);
         }
+        List<Object> params = new ArrayList<Object>(shape.size(value));
+        shape.forEach(value, COLLECT, params);
+        return params;
     }
 
     private static boolean passClusterCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int count,
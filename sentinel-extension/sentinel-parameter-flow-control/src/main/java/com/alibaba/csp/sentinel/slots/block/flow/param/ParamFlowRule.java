@@ -63,6 +63,19 @@ public class ParamFlowRule extends AbstractRule {
     private int burstCount = 0;
     private long durationInSec = 1;
 
+    /**
+     * Whether to count parameter values approximately (since 1.8.9), for parameters of unbounded cardinality
+     * like user IDs or IPs. Only works for the QPS grade with the default control behavior.
+     *
+     * <p>In this mode, at most {@code count + burstCount} requests of each value are allowed in a sliding window of
+     * {@code durationInSec}, counted in a Count-Min Sketch of bounded memory together with an exact table of
+     * the heaviest values. The count of a value is never under-estimated, even if the values churn, but it may be
+     * over-estimated by about 0.03% of the total requests of the window. So a flood of distinct values makes the
+     * limit of other values stricter in proportion: 10 million requests in a window may over-count a value by
+     * about 3300.</p>
+     */
+    private boolean approximate = false;
+
     /**
      * Original exclusion items of parameters.
      */
@@ -118,6 +131,15 @@ public class ParamFlowRule extends AbstractRule {
         return this;
     }
 
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    public ParamFlowRule setApproximate(boolean approximate) {
+        this.approximate = approximate;
+        return this;
+    }
+
     public int getGrade() {
         return grade;
     }
@@ -202,6 +224,7 @@ public class ParamFlowRule extends AbstractRule {
         if (maxQueueingTimeMs != that.maxQueueingTimeMs) { return false; }
         if (burstCount != that.burstCount) { return false; }
         if (durationInSec != that.durationInSec) { return false; }
+        if (approximate != that.approximate) { return false; }
         if (clusterMode != that.clusterMode) { return false; }
         if (!Objects.equals(paramIdx, that.paramIdx)) { return false; }
         if (!Objects.equals(paramFlowItemList, that.paramFlowItemList)) { return false; }
@@ -220,6 +243,7 @@ public class ParamFlowRule extends AbstractRule {
         result = 31 * result + maxQueueingTimeMs;
         result = 31 * result + burstCount;
         result = 31 * result + (int)(durationInSec ^ (durationInSec >>> 32));
+        result = 31 * result + (approximate ? 1 : 0);
         result = 31 * result + (paramFlowItemList != null ? paramFlowItemList.hashCode() : 0);
         result = 31 * result + (clusterMode ? 1 : 0);
         result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
@@ -236,6 +260,7 @@ public class ParamFlowRule extends AbstractRule {
             ", maxQueueingTimeMs=" + maxQueueingTimeMs +
             ", burstCount=" + burstCount +
             ", durationInSec=" + durationInSec +
+            ", approximate=" + approximate +
             ", paramFlowItemList=" + paramFlowItemList +
             ", clusterMode=" + clusterMode +
             ", clusterConfig=" + clusterConfig +
@@ -76,6 +76,18 @@ public final class ParamFlowRuleUtil {
         return true;
     }
 
+    /**
+     * Check whether the parameter values of provided rule are counted approximately.
+     *
+     * @param rule valid parameter rule
+     * @return true if the rule is approximate and works for local QPS check with the default behavior
+     * @since 1.8.9
+     */
+    static boolean isApproximateRule(ParamFlowRule rule) {
+        return rule.isApproximate() && rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
+    }
+
     public static boolean validClusterRuleId(Long id) {
         return id != null && id > 0;
     }
@@ -0,0 +1,307 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * <p>Accessors of parameter values by the shape of the argument: a single value, an array (of objects or
+ * primitives), or a collection. The values are visited inside the shape: elements of arrays and random-access
+ * lists are read by index, without reflection or iterators, and other collections are iterated.</p>
+ *
+ * <p>Elements of primitive arrays are boxed before being visited, as the counters of parameter values
+ * are keyed by objects. Values outside of the boxing caches (e.g. -128..127 for integers) allocate on every
+ * read.</p>
+ *
+ * <p>{@link ParamFlowArgument}s should be unwrapped via {@link #unwrap(Object)} before resolving the shape.</p>
+ *
+ * @since 1.8.9
+ */
+abstract class ParamShape {
+
+    /**
+     * Visitor of parameter values. The state of a visit is passed as the context, so that visitors
+     * can be shared constants instead of capturing the state.
+     *
+     * @param <C> type of the context
+     */
+    interface Visitor<C> {
+
+        /**
+         * @param context the context of the visit
+         * @param value   the parameter value, may be null
+         * @return true to continue, false to stop visiting the remaining values
+         */
+        boolean visit(C context, Object value);
+    }
+
+    /**
+     * @param value the argument, not null
+     * @return amount of parameter values of the argument
+     */
+    abstract int size(Object value);
+
+    /**
+     * Visit the parameter values of the argument in order.
+     *
+     * @param value   the argument, not null
+     * @param visitor the visitor
+     * @param context the context passed to the visitor
+     * @return true if all values have been visited, false if the visitor stopped
+     */
+    abstract <C> boolean forEach(Object value, Visitor<C> visitor, C context);
+
+    /**
+     * @param arg the argument
+     * @return the key of the argument if it is a {@link ParamFlowArgument}, otherwise the argument itself
+     */
+    static Object unwrap(Object arg) {
+        return arg instanceof ParamFlowArgument ? ((ParamFlowArgument)arg).paramFlowKey() : arg;
+    }
+
+    /**
+     * @param value the (unwrapped) argument, not null
+     * @return the shape of the argument
+     */
+    static ParamShape of(Object value) {
+        if (value instanceof Collection) {
+            return value instanceof List && value instanceof RandomAccess ? LIST : ITERABLE;
+        }
+        if (!value.getClass().isArray()) {
+            return SINGLE;
+        }
+        if (value instanceof Object[]) {
+            return OBJECT_ARRAY;
+        } else if (value instanceof long[]) {
+            return LONG_ARRAY;
+        } else if (value instanceof int[]) {
+            return INT_ARRAY;
+        } else if (value instanceof short[]) {
+            return SHORT_ARRAY;
+        } else if (value instanceof byte[]) {
+            return BYTE_ARRAY;
+        } else if (value instanceof char[]) {
+            return CHAR_ARRAY;
+        } else if (value instanceof boolean[]) {
+            return BOOLEAN_ARRAY;
+        } else if (value instanceof double[]) {
+            return DOUBLE_ARRAY;
+        }
+        return FLOAT_ARRAY;
+    }
+
+    static final ParamShape SINGLE = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return 1;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            return visitor.visit(context, value);
+        }
+    };
+
+    static final ParamShape ITERABLE = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((Collection<?>)value).size();
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (Object element : (Collection<?>)value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape LIST = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((List<?>)value).size();
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            List<?> list = (List<?>)value;
+            for (int i = 0, size = list.size(); i < size; i++) {
+                if (!visitor.visit(context, list.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape OBJECT_ARRAY = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((Object[])value).length;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (Object element : (Object[])value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape LONG_ARRAY = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((long[])value).length;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (long element : (long[])value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape INT_ARRAY = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((int[])value).length;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (int element : (int[])value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape SHORT_ARRAY = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((short[])value).length;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (short element : (short[])value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape BYTE_ARRAY = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((byte[])value).length;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (byte element : (byte[])value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape CHAR_ARRAY = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((char[])value).length;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (char element : (char[])value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape BOOLEAN_ARRAY = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((boolean[])value).length;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (boolean element : (boolean[])value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape DOUBLE_ARRAY = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((double[])value).length;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (double element : (double[])value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    static final ParamShape FLOAT_ARRAY = new ParamShape() {
+        @Override
+        int size(Object value) {
+            return ((float[])value).length;
+        }
+
+        @Override
+        <C> boolean forEach(Object value, Visitor<C> visitor, C context) {
+            for (float element : (float[])value) {
+                if (!visitor.visit(context, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+}
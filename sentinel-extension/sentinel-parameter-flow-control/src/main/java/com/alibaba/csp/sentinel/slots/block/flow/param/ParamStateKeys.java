@@ -0,0 +1,75 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+/**
+ * Maps parameter values of common types to the {@code long} keys of
+ * {@link com.alibaba.csp.sentinel.slots.statistic.cache.StripedLongStateTable}. Integral values are
+ * used as is, and strings are mapped to a 64-bit hash (collisions are negligible for hot parameters).
+ *
+ * @since 1.8.9
+ */
+final class ParamStateKeys {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * @param value the parameter value
+     * @return whether the value can be mapped to a {@code long} key
+     */
+    static boolean isSupported(Object value) {
+        return value instanceof String || value instanceof Long || value instanceof Integer
+            || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * @param value a supported parameter value
+     * @return the {@code long} key of the value
+     */
+    static long toKey(Object value) {
+        if (value instanceof String) {
+            return hash((String)value);
+        }
+        return ((Number)value).longValue();
+    }
+
+    /**
+     * @param value any parameter value
+     * @return the {@code long} key of supported values, or the spread hash code of other values
+     * (only for approximate counting, where collisions are tolerated)
+     */
+    static long toApproximateKey(Object value) {
+        if (isSupported(value)) {
+            return toKey(value);
+        }
+        long h = value.hashCode() * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static long hash(String value) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // Final avalanche so that short strings spread over all bits.
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        return h ^ (h >>> 33);
+    }
+
+    private ParamStateKeys() {}
+}
@@ -15,17 +15,18 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.param;
 
-import java.lang.reflect.Array;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
 import com.alibaba.csp.sentinel.slots.statistic.cache.ConcurrentLinkedHashMapWrapper;
+import com.alibaba.csp.sentinel.slots.statistic.cache.StripedLongStateTable;
+import com.alibaba.csp.sentinel.slots.statistic.data.HeavyHitterCounter;
 
 /**
  * Metrics for frequent ("hot spot") parameters.
@@ -38,24 +39,51 @@ public class ParameterMetric {
     private static final int THREAD_COUNT_MAX_CAPACITY = 4000;
     private static final int BASE_PARAM_MAX_CAPACITY = 4000;
     private static final int TOTAL_MAX_CAPACITY = 20_0000;
+    /**
+     * Max amount of values in the state table of a rule. The table grows on demand and takes 20 bytes
+     * per slot, so a rule with 4 million live values takes about 80 MB, and rules with few values stay small.
+     */
+    private static final int STATE_TABLE_MAX_CAPACITY = 400_0000;
 
-    private final Object lock = new Object();
+    /**
+     * Dimensions of the sketch for approximate rules: 3 tables (2 windows and a spare) * 4 rows * 8192 columns
+     * of int (384 KB, plus about 20 KB for the top-K table), with the error of {@code e / 8192} (about 0.03%)
+     * of the total count of a window.
+     */
+    private static final int SKETCH_WIDTH = 8192;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_TOP_K = 1024;
 
     /**
      * Format: (rule, (value, timeRecorder))
      *
      * @since 1.6.0
      */
-    private final Map<ParamFlowRule, CacheMap<Object, AtomicLong>> ruleTimeCounters = new HashMap<>();
+    private final Map<ParamFlowRule, CacheMap<Object, AtomicLong>> ruleTimeCounters = new ConcurrentHashMap<>();
 
     /**
      * Format: (rule, (value, tokenCounter))
      *
      * @since 1.6.0
      */
-    private final Map<ParamFlowRule, CacheMap<Object, AtomicReference<TokenUpdateStatus>>> ruleTokenCounter = new HashMap<>();
+    private final Map<ParamFlowRule, CacheMap<Object, AtomicReference<TokenUpdateStatus>>> ruleTokenCounter = new ConcurrentHashMap<>();
 
-    private final Map<Integer, CacheMap<Object, AtomicInteger>> threadCountMap = new HashMap<>();
+    /**
+     * Format: (rule, (key, packedState)), used instead of the counters above for values
+     * of common types (see {@link ParamStateKeys}).
+     *
+     * @since 1.8.9
+     */
+    private final Map<ParamFlowRule, StripedLongStateTable> ruleStateTables = new ConcurrentHashMap<>();
+
+    /**
+     * Format: (rule, approximateCounter), for approximate rules.
+     *
+     * @since 1.8.9
+     */
+    private final Map<ParamFlowRule, HeavyHitterCounter> ruleHeavyHitterCounters = new ConcurrentHashMap<>();
+
+    private final Map<Integer, CacheMap<Object, AtomicInteger>> threadCountMap = new ConcurrentHashMap<>();
 
     /**
      * Get the token counter for given parameter rule.
@@ -68,12 +96,34 @@ public class ParameterMetric {
         return ruleTokenCounter.get(rule);
     }
 
+    /**
+     * Get the primitive-keyed state table for given parameter rule.
+     *
+     * @param rule valid parameter rule
+     * @return the associated state table, or null if absent
+     * @since 1.8.9
+     */
+    StripedLongStateTable getRuleStateTable(ParamFlowRule rule) {
+        return ruleStateTables.get(rule);
+    }
+
+    /**
+     * Get the approximate counter for given parameter rule.
+     *
+     * @param rule valid parameter rule
+     * @return the associated approximate counter, or null if the rule is not approximate
+     * @since 1.8.9
+     */
+    HeavyHitterCounter getRuleHeavyHitterCounter(ParamFlowRule rule) {
+        return ruleHeavyHitterCounters.get(rule);
+    }
+
     public void clear() {
-        synchronized (lock) {
-            ruleTimeCounters.clear();
-            ruleTokenCounter.clear();
-            threadCountMap.clear();
-        }
+        ruleTimeCounters.clear();
+        ruleTokenCounter.clear();
+        ruleStateTables.clear();
+        ruleHeavyHitterCounters.clear();
+        threadCountMap.clear();
     }
 
     /**
@@ -88,43 +138,40 @@ public class ParameterMetric {
     }
 
     public void clearForRule(ParamFlowRule rule) {
-        synchronized (lock) {
-            ruleTimeCounters.remove(rule);
-            ruleTokenCounter.remove(rule);
-            threadCountMap.remove(rule.getParamIdx());
-        }
+        ruleTimeCounters.remove(rule);
+        ruleTokenCounter.remove(rule);
+        ruleStateTables.remove(rule);
+        ruleHeavyHitterCounters.remove(rule);
+        threadCountMap.remove(rule.getParamIdx());
     }
 
     public void initialize(ParamFlowRule rule) {
-        if (!ruleTimeCounters.containsKey(rule)) {
-            synchronized (lock) {
-                if (ruleTimeCounters.get(rule) == null) {
-                    long size = Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
-                    ruleTimeCounters.put(rule, new ConcurrentLinkedHashMapWrapper<Object, AtomicLong>(size));
-                }
+        // Racing initializations may create redundant counters, only the first one is kept.
+        if (ParamFlowRuleUtil.isApproximateRule(rule)) {
+            // Approximate rules are counted in the sketch only.
+            if (!ruleHeavyHitterCounters.containsKey(rule)) {
+                ruleHeavyHitterCounters.putIfAbsent(rule, new HeavyHitterCounter(rule.getDurationInSec() * 1000,
+                    SKETCH_WIDTH, SKETCH_DEPTH, SKETCH_TOP_K));
             }
-        }
-
-        if (!ruleTokenCounter.containsKey(rule)) {
-            synchronized (lock) {
-                if (ruleTokenCounter.get(rule) == null) {
-                    long size = Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
-                    ruleTokenCounter.put(rule, new ConcurrentLinkedHashMapWrapper<>(size));
-                }
+        } else {
+            long size = Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
+            if (!ruleTimeCounters.containsKey(rule)) {
+                ruleTimeCounters.putIfAbsent(rule, new ConcurrentLinkedHashMapWrapper<Object, AtomicLong>(size));
+            }
+            if (!ruleTokenCounter.containsKey(rule)) {
+                ruleTokenCounter.putIfAbsent(rule,
+                    new ConcurrentLinkedHashMapWrapper<Object, AtomicReference<TokenUpdateStatus>>(size));
+            }
+            if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS && !ruleStateTables.containsKey(rule)) {
+                ruleStateTables.putIfAbsent(rule, new StripedLongStateTable(STATE_TABLE_MAX_CAPACITY));
             }
         }
-
         if (!threadCountMap.containsKey(rule.getParamIdx())) {
-            synchronized (lock) {
-                if (threadCountMap.get(rule.getParamIdx()) == null) {
-                    threadCountMap.put(rule.getParamIdx(),
-                        new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
-                }
-            }
+            threadCountMap.putIfAbsent(rule.getParamIdx(),
+                new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
         }
     }
 
-    @SuppressWarnings("rawtypes")
     public void decreaseThreadCount(Object... args) {
         if (args == null) {
             return;
@@ -137,53 +184,36 @@ public class ParameterMetric {
                     continue;
                 }
 
-                Object arg = args[index];
+                Object arg = ParamShape.unwrap(args[index]);
                 if (arg == null) {
                     continue;
                 }
-                if (Collection.class.isAssignableFrom(arg.getClass())) {
-
-                    for (Object value : ((Collection)arg)) {
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            int currentValue = oldValue.decrementAndGet();
-                            if (currentValue <= 0) {
-                                threadCount.remove(value);
-                            }
-                        }
-
-                    }
-                } else if (arg.getClass().isArray()) {
-                    int length = Array.getLength(arg);
-                    for (int i = 0; i < length; i++) {
-                        Object value = Array.get(arg, i);
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            int currentValue = oldValue.decrementAndGet();
-                            if (currentValue <= 0) {
-                                threadCount.remove(value);
-                            }
-                        }
-
-                    }
-                } else {
-                    AtomicInteger oldValue = threadCount.putIfAbsent(arg, new AtomicInteger());
-                    if (oldValue != null) {
-                        int currentValue = oldValue.decrementAndGet();
-                        if (currentValue <= 0) {
-                            threadCount.remove(arg);
-                        }
-                    }
-
-                }
-
+                ParamShape.of(arg).forEach(arg, DECREASE_THREAD_COUNT, threadCount);
             }
         } catch (Throwable e) {
             RecordLog.warn("[ParameterMetric] Param exception", e);
         }
     }
 
-    @SuppressWarnings("rawtypes")
+    private static final ParamShape.Visitor<CacheMap<Object, AtomicInteger>> DECREASE_THREAD_COUNT
+        = new ParamShape.Visitor<CacheMap<Object, AtomicInteger>>() {
+        @Override
+        public boolean visit(CacheMap<Object, AtomicInteger> threadCount, Object value) {
+            decreaseThreadCount(threadCount, value);
+            return true;
+        }
+    };
+
+    private static void decreaseThreadCount(CacheMap<Object, AtomicInteger> threadCount, Object value) {
+        if (value == null) {
+            return;
+        }
+        AtomicInteger counter = threadCount.get(value);
+        if (counter != null && counter.decrementAndGet() <= 0) {
+            threadCount.remove(value);
+        }
+    }
+
     public void addThreadCount(Object... args) {
         if (args == null) {
             return;
@@ -196,51 +226,38 @@ public class ParameterMetric {
                     continue;
                 }
 
-                Object arg = args[index];
-
+                Object arg = ParamShape.unwrap(args[index]);
                 if (arg == null) {
                     continue;
                 }
-
-                if (Collection.class.isAssignableFrom(arg.getClass())) {
-                    for (Object value : ((Collection)arg)) {
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            oldValue.incrementAndGet();
-                        } else {
-                            threadCount.put(value, new AtomicInteger(1));
-                        }
-
-                    }
-                } else if (arg.getClass().isArray()) {
-                    int length = Array.getLength(arg);
-                    for (int i = 0; i < length; i++) {
-                        Object value = Array.get(arg, i);
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            oldValue.incrementAndGet();
-                        } else {
-                            threadCount.put(value, new AtomicInteger(1));
-                        }
-
-                    }
-                } else {
-                    AtomicInteger oldValue = threadCount.putIfAbsent(arg, new AtomicInteger());
-                    if (oldValue != null) {
-                        oldValue.incrementAndGet();
-                    } else {
-                        threadCount.put(arg, new AtomicInteger(1));
-                    }
-
-                }
-
+                ParamShape.of(arg).forEach(arg, ADD_THREAD_COUNT, threadCount);
             }
-
         } catch (Throwable e) {
             RecordLog.warn("[ParameterMetric] Param exception", e);
         }
     }
 
+    private static final ParamShape.Visitor<CacheMap<Object, AtomicInteger>> ADD_THREAD_COUNT
+        = new ParamShape.Visitor<CacheMap<Object, AtomicInteger>>() {
+        @Override
+        public boolean visit(CacheMap<Object, AtomicInteger> threadCount, Object value) {
+            addThreadCount(threadCount, value);
+            return true;
+        }
+    };
+
+    private static void addThreadCount(CacheMap<Object, AtomicInteger> threadCount, Object value) {
+        if (value == null) {
+            return;
+        }
+        // Only allocate the counter when absent.
+        AtomicInteger counter = threadCount.get(value);
+        if (counter == null && (counter = threadCount.putIfAbsent(value, new AtomicInteger(1))) == null) {
+            return;
+        }
+        counter.incrementAndGet();
+    }
+
     public long getThreadCount(int index, Object value) {
         CacheMap<Object, AtomicInteger> cacheMap = threadCountMap.get(index);
         if (cacheMap == null) {
@@ -0,0 +1,247 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.cache;
+
+/**
+ * <p>A bounded table that maps {@code long} keys to {@code long} states, designed for millions of
+ * hot keys with small footprint (20 bytes per slot, no per-entry object).</p>
+ *
+ * <p>The table is split into lock-striped segments. Each segment is set-associative: a key can only
+ * live in one set of {@code 8} slots, and when the set is full, the least recently used slot of the set
+ * is evicted (so the LRU is approximate globally). Segments start small and grow on demand until the
+ * max capacity is reached.</p>
+ *
+ * <p>A state of {@link #ABSENT} means the key is absent, so it can never be stored.</p>
+ *
+ * @since 1.8.9
+ */
+public final class StripedLongStateTable {
+
+    /**
+     * State of absent keys.
+     */
+    public static final long ABSENT = 0;
+
+    private static final int WAYS = 8;
+    private static final int MAX_SEGMENTS = 64;
+    private static final int INITIAL_SETS = 4;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    public StripedLongStateTable(long maxCapacity) {
+        if (maxCapacity <= 0) {
+            throw new IllegalArgumentException("Table max capacity should be positive: " + maxCapacity);
+        }
+        int desired = Math.min(MAX_SEGMENTS, Runtime.getRuntime().availableProcessors() * 4);
+        int segmentCount = 1;
+        while (segmentCount < desired && (long)segmentCount * 2 * WAYS <= maxCapacity) {
+            segmentCount <<= 1;
+        }
+        long segmentCapacity = (maxCapacity + segmentCount - 1) / segmentCount;
+        int maxSets = (int)Math.min(Integer.MAX_VALUE / WAYS, (segmentCapacity + WAYS - 1) / WAYS);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxSets);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    /**
+     * @param key the key
+     * @return the state of the key, or {@link #ABSENT} if the key is absent
+     */
+    public long get(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).get(key, (int)(hash >>> 32));
+    }
+
+    /**
+     * Atomically set the state of the key if the current state equals the expected one. Expecting
+     * {@link #ABSENT} inserts the key (which may evict another key), and updating to {@link #ABSENT}
+     * removes the key.
+     *
+     * @param key    the key
+     * @param expect the expected state
+     * @param update the new state
+     * @return true if successful
+     */
+    public boolean compareAndSet(long key, long expect, long update) {
+        long hash = hash(key);
+        return segmentFor(hash).compareAndSet(key, (int)(hash >>> 32), expect, update);
+    }
+
+    /**
+     * @return approximate amount of keys
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int)hash & segmentMask];
+    }
+
+    private static long hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static final class Segment {
+
+        private final int maxSets;
+        private int sets;
+        private long[] keys;
+        private long[] states;
+        /**
+         * Access stamps for LRU, compared by subtraction so that overflow is fine.
+         */
+        private int[] stamps;
+        private int tick = 0;
+        volatile int size = 0;
+
+        Segment(int maxSets) {
+            this.maxSets = maxSets;
+            allocate(Math.min(INITIAL_SETS, maxSets));
+        }
+
+        private void allocate(int sets) {
+            this.sets = sets;
+            this.keys = new long[sets * WAYS];
+            this.states = new long[sets * WAYS];
+            this.stamps = new int[sets * WAYS];
+        }
+
+        synchronized long get(long key, int hash) {
+            int i = find(key, hash);
+            if (i < 0) {
+                return ABSENT;
+            }
+            stamps[i] = ++tick;
+            return states[i];
+        }
+
+        synchronized boolean compareAndSet(long key, int hash, long expect, long update) {
+            int i = find(key, hash);
+            long current = i < 0 ? ABSENT : states[i];
+            if (current != expect) {
+                return false;
+            }
+            if (i >= 0) {
+                states[i] = update;
+                stamps[i] = ++tick;
+                if (update == ABSENT) {
+                    size--;
+                }
+            } else if (update != ABSENT) {
+                insert(key, hash, update);
+            }
+            return true;
+        }
+
+        private int setBase(int hash) {
+            return ((hash & Integer.MAX_VALUE) % sets) * WAYS;
+        }
+
+        private int find(long key, int hash) {
+            int base = setBase(hash);
+            for (int i = base; i < base + WAYS; i++) {
+                if (states[i] != ABSENT && keys[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void insert(long key, int hash, long state) {
+            int slot = freeSlot(setBase(hash));
+            if (slot < 0 && sets < maxSets) {
+                rehash((int)Math.min(maxSets, sets * 2L));
+                slot = freeSlot(setBase(hash));
+            }
+            if (slot < 0) {
+                slot = lruSlot(setBase(hash));
+            } else {
+                size++;
+            }
+            keys[slot] = key;
+            states[slot] = state;
+            stamps[slot] = ++tick;
+        }
+
+        private int freeSlot(int base) {
+            for (int i = base; i < base + WAYS; i++) {
+                if (states[i] == ABSENT) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int lruSlot(int base) {
+            int lru = base;
+            for (int i = base + 1; i < base + WAYS; i++) {
+                if (stamps[i] - stamps[lru] < 0) {
+                    lru = i;
+                }
+            }
+            return lru;
+        }
+
+        private void rehash(int newSets) {
+            long[] oldKeys = keys;
+            long[] oldStates = states;
+            int[] oldStamps = stamps;
+            allocate(newSets);
+            int count = 0;
+            for (int i = 0; i < oldStates.length; i++) {
+                if (oldStates[i] == ABSENT) {
+                    continue;
+                }
+                int base = setBase((int)(hash(oldKeys[i]) >>> 32));
+                int slot = freeSlot(base);
+                if (slot < 0) {
+                    // Rarely happens as the sets get doubled, keep the more recently used one.
+                    slot = lruSlot(base);
+                    if (stamps[slot] - oldStamps[i] > 0) {
+                        continue;
+                    }
+                } else {
+                    count++;
+                }
+                keys[slot] = oldKeys[i];
+                states[slot] = oldStates[i];
+                stamps[slot] = oldStamps[i];
+            }
+            size = count;
+        }
+
+        synchronized void clear() {
+            allocate(Math.min(INITIAL_SETS, maxSets));
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.alibaba.csp.sentinel.slots.statistic.cache.StripedLongStateTable;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Approximate sliding-window counters for keys of unbounded cardinality, with bounded memory
+ * regardless of the amount of distinct keys.</p>
+ *
+ * <p>Counts of each window are kept in a Count-Min Sketch of {@code depth} rows and {@code width} columns.
+ * The estimated count of a key never falls below its real count, and exceeds it by at most
+ * {@code e / width} of the total count of the window with probability {@code 1 - e^-depth}. So flooding
+ * with distinct keys never hands out fresh quota as evicting exact counters does, but it makes the limit
+ * stricter in proportion to the flood: with 8192 columns, a flood of 10 million requests in a window may
+ * over-count a key by about 3300.</p>
+ *
+ * <p>Keys that reach half of their limit are promoted to a small exact top-K table, whose counters
+ * start from the estimation and only grow with the key's own traffic, so that heavy hitters are not
+ * penalized by collisions. The sliding count is {@code current + previous * (remaining part of current window)}.</p>
+ *
+ * <p>Acquisitions of a key are counted in the sketch before they are checked (and taken back if rejected),
+ * and the exact counters are updated by CAS and catch up with the acquisitions racing with the promotion,
+ * so concurrent acquisitions never exceed the limit together.</p>
+ *
+ * @since 1.8.9
+ */
+public class HeavyHitterCounter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int INDEX_BITS = 15;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    /**
+     * Top-K states are {@code 1 | windowIndex(15) | previousCount(24) | currentCount(24)}, where
+     * the highest bit keeps the state away from {@link StripedLongStateTable#ABSENT}.
+     */
+    private static final long PRESENT = Long.MIN_VALUE;
+
+    private static final int ACQUIRED = 1;
+    private static final int BLOCKED = 0;
+    private static final int EVICTED = -1;
+
+    private final long windowLengthInMs;
+    private final int depth;
+    private final int widthMask;
+    private final StripedLongStateTable topK;
+
+    private volatile Window current;
+    private volatile Window previous;
+    /**
+     * Cleared table of the next window, so that moving to the next window only swaps tables under the lock.
+     * Together with the current and previous windows, three tables are live.
+     */
+    private final AtomicReference<AtomicIntegerArray> spare = new AtomicReference<>();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    /**
+     * @param windowLengthInMs length of the sliding window
+     * @param width            columns of the sketch, rounded up to a power of two
+     * @param depth            rows of the sketch
+     * @param topK             capacity of the exact top-K table
+     */
+    public HeavyHitterCounter(long windowLengthInMs, int width, int depth, int topK) {
+        AssertUtil.isTrue(windowLengthInMs > 0, "windowLengthInMs should be positive");
+        AssertUtil.isTrue(width > 0 && width <= 1 << 30, "width should be in (0, 2^30]");
+        AssertUtil.isTrue(depth > 0, "depth should be positive");
+        this.windowLengthInMs = windowLengthInMs;
+        this.depth = depth;
+        int w = Integer.highestOneBit(width);
+        w = w < width ? w << 1 : w;
+        this.widthMask = w - 1;
+        this.current = new Window(Long.MIN_VALUE, newTable());
+        this.previous = current;
+        this.spare.set(newTable());
+        this.topK = new StripedLongStateTable(topK);
+    }
+
+    /**
+     * Count the acquired amount if the sliding count of the key would not exceed the limit.
+     *
+     * @param key          the key
+     * @param acquireCount amount to acquire
+     * @param limit        max sliding count of the key
+     * @param now          current time in milliseconds
+     * @return true if acquired
+     */
+    public boolean tryAcquire(long key, int acquireCount, long limit, long now) {
+        long index = now / windowLengthInMs;
+        double previousWeight = 1 - (double)(now - index * windowLengthInMs) / windowLengthInMs;
+        Window current = currentWindow(index);
+        Window previous = this.previous;
+        boolean hasPrevious = previous.index == index - 1;
+
+        // Count in the sketch before checking on any path, so that of any concurrent acquisitions of the key,
+        // the last one counted sees all the others, and the sketch still holds all of them once the key is
+        // evicted from top-K.
+        add(current, key, acquireCount);
+
+        long state = topK.get(key);
+        if (state != StripedLongStateTable.ABSENT) {
+            int result = tryAcquireExact(key, state, index, acquireCount, limit, previousWeight);
+            if (result == ACQUIRED) {
+                return true;
+            }
+            if (result == BLOCKED) {
+                add(current, key, -acquireCount);
+                return false;
+            }
+            // Evicted by others, check against the sketch.
+        }
+
+        long previousCount = hasPrevious ? estimate(previous, key) : 0;
+        long currentCount = estimate(current, key);
+        long count = currentCount + (long)(previousCount * previousWeight);
+        if (count > limit) {
+            add(current, key, -acquireCount);
+            return false;
+        }
+        if (count * 2 >= limit
+            && topK.compareAndSet(key, StripedLongStateTable.ABSENT, packState(index, previousCount, currentCount))) {
+            // Acquisitions counted in the sketch after the estimation but before the promotion have not seen
+            // the key in top-K, so add them to the exact counter as well.
+            long missed = estimate(current, key) - currentCount;
+            if (missed > 0) {
+                addExact(key, index, missed);
+            }
+        }
+        return true;
+    }
+
+    private void addExact(long key, long index, long count) {
+        while (true) {
+            long state = topK.get(key);
+            if (state == StripedLongStateTable.ABSENT
+                || ((state >>> (COUNT_BITS * 2)) & INDEX_MASK) != (index & INDEX_MASK)) {
+                // Evicted, or already moved to the next window by others.
+                return;
+            }
+            long currentCount = state & COUNT_MASK;
+            long previousCount = (state >>> COUNT_BITS) & COUNT_MASK;
+            if (topK.compareAndSet(key, state, packState(index, previousCount, currentCount + count))) {
+                return;
+            }
+        }
+    }
+
+    private int tryAcquireExact(long key, long state, long index, int acquireCount, long limit,
+                                double previousWeight) {
+        while (true) {
+            long stateIndex = (state >>> (COUNT_BITS * 2)) & INDEX_MASK;
+            long currentCount = state & COUNT_MASK;
+            long previousCount = (state >>> COUNT_BITS) & COUNT_MASK;
+            long passed = (index - stateIndex) & INDEX_MASK;
+            if (passed == 1) {
+                previousCount = currentCount;
+                currentCount = 0;
+            } else if (passed != 0) {
+                previousCount = 0;
+                currentCount = 0;
+            }
+            if (currentCount + (long)(previousCount * previousWeight) + acquireCount > limit) {
+                return BLOCKED;
+            }
+            if (topK.compareAndSet(key, state, packState(index, previousCount, currentCount + acquireCount))) {
+                return ACQUIRED;
+            }
+            state = topK.get(key);
+            if (state == StripedLongStateTable.ABSENT) {
+                return EVICTED;
+            }
+        }
+    }
+
+    /**
+     * @param key the key
+     * @param now current time in milliseconds
+     * @return estimated sliding count of the key
+     */
+    public long estimate(long key, long now) {
+        long index = now / windowLengthInMs;
+        double previousWeight = 1 - (double)(now - index * windowLengthInMs) / windowLengthInMs;
+        Window current = this.current;
+        // The current window becomes the previous one before any acquisition in the next window.
+        Window previous = current.index == index - 1 ? current : this.previous;
+        long currentCount = current.index == index ? estimate(current, key) : 0;
+        long previousCount = previous.index == index - 1 ? estimate(previous, key) : 0;
+        return currentCount + (long)(previousCount * previousWeight);
+    }
+
+    private static long packState(long index, long previousCount, long currentCount) {
+        return PRESENT | (index & INDEX_MASK) << (COUNT_BITS * 2)
+            | Math.min(previousCount, COUNT_MASK) << COUNT_BITS | Math.min(currentCount, COUNT_MASK);
+    }
+
+    private Window currentWindow(long index) {
+        while (true) {
+            Window window = current;
+            if (window.index >= index) {
+                // Also for the time going backwards, the counts fall into the latest window.
+                return window;
+            }
+            if (updateLock.tryLock()) {
+                Window retired = null;
+                try {
+                    window = current;
+                    if (window.index < index) {
+                        AtomicIntegerArray counts = spare.getAndSet(null);
+                        retired = previous != window ? previous : null;
+                        // Written before the current window, so that readers of the new window see its previous one.
+                        previous = window;
+                        current = window = new Window(index, counts != null ? counts : newTable());
+                    }
+                } finally {
+                    updateLock.unlock();
+                }
+                if (retired != null) {
+                    // The table two windows old is cleared out of the lock and becomes the next spare.
+                    clear(retired.counts);
+                    spare.compareAndSet(null, retired.counts);
+                }
+                return window;
+            }
+            Thread.yield();
+        }
+    }
+
+    private AtomicIntegerArray newTable() {
+        return new AtomicIntegerArray(depth * (widthMask + 1));
+    }
+
+    private static void clear(AtomicIntegerArray counts) {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    private long estimate(Window window, long key) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, window.counts.get(cell(row, key)));
+        }
+        return min;
+    }
+
+    private void add(Window window, long key, int count) {
+        for (int row = 0; row < depth; row++) {
+            window.counts.addAndGet(cell(row, key), count);
+        }
+    }
+
+    private int cell(int row, long key) {
+        long h = (key + row * 0x9E3779B97F4A7C15L) * 0xff51afd7ed558ccdL;
+        h ^= h >>> 32;
+        return row * (widthMask + 1) + ((int)h & widthMask);
+    }
+
+    private static final class Window {
+
+        final long index;
+        final AtomicIntegerArray counts;
+
+        Window(long index, AtomicIntegerArray counts) {
+            this.index = index;
+            this.counts = counts;
+        }
+    }
+}
@@ -17,8 +17,10 @@ package com.alibaba.csp.sentinel.slots.block.flow.param;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -315,6 +317,75 @@ public class ParamFlowDefaultCheckerTest extends AbstractTimeBasedTest {
         assertEquals(threshold, successCount.get());
     }
 
+    @Test
+    public void testParamFlowDefaultCheckWithStateTable() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            final String resourceName = "testParamFlowDefaultCheckWithStateTable";
+            final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+
+            ParamFlowRule rule = new ParamFlowRule(resourceName)
+                .setCount(3)
+                .setParamIdx(0);
+            rule.setParsedHotItems(Collections.<Object, Integer>singletonMap(7L, 1));
+
+            ParameterMetric metric = new ParameterMetric();
+            ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+            metric.initialize(rule);
+            setCurrentMillis(mocked, System.currentTimeMillis());
+
+            for (Object value : new Object[] {"valueA", 1L, 2}) {
+                for (int i = 0; i < 3; i++) {
+                    assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, value));
+                }
+                assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, value));
+            }
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, 7L));
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, 7L));
+
+            // Values of common types are kept in the state table only.
+            assertEquals(4, metric.getRuleStateTable(rule).size());
+            assertEquals(0, metric.getRuleStampedTokenCounter(rule).size());
+
+            sleep(mocked, 1500);
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "valueA"));
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, 7L));
+        }
+    }
+
+    @Test
+    public void testParamFlowApproximateCheck() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            final String resourceName = "testParamFlowApproximateCheck";
+            final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+
+            ParamFlowRule rule = new ParamFlowRule(resourceName)
+                .setCount(3)
+                .setBurstCount(1)
+                .setParamIdx(0)
+                .setApproximate(true);
+            rule.setParsedHotItems(Collections.<Object, Integer>singletonMap("hot", 1));
+
+            ParameterMetric metric = new ParameterMetric();
+            ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+            metric.initialize(rule);
+            setCurrentMillis(mocked, 10_000);
+
+            for (int i = 0; i < 4; i++) {
+                assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "valueA"));
+            }
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "valueA"));
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 2, "hot"));
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "hot"));
+            // No exact counters are created at all.
+            assertNull(metric.getRuleStateTable(rule));
+            assertNull(metric.getRuleStampedTokenCounter(rule));
+            assertNull(metric.getRuleTimeCounter(rule));
+
+            sleep(mocked, 2000);
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "valueA"));
+        }
+    }
+
     @Before
     public void setUp() throws Exception {
         ParameterMetricStorage.getMetricsMap().clear();
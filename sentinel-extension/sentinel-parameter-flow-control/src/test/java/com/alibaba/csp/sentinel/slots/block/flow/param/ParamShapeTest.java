@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ParamShape}.
+ */
+public class ParamShapeTest {
+
+    private static final ParamShape.Visitor<List<Object>> COLLECT = new ParamShape.Visitor<List<Object>>() {
+        @Override
+        public boolean visit(List<Object> values, Object value) {
+            values.add(value);
+            return true;
+        }
+    };
+
+    private static List<Object> valuesOf(Object arg) {
+        ParamShape shape = ParamShape.of(arg);
+        List<Object> values = new ArrayList<>();
+        assertTrue(shape.forEach(arg, COLLECT, values));
+        assertEquals(values.size(), shape.size(arg));
+        return values;
+    }
+
+    @Test
+    public void testVisitValuesOfEveryShape() {
+        assertEquals(Collections.<Object>singletonList("a"), valuesOf("a"));
+        assertEquals(Arrays.<Object>asList("a", "b"), valuesOf(Arrays.asList("a", "b")));
+        assertEquals(Arrays.<Object>asList("a", "b"), valuesOf(new LinkedList<>(Arrays.asList("a", "b"))));
+        assertEquals(Arrays.<Object>asList("a", "b"), valuesOf(new LinkedHashSet<>(Arrays.asList("a", "b"))));
+        assertEquals(Arrays.<Object>asList("a", null), valuesOf(new Object[] {"a", null}));
+        assertEquals(Arrays.<Object>asList(1L, 2L), valuesOf(new long[] {1, 2}));
+        assertEquals(Arrays.<Object>asList(1, 2), valuesOf(new int[] {1, 2}));
+        assertEquals(Arrays.<Object>asList((short)1), valuesOf(new short[] {1}));
+        assertEquals(Arrays.<Object>asList((byte)1), valuesOf(new byte[] {1}));
+        assertEquals(Arrays.<Object>asList('a'), valuesOf(new char[] {'a'}));
+        assertEquals(Arrays.<Object>asList(true), valuesOf(new boolean[] {true}));
+        assertEquals(Arrays.<Object>asList(1.5d), valuesOf(new double[] {1.5d}));
+        assertEquals(Arrays.<Object>asList(1.5f), valuesOf(new float[] {1.5f}));
+        assertTrue(valuesOf(new int[0]).isEmpty());
+    }
+
+    @Test
+    public void testStopVisiting() {
+        ParamShape.Visitor<List<Object>> untilB = new ParamShape.Visitor<List<Object>>() {
+            @Override
+            public boolean visit(List<Object> values, Object value) {
+                values.add(value);
+                return !"b".equals(value);
+            }
+        };
+        for (Object arg : new Object[] {Arrays.asList("a", "b", "c"), new LinkedList<>(Arrays.asList("a", "b", "c")),
+            new String[] {"a", "b", "c"}}) {
+            List<Object> values = new ArrayList<>();
+            assertFalse(ParamShape.of(arg).forEach(arg, untilB, values));
+            assertEquals(Arrays.<Object>asList("a", "b"), values);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -29,6 +30,7 @@ import org.junit.Test;
 
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
+import com.alibaba.csp.sentinel.slots.statistic.cache.StripedLongStateTable;
 
 /**
  * Test cases for {@link ParameterMetric}.
@@ -76,6 +78,31 @@ public class ParameterMetricTest {
         assertEquals(0, metric.getRuleTokenCounterMap().size());
     }
 
+    @Test
+    public void testStateTableHoldsMoreValuesThanCounterMaps() {
+        ParameterMetric metric = new ParameterMetric();
+        ParamFlowRule rule = new ParamFlowRule("abc")
+            .setParamIdx(0);
+        metric.initialize(rule);
+        StripedLongStateTable stateTable = metric.getRuleStateTable(rule);
+        assertNotNull(stateTable);
+
+        // Well past the capacity of the counter maps (200k).
+        int values = 100_0000;
+        for (long key = 1; key <= values; key++) {
+            assertTrue(stateTable.compareAndSet(key, StripedLongStateTable.ABSENT, key));
+        }
+        // Sets of the table may overflow before it is full, so a few values can be evicted early.
+        int kept = 0;
+        for (long key = 1; key <= values; key++) {
+            if (stateTable.get(key) == key) {
+                kept++;
+            }
+        }
+        assertTrue("kept " + kept, kept > values * 0.99);
+        assertTrue(stateTable.size() > values * 0.99);
+    }
+
     @Test
     public void testAddAndDecreaseThreadCountCommon() {
         testAddAndDecreaseThreadCount(PARAM_TYPE_NORMAL);
@@ -181,6 +208,32 @@ public class ParameterMetricTest {
         assertEquals(0, threadCountMap.size());
     }
 
+    @Test
+    public void testThreadCountOfOtherShapes() {
+        ParamFlowRule rule = new ParamFlowRule("abc").setParamIdx(0);
+        ParameterMetric metric = new ParameterMetric();
+        metric.initialize(rule);
+
+        // Primitive arrays, linked lists (iterated) and parameter arguments.
+        metric.addThreadCount((Object)new int[] {1, 2});
+        metric.addThreadCount(new LinkedList<>(Arrays.asList(1, 3)));
+        metric.addThreadCount(new ParamFlowArgument() {
+            @Override
+            public Object paramFlowKey() {
+                return 1;
+            }
+        });
+        assertEquals(3, metric.getThreadCount(0, 1));
+        assertEquals(1, metric.getThreadCount(0, 2));
+        assertEquals(1, metric.getThreadCount(0, 3));
+
+        metric.decreaseThreadCount((Object)new int[] {1, 2, 4});
+        assertEquals(2, metric.getThreadCount(0, 1));
+        assertEquals(0, metric.getThreadCount(0, 2));
+        // Decreasing absent values leaves nothing behind.
+        assertEquals(2, metric.getThreadCountMap().get(0).size());
+    }
+
     private static final int PARAM_TYPE_NORMAL = 0;
     private static final int PARAM_TYPE_ARRAY = 1;
     private static final int PARAM_TYPE_COLLECTION = 2;
@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link StripedLongStateTable}.
+ */
+public class StripedLongStateTableTest {
+
+    @Test
+    public void testCompareAndSet() {
+        StripedLongStateTable table = new StripedLongStateTable(1000);
+        assertEquals(StripedLongStateTable.ABSENT, table.get(42));
+
+        assertTrue(table.compareAndSet(42, StripedLongStateTable.ABSENT, 1));
+        assertFalse(table.compareAndSet(42, StripedLongStateTable.ABSENT, 2));
+        assertEquals(1, table.get(42));
+        assertTrue(table.compareAndSet(42, 1, 3));
+        assertFalse(table.compareAndSet(42, 1, 4));
+        assertEquals(3, table.get(42));
+        assertEquals(1, table.size());
+
+        // Updating to absent removes the key.
+        assertTrue(table.compareAndSet(42, 3, StripedLongStateTable.ABSENT));
+        assertEquals(StripedLongStateTable.ABSENT, table.get(42));
+        assertEquals(0, table.size());
+
+        assertTrue(table.compareAndSet(-1, StripedLongStateTable.ABSENT, 5));
+        table.clear();
+        assertEquals(StripedLongStateTable.ABSENT, table.get(-1));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testGrowAndBounded() {
+        int capacity = 10000;
+        StripedLongStateTable table = new StripedLongStateTable(capacity);
+        for (long key = 0; key < capacity / 2; key++) {
+            assertTrue(table.compareAndSet(key, StripedLongStateTable.ABSENT, key + 1));
+        }
+        // Kept after the segments grow.
+        int kept = 0;
+        for (long key = 0; key < capacity / 2; key++) {
+            if (table.get(key) == key + 1) {
+                kept++;
+            }
+        }
+        assertTrue(kept > capacity / 2 * 0.95);
+
+        for (long key = 0; key < capacity * 10L; key++) {
+            table.compareAndSet(key, table.get(key), key + 1);
+        }
+        assertTrue(table.size() <= capacity + 64 * 8);
+    }
+
+    @Test
+    public void testRecentlyUsedKeysKept() {
+        StripedLongStateTable table = new StripedLongStateTable(1024);
+        long hotKey = 123456789L;
+        table.compareAndSet(hotKey, StripedLongStateTable.ABSENT, 1);
+        for (long key = 0; key < 100000; key++) {
+            table.compareAndSet(key * 31, StripedLongStateTable.ABSENT, 1);
+            // The hot key keeps being accessed.
+            assertEquals(1, table.get(hotKey));
+        }
+    }
+}
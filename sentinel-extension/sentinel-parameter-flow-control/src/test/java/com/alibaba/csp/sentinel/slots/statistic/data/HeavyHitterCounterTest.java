@@ -0,0 +1,167 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link HeavyHitterCounter}.
+ */
+public class HeavyHitterCounterTest {
+
+    @Test
+    public void testLimitInSlidingWindow() {
+        HeavyHitterCounter counter = new HeavyHitterCounter(1000, 1024, 4, 64);
+        long now = 100_000;
+        for (int i = 0; i < 10; i++) {
+            assertTrue(counter.tryAcquire(1L, 1, 10, now));
+        }
+        assertFalse(counter.tryAcquire(1L, 1, 10, now));
+        // Other keys are not affected.
+        assertTrue(counter.tryAcquire(2L, 5, 10, now));
+
+        // Half of the previous window still counts in the middle of the next window.
+        now += 1500;
+        assertEquals(5, counter.estimate(1L, now));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(counter.tryAcquire(1L, 1, 10, now));
+        }
+        assertFalse(counter.tryAcquire(1L, 1, 10, now));
+
+        now += 2000;
+        assertEquals(0, counter.estimate(1L, now));
+        assertTrue(counter.tryAcquire(1L, 10, 10, now));
+    }
+
+    @Test
+    public void testNoFreshQuotaUnderKeyFlood() {
+        HeavyHitterCounter counter = new HeavyHitterCounter(1000, 8192, 4, 16);
+        long now = 100_000;
+        long hotKey = 42;
+        for (int i = 0; i < 100; i++) {
+            assertTrue(counter.tryAcquire(hotKey, 1, 100, now));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            counter.tryAcquire(random.nextLong(), 1, 100, now);
+        }
+        assertFalse(counter.tryAcquire(hotKey, 1, 100, now));
+        assertTrue(counter.estimate(hotKey, now) >= 100);
+    }
+
+    @Test
+    public void testNeverUnderEstimate() {
+        HeavyHitterCounter counter = new HeavyHitterCounter(1000, 256, 4, 8);
+        long now = 100_000;
+        int[] counts = new int[2000];
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(counts.length);
+            if (counter.tryAcquire(key, 1, Long.MAX_VALUE, now)) {
+                counts[key]++;
+            }
+        }
+        for (int key = 0; key < counts.length; key++) {
+            assertTrue(counter.estimate(key, now) >= counts[key]);
+        }
+    }
+
+    @Test
+    public void testConcurrentAcquisitionsWithinLimit() throws Exception {
+        // Larger than the top-K table, so that the keys keep being promoted and evicted.
+        final int keys = 64;
+        final int limit = 200;
+        final int threads = 8;
+        final HeavyHitterCounter counter = new HeavyHitterCounter(1000, 8192, 4, 1);
+        final long now = 100_000;
+        final AtomicInteger[] passed = new AtomicInteger[keys];
+        for (int key = 0; key < keys; key++) {
+            passed[key] = new AtomicInteger();
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < limit * 2; i++) {
+                        for (int key = 0; key < keys; key++) {
+                            if (counter.tryAcquire(key, 1, limit, now)) {
+                                passed[key].incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (int key = 0; key < keys; key++) {
+            assertTrue("passed " + passed[key].get(), passed[key].get() <= limit);
+            assertTrue(counter.estimate(key, now) >= passed[key].get());
+        }
+    }
+
+    @Test
+    public void testMoveToNextWindows() {
+        HeavyHitterCounter counter = new HeavyHitterCounter(1000, 1024, 4, 1);
+        long now = 100_000;
+        for (int round = 0; round < 10; round++, now += 1000) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(counter.tryAcquire(round, 1, 10, now));
+            }
+            assertFalse(counter.tryAcquire(round, 1, 10, now));
+            if (round > 0) {
+                assertEquals(10, counter.estimate(round - 1, now));
+            }
+            if (round > 1) {
+                // Counts of the windows before the previous one are gone.
+                assertEquals(0, counter.estimate(round - 2, now));
+            }
+        }
+        // Half of the last window still counts in the middle of the next window.
+        assertEquals(5, counter.estimate(9, now + 500));
+    }
+
+    @Test
+    public void testRecycledTablesAreCleared() {
+        HeavyHitterCounter counter = new HeavyHitterCounter(1000, 1024, 4, 1);
+        long now = 100_000;
+        // Two windows apart, so that nothing but a stale recycled table could count.
+        for (int round = 0; round < 10; round++, now += 2000) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(counter.tryAcquire(1, 1, 10, now));
+            }
+            assertFalse(counter.tryAcquire(1, 1, 10, now));
+            // The estimation only reads the sketch, regardless of the top-K table.
+            assertEquals(10, counter.estimate(1, now));
+        }
+    }
+}
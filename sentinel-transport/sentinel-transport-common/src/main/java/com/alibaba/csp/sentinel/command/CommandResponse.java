@@ -80,4 +80,12 @@ public class CommandResponse<R> {
     public Throwable getException() {
         return exception;
     }
+
+    /**
+     * @return whether the result should be streamed to the client (see {@link StreamingResult})
+     * @since 1.8.9
+     */
+    public boolean isStreaming() {
+        return success && result instanceof StreamingResult;
+    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <p>A command result that writes its body to the transport directly, instead of being encoded
+ * into one piece in memory. Transports that support streaming call {@link #writeTo(WritableByteChannel)};
+ * others fall back to {@link #toString()}, so implementations should also render the whole body there.</p>
+ *
+ * @since 1.8.9
+ */
+public interface StreamingResult {
+
+    /**
+     * @return length of the body in bytes if known in advance, otherwise -1
+     */
+    long contentLength();
+
+    /**
+     * Write the whole body (encoded in {@link com.alibaba.csp.sentinel.config.SentinelConfig#charset()})
+     * to the given channel. This is invoked at most once.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if failed to write
+     */
+    void writeTo(WritableByteChannel channel) throws IOException;
+}
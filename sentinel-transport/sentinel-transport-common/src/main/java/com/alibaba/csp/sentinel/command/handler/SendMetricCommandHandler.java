@@ -15,13 +15,21 @@
  */
 package com.alibaba.csp.sentinel.command.handler;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingResult;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
@@ -33,21 +41,26 @@ import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
- * Retrieve and aggregate {@link MetricNode} metrics.
+ * <p>Retrieve and aggregate {@link MetricNode} metrics.</p>
+ *
+ * <p>Note: since 1.8.9 this is a {@code CommandHandler<StreamingResult>} instead of a
+ * {@code CommandHandler<String>}, so that transports write the metrics as they are read. This breaks code that
+ * invokes the handler directly and casts the result to {@code String}; such code should use
+ * {@code String.valueOf(result)}, as {@link StreamingResult#toString()} renders the whole body.</p>
  *
  * @author leyou
  * @author Eric Zhao
  */
 @CommandMapping(name = "metric", desc = "get and aggregate metrics, accept param: "
     + "startTime={startTime}&endTime={endTime}&maxLines={maxLines}&identify={resourceName}")
-public class SendMetricCommandHandler implements CommandHandler<String> {
+public class SendMetricCommandHandler implements CommandHandler<StreamingResult> {
 
     private volatile MetricSearcher searcher;
 
     private final Object lock = new Object();
 
     @Override
-    public CommandResponse<String> handle(CommandRequest request) {
+    public CommandResponse<StreamingResult> handle(CommandRequest request) {
         // Note: not thread-safe.
         if (searcher == null) {
             synchronized (lock) {
@@ -70,7 +83,8 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         if (StringUtil.isNotBlank(startTimeStr)) {
             startTime = Long.parseLong(startTimeStr);
         } else {
-            return CommandResponse.ofSuccess("");
+            return CommandResponse.<StreamingResult>ofSuccess(
+                new ThinMetricLines(Collections.<MetricNode>emptyList()));
         }
         List<MetricNode> list;
         try {
@@ -94,11 +108,8 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         if (StringUtil.isBlank(identity)) {
             addCpuUsageAndLoad(list);
         }
-        StringBuilder sb = new StringBuilder();
-        for (MetricNode node : list) {
-            sb.append(node.toThinString()).append("\n");
-        }
-        return CommandResponse.ofSuccess(sb.toString());
+        // Lines are encoded while being written to the client, instead of being built as one string.
+        return CommandResponse.<StreamingResult>ofSuccess(new ThinMetricLines(list));
     }
 
     /**
@@ -139,4 +150,64 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         node.setResource(resource);
         return node;
     }
+
+    /**
+     * Metric nodes in thin format, one line per node, encoded in small chunks while being written.
+     */
+    static final class ThinMetricLines implements StreamingResult {
+
+        private static final int CHUNK_SIZE = 8 * 1024;
+
+        private final List<MetricNode> nodes;
+
+        ThinMetricLines(List<MetricNode> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public long contentLength() {
+            return nodes.isEmpty() ? 0 : -1;
+        }
+
+        @Override
+        public void writeTo(WritableByteChannel channel) throws IOException {
+            Charset charset = Charset.forName(SentinelConfig.charset());
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+            for (MetricNode node : nodes) {
+                byte[] line = (node.toThinString() + "\n").getBytes(charset);
+                if (line.length > buffer.remaining()) {
+                    flush(buffer, channel);
+                }
+                if (line.length > buffer.remaining()) {
+                    writeFully(ByteBuffer.wrap(line), channel);
+                } else {
+                    buffer.put(line);
+                }
+            }
+            flush(buffer, channel);
+        }
+
+        private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+            buffer.flip();
+            writeFully(buffer, channel);
+            buffer.clear();
+        }
+
+        private static void writeFully(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public String toString() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                writeTo(Channels.newChannel(out));
+                return new String(out.toByteArray(), SentinelConfig.charset());
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
 }
@@ -15,7 +15,14 @@
  */
 package com.alibaba.csp.sentinel.transport.util;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.GZIPOutputStream;
+
 import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.StreamingResult;
 
 /**
  * Util class for HTTP command center.
@@ -25,6 +32,11 @@ import com.alibaba.csp.sentinel.command.CommandRequest;
 public final class HttpCommandUtils {
 
     public static final String REQUEST_TARGET = "command-target";
+    /**
+     * Metadata key of the {@code Accept-Encoding} header of the request.
+     */
+    public static final String ACCEPT_ENCODING = "accept-encoding";
+    public static final String GZIP = "gzip";
 
     public static String getTarget(CommandRequest request) {
         if (request == null) {
@@ -33,5 +45,37 @@ public final class HttpCommandUtils {
         return request.getMetadata().get(REQUEST_TARGET);
     }
 
+    /**
+     * @param request the command request
+     * @return whether the client accepts gzip content-encoding
+     * @since 1.8.9
+     */
+    public static boolean acceptsGzip(CommandRequest request) {
+        String acceptEncoding = request.getMetadata().get(ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP);
+    }
+
+    /**
+     * Write the streaming result to the channel, compressed with gzip if required.
+     *
+     * @param result  the streaming result
+     * @param channel the channel to write to
+     * @param gzip    whether to compress with gzip
+     * @throws IOException if failed to write
+     * @since 1.8.9
+     */
+    public static void writeStreamingResult(StreamingResult result, WritableByteChannel channel, boolean gzip)
+        throws IOException {
+        if (!gzip) {
+            result.writeTo(channel);
+            return;
+        }
+        OutputStream out = new GZIPOutputStream(Channels.newOutputStream(channel), 8192);
+        result.writeTo(Channels.newChannel(out));
+        // Write the trailer without closing the underlying channel.
+        ((GZIPOutputStream)out).finish();
+        out.flush();
+    }
+
     private HttpCommandUtils() {}
 }
@@ -16,14 +16,22 @@
 package com.alibaba.csp.sentinel.transport.command.netty;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingResult;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
 import com.alibaba.csp.sentinel.transport.command.codec.CodecRegistry;
@@ -31,19 +39,25 @@ import com.alibaba.csp.sentinel.transport.command.codec.Encoder;
 import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.QueryStringDecoder;
 import io.netty.handler.codec.http.multipart.HttpData;
 import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
@@ -63,6 +77,15 @@ import static io.netty.handler.codec.http.HttpResponseStatus.OK;
  */
 public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
 
+    /**
+     * Writes streaming results off the event loop, as the writer waits while the channel is not writable.
+     */
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ExecutorService STREAMING_EXECUTOR = Executors.newFixedThreadPool(2,
+        new NamedThreadFactory("sentinel-command-streaming-task", true));
+
+    private static final long STREAMING_WRITE_TIMEOUT_MS = 10000;
+
     private final CodecRegistry codecRegistry = new CodecRegistry();
 
     @Override
@@ -94,6 +117,11 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         CommandHandler<?> commandHandler = getHandler(commandName);
         if (commandHandler != null) {
             CommandResponse<?> response = commandHandler.handle(request);
+            if (response.isStreaming()) {
+                writeStreamingResponse((StreamingResult)response.getResult(), ctx,
+                    HttpCommandUtils.acceptsGzip(request));
+                return;
+            }
             writeResponse(response, ctx, keepAlive);
         } else {
             // No matching command handler.
@@ -165,6 +193,84 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
     }
 
+    /**
+     * Write the result in chunks while it is being encoded (compressed with gzip if accepted by the client),
+     * so the whole body is never held in memory. Chunks are written only while the channel is writable.
+     */
+    private void writeStreamingResponse(final StreamingResult result, final ChannelHandlerContext ctx,
+                                        final boolean gzip) {
+        HttpResponse httpResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, OK);
+        httpResponse.headers().set("Content-Type", "text/plain; charset=" + SentinelConfig.charset());
+        httpResponse.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+        long contentLength = result.contentLength();
+        if (gzip) {
+            httpResponse.headers().set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.GZIP);
+            HttpUtil.setTransferEncodingChunked(httpResponse, true);
+        } else if (contentLength >= 0) {
+            HttpUtil.setContentLength(httpResponse, contentLength);
+        } else {
+            HttpUtil.setTransferEncodingChunked(httpResponse, true);
+        }
+        ctx.writeAndFlush(httpResponse);
+
+        STREAMING_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    HttpCommandUtils.writeStreamingResult(result, new ChunkWritableChannel(ctx), gzip);
+                    ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(ChannelFutureListener.CLOSE);
+                } catch (Throwable ex) {
+                    CommandCenterLog.warn("Failed to write the streaming result", ex);
+                    ctx.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes each buffer as a chunk, and waits for it to be flushed once the outbound buffer of the channel
+     * exceeds its high water mark.
+     */
+    private static final class ChunkWritableChannel implements WritableByteChannel {
+
+        private final ChannelHandlerContext ctx;
+
+        ChunkWritableChannel(ChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!ctx.channel().isActive()) {
+                throw new ClosedChannelException();
+            }
+            int length = src.remaining();
+            if (length == 0) {
+                return 0;
+            }
+            ByteBuf chunk = ctx.alloc().buffer(length);
+            chunk.writeBytes(src);
+            ChannelFuture future = ctx.writeAndFlush(new DefaultHttpContent(chunk));
+            if (!ctx.channel().isWritable()
+                && !future.awaitUninterruptibly(STREAMING_WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timed out writing the streaming result");
+            }
+            if (future.isDone() && !future.isSuccess()) {
+                throw new IOException("Failed to write the streaming result", future.cause());
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return ctx.channel().isOpen();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
     private CommandRequest parseRequest(FullHttpRequest request) {
         QueryStringDecoder queryStringDecoder = new QueryStringDecoder(request.uri());
         CommandRequest serverRequest = new CommandRequest();
@@ -206,6 +312,10 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         // Parse command name.
         String target = parseTarget(queryStringDecoder.rawPath());
         serverRequest.addMetadata(HttpCommandUtils.REQUEST_TARGET, target);
+        String acceptEncoding = request.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
+        if (acceptEncoding != null) {
+            serverRequest.addMetadata(HttpCommandUtils.ACCEPT_ENCODING, acceptEncoding);
+        }
         // Parse body.
         if (request.content().readableBytes() <= 0) {
             serverRequest.setBody(null);
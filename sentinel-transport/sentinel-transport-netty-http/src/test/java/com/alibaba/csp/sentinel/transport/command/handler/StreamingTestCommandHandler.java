@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.handler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingResult;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+
+/**
+ * A test handler which streams {@link #LINES} lines of "line-{i}".
+ */
+@CommandMapping(name = "streamingTest", desc = "a test handler with streaming result")
+public class StreamingTestCommandHandler implements CommandHandler<StreamingResult> {
+
+    public static final int LINES = 2000;
+
+    public static String expectedBody() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            sb.append("line-").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public CommandResponse<StreamingResult> handle(CommandRequest request) {
+        return CommandResponse.<StreamingResult>ofSuccess(new StreamingResult() {
+            @Override
+            public long contentLength() {
+                return -1;
+            }
+
+            @Override
+            public void writeTo(WritableByteChannel channel) throws IOException {
+                for (int i = 0; i < LINES; i++) {
+                    channel.write(ByteBuffer.wrap(("line-" + i + "\n").getBytes(Charset.forName("UTF-8"))));
+                }
+            }
+
+            @Override
+            public String toString() {
+                return expectedBody();
+            }
+        });
+    }
+}
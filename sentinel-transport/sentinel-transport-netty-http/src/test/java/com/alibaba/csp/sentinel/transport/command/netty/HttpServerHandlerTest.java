@@ -24,6 +24,7 @@ import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.transport.CommandCenter;
 import com.alibaba.csp.sentinel.transport.command.NettyHttpCommandCenter;
 import com.alibaba.csp.sentinel.transport.command.handler.MultipleSlashNameCommandTestHandler;
+import com.alibaba.csp.sentinel.transport.command.handler.StreamingTestCommandHandler;
 import com.alibaba.fastjson.JSON;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -43,6 +44,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * Test cases for {@link HttpServerHandler}.
@@ -189,6 +191,71 @@ public class HttpServerHandlerTest {
         processSuccess(httpRequestStr, expectedBody);
     }
 
+    /**
+     * {@link StreamingTestCommandHandler}
+     */
+    @Test
+    public void testStreamingCommand() throws Exception {
+        String httpRequestStr = "GET /streamingTest HTTP/1.1" + CRLF
+                + "Host: localhost:8719" + CRLF
+                + CRLF;
+        FullHttpResponse response = processStreamingResponse(httpRequestStr);
+
+        assertEquals(OK, response.status());
+        assertFalse(response.headers().contains(HttpHeaderNames.CONTENT_ENCODING));
+        assertEquals(StreamingTestCommandHandler.expectedBody(), response.content().toString(SENTINEL_CHARSET));
+        response.release();
+    }
+
+    @Test
+    public void testStreamingCommandWithGzip() throws Exception {
+        String httpRequestStr = "GET /streamingTest HTTP/1.1" + CRLF
+                + "Host: localhost:8719" + CRLF
+                + "Accept-Encoding: gzip, deflate" + CRLF
+                + CRLF;
+        FullHttpResponse response = processStreamingResponse(httpRequestStr);
+
+        assertEquals(OK, response.status());
+        assertEquals(StreamingTestCommandHandler.expectedBody(), response.content().toString(SENTINEL_CHARSET));
+        response.release();
+    }
+
+    /**
+     * {@link com.alibaba.csp.sentinel.command.handler.SendMetricCommandHandler}
+     */
+    @Test
+    public void testMetricCommandWithoutStartTime() throws Exception {
+        String httpRequestStr = "GET /metric HTTP/1.1" + CRLF
+                + "Host: localhost:8719" + CRLF
+                + CRLF;
+        FullHttpResponse response = processStreamingResponse(httpRequestStr);
+
+        assertEquals(OK, response.status());
+        assertEquals(0, HttpUtil.getContentLength(response));
+        assertEquals(0, response.content().readableBytes());
+        response.release();
+    }
+
+    /**
+     * Decode (and decompress) the response like an HTTP client.
+     */
+    private FullHttpResponse processStreamingResponse(String httpRequestStr) throws InterruptedException {
+        embeddedChannel.writeInbound(Unpooled.wrappedBuffer(httpRequestStr.getBytes(SENTINEL_CHARSET)));
+        EmbeddedChannel client = new EmbeddedChannel(new HttpResponseDecoder(), new HttpContentDecompressor(),
+                new HttpObjectAggregator(1024 * 1024));
+        // The body is written in background, until the channel is closed.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (embeddedChannel.isOpen() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Object msg;
+        while ((msg = embeddedChannel.readOutbound()) != null) {
+            client.writeInbound(msg);
+        }
+        client.finish();
+        return client.readInbound();
+    }
+
     private void processError(String httpRequestStr, String expectedBody) {
         processError(httpRequestStr, BAD_REQUEST, expectedBody);
     }
@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.transport.command.http;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingResult;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
 import com.alibaba.csp.sentinel.transport.command.SimpleHttpCommandCenter;
@@ -36,6 +37,7 @@ import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.Socket;
 import java.net.URLDecoder;
+import java.nio.channels.Channels;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
@@ -84,11 +86,7 @@ public class HttpEventTask implements Runnable {
             CommandCenterLog.info("[SimpleHttpCommandCenter] Socket income: " + firstLine
                 + ", addr: " + socket.getInetAddress());
             CommandRequest request = processQueryString(firstLine);
-
-            if (firstLine.length() > 4 && StringUtil.equalsIgnoreCase("POST", firstLine.substring(0, 4))) {
-                // Deal with post method
-                processPostRequest(inputStream, request);
-            }
+            processRequest(firstLine, inputStream, request);
 
             // Validate the target command.
             String commandName = HttpCommandUtils.getTarget(request);
@@ -101,7 +99,12 @@ public class HttpEventTask implements Runnable {
             CommandHandler<?> commandHandler = SimpleHttpCommandCenter.getHandler(commandName);
             if (commandHandler != null) {
                 CommandResponse<?> response = commandHandler.handle(request);
-                handleResponse(response, printWriter);
+                if (response.isStreaming()) {
+                    handleStreamingResponse((StreamingResult)response.getResult(), printWriter, outputStream,
+                        HttpCommandUtils.acceptsGzip(request));
+                } else {
+                    handleResponse(response, printWriter);
+                }
             } else {
                 // No matching command handler.
                 writeResponse(printWriter, StatusCode.BAD_REQUEST, "Unknown command `" + commandName + '`');
@@ -155,6 +158,27 @@ public class HttpEventTask implements Runnable {
         return new String(arr, SentinelConfig.charset());
     }
 
+    /**
+     * Read the rest of the request after the first line: the headers up to the blank line,
+     * and the body of POST requests.
+     *
+     * @param firstLine the first line of the request
+     * @param in        the input stream of the request
+     * @param request   the command request to fill
+     * @throws RequestException if the POST request is illegal
+     * @throws IOException      if failed to read
+     * @since 1.8.9
+     */
+    protected static void processRequest(String firstLine, InputStream in, CommandRequest request)
+        throws RequestException, IOException {
+        if (firstLine.length() > 4 && StringUtil.equalsIgnoreCase("POST", firstLine.substring(0, 4))) {
+            // Deal with post method
+            processPostRequest(in, request);
+        } else {
+            processHeaders(parsePostHeaders(in), request);
+        }
+    }
+
     /**
      * Try to process the body of POST request additionally.
      *
@@ -172,6 +196,7 @@ public class HttpEventTask implements Runnable {
             CommandCenterLog.warn("Illegal request read: null headerMap");
             throw new RequestException(StatusCode.BAD_REQUEST, "");
         }
+        processHeaders(headerMap, request);
 
         if (headerMap.containsKey("content-type") && !checkContentTypeSupported(headerMap.get("content-type"))) {
             // not supported Content-type
@@ -223,6 +248,13 @@ public class HttpEventTask implements Runnable {
         }
     }
 
+    private static void processHeaders(Map<String, String> headerMap, CommandRequest request) {
+        String acceptEncoding = headerMap.get(HttpCommandUtils.ACCEPT_ENCODING);
+        if (acceptEncoding != null) {
+            request.addMetadata(HttpCommandUtils.ACCEPT_ENCODING, acceptEncoding);
+        }
+    }
+
     private static boolean checkContentTypeSupported(String contentType) {
         int idx = contentType.indexOf(";");
         String type;
@@ -320,6 +352,29 @@ public class HttpEventTask implements Runnable {
         }
     }
 
+    /**
+     * Write the result to the socket while it is being encoded (compressed with gzip if accepted by the client),
+     * so the whole body is never held in memory. The body ends when the connection is closed if the length is
+     * unknown in advance.
+     */
+    private void handleStreamingResponse(StreamingResult result, PrintWriter printWriter, OutputStream outputStream,
+                                         boolean gzip) throws Exception {
+        long contentLength = result.contentLength();
+        StringBuilder head = new StringBuilder("HTTP/1.0 ").append(StatusCode.OK.toString()).append("\r\n");
+        if (gzip) {
+            head.append("Content-Encoding: gzip\r\n");
+        } else if (contentLength >= 0) {
+            head.append("Content-Length: ").append(contentLength).append("\r\n");
+        }
+        head.append("Connection: close\r\n\r\n");
+        printWriter.print(head);
+        printWriter.flush();
+        writtenHead = true;
+
+        HttpCommandUtils.writeStreamingResult(result, Channels.newChannel(outputStream), gzip);
+        outputStream.flush();
+    }
+
     private void writeResponse(PrintWriter out, StatusCode statusCode, String message) {
         out.print("HTTP/1.0 " + statusCode.toString() + "\r\n"
             + "Content-Length: " + (message == null ? 0 : message.getBytes().length) + "\r\n"
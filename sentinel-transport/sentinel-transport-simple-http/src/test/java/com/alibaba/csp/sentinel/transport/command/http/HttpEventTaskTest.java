@@ -24,6 +24,8 @@ import static org.junit.Assert.assertTrue;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.StringReader;
 import java.util.Arrays;
 import java.util.Map;
@@ -32,6 +34,7 @@ import org.junit.Test;
 
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.transport.command.exception.RequestException;
+import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
 
 public class HttpEventTaskTest {
     
@@ -154,6 +157,31 @@ public class HttpEventTaskTest {
         assertEquals("utf-8", map.get("content-encoding"));
     }
     
+    @Test
+    public void processRequestHeadersNotReceivedYet() throws Exception {
+        final PipedOutputStream out = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(out);
+        Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                    out.write("Accept-Encoding: gzip\r\n\r\n".getBytes());
+                    out.flush();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        sender.start();
+
+        String firstLine = "GET /metric HTTP/1.1";
+        CommandRequest request = HttpEventTask.processQueryString(firstLine);
+        HttpEventTask.processRequest(firstLine, in, request);
+        sender.join();
+        assertEquals("gzip", request.getMetadata().get(HttpCommandUtils.ACCEPT_ENCODING));
+    }
+
     @Test
     public void processPostRequest() throws IOException {
         CommandRequest request;